@@ -87,6 +87,34 @@ public class StrUtil
 		return false;
 		}
 
+	/**
+	 * Compares a character sequence to a string, ignoring case, without converting
+	 * the sequence to a string.
+	 *
+	 * @param str
+	 * 	Character sequence to test.
+	 * @param strOther
+	 * 	String to compare to.
+	 *
+	 * @return <c>true</c> if equal, ignoring case; <c>false</c> otherwise.
+	 */
+	public static boolean equalsIgnoreCase( final CharSequence str, final String strOther )
+		{
+		if (str == null || strOther == null) return (str == strOther);
+		if (str.length() != strOther.length()) return false;
+		//	-----------------------------------------------------------------
+		for ( int idx = 0; idx < str.length(); ++idx )
+			{
+			final char ch1 = str.charAt( idx );
+			final char ch2 = strOther.charAt( idx );
+
+			if (ch1 != ch2 && Character.toUpperCase( ch1 ) != Character.toUpperCase( ch2 ))
+				return false;
+			}
+
+		return true;
+		}
+
 	/**
 	 * Tests a string to see if it is blank, empty, or null.
 	 *
@@ -96,13 +124,13 @@ public class StrUtil
 	 * @return <c>true</c> if null, empty, or consists of only whitepace; <c>false</c>
 	 * otherwise.
 	 */
-	public static boolean isBlank( final String str )
+	public static boolean isBlank( final CharSequence str )
 		{
 		if (str == null) return true;
 		//	-----------------------------------------------------------------
 		for ( int idx = 0; idx < str.length(); ++idx )
 			{
-			final int ch = str.codePointAt( idx );
+			final int ch = Character.codePointAt( str, idx );
 
 			if (!Character.isWhitespace( ch )) return false;
 
@@ -257,6 +257,26 @@ public class Board
 		return (move != null && move.hashBefore == getZobristHash());
 		}
 
+	/**
+	 * Tests a packed move for legality against the current position.
+	 *
+	 * Unlike {@link #isLegalMove(Move)}, this has to generate the legal moves between
+	 * the two squares, since a packed move carries no record of the position it was
+	 * created for.  They are generated into a per-thread buffer, so nothing is
+	 * allocated.
+	 *
+	 * @param iPacked
+	 * 	Packed move to test.
+	 *
+	 * @return <code>.T.</code> if move is legal; <code>.F.</code> otherwise.
+	 */
+	public boolean isLegalMove( final int iPacked )
+		{
+		if ((iPacked & ~Move.MASK_ALL) != 0) return false;
+		//	-----------------------------------------------------------------
+		return MoveGenerator.isLegalMove( this, iPacked );
+		}
+
 	/**
 	 * Makes a move on the board.
 	 *
@@ -273,6 +293,43 @@ public class Board
 		return this;
 		}
 
+	/**
+	 * Makes a packed move on the board.
+	 *
+	 * @param iPacked
+	 * 	Packed move to make.
+	 *
+	 * @return this
+	 */
+	public Board makeMove( int iPacked )
+		{
+		if (!isLegalMove( iPacked )) throw new IllegalMoveException( this, iPacked );
+		//	-----------------------------------------------------------------
+		applyMove( Move.unpackFromSq( iPacked ), Move.unpackToSq( iPacked ), Move.unpackType( iPacked ) );
+		return this;
+		}
+
+	/**
+	 * Makes a packed move that is already known to be legal in the position with a
+	 * given hash, such as a move from a {@link MoveSequence}.  As with
+	 * {@link #makeMove(Move)}, the hash stands in for a legality test, so no moves are
+	 * generated.
+	 *
+	 * @param iPacked
+	 * 	Packed move to make.
+	 * @param hashBefore
+	 * 	Zobrist hash of the position the move was validated for.
+	 *
+	 * @return this
+	 */
+	public Board makeMove( int iPacked, long hashBefore )
+		{
+		if (hashBefore != getZobristHash()) throw new IllegalMoveException( this, iPacked );
+		//	-----------------------------------------------------------------
+		applyMove( Move.unpackFromSq( iPacked ), Move.unpackToSq( iPacked ), Move.unpackType( iPacked ) );
+		return this;
+		}
+
 	//  -----------------------------------------------------------------------
 	//	PUBLIC GETTERS & SETTERS
 	//	-----------------------------------------------------------------------
@@ -627,6 +684,31 @@ public class Board
 		return (_hashExtra ^ _hashPawns ^ _hashPieces);
 		}
 
+	/**
+	 * Gets the Polyglot opening book key for the current position.
+	 *
+	 * Polyglot only includes the e.p. file when a pawn of the moving player could
+	 * actually make the capture.
+	 *
+	 * @return 64-bit Polyglot key.
+	 */
+	public long getPolyglotKey()
+		{
+		int iSqEP = INVALID;
+
+		if (_iSqEP != INVALID)
+			{
+			long bbAttackers = (_player == WHITE)
+							   ? (Bitboards.pawnDownwards[ _iSqEP ] & map[ MAP_W_PAWN ])
+							   : (Bitboards.pawnUpwards[ _iSqEP ] & map[ MAP_B_PAWN ]);
+
+			if (bbAttackers != 0L)
+				iSqEP = _iSqEP;
+			}
+
+		return _hashPawns ^ _hashPieces ^ ZobristHash.getPolyglotExtraHash( _castling, iSqEP, _player );
+		}
+
 
 	/**
 	 * Determines if the moving player is currently in check.
@@ -699,7 +781,7 @@ public class Board
 	 * @param iType
 	 * 	Move.Type.*
 	 */
-	private void applyMove( int iSqFrom, int iSqTo, int iType )
+	void applyMove( int iSqFrom, int iSqTo, int iType )
 		{
 		if (_sq[ iSqTo ] != EMPTY)
 			{
@@ -33,6 +33,7 @@
 package net.humbleprogrammer.maxx;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,13 +56,56 @@ public class Evaluator
 
 	/** Piece Value Table */
 	private static final   int[]  s_pieceValue = { 0, 100, 325, 325, 500, 900, 0 };
+	/** Centralization (0..3) for each square. */
+	private static final   int[]  s_center     = new int[ 64 ];
 	/** Logger */
 	protected static final Logger s_log        = LoggerFactory.getLogger( Evaluator.class );
 
+	static
+		{
+		for ( int iSq = 0; iSq < 64; ++iSq )
+			{
+			int iDist = Math.max( Math.abs( 2 * Square.getFile( iSq ) - 7 ),
+								  Math.abs( 2 * Square.getRank( iSq ) - 7 ) );
+
+			s_center[ iSq ] = 3 - (iDist / 2);
+			}
+		}
+
 	//  -----------------------------------------------------------------------
 	//	PUBLIC METHODS
 	//	-----------------------------------------------------------------------
 
+	/**
+	 * Evaluates a position, from the perspective of the moving player.
+	 *
+	 * This is the material score plus small bonuses for centralized pieces and
+	 * advanced pawns, which is enough to give the search a sense of direction.
+	 *
+	 * @param bd
+	 * 	Position to evaluate.
+	 *
+	 * @return Score, in centipawns.
+	 */
+	public static int evaluate( Board bd )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		//	-----------------------------------------------------------------
+		int iPosition = 0;
+
+		for ( long bb = bd.map[ MAP_W_PAWN ]; bb != 0L; bb &= (bb - 1) )
+			iPosition += (Square.getRank( BitUtil.first( bb ) ) - 1) * 4;
+		for ( long bb = bd.map[ MAP_B_PAWN ]; bb != 0L; bb &= (bb - 1) )
+			iPosition -= (6 - Square.getRank( BitUtil.first( bb ) )) * 4;
+
+		iPosition += getCenterBonus( bd.map[ MAP_W_KNIGHT ], 6 ) - getCenterBonus( bd.map[ MAP_B_KNIGHT ], 6 );
+		iPosition += getCenterBonus( bd.map[ MAP_W_BISHOP ], 4 ) - getCenterBonus( bd.map[ MAP_B_BISHOP ], 4 );
+		iPosition += getCenterBonus( bd.map[ MAP_W_QUEEN ], 2 ) - getCenterBonus( bd.map[ MAP_B_QUEEN ], 2 );
+
+		return clampScore( getMaterialScore( bd ) +
+						   ((bd.getMovingPlayer() == WHITE) ? iPosition : -iPosition) );
+		}
+
 	/**
 	 * Returns the material score, from the perspective of the moving player.
 	 *
@@ -158,11 +202,38 @@ public class Evaluator
 	 * @return List of variations.
 	 */
 	public static List<PV> findMateIn( final Board bd, int iMaxMoves, boolean bExactDepth )
+		{
+		return findMateIn( bd, iMaxMoves, bExactDepth, null );
+		}
+
+	/**
+	 * Find all "Mate in X" moves.  This is safe to call from several threads at once.
+	 *
+	 * @param bd
+	 * 	Position to analyze
+	 * @param iMaxMoves
+	 * 	Maximum number of moves, which must be .GT. zero.
+	 * @param bExactDepth
+	 * 	.T. for exact depth only, .F. for shorter mates.
+	 * @param stats
+	 * 	Receives the statistics for this search, which are added to any already there;
+	 * 	may be <code>null</code>.
+	 *
+	 * @return List of variations.
+	 */
+	public static List<PV> findMateIn( final Board bd, int iMaxMoves, boolean bExactDepth, SearchStats stats )
 		{
 		final int iPlies = (iMaxMoves * 2) - 1;
 
-		return (bd != null && iPlies > 0) ? new MateSearch().search( bd, iPlies, bExactDepth )
-										  : new ArrayList<PV>();
+		if (bd == null || iPlies <= 0) return new ArrayList<>();
+		//	-----------------------------------------------------------------
+		final MateSearch search = new MateSearch();
+		final List<PV> solutions = search.search( bd, iPlies, bExactDepth );
+
+		if (stats != null)
+			stats.add( search.getStats() );
+
+		return solutions;
 		}
 
 	/**
@@ -215,35 +286,66 @@ public class Evaluator
 	/**
 	 * Gets the total node count.
 	 *
-	 * @return Node count.
+	 * @return Node count, summed over all threads.
+	 *
+	 * @deprecated Use {@link #findMateIn(Board, int, boolean, SearchStats)}, which
+	 * reports the statistics of each search separately.
 	 */
+	@Deprecated
 	public static long getNodeCount()
 		{
-		return MateSearch.s_nodes;
+		return MateSearch.s_nodes.get();
 		}
 
 	/**
 	 * Gets the "Nodes per Second" rate.
 	 *
 	 * @return NPS
+	 *
+	 * @deprecated Use {@link SearchStats#getNPS()}.
 	 */
+	@Deprecated
 	public static long getNPS()
 		{
-		return (MateSearch.s_elapsedMSecs > 0)
-			   ? ((1000L * MateSearch.s_nodes) / MateSearch.s_elapsedMSecs)
-			   : 0L;
+		return new SearchStats( MateSearch.s_nodes.get(), MateSearch.s_elapsedMSecs.get() ).getNPS();
 		}
 
 	/**
 	 * Resets the node statistics.
+	 *
+	 * @deprecated Use {@link SearchStats#reset()}.
 	 */
+	@Deprecated
 	@SuppressWarnings( "unused" )
 	public static void resetNPS()
-		{ MateSearch.s_elapsedMSecs = MateSearch.s_nodes = 0L; }
+		{
+		MateSearch.s_nodes.set( 0L );
+		MateSearch.s_elapsedMSecs.set( 0L );
+		}
 	//  -----------------------------------------------------------------------
 	//	IMPLEMENTATION
 	//	-----------------------------------------------------------------------
 
+	/**
+	 * Sums the centralization of a set of pieces.
+	 *
+	 * @param bbPieces
+	 * 	Bitboard of pieces.
+	 * @param iWeight
+	 * 	Bonus per step toward the center.
+	 *
+	 * @return Bonus, in centipawns.
+	 */
+	private static int getCenterBonus( long bbPieces, int iWeight )
+		{
+		int iBonus = 0;
+
+		for ( long bb = bbPieces; bb != 0L; bb &= (bb - 1) )
+			iBonus += s_center[ BitUtil.first( bb ) ];
+
+		return iBonus * iWeight;
+		}
+
 	/**
 	 * Force a score to the allowable range.
 	 *
@@ -266,15 +368,27 @@ public class Evaluator
 
 	private static class MateSearch implements IMoveScorer
 		{
-		/** Total count of nodes visited */
-		static long s_nodes;
-		/** Elapsed milliseconds */
-		static long s_elapsedMSecs;
+		/** Total count of nodes visited by all searches; only kept for {@link #getNodeCount()}. */
+		static final AtomicLong s_nodes        = new AtomicLong();
+		/** Total elapsed milliseconds of all searches; only kept for {@link #getNPS()}. */
+		static final AtomicLong s_elapsedMSecs = new AtomicLong();
 
 		/** Maximum search depth, in plies. */
 		private int  _iMaxDepth;
 		/** Pre-allocated array of lines. */
 		private PV[] _pv;
+		/** Count of nodes visited by this search. */
+		private long _lNodes;
+		/** Elapsed milliseconds of this search. */
+		private long _lElapsedMSecs;
+
+		/**
+		 * Gets the statistics for this search.
+		 *
+		 * @return Search statistics.
+		 */
+		SearchStats getStats()
+			{ return new SearchStats( _lNodes, _lElapsedMSecs ); }
 
 		/**
 		 * Root of the mate search.
@@ -329,7 +443,10 @@ public class Evaluator
 				}
 
 			swatch.stop();
-			s_elapsedMSecs += swatch.getElapsedMillisecs();
+			_lElapsedMSecs = swatch.getElapsedMillisecs();
+
+			s_nodes.addAndGet( _lNodes );
+			s_elapsedMSecs.addAndGet( _lElapsedMSecs );
 
 			return solutions;
 			}
@@ -357,7 +474,7 @@ public class Evaluator
 			final int iDeeper = iDepth + 1;
 			final int scoreMate = MAX_SCORE - iDepth;
 
-			s_nodes++;
+			_lNodes++;
 			_pv[ iDepth ].clear();
 			//
 			//	If this is a leaf node, the only thing we care about is whether or not the
@@ -370,6 +487,17 @@ public class Evaluator
 			if (iBeta > scoreMate) iBeta = scoreMate;
 			if (iAlpha >= iBeta) return iBeta;
 			//
+			//	The endgame tables know the exact distance to mate, so the line can
+			//	be read from them instead of searched.
+			//
+			if (Long.bitCount( bd.map[ MAP_W_ALL ] | bd.map[ MAP_B_ALL ] ) <= Tablebase.getMaxPieces())
+				{
+				int iScore = Tablebase.probe( bd );
+
+				if (iScore != Tablebase.UNKNOWN)
+					return probeTablebase( bd, iDepth, iScore );
+				}
+			//
 			//	Now try the moves.
 			//
 			boolean bMadeMove = false;
@@ -409,6 +537,36 @@ public class Evaluator
 				   : (bd.isInCheck() ? -scoreMate : 0);
 			}
 
+		/**
+		 * Converts a tablebase score to a mate search score.
+		 *
+		 * @param bd
+		 * 	Position that was probed.
+		 * @param iDepth
+		 * 	Current depth.
+		 * @param iScore
+		 * 	Tablebase score, relative to the position.
+		 *
+		 * @return Score, which is zero unless the mate is within the maximum depth.
+		 */
+		private int probeTablebase( final Board bd, int iDepth, int iScore )
+			{
+			if (iScore == 0) return 0;
+			//	-------------------------------------------------------------
+			final int iPlies = MAX_SCORE - Math.abs( iScore );
+
+			if (iDepth + iPlies >= _iMaxDepth) return 0;
+
+			PV pv = Tablebase.getLine( bd, iPlies );
+
+			if (pv.size() != iPlies) return 0;
+
+			_pv[ iDepth ].clear();
+			_pv[ iDepth ].addAll( pv );
+
+			return (iScore > 0) ? MAX_SCORE - (iDepth + iPlies) : -(MAX_SCORE - (iDepth + iPlies));
+			}
+
 		@Override
 		public int scoreMove( final Board bd, Move move )
 			{
@@ -43,8 +43,8 @@ public class Game
     //	DECLARATIONS
     //	-----------------------------------------------------------------------
 
-    /** Map of PGN tags. */
-    private final Map<String, String> _tags = new HashMap<>();
+    /** Map of PGN tags, in the order they were added. */
+    private final Map<String, String> _tags = new LinkedHashMap<>();
     /** Main line. */
     private final Variation           _pv   = new Variation();
 
@@ -67,6 +67,14 @@ public class Game
     //	PUBLIC GETTERS & SETTERS
     //	-----------------------------------------------------------------------
 
+    /**
+     * Gets the main line.
+     *
+     * @return Main line, which can be modified in place.
+     */
+    public Variation getMainLine()
+        { return _pv; }
+
     /**
      * Gets the current position.
      *
@@ -111,6 +119,14 @@ public class Game
     public Set<String> getTagNames()
         { return Collections.unmodifiableSet( _tags.keySet() ); }
 
+    /**
+     * Gets all the tags.
+     *
+     * @return Read-only map of tag names to values, in the order they were added.
+     */
+    public Map<String, String> getTags()
+        { return Collections.unmodifiableMap( _tags ); }
+
     //  -----------------------------------------------------------------------
     //	PUBLIC OVERRIDES
     //	-----------------------------------------------------------------------
@@ -109,6 +109,17 @@ public class Move
 		return iType;
 		}
 
+	/**
+	 * Gets the move in packed form, as used by the <code>int</code> overloads in
+	 * {@link Board}, {@link MoveList}, and the move factory.
+	 *
+	 * @return Packed move.
+	 */
+	public int toPacked()
+		{
+		return pack( iSqFrom, iSqTo, iType );
+		}
+
 	public boolean isPromotion()
 		{ return iType >= Type.PROMOTION; }
 
@@ -162,7 +173,7 @@ public class Move
 	 *
 	 * @return packed move.
 	 */
-	static int pack( int iSqFrom, int iSqTo, int iMoveType )
+	public static int pack( int iSqFrom, int iSqTo, int iMoveType )
 		{
 		return ((iSqTo << 16) | (iSqFrom << 8) | iMoveType) & MASK_ALL;
 		}
@@ -175,7 +186,7 @@ public class Move
 	 *
 	 * @return "From" square, in 8x8 format.
 	 */
-	static int unpackFromSq( int packed )
+	public static int unpackFromSq( int packed )
 		{
 		return (packed >>> 8) & 0x3F;
 		}
@@ -188,7 +199,7 @@ public class Move
 	 *
 	 * @return "To" square, in 8x8 format.
 	 */
-	static int unpackToSq( int packed )
+	public static int unpackToSq( int packed )
 		{
 		return (packed >>> 16) & 0x3F;
 		}
@@ -201,7 +212,7 @@ public class Move
 	 *
 	 * @return Move type.
 	 */
-	static int unpackType( int packed )
+	public static int unpackType( int packed )
 		{
 		return (packed & MASK_TYPE);
 		}
@@ -227,7 +238,21 @@ public class Move
 	@Override
 	public String toString()
 		{
-		String str = Square.toString( iSqFrom ) + Square.toString( iSqTo );
+		return toString( pack( iSqFrom, iSqTo, iType ) );
+		}
+
+	/**
+	 * Converts a packed move to a long algebraic string, such as "e2e4" or "e7e8q".
+	 *
+	 * @param packed
+	 * 	Packed move.
+	 *
+	 * @return Move string.
+	 */
+	public static String toString( int packed )
+		{
+		final int iType = unpackType( packed );
+		String str = Square.toString( unpackFromSq( packed ) ) + Square.toString( unpackToSq( packed ) );
 
 		if (iType >= Type.PROMOTION)
 			{
@@ -242,7 +267,6 @@ public class Move
 			}
 
 		return str;
-
 		}
 
 	// -----------------------------------------------------------------------
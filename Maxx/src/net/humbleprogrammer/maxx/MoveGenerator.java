@@ -47,6 +47,14 @@ class MoveGenerator
 	/** Maximum possible moves in a single position. */
 	private static final int MAX_MOVE_COUNT = 224;
 
+	/** Generator for legality tests, one per thread so tests don't allocate. */
+	private static final ThreadLocal<MoveGenerator> s_validator = new ThreadLocal<MoveGenerator>()
+		{
+		@Override
+		protected MoveGenerator initialValue()
+			{ return new MoveGenerator(); }
+		};
+
 	//  -----------------------------------------------------------------------
 	//	DECLARATIONS
 	//	-----------------------------------------------------------------------
@@ -54,26 +62,27 @@ class MoveGenerator
 	/** Number of moves in {@link #_moves}. */
 	int _iCount;
 	/** Current position. */
-	final Board _board;
+	Board       _board;
 	/** Array of packed moves. */
 	final int[] _moves = new int[ MAX_MOVE_COUNT ];
 
+	/** Saved copy of the board maps. */
+	private final long[] _map = new long[ MAP_LENGTH ];
+
 	/** .T. if an e.p. capture is possible; .F. otherwise */
-	private final boolean _bEP;
+	private boolean _bEP;
 	/** Color of opposing player. */
-	private final int     _opponent;
+	private int     _opponent;
 	/** Color of moving player. */
-	private final int     _player;
+	private int     _player;
 	/** Square occupied by the moving player's King. */
-	private final int     _iSqKing;
+	private int     _iSqKing;
 	/** Bitboard of all pieces. */
-	private final long    _bbAll;
+	private long    _bbAll;
 	/** Bitboard of opposing pieces. */
-	private final long    _bbOpponent;
+	private long    _bbOpponent;
 	/** Bitboard of moving pieces. */
-	private final long    _bbPlayer;
-	/** Saved copy of the board maps. */
-	private final long[]  _map = new long[ MAP_LENGTH ];
+	private long    _bbPlayer;
 
 	/** Bitboard of pieces threatening the moving player's King. */
 	private long _bbCheckers;
@@ -98,10 +107,42 @@ class MoveGenerator
 	 * 	if board is null.
 	 */
 	MoveGenerator( Board bd )
+		{
+		reset( bd );
+		}
+
+	/**
+	 * Alternate CTOR, for a generator that will be {@link #reset(Board) reset} before
+	 * use.
+	 */
+	MoveGenerator()
+		{
+		/*
+		**	EMPTY CTOR
+		*/
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Prepares to generate moves for a position, discarding any moves already
+	 * generated.
+	 *
+	 * @param bd
+	 * 	Board to generate moves for.
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 * 	if board is null.
+	 */
+	void reset( Board bd )
 		{
 		DBC.requireNotNull( bd, "Board" );
 		//	-----------------------------------------------------------------
 		_board = bd;
+		_iCount = 0;
+		_bbCheckers = _bbPinned = _bbSqFrom = _bbSqTo = 0L;
 		System.arraycopy( _board.map, 0, _map, 0, MAP_LENGTH );
 
 		_player = _board.getMovingPlayer();
@@ -118,10 +159,6 @@ class MoveGenerator
 		_iSqKing = _board.getKingSquare();
 		}
 
-	//  -----------------------------------------------------------------------
-	//	PUBLIC METHODS
-	//	-----------------------------------------------------------------------
-
 	/**
 	 * Generates all legal moves.
 	 */
@@ -194,8 +231,36 @@ class MoveGenerator
 	 */
 	static boolean hasLegalMove( Board bd )
 		{
-		return (bd != null &&
-				new MoveGenerator( bd ).generateFirst());
+		if (bd == null) return false;
+		//	-----------------------------------------------------------------
+		final MoveGenerator gen = s_validator.get();
+
+		gen.reset( bd );
+		return gen.generateFirst();
+		}
+
+	/**
+	 * Tests a packed move for legality, generating only the moves between its two
+	 * squares into a per-thread buffer.
+	 *
+	 * @param bd
+	 * 	Position to check.
+	 * @param iPacked
+	 * 	Packed move to test.
+	 *
+	 * @return .T. if the move is legal; .F. otherwise.
+	 */
+	static boolean isLegalMove( Board bd, int iPacked )
+		{
+		final MoveGenerator gen = s_validator.get();
+
+		gen.reset( bd );
+		gen.generateSome( 1L << Move.unpackFromSq( iPacked ), 1L << Move.unpackToSq( iPacked ) );
+
+		for ( int idx = 0; idx < gen._iCount; ++idx )
+			if (gen._moves[ idx ] == iPacked) return true;
+
+		return false;
 		}
 
 	//  -----------------------------------------------------------------------
@@ -340,63 +405,157 @@ class MoveGenerator
 	 */
 	private void generate( int iMaxMoves )
 		{
-		int iSq;
-		long bbPawns;
+		_iCount = 0;
+
+		for ( long bb = _bbSqFrom; bb != 0L; )
+			{
+			bb &= ~generateFrom( BitUtil.first( bb ), bb );
+
+			if (_iCount >= iMaxMoves)
+				return;
+			}
+		}
 
+	/**
+	 * Finds the legal move at an index in the order {@link #generateAll()} would
+	 * produce it.  A piece whose moves can't expose the King -- i.e., any piece other
+	 * than a pawn or King, when the King is not in check and the piece isn't pinned --
+	 * has its moves counted rather than generated, so most of the moves ahead of the
+	 * index are never tested.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Packed move, or INVALID if the index is out of range.
+	 */
+	int findMove( int index )
+		{
+		initBitboards();
 		_iCount = 0;
 
-		for ( long bb = _bbSqFrom; bb != 0L; bb &= ~(1L << iSq) )
+		for ( long bb = _bbSqFrom; bb != 0L && index >= 0; )
 			{
-			iSq = BitUtil.first( bb );
+			final int iSq = BitUtil.first( bb );
+			final long bbSafe = (_bbCheckers == 0L && (_bbPinned & (1L << iSq)) == 0L)
+								? getSafeMovesFrom( iSq )
+								: INVALID;
+
+			if (bbSafe != INVALID)
+				{
+				final long bbTo = bbSafe & _bbSqTo;
+				final int iCount = BitUtil.count( bbTo );
+
+				if (index < iCount)
+					{
+					long bbMove = bbTo;
+
+					while ( index-- > 0 )
+						bbMove &= (bbMove - 1);
 
-			switch (_board.get( iSq ))
+					return Move.pack( iSq, BitUtil.first( bbMove ), Move.Type.NORMAL );
+					}
+
+				index -= iCount;
+				bb &= ~(1L << iSq);
+				}
+			else
 				{
-				case MAP_W_PAWN:
-					bbPawns = bb & _map[ MAP_W_PAWN ];
-					generatePawnMovesWhite( bbPawns );
-					bb &= ~bbPawns;
-					break;
-
-				case MAP_B_PAWN:
-					bbPawns = bb & _map[ MAP_B_PAWN ];
-					generatePawnMovesBlack( bbPawns );
-					bb &= ~bbPawns;
-					break;
-
-				case MAP_W_KNIGHT:
-				case MAP_B_KNIGHT:
-					addMovesTo( iSq, Bitboards.knight[ iSq ] );
-					break;
-
-				case MAP_W_BISHOP:
-				case MAP_B_BISHOP:
-					addMovesTo( iSq, Bitboards.getDiagonalMovesFrom( iSq, _bbAll ) );
-					break;
-
-				case MAP_W_ROOK:
-				case MAP_B_ROOK:
-					addMovesTo( iSq, Bitboards.getLateralMovesFrom( iSq, _bbAll ) );
-					break;
-
-				case MAP_W_QUEEN:
-				case MAP_B_QUEEN:
-					addMovesTo( iSq, Bitboards.getSlidingMovesFrom( iSq, _bbAll ) );
-					break;
-
-				case MAP_W_KING:
-					generateKingMovesWhite( iSq );
-					break;
-
-				case MAP_B_KING:
-					generateKingMovesBlack( iSq );
-					break;
-
-				default:
-					throw new RuntimeException( "Invalid piece type." );
+				bb &= ~generateFrom( iSq, bb );
+
+				if (index < _iCount)
+					return _moves[ index ];
+
+				index -= _iCount;
+				_iCount = 0;
 				}
+			}
 
-			if (_iCount >= iMaxMoves)
-				return;
+		return INVALID;
+		}
+
+	/**
+	 * Generates the moves for the piece on a square, or for all the pawns that are
+	 * still to be generated if the piece is a pawn.
+	 *
+	 * @param iSq
+	 * 	"From" square, in 8x8 format.
+	 * @param bbFrom
+	 * 	Bitboard of "From" squares not yet generated.
+	 *
+	 * @return Bitboard of the "From" squares generated.
+	 */
+	private long generateFrom( int iSq, long bbFrom )
+		{
+		long bbPawns;
+
+		switch (_board.get( iSq ))
+			{
+			case MAP_W_PAWN:
+				bbPawns = bbFrom & _map[ MAP_W_PAWN ];
+				generatePawnMovesWhite( bbPawns );
+				return bbPawns;
+
+			case MAP_B_PAWN:
+				bbPawns = bbFrom & _map[ MAP_B_PAWN ];
+				generatePawnMovesBlack( bbPawns );
+				return bbPawns;
+
+			case MAP_W_KNIGHT:
+			case MAP_B_KNIGHT:
+			case MAP_W_BISHOP:
+			case MAP_B_BISHOP:
+			case MAP_W_ROOK:
+			case MAP_B_ROOK:
+			case MAP_W_QUEEN:
+			case MAP_B_QUEEN:
+				addMovesTo( iSq, getSafeMovesFrom( iSq ) );
+				break;
+
+			case MAP_W_KING:
+				generateKingMovesWhite( iSq );
+				break;
+
+			case MAP_B_KING:
+				generateKingMovesBlack( iSq );
+				break;
+
+			default:
+				throw new RuntimeException( "Invalid piece type." );
+			}
+
+		return (1L << iSq);
+		}
+
+	/**
+	 * Gets the squares a Knight, Bishop, Rook, or Queen attacks, ignoring pins.
+	 *
+	 * @param iSq
+	 * 	"From" square, in 8x8 format.
+	 *
+	 * @return Bitboard of "To" squares, or INVALID if the square holds a pawn or King.
+	 */
+	private long getSafeMovesFrom( int iSq )
+		{
+		switch (_board.get( iSq ))
+			{
+			case MAP_W_KNIGHT:
+			case MAP_B_KNIGHT:
+				return Bitboards.knight[ iSq ];
+
+			case MAP_W_BISHOP:
+			case MAP_B_BISHOP:
+				return Bitboards.getDiagonalMovesFrom( iSq, _bbAll );
+
+			case MAP_W_ROOK:
+			case MAP_B_ROOK:
+				return Bitboards.getLateralMovesFrom( iSq, _bbAll );
+
+			case MAP_W_QUEEN:
+			case MAP_B_QUEEN:
+				return Bitboards.getSlidingMovesFrom( iSq, _bbAll );
+
+			default:
+				return INVALID;
 			}
 		}
 
@@ -33,9 +33,12 @@
 package net.humbleprogrammer.maxx;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import net.humbleprogrammer.humble.DBC;
-import net.humbleprogrammer.maxx.interfaces.IMoveScorer;
+import net.humbleprogrammer.maxx.interfaces.*;
+
+import static net.humbleprogrammer.maxx.Constants.*;
 
 @SuppressWarnings( "WeakerAccess" )
 public class MoveList extends MoveGenerator implements Iterable<Move>
@@ -46,7 +49,7 @@ public class MoveList extends MoveGenerator implements Iterable<Move>
 	//	-----------------------------------------------------------------------
 
 	/** Zobrist hash of board that moves were generated for. */
-	private final long _hashZobrist;
+	private long _hashZobrist;
 
 	//  -----------------------------------------------------------------------
 	//	CTOR
@@ -93,10 +96,74 @@ public class MoveList extends MoveGenerator implements Iterable<Move>
 		generateSome( bbFromMask, bbToMask );
 		}
 
+	/**
+	 * Alternate CTOR, for an empty list that will be filled by {@link #generate(Board)}.
+	 */
+	public MoveList()
+		{
+		/*
+		**	EMPTY CTOR
+		*/
+		}
+
 	//  -----------------------------------------------------------------------
 	//	PUBLIC METHODS
 	//	-----------------------------------------------------------------------
 
+	/**
+	 * Replaces the list with all the legal moves for a position, reusing its storage.
+	 *
+	 * @param bd
+	 * 	Board to generate moves for.
+	 *
+	 * @return Always this
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 * 	if board is <code>null</code>.
+	 */
+	public MoveList generate( Board bd )
+		{
+		reset( bd );
+		//	-----------------------------------------------------------------
+		_hashZobrist = bd.getZobristHash();
+
+		generateAll();
+		return this;
+		}
+
+	/**
+	 * Makes the legal move at an index in the order {@link #generate(Board)} would
+	 * produce it.  Only as much of the list as needed is generated, and most of the
+	 * moves before the index are counted rather than tested, so this is far cheaper
+	 * than generating the list and calling {@link #getPacked(int)}.  The list's
+	 * storage is used as scratch space, and is left empty.
+	 *
+	 * @param bd
+	 * 	Board to make the move on.
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Packed move that was made, or INVALID if the index is out of range, in
+	 * which case the board is unchanged.
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 * 	if board is <code>null</code>.
+	 */
+	public int makeMove( Board bd, int index )
+		{
+		reset( bd );
+		//	-----------------------------------------------------------------
+		final int iPacked = findMove( index );
+
+		if (iPacked != INVALID)
+			bd.applyMove( Move.unpackFromSq( iPacked ), Move.unpackToSq( iPacked ), Move.unpackType( iPacked ) );
+
+		_iCount = 0;
+		_hashZobrist = bd.getZobristHash();
+
+		return iPacked;
+		}
+
 	/**
 	 * Sort all the moves into place based on the score supplied.
 	 *
@@ -114,36 +181,78 @@ public class MoveList extends MoveGenerator implements Iterable<Move>
 
 		for ( int idx = 0; idx < _iCount; ++idx )
 			scores[ idx ] = scorer.scoreMove( _board, new Move( _moves[ idx ], _hashZobrist ) );
-		//
-		//	Now do a simple selection sort, using the scores[] array as the
-		//	determining factor.
-		//
-		for ( int index = 0; index < _iCount; ++index )
-			{
-			int best = index;
 
-			for ( int idx = index + 1; idx < _iCount; ++idx )
-				if (scores[ idx ] > scores[ best ])
-					best = idx;
+		return sortByScore( scores );
+		}
 
-			if (best == index) continue; // got lucky...no change
+	/**
+	 * Sort all the moves into place based on the score supplied.  The scorer is
+	 * handed packed moves, so no {@link Move} objects are created.
+	 *
+	 * @param scorer
+	 * 	Object to provide scores.
+	 *
+	 * @return Always this
+	 */
+	public MoveList sortPacked( IPackedMoveScorer scorer )
+		{
+		DBC.requireNotNull( scorer, "Move Scorer" );
+		if (_iCount <= 1) return this;
+		//	-----------------------------------------------------------------
+		int[] scores = new int[ _iCount ];
 
-			int tmp = scores[ index ];
-			scores[ index ] = scores[ best ];
-			scores[ best ] = tmp;
+		for ( int idx = 0; idx < _iCount; ++idx )
+			scores[ idx ] = scorer.scoreMove( _board, _moves[ idx ] );
 
-			tmp = _moves[ index ];
-			_moves[ index ] = _moves[ best ];
-			_moves[ best ] = tmp;
-			}
+		return sortByScore( scores );
+		}
 
-		return this;
+	/**
+	 * Tests the list for a move.
+	 *
+	 * @param iPacked
+	 * 	Packed move.
+	 *
+	 * @return .T. if the move is in the list; .F. otherwise.
+	 */
+	public boolean contains( int iPacked )
+		{
+		for ( int idx = 0; idx < _iCount; ++idx )
+			if (_moves[ idx ] == iPacked) return true;
+
+		return false;
+		}
+
+	/**
+	 * Gets an iterator over the moves in packed form.
+	 *
+	 * @return Iterator.
+	 */
+	public IPackedMoveIterator iteratorPacked()
+		{
+		return new PackedIterator();
 		}
 
 	//  -----------------------------------------------------------------------
 	//	PUBLIC GETTERS & SETTERS
 	//	-----------------------------------------------------------------------
 
+	/**
+	 * Gets a move.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Move.
+	 *
+	 * @throws java.lang.IndexOutOfBoundsException
+	 * 	if the index is out of range.
+	 */
+	public Move get( int index )
+		{
+		return new Move( getPacked( index ), _hashZobrist );
+		}
+
 	/**
 	 * Gets the first move in the list.
 	 *
@@ -156,6 +265,25 @@ public class MoveList extends MoveGenerator implements Iterable<Move>
 			   : null;
 		}
 
+	/**
+	 * Gets a move in packed form.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Packed move.
+	 *
+	 * @throws java.lang.IndexOutOfBoundsException
+	 * 	if the index is out of range.
+	 */
+	public int getPacked( int index )
+		{
+		if (index < 0 || index >= _iCount)
+			throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + _iCount );
+		//	-----------------------------------------------------------------
+		return _moves[ index ];
+		}
+
 	/**
 	 * Tests the move list to see if it is empty, i.e., has no moves.
 	 *
@@ -186,6 +314,46 @@ public class MoveList extends MoveGenerator implements Iterable<Move>
 		return new MoveListIterator();
 		}
 
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Sorts the moves into descending order by score.
+	 *
+	 * @param scores
+	 * 	Array of scores, parallel to {@link #_moves}.
+	 *
+	 * @return Always this
+	 */
+	private MoveList sortByScore( int[] scores )
+		{
+		//
+		//	Do a simple selection sort, using the scores[] array as the
+		//	determining factor.
+		//
+		for ( int index = 0; index < _iCount; ++index )
+			{
+			int best = index;
+
+			for ( int idx = index + 1; idx < _iCount; ++idx )
+				if (scores[ idx ] > scores[ best ])
+					best = idx;
+
+			if (best == index) continue; // got lucky...no change
+
+			int tmp = scores[ index ];
+			scores[ index ] = scores[ best ];
+			scores[ best ] = tmp;
+
+			tmp = _moves[ index ];
+			_moves[ index ] = _moves[ best ];
+			_moves[ best ] = tmp;
+			}
+
+		return this;
+		}
+
 	//  -----------------------------------------------------------------------
 	//	NESTED CLASS: MoveListIterator
 	//	-----------------------------------------------------------------------
@@ -226,4 +394,38 @@ public class MoveList extends MoveGenerator implements Iterable<Move>
 			}
 		} /* end of nested class MoveListIterator */
 
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: PackedIterator
+	//	-----------------------------------------------------------------------
+
+	private class PackedIterator implements IPackedMoveIterator
+		{
+		/** Next element in the _moves[] array. */
+		private int _iNext = 0;
+
+		/**
+		 * Returns true if the move list has more moves.
+		 *
+		 * @return <code>.T.</code> if more moves available; <code>.F.</code> otherwise.
+		 */
+		@Override
+		public boolean hasNext()
+			{
+			return _iNext < _iCount;
+			}
+
+		/**
+		 * Returns the next move in the move list.
+		 *
+		 * @return Next packed move.
+		 */
+		@Override
+		public int nextInt()
+			{
+			if (_iNext >= _iCount) throw new NoSuchElementException();
+			//	-------------------------------------------------------------
+			return _moves[ _iNext++ ];
+			}
+		} /* end of nested class PackedIterator */
+
 	} /* end of class MoveList */
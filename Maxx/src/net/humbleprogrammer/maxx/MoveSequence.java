@@ -0,0 +1,357 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import java.io.Serializable;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+
+/**
+ * The {@link MoveSequence} class is a list of moves stored as primitives.
+ *
+ * Each move is kept as a packed integer plus the Zobrist hash of the position it was
+ * made from, which {@link Board#isLegalMove(Move)} needs to validate it.  That is
+ * twelve bytes per move, compared to a reference plus a {@link Move} object in an
+ * {@link ArrayList}, which is more than forty.  {@link Move} objects are only created
+ * when an element is read, and are never retained by the sequence.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class MoveSequence extends AbstractList<Move> implements RandomAccess, Serializable
+	{
+	private static final long serialVersionUID = 20161019L;
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Initial capacity, in moves. */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Packed moves. */
+	private int[]  _moves;
+	/** Zobrist hash of the position before each move. */
+	private long[] _hashes;
+	/** Number of moves. */
+	private int    _iSize;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 */
+	public MoveSequence()
+		{
+		this( DEFAULT_CAPACITY );
+		}
+
+	/**
+	 * Alternate CTOR.
+	 *
+	 * @param iCapacity
+	 * 	Initial capacity, in moves.
+	 */
+	public MoveSequence( int iCapacity )
+		{
+		DBC.require( iCapacity >= 0, "Capacity cannot be negative." );
+		//	-----------------------------------------------------------------
+		_moves = new int[ iCapacity ];
+		_hashes = new long[ iCapacity ];
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Appends a move.
+	 *
+	 * @param move
+	 * 	Move to append.
+	 *
+	 * @return .T. if appended; .F. if the move is <code>null</code>.
+	 */
+	@Override
+	public boolean add( Move move )
+		{
+		if (move == null) return false;
+		//	-----------------------------------------------------------------
+		ensureCapacity( _iSize + 1 );
+
+		_moves[ _iSize ] = move.toPacked();
+		_hashes[ _iSize++ ] = move.hashBefore;
+		++modCount;
+		return true;
+		}
+
+	/**
+	 * Appends a packed move, without creating a {@link Move}.
+	 *
+	 * @param iPacked
+	 * 	Packed move.
+	 * @param hashBefore
+	 * 	Zobrist hash of the position before the move.
+	 */
+	public void addPacked( int iPacked, long hashBefore )
+		{
+		ensureCapacity( _iSize + 1 );
+
+		_moves[ _iSize ] = iPacked;
+		_hashes[ _iSize++ ] = hashBefore;
+		++modCount;
+		}
+
+	/**
+	 * Inserts a move.
+	 *
+	 * @param index
+	 * 	Position to insert at.
+	 * @param move
+	 * 	Move to insert.
+	 */
+	@Override
+	public void add( int index, Move move )
+		{
+		DBC.requireNotNull( move, "Move" );
+		checkIndex( index, _iSize + 1 );
+		//	-----------------------------------------------------------------
+		ensureCapacity( _iSize + 1 );
+
+		System.arraycopy( _moves, index, _moves, index + 1, _iSize - index );
+		System.arraycopy( _hashes, index, _hashes, index + 1, _iSize - index );
+
+		_moves[ index ] = move.toPacked();
+		_hashes[ index ] = move.hashBefore;
+		++_iSize;
+		++modCount;
+		}
+
+	/**
+	 * Appends a collection of moves.  Other sequences are copied directly, without
+	 * creating any {@link Move} objects.
+	 *
+	 * @param moves
+	 * 	Moves to append.
+	 *
+	 * @return .T. if anything was appended; .F. otherwise.
+	 */
+	@Override
+	public boolean addAll( Collection<? extends Move> moves )
+		{
+		if (!(moves instanceof MoveSequence))
+			return super.addAll( moves );
+		//	-----------------------------------------------------------------
+		final MoveSequence seq = (MoveSequence) moves;
+		final int iCount = seq._iSize;
+
+		ensureCapacity( _iSize + iCount );
+
+		System.arraycopy( seq._moves, 0, _moves, _iSize, iCount );
+		System.arraycopy( seq._hashes, 0, _hashes, _iSize, iCount );
+
+		_iSize += iCount;
+		++modCount;
+		return (iCount > 0);
+		}
+
+	/**
+	 * Removes all moves.  The storage is kept for reuse.
+	 */
+	@Override
+	public void clear()
+		{
+		_iSize = 0;
+		++modCount;
+		}
+
+	/**
+	 * Gets a move.  A new {@link Move} is created on every call.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Move.
+	 */
+	@Override
+	public Move get( int index )
+		{
+		checkIndex( index, _iSize );
+		//	-----------------------------------------------------------------
+		return new Move( _moves[ index ], _hashes[ index ] );
+		}
+
+	/**
+	 * Removes a move.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Move that was removed.
+	 */
+	@Override
+	public Move remove( int index )
+		{
+		final Move move = get( index );
+
+		removeRange( index, index + 1 );
+		return move;
+		}
+
+	/**
+	 * Replaces a move.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 * @param move
+	 * 	New move.
+	 *
+	 * @return Move that was replaced.
+	 */
+	@Override
+	public Move set( int index, Move move )
+		{
+		DBC.requireNotNull( move, "Move" );
+		//	-----------------------------------------------------------------
+		final Move moveOld = get( index );
+
+		_moves[ index ] = move.toPacked();
+		_hashes[ index ] = move.hashBefore;
+		return moveOld;
+		}
+
+	/**
+	 * Gets the number of moves.
+	 *
+	 * @return Move count.
+	 */
+	@Override
+	public int size()
+		{
+		return _iSize;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the Zobrist hash of the position before a move.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Zobrist hash.
+	 */
+	public long getHashBefore( int index )
+		{
+		checkIndex( index, _iSize );
+		//	-----------------------------------------------------------------
+		return _hashes[ index ];
+		}
+
+	/**
+	 * Gets a move in packed form, without creating a {@link Move}.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 *
+	 * @return Packed move.
+	 */
+	public int getPacked( int index )
+		{
+		checkIndex( index, _iSize );
+		//	-----------------------------------------------------------------
+		return _moves[ index ];
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Removes a range of moves.
+	 *
+	 * @param iFrom
+	 * 	Index of first move to remove.
+	 * @param iTo
+	 * 	Index after last move to remove.
+	 */
+	@Override
+	protected void removeRange( int iFrom, int iTo )
+		{
+		if (iFrom >= iTo) return;
+		//	-----------------------------------------------------------------
+		System.arraycopy( _moves, iTo, _moves, iFrom, _iSize - iTo );
+		System.arraycopy( _hashes, iTo, _hashes, iFrom, _iSize - iTo );
+
+		_iSize -= iTo - iFrom;
+		++modCount;
+		}
+
+	/**
+	 * Throws if an index is out of range.
+	 *
+	 * @param index
+	 * 	Index to check.
+	 * @param iLimit
+	 * 	Exclusive upper bound.
+	 */
+	private static void checkIndex( int index, int iLimit )
+		{
+		if (index < 0 || index >= iLimit)
+			throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + iLimit );
+		}
+
+	/**
+	 * Grows the storage, if necessary.
+	 *
+	 * @param iCapacity
+	 * 	Minimum capacity, in moves.
+	 */
+	private void ensureCapacity( int iCapacity )
+		{
+		if (iCapacity > _moves.length)
+			{
+			final int iNewCapacity = Math.max( iCapacity, Math.max( DEFAULT_CAPACITY, _moves.length * 2 ) );
+
+			_moves = Arrays.copyOf( _moves, iNewCapacity );
+			_hashes = Arrays.copyOf( _hashes, iNewCapacity );
+			}
+		}
+	} /* end of class MoveSequence */
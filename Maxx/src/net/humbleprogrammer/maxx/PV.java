@@ -32,9 +32,7 @@
  ******************************************************************************/
 package net.humbleprogrammer.maxx;
 
-import java.util.ArrayList;
-
-public class PV extends ArrayList<Move>
+public class PV extends MoveSequence
 	{
 	private static final long serialVersionUID = 20160626L;
 
@@ -72,9 +70,6 @@ public class PV extends ArrayList<Move>
 		clear();
 
 		if (add(move) && pv != null)
-			{
-			for ( Move mv : pv )
-				add(mv);
-			}
+			addAll(pv);
 		}
 	}
@@ -89,8 +89,15 @@ public class Parser
 	//	STATIC DECLARATIONS
 	//	-----------------------------------------------------------------------
 
-	/** Last error encountered. */
-	protected static String s_strError;
+	/**
+	 * Last error encountered, by any thread.
+	 *
+	 * @deprecated Shared by every thread, so it can't be relied on when several threads
+	 * parse at once.  Parsers report errors per call instead, e.g., through
+	 * {@link net.humbleprogrammer.maxx.pgn.ParseResult}.
+	 */
+	@Deprecated
+	protected static volatile String s_strError;
 
 	/** FEN string pattern. */
 	protected static final Pattern s_rxFEN = Pattern.compile
@@ -0,0 +1,847 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.interfaces.IMoveScorer;
+import net.humbleprogrammer.maxx.interfaces.ISearchListener;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link Search} class is an iterative-deepening, principal variation
+ * search with a transposition table and a capture-only quiescence search.
+ *
+ * How long the search runs is up to the {@link TimeManager}.  A search can also ponder
+ * on a background thread while the opponent is thinking; see
+ * {@link #startPondering(Board, Move, TimeManager)}.
+ *
+ * In Multi-PV mode the search reports the best <i>K</i> lines at each depth.  Each extra
+ * line is a re-search of the root with the moves of the better lines excluded, so
+ * everything below the root comes out of the transposition table rather than being
+ * searched from scratch.  Completed lines are streamed to any attached
+ * {@link ISearchListener}.
+ *
+ * A {@link Search} is not re-entrant: only one search (or ponder) may run on it at a
+ * time.  Several instances can share a single {@link TranspositionTable}.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class Search implements IMoveScorer
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Maximum nominal search depth, in plies. */
+	public static final int MAX_DEPTH     = 64;
+	/** Maximum number of lines in Multi-PV mode. */
+	public static final int MAX_MULTI_PV  = 64;
+
+	/** Maximum ply, including extensions and quiescence. */
+	private static final int MAX_PLY = MAX_DEPTH + 32;
+
+	/** Move ordering: move from the transposition table. */
+	private static final int ORDER_HASH_MOVE = 1 << 24;
+	/** Move ordering: captures, offset by MVV/LVA. */
+	private static final int ORDER_CAPTURE   = 1 << 20;
+	/** Move ordering: non-capturing promotions. */
+	private static final int ORDER_PROMOTION = 1 << 19;
+	/** Move ordering: killer moves. */
+	private static final int ORDER_KILLER    = 1 << 18;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Transposition table. */
+	private final TranspositionTable _tt;
+	/** Triangular PV array, one line per ply. */
+	private final PV[]     _pv       = new PV[ MAX_PLY + 1 ];
+	/** Zobrist hashes along the current line, for repetition detection. */
+	private final long[]   _hashPath = new long[ MAX_PLY + 1 ];
+	/** Two killer moves per ply. */
+	private final int[][]  _killers  = new int[ MAX_PLY + 1 ][ 2 ];
+	/** Root moves excluded from the current Multi-PV pass. */
+	private final int[]    _excluded = new int[ MAX_MULTI_PV ];
+	/** Attached listeners. */
+	private final List<ISearchListener> _listeners = new CopyOnWriteArrayList<>();
+
+	/** Time manager for the current search. */
+	private volatile TimeManager _tm;
+	/** Nodes visited by the current search. */
+	private long    _lNodes;
+	/** Positions resolved by the endgame tables during the current search. */
+	private long    _lTablebaseHits;
+	/** .T. if the current search has been aborted. */
+	private boolean _bAborted;
+	/** Depth of the last completed iteration. */
+	private int     _iDepth;
+	/** Number of excluded root moves. */
+	private int     _iExcluded;
+	/** Number of lines to report. */
+	private int     _iMultiPV = 1;
+	/** Lines of the last completed iteration, best first. */
+	private volatile List<PV> _lines = Collections.emptyList();
+	/** Scores of the last completed iteration, best first. */
+	private volatile int[]    _scores = new int[ 0 ];
+	/** Move ordering context: packed hash move. */
+	private int     _iOrderHashMove;
+	/** Move ordering context: ply being ordered. */
+	private int     _iOrderPly;
+
+	/** Background pondering thread, if any. */
+	private Thread      _threadPonder;
+	/** Time manager for the pondering search. */
+	private TimeManager _tmPonder;
+	/** Result of the pondering search. */
+	private volatile PV _pvPonder;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.  The search gets its own transposition table.
+	 */
+	public Search()
+		{
+		this( new TranspositionTable() );
+		}
+
+	/**
+	 * Alternate CTOR.
+	 *
+	 * @param tt
+	 * 	Transposition table, which may be shared with other searches.
+	 */
+	public Search( TranspositionTable tt )
+		{
+		DBC.requireNotNull( tt, "Transposition Table" );
+		//	-----------------------------------------------------------------
+		_tt = tt;
+
+		for ( int idx = 0; idx < _pv.length; ++idx )
+			_pv[ idx ] = new PV();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Attaches a listener.
+	 *
+	 * @param listener
+	 * 	Listener to add.
+	 */
+	public void addListener( ISearchListener listener )
+		{
+		DBC.requireNotNull( listener, "Listener" );
+		//	-----------------------------------------------------------------
+		_listeners.add( listener );
+		}
+
+	/**
+	 * Detaches a listener.
+	 *
+	 * @param listener
+	 * 	Listener to remove.
+	 */
+	public void removeListener( ISearchListener listener )
+		{
+		_listeners.remove( listener );
+		}
+
+	/**
+	 * Searches a position until the time manager says to stop.
+	 *
+	 * @param bd
+	 * 	Position to search.
+	 * @param tm
+	 * 	Time manager.
+	 *
+	 * @return Best line found, or an empty PV if there are no legal moves.
+	 */
+	public PV think( final Board bd, final TimeManager tm )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		DBC.requireNotNull( tm, "Time Manager" );
+		//	-----------------------------------------------------------------
+		PV pvBest = new PV();
+		MoveList moves = new MoveList( bd );
+		final int iLines = Math.min( _iMultiPV, moves.size() );
+
+		tm.start();
+		_tm = tm;
+		_tt.newSearch();
+		_lNodes = 0L;
+		_lTablebaseHits = 0L;
+		_bAborted = false;
+		_iDepth = 0;
+		_lines = Collections.emptyList();
+		_scores = new int[ 0 ];
+
+		for ( int[] killers : _killers )
+			killers[ 0 ] = killers[ 1 ] = 0;
+
+		if (moves.isEmpty())
+			return pvBest;
+
+		for ( int iDepth = 1; tm.canStartIteration( iDepth, _lNodes ); ++iDepth )
+			{
+			final List<PV> lines = new ArrayList<>( iLines );
+			final int[] scores = new int[ iLines ];
+			//
+			//	Each pass finds the best line that doesn't start with the root move
+			//	of a better line.
+			//
+			for ( _iExcluded = 0; _iExcluded < iLines; ++_iExcluded )
+				{
+				int iScore = search( bd, iDepth, 0, MIN_SCORE, MAX_SCORE );
+
+				if (_bAborted || _pv[ 0 ].isEmpty())
+					break;
+
+				PV pv = new PV();
+				for ( Move move : _pv[ 0 ] )
+					pv.add( move );
+
+				Move moveRoot = pv.get( 0 );
+
+				_excluded[ _iExcluded ] = Move.pack( moveRoot.iSqFrom, moveRoot.iSqTo, moveRoot.iType );
+				scores[ _iExcluded ] = iScore;
+				lines.add( pv );
+				}
+
+			_iExcluded = 0;
+
+			if (lines.size() < iLines)
+				break;
+
+			boolean bChanged = !(pvBest.isEmpty() || pvBest.get( 0 ).equals( lines.get( 0 ).get( 0 ) ));
+
+			pvBest = lines.get( 0 );
+			_lines = Collections.unmodifiableList( lines );
+			_scores = scores;
+			_iDepth = iDepth;
+			tm.onIterationComplete( bChanged, scores[ 0 ] );
+
+			final long lMillisecs = tm.getElapsedMillisecs();
+
+			for ( ISearchListener listener : _listeners )
+				for ( int idx = 0; idx < iLines; ++idx )
+					listener.onLine( iDepth, idx + 1, scores[ idx ], lines.get( idx ), _lNodes, lMillisecs );
+			}
+
+		_iExcluded = 0;
+		//
+		//	If the clock ran out before the first iteration completed, any legal
+		//	move beats forfeiting on time.
+		//
+		if (pvBest.isEmpty())
+			pvBest.add( moves.getFirst() );
+
+		return pvBest;
+		}
+
+	/**
+	 * Tells the current search to stop as soon as possible.  Safe to call from
+	 * any thread.
+	 */
+	public void stop()
+		{
+		TimeManager tm = _tm;
+
+		if (tm != null)
+			tm.stop();
+		}
+
+	/**
+	 * Starts pondering on a background thread.  The search assumes the opponent
+	 * plays the predicted move, and ignores the clock until {@link #ponderHit()}.
+	 *
+	 * @param bd
+	 * 	Position with the opponent on the move.
+	 * @param movePredicted
+	 * 	Predicted reply, usually the second move of the last PV.
+	 * @param tm
+	 * 	Time manager, with the clock already set for the next move.
+	 */
+	public void startPondering( final Board bd, final Move movePredicted, final TimeManager tm )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		DBC.requireNotNull( movePredicted, "Predicted Move" );
+		DBC.requireNotNull( tm, "Time Manager" );
+		DBC.require( _threadPonder == null, "Already pondering." );
+		DBC.require( bd.isLegalMove( movePredicted ), "Predicted move is not legal." );
+		//	-----------------------------------------------------------------
+		final Board bdPonder = new Board( bd, movePredicted );
+
+		tm.setPondering( true );
+
+		_tmPonder = tm;
+		_pvPonder = null;
+		_threadPonder = new Thread( new Runnable()
+		{
+		@Override
+		public void run()
+			{ _pvPonder = think( bdPonder, tm ); }
+		}, "Ponder" );
+
+		_threadPonder.setDaemon( true );
+		_threadPonder.start();
+		}
+
+	/**
+	 * The opponent played the predicted move.  The pondering search switches to
+	 * the normal time limits, and this method waits for it to finish.
+	 *
+	 * @return Best line found, or <code>null</code> if not pondering.
+	 */
+	public PV ponderHit()
+		{
+		if (_threadPonder == null) return null;
+		//	-----------------------------------------------------------------
+		_tmPonder.ponderHit();
+
+		return joinPonderThread();
+		}
+
+	/**
+	 * The opponent played something else.  The pondering search is stopped and
+	 * its result is thrown away.
+	 */
+	public void stopPondering()
+		{
+		if (_threadPonder == null) return;
+		//	-----------------------------------------------------------------
+		_tmPonder.stop();
+		joinPonderThread();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the depth of the last completed iteration.
+	 *
+	 * @return Depth, in plies.
+	 */
+	public int getDepth()
+		{
+		return _iDepth;
+		}
+
+	/**
+	 * Gets the lines of the last completed iteration.
+	 *
+	 * @return Unmodifiable list of lines, best first.
+	 */
+	public List<PV> getLines()
+		{
+		return _lines;
+		}
+
+	/**
+	 * Gets the number of lines to report.
+	 *
+	 * @return Multi-PV count.
+	 */
+	public int getMultiPV()
+		{
+		return _iMultiPV;
+		}
+
+	/**
+	 * Sets the number of lines to report.  Takes effect on the next search.
+	 *
+	 * @param iLines
+	 * 	Multi-PV count, in the range [1..MAX_MULTI_PV].
+	 */
+	public void setMultiPV( int iLines )
+		{
+		DBC.requireGreaterThanZero( iLines, "Multi-PV" );
+		DBC.require( iLines <= MAX_MULTI_PV, "Multi-PV cannot exceed " + MAX_MULTI_PV );
+		//	-----------------------------------------------------------------
+		_iMultiPV = iLines;
+		}
+
+	/**
+	 * Gets the number of nodes visited by the current (or last) search.
+	 *
+	 * @return Node count.
+	 */
+	public long getNodeCount()
+		{
+		return _lNodes;
+		}
+
+	/**
+	 * Gets the number of positions resolved by the endgame tables.
+	 *
+	 * @return Tablebase hit count.
+	 */
+	public long getTablebaseHits()
+		{
+		return _lTablebaseHits;
+		}
+
+	/**
+	 * Gets the score of the last completed iteration.
+	 *
+	 * @return Score, from the perspective of the moving player.
+	 */
+	public int getScore()
+		{
+		return getScore( 0 );
+		}
+
+	/**
+	 * Gets the score of a line from the last completed iteration.
+	 *
+	 * @param iIndex
+	 * 	Zero-based index of the line.
+	 *
+	 * @return Score, from the perspective of the moving player, or zero if there
+	 * is no such line.
+	 */
+	public int getScore( int iIndex )
+		{
+		final int[] scores = _scores;
+
+		return (iIndex >= 0 && iIndex < scores.length) ? scores[ iIndex ] : 0;
+		}
+
+	/**
+	 * Gets the transposition table.
+	 *
+	 * @return Transposition table.
+	 */
+	public TranspositionTable getTranspositionTable()
+		{
+		return _tt;
+		}
+
+	/**
+	 * Determines if a pondering search is running.
+	 *
+	 * @return .T. if pondering, .F. otherwise.
+	 */
+	public boolean isPondering()
+		{
+		return _threadPonder != null;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: IMoveScorer
+	//	-----------------------------------------------------------------------
+
+	@Override
+	public int scoreMove( final Board bd, Move move )
+		{
+		assert bd != null;
+		assert move != null;
+		//	-----------------------------------------------------------------
+		final int iPacked = Move.pack( move.iSqFrom, move.iSqTo, move.iType );
+
+		if (iPacked == _iOrderHashMove)
+			return ORDER_HASH_MOVE;
+
+		int victim = (move.iType == Move.Type.EN_PASSANT) ? PAWN : bd.getPieceType( move.iSqTo );
+
+		if (victim != EMPTY)
+			return ORDER_CAPTURE + (victim * 8) - bd.getPieceType( move.iSqFrom );
+
+		if (move.isPromotion())
+			return ORDER_PROMOTION + move.getPromotionPiece();
+
+		final int[] killers = _killers[ _iOrderPly ];
+
+		if (iPacked == killers[ 0 ]) return ORDER_KILLER + 1;
+		if (iPacked == killers[ 1 ]) return ORDER_KILLER;
+
+		return 0;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Counts a node, and checks the clock every so often.
+	 *
+	 * @return .T. if the search has been aborted, .F. otherwise.
+	 */
+	private boolean countNode()
+		{
+		if ((++_lNodes & TimeManager.NODE_MASK) == 0 && _tm.isTimeUp( _lNodes ))
+			_bAborted = true;
+
+		return _bAborted;
+		}
+
+	/**
+	 * Determines if a root move has been excluded by a better line.
+	 *
+	 * @param iPacked
+	 * 	Packed move.
+	 *
+	 * @return .T. if excluded, .F. otherwise.
+	 */
+	private boolean isExcluded( int iPacked )
+		{
+		for ( int idx = 0; idx < _iExcluded; ++idx )
+			if (_excluded[ idx ] == iPacked)
+				return true;
+
+		return false;
+		}
+
+	/**
+	 * Determines if the position at a given ply repeats an earlier position on
+	 * the current line.
+	 *
+	 * @param bd
+	 * 	Position.
+	 * @param iPly
+	 * 	Ply of the position.
+	 *
+	 * @return .T. if repeated, .F. otherwise.
+	 */
+	private boolean isRepetition( final Board bd, int iPly )
+		{
+		final long hash = _hashPath[ iPly ];
+		final int iLimit = Math.max( 0, iPly - bd.getHalfMoveClock() );
+
+		for ( int idx = iPly - 4; idx >= iLimit; idx -= 2 )
+			if (_hashPath[ idx ] == hash)
+				return true;
+
+		return false;
+		}
+
+	/**
+	 * Waits for the pondering thread to finish.
+	 *
+	 * @return Best line found by the pondering search.
+	 */
+	private PV joinPonderThread()
+		{
+		try
+			{
+			_threadPonder.join();
+			}
+		catch (InterruptedException ex)
+			{
+			_tmPonder.stop();
+			Thread.currentThread().interrupt();
+			}
+		finally
+			{
+			_threadPonder = null;
+			_tmPonder = null;
+			}
+
+		return _pvPonder;
+		}
+
+	/**
+	 * Capture-only search, used at the leaves of the main search.
+	 *
+	 * @param bd
+	 * 	Position to search.
+	 * @param iPly
+	 * 	Distance from the root.
+	 * @param iAlpha
+	 * 	Alpha value (low cut off)
+	 * @param iBeta
+	 * 	Beta value (high cut off)
+	 *
+	 * @return Score.
+	 */
+	private int quiesce( final Board bd, int iPly, int iAlpha, int iBeta )
+		{
+		_pv[ iPly ].clear();
+
+		if (countNode()) return 0;
+		if (iPly >= MAX_PLY) return Evaluator.evaluate( bd );
+		//	-----------------------------------------------------------------
+		MoveList moves;
+		int iBest;
+
+		if (bd.isInCheck())
+			{
+			//	No standing pat while in check: every evasion has to be tried.
+			moves = new MoveList( bd );
+
+			if (moves.isEmpty())
+				return -(MAX_SCORE - iPly);
+
+			iBest = MIN_SCORE;
+			}
+		else
+			{
+			iBest = Evaluator.evaluate( bd );
+
+			if (iBest >= iBeta) return iBest;
+			if (iBest > iAlpha) iAlpha = iBest;
+
+			moves = new MoveList( bd, bd.map[ bd.getMovingPlayer() ], bd.map[ bd.getOpposingPlayer() ] );
+			}
+
+		_iOrderHashMove = 0;
+		_iOrderPly = iPly;
+		moves.sort( this );
+
+		for ( Move move : moves )
+			{
+			int iScore = -quiesce( new Board( bd, move ), iPly + 1, -iBeta, -iAlpha );
+
+			if (_bAborted) return 0;
+
+			if (iScore > iBest)
+				{
+				iBest = iScore;
+
+				if (iScore > iAlpha)
+					{
+					if (iScore >= iBeta)
+						break;
+
+					iAlpha = iScore;
+					_pv[ iPly ].build( move, _pv[ iPly + 1 ] );
+					}
+				}
+			}
+
+		return iBest;
+		}
+
+	/**
+	 * Principal variation search.
+	 *
+	 * @param bd
+	 * 	Position to search.
+	 * @param iDepth
+	 * 	Remaining depth, in plies.
+	 * @param iPly
+	 * 	Distance from the root.
+	 * @param iAlpha
+	 * 	Alpha value (low cut off)
+	 * @param iBeta
+	 * 	Beta value (high cut off)
+	 *
+	 * @return Score.
+	 */
+	private int search( final Board bd, int iDepth, int iPly, int iAlpha, int iBeta )
+		{
+		if (iDepth <= 0)
+			return quiesce( bd, iPly, iAlpha, iBeta );
+
+		_pv[ iPly ].clear();
+
+		if (countNode()) return 0;
+		//	-----------------------------------------------------------------
+		final long hash = bd.getZobristHash();
+
+		_hashPath[ iPly ] = hash;
+
+		if (iPly > 0)
+			{
+			if (bd.getHalfMoveClock() >= 100 || isRepetition( bd, iPly ))
+				return 0;
+			//
+			//	Mate distance pruning: don't bother looking for a mate that is longer
+			//	than one already found.
+			//
+			iAlpha = Math.max( iAlpha, -(MAX_SCORE - iPly) );
+			iBeta = Math.min( iBeta, MAX_SCORE - iPly - 1 );
+
+			if (iAlpha >= iBeta) return iAlpha;
+			//
+			//	The endgame tables are exact, so there's nothing left to search.
+			//
+			if (Long.bitCount( bd.map[ MAP_W_ALL ] | bd.map[ MAP_B_ALL ] ) <= Tablebase.getMaxPieces())
+				{
+				int iScore = Tablebase.probe( bd );
+
+				if (iScore != Tablebase.UNKNOWN)
+					{
+					++_lTablebaseHits;
+					return scoreFromTable( iScore, iPly );
+					}
+				}
+
+			if (iPly >= MAX_PLY) return Evaluator.evaluate( bd );
+			}
+
+		final int iAlphaOriginal = iAlpha;
+		final long lEntry = _tt.probe( hash );
+		int iHashMove = 0;
+
+		if (lEntry != 0L)
+			{
+			iHashMove = TranspositionTable.getMove( lEntry );
+
+			if (iPly > 0 && TranspositionTable.getDepth( lEntry ) >= iDepth)
+				{
+				int iScore = scoreFromTable( TranspositionTable.getScore( lEntry ), iPly );
+				int iBound = TranspositionTable.getBound( lEntry );
+
+				if (iBound == TranspositionTable.BOUND_EXACT ||
+					(iBound == TranspositionTable.BOUND_LOWER && iScore >= iBeta) ||
+					(iBound == TranspositionTable.BOUND_UPPER && iScore <= iAlpha))
+					{
+					return iScore;
+					}
+				}
+			}
+
+		final boolean bInCheck = bd.isInCheck();
+		final MoveList moves = new MoveList( bd );
+
+		if (moves.isEmpty())
+			return bInCheck ? -(MAX_SCORE - iPly) : 0;
+
+		if (bInCheck)
+			++iDepth; // check extension
+
+		_iOrderHashMove = iHashMove;
+		_iOrderPly = iPly;
+		moves.sort( this );
+
+		int iBestScore = MIN_SCORE;
+		int iBestMove = 0;
+		boolean bFirst = true;
+
+		for ( Move move : moves )
+			{
+			final int iPacked = Move.pack( move.iSqFrom, move.iSqTo, move.iType );
+
+			if (iPly == 0 && _iExcluded > 0 && isExcluded( iPacked ))
+				continue;
+
+			Board bdNew = new Board( bd, move );
+			int iScore;
+
+			if (bFirst)
+				{
+				bFirst = false;
+				iScore = -search( bdNew, iDepth - 1, iPly + 1, -iBeta, -iAlpha );
+				}
+			else
+				{
+				iScore = -search( bdNew, iDepth - 1, iPly + 1, -(iAlpha + 1), -iAlpha );
+				if (iScore > iAlpha && iScore < iBeta)
+					iScore = -search( bdNew, iDepth - 1, iPly + 1, -iBeta, -iAlpha );
+				}
+
+			if (_bAborted) return 0;
+
+			if (iScore > iBestScore)
+				{
+				iBestScore = iScore;
+				iBestMove = iPacked;
+
+				if (iScore > iAlpha)
+					{
+					iAlpha = iScore;
+					_pv[ iPly ].build( move, _pv[ iPly + 1 ] );
+
+					if (iScore >= iBeta)
+						{
+						if (bd.isEmpty( move.iSqTo ) && move.iType != Move.Type.EN_PASSANT)
+							storeKiller( iPly, iBestMove );
+						break;
+						}
+					}
+				}
+			}
+
+		final int iBound = (iBestScore >= iBeta)
+						   ? TranspositionTable.BOUND_LOWER
+						   : ((iBestScore > iAlphaOriginal)
+							  ? TranspositionTable.BOUND_EXACT
+							  : TranspositionTable.BOUND_UPPER);
+
+		//	A root result with excluded moves isn't the true value of the position.
+		if (iPly > 0 || _iExcluded == 0)
+			_tt.store( hash, iBestMove, scoreToTable( iBestScore, iPly ), iDepth, iBound );
+
+		return iBestScore;
+		}
+
+	/**
+	 * Converts a mate score from "distance from the node" back to "distance from
+	 * the root".
+	 */
+	private static int scoreFromTable( int iScore, int iPly )
+		{
+		if (iScore > MAX_SCORE - MAX_MATE_DEPTH) return iScore - iPly;
+		if (iScore < MIN_SCORE + MAX_MATE_DEPTH) return iScore + iPly;
+
+		return iScore;
+		}
+
+	/**
+	 * Converts a mate score from "distance from the root" to "distance from the
+	 * node", so that it stays valid wherever the position is reached.
+	 */
+	private static int scoreToTable( int iScore, int iPly )
+		{
+		if (iScore > MAX_SCORE - MAX_MATE_DEPTH) return Math.min( MAX_SCORE, iScore + iPly );
+		if (iScore < MIN_SCORE + MAX_MATE_DEPTH) return Math.max( MIN_SCORE, iScore - iPly );
+
+		return iScore;
+		}
+
+	/**
+	 * Remembers a quiet move that caused a beta cut-off.
+	 */
+	private void storeKiller( int iPly, int iPacked )
+		{
+		final int[] killers = _killers[ iPly ];
+
+		if (killers[ 0 ] != iPacked)
+			{
+			killers[ 1 ] = killers[ 0 ];
+			killers[ 0 ] = iPacked;
+			}
+		}
+
+	} /* end of class Search */
@@ -0,0 +1,139 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+/**
+ * The {@link SearchStats} class counts the work done by one or more searches.
+ *
+ * Each search fills in its own statistics, so searches on different threads don't
+ * interfere with each other.  Callers that want running totals, such as one per worker
+ * thread, can {@link #add} the statistics of each search together.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public final class SearchStats
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Number of nodes visited. */
+	private long _lNodes;
+	/** Elapsed time, in milliseconds. */
+	private long _lElapsedMSecs;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 */
+	public SearchStats()
+		{ /* EMPTY CTOR */ }
+
+	/**
+	 * CTOR
+	 *
+	 * @param lNodes
+	 * 	Number of nodes visited.
+	 * @param lElapsedMSecs
+	 * 	Elapsed time, in milliseconds.
+	 */
+	SearchStats( long lNodes, long lElapsedMSecs )
+		{
+		_lNodes = lNodes;
+		_lElapsedMSecs = lElapsedMSecs;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Adds another set of statistics to this one.
+	 *
+	 * @param stats
+	 * 	Statistics to add; may be <code>null</code>.
+	 *
+	 * @return This object, for chaining.
+	 */
+	public SearchStats add( SearchStats stats )
+		{
+		if (stats != null)
+			{
+			_lNodes += stats._lNodes;
+			_lElapsedMSecs += stats._lElapsedMSecs;
+			}
+
+		return this;
+		}
+
+	/**
+	 * Clears the statistics.
+	 */
+	public void reset()
+		{ _lNodes = _lElapsedMSecs = 0L; }
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the elapsed time.
+	 *
+	 * @return Elapsed time, in milliseconds.
+	 */
+	public long getElapsedMillisecs()
+		{ return _lElapsedMSecs; }
+
+	/**
+	 * Gets the node count.
+	 *
+	 * @return Number of nodes visited.
+	 */
+	public long getNodeCount()
+		{ return _lNodes; }
+
+	/**
+	 * Gets the "Nodes per Second" rate.
+	 *
+	 * @return NPS
+	 */
+	public long getNPS()
+		{ return (_lElapsedMSecs > 0) ? ((1000L * _lNodes) / _lElapsedMSecs) : 0L; }
+
+	@Override
+	public String toString()
+		{ return String.format( "Nodes: %,d  NPS: %,d", _lNodes, getNPS() ); }
+	} /* end of class SearchStats */
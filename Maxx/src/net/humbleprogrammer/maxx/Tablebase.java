@@ -0,0 +1,828 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.humbleprogrammer.humble.*;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link Tablebase} class holds the distance-to-mate table for a single material
+ * signature, such as "KRKP".
+ *
+ * Every legal arrangement of the pieces gets a unique index.  The side with more
+ * material is always white, so "KPK" also covers a black pawn.  Pawnless tables put
+ * the white King in the a1-d1-d4 triangle (and break ties on the long diagonal), while
+ * tables with pawns only mirror the board left-to-right.  Each position, for each side
+ * to move, is a single byte:
+ * <pre>
+ *	0          draw
+ *	1..127     moving player mates in N moves
+ *	-1..-127   moving player is mated in (-N - 1) moves; -1 is checkmate
+ *	-128       illegal, or a duplicate of a symmetric position
+ * </pre>
+ * Tables are generated by {@link TablebaseGenerator}, saved as a 16-byte header
+ * followed by the raw values, and memory-mapped when opened.  Castling rights, the
+ * fifty-move rule, and en passant captures are not part of the tables.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class Tablebase implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Maximum number of pieces, including both Kings. */
+	public static final int    MAX_PIECES = 4;
+	/** Returned by {@link #probe} when a position isn't covered by any table. */
+	public static final int    UNKNOWN    = Integer.MIN_VALUE;
+	/** File extension for table files. */
+	public static final String EXTENSION  = ".egtb";
+
+	/** Table value for a draw. */
+	static final byte DRAW    = 0;
+	/** Table value for an illegal (or duplicate) position. */
+	static final byte ILLEGAL = Byte.MIN_VALUE;
+
+	/** Size of the file header, in bytes. */
+	static final int  HEADER_BYTES = 16;
+	/** File signature ("MAXXEGTB"). */
+	static final long SIGNATURE    = 0x4D41585845475442L;
+	/** File format version. */
+	static final int  VERSION      = 1;
+
+	/** Piece letters, indexed by piece type. */
+	private static final String PIECE_GLYPHS = " PNBRQK";
+
+	//  -----------------------------------------------------------------------
+	//	STATIC DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Index into the a1-d1-d4 triangle, or INVALID. */
+	private static final int[] s_triangle = new int[ 64 ];
+
+	/** Registered tables, by material. */
+	private static final ConcurrentMap<String, Tablebase> s_tables = new ConcurrentHashMap<>();
+	/** Largest number of pieces in any registered table. */
+	private static volatile int s_iMaxPieces;
+
+	/** Logger */
+	private static final Logger s_log = LoggerFactory.getLogger( Tablebase.class );
+
+	static
+		{
+		int index = 0;
+
+		Arrays.fill( s_triangle, INVALID );
+
+		for ( int iRank = 0; iRank < 4; ++iRank )
+			for ( int iFile = iRank; iFile < 4; ++iFile )
+				s_triangle[ Square.toIndex( iRank, iFile ) ] = index++;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Canonical material signature, e.g., "KRKP". */
+	private final String     _strMaterial;
+	/** Piece in each slot: white King, black King, white pieces, black pieces. */
+	final         int[]      _pieces;
+	/** Number of squares for each slot. */
+	private final int[]      _radix;
+	/** .T. if there are pawns on the board. */
+	final         boolean    _bPawns;
+	/** Number of positions, for each side to move. */
+	final         int        _iSize;
+	/** Table values, or <code>null</code> if the table isn't open. */
+	private       ByteBuffer _data;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Layout-only CTOR, which has no table data.
+	 *
+	 * @param strMaterial
+	 * 	Material signature.
+	 */
+	Tablebase( String strMaterial )
+		{
+		_strMaterial = normalizeMaterial( strMaterial );
+		DBC.requireNotNull( _strMaterial, "Material" );
+		//	-----------------------------------------------------------------
+		final int iSecondKing = _strMaterial.indexOf( 'K', 1 );
+		final String strWhite = _strMaterial.substring( 1, iSecondKing );
+		final String strBlack = _strMaterial.substring( iSecondKing + 1 );
+
+		_pieces = new int[ _strMaterial.length() ];
+		_pieces[ 0 ] = Piece.W_KING;
+		_pieces[ 1 ] = Piece.B_KING;
+
+		int iSlot = 2;
+
+		for ( int idx = 0; idx < strWhite.length(); ++idx )
+			_pieces[ iSlot++ ] = Piece.create( WHITE, PIECE_GLYPHS.indexOf( strWhite.charAt( idx ) ) );
+		for ( int idx = 0; idx < strBlack.length(); ++idx )
+			_pieces[ iSlot++ ] = Piece.create( BLACK, PIECE_GLYPHS.indexOf( strBlack.charAt( idx ) ) );
+
+		_bPawns = (_strMaterial.indexOf( 'P' ) >= 0);
+		_radix = new int[ _pieces.length ];
+
+		long lSize = 1;
+
+		for ( int idx = 0; idx < _pieces.length; ++idx )
+			{
+			if (idx == 0)
+				_radix[ idx ] = _bPawns ? 32 : 10;
+			else
+				_radix[ idx ] = (Piece.getType( _pieces[ idx ] ) == PAWN) ? 48 : 64;
+
+			lSize *= _radix[ idx ];
+			}
+
+		_iSize = (int) lSize;
+		}
+
+	/**
+	 * Opens a table file.
+	 *
+	 * @param path
+	 * 	Path to the table, whose file name is the material signature.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be opened, or isn't a table.
+	 */
+	public Tablebase( Path path ) throws IOException
+		{
+		this( getMaterialFromPath( path ) );
+		//	-----------------------------------------------------------------
+		try (FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ))
+			{
+			ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES );
+
+			while ( header.hasRemaining() && channel.read( header ) >= 0 )
+				{ /* keep reading */ }
+
+			header.flip();
+
+			if (header.remaining() < HEADER_BYTES ||
+				header.getLong() != SIGNATURE ||
+				header.getInt() != VERSION ||
+				header.getInt() != _iSize ||
+				channel.size() != HEADER_BYTES + 2L * _iSize)
+				{
+				throw new IOException( "'" + path + "' is not a " + _strMaterial + " table." );
+				}
+
+			_data = channel.map( FileChannel.MapMode.READ_ONLY, HEADER_BYTES, 2L * _iSize );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Releases the table.  The mapping itself is released when the table is
+	 * garbage collected.
+	 */
+	@Override
+	public void close()
+		{
+		unregister( this );
+		_data = null;
+		}
+
+	/**
+	 * Generates a table, and any tables it depends on, in a folder.  Tables that
+	 * already exist are reused.
+	 *
+	 * @param strMaterial
+	 * 	Material signature, e.g., "KRKP".
+	 * @param pathDir
+	 * 	Folder for the table files.
+	 * @param iThreads
+	 * 	Number of worker threads, which must be .GT. zero.
+	 *
+	 * @return Open table, which has not been registered.
+	 *
+	 * @throws IOException
+	 * 	if a table can't be written or read.
+	 */
+	public static Tablebase generate( String strMaterial, Path pathDir, int iThreads ) throws IOException
+		{
+		DBC.requireNotNull( normalizeMaterial( strMaterial ), "Material" );
+		DBC.requireNotNull( pathDir, "Folder" );
+		DBC.requireGreaterThanZero( iThreads, "Threads" );
+		//	-----------------------------------------------------------------
+		return TablebaseGenerator.generate( normalizeMaterial( strMaterial ),
+											pathDir,
+											iThreads,
+											new HashMap<String, Tablebase>() );
+		}
+
+	/**
+	 * Finds the best move in a position, which is the fastest mate for the winning
+	 * side and the slowest one for the losing side.
+	 *
+	 * @param bd
+	 * 	Position to examine.
+	 *
+	 * @return Best move, or <code>null</code> if the position isn't covered, or
+	 * the game is over.
+	 */
+	public static Move getBestMove( Board bd )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		//	-----------------------------------------------------------------
+		final int iValue = getValue( bd );
+
+		if (iValue == UNKNOWN || iValue == ILLEGAL) return null;
+
+		Move moveBest = null;
+		int iBest = UNKNOWN;
+
+		for ( Move move : new MoveList( bd ) )
+			{
+			int iChild = getValue( new Board( bd, move ) );
+			int iRank;
+
+			if (iChild == UNKNOWN || iChild == ILLEGAL)
+				return null;
+			//
+			//	Rank the replies from the child's point of view: the lower, the
+			//	better for us.  Getting mated quickly is worst for the child, and
+			//	mating quickly is best for it.
+			//
+			if (iChild < 0)
+				iRank = 1000 + iChild;          // child loses; sooner is better
+			else if (iChild == DRAW)
+				iRank = 500;
+			else
+				iRank = iChild;                 // child wins; later is better
+
+			if (iRank > iBest)
+				{
+				iBest = iRank;
+				moveBest = move;
+				}
+			}
+
+		return moveBest;
+		}
+
+	/**
+	 * Follows the best moves from a position.
+	 *
+	 * @param bd
+	 * 	Starting position.
+	 * @param iMaxPlies
+	 * 	Maximum length of the line.
+	 *
+	 * @return Principal variation, which is empty if the position isn't covered or
+	 * is a draw.
+	 */
+	public static PV getLine( Board bd, int iMaxPlies )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		//	-----------------------------------------------------------------
+		PV pv = new PV();
+		Board bdLine = bd;
+
+		while ( pv.size() < iMaxPlies )
+			{
+			int iValue = getValue( bdLine );
+
+			if (iValue == UNKNOWN || iValue == ILLEGAL || iValue == DRAW) break;
+
+			Move move = getBestMove( bdLine );
+
+			if (move == null) break;
+
+			pv.add( move );
+			bdLine = new Board( bdLine, move );
+			}
+
+		return pv;
+		}
+
+	/**
+	 * Gets the largest number of pieces in any registered table.
+	 *
+	 * @return Piece count, which is zero if there are no tables.
+	 */
+	public static int getMaxPieces()
+		{ return s_iMaxPieces; }
+
+	/**
+	 * Opens and registers all the tables in a folder.
+	 *
+	 * @param pathDir
+	 * 	Folder to search.
+	 *
+	 * @return Number of tables loaded.
+	 *
+	 * @throws IOException
+	 * 	if the folder can't be read, or a table is corrupt.
+	 */
+	public static int load( Path pathDir ) throws IOException
+		{
+		DBC.requireNotNull( pathDir, "Folder" );
+		//	-----------------------------------------------------------------
+		int iCount = 0;
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream( pathDir, "*" + EXTENSION ))
+			{
+			for ( Path path : files )
+				{
+				register( new Tablebase( path ) );
+				++iCount;
+				}
+			}
+
+		s_log.debug( "Loaded {} tables from '{}'.", iCount, pathDir );
+		return iCount;
+		}
+
+	/**
+	 * Probes the registered tables.
+	 *
+	 * @param bd
+	 * 	Position to probe.
+	 *
+	 * @return Score from the perspective of the moving player, which is a mate
+	 * score for a win or loss, zero for a draw, or UNKNOWN if the position isn't
+	 * covered.
+	 */
+	public static int probe( Board bd )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		//	-----------------------------------------------------------------
+		return toScore( getValue( bd ) );
+		}
+
+	/**
+	 * Registers a table, so it can be probed.
+	 *
+	 * @param table
+	 * 	Table to register.
+	 */
+	public static void register( Tablebase table )
+		{
+		DBC.requireNotNull( table, "Table" );
+		DBC.require( table._data != null, "Table is not open." );
+		//	-----------------------------------------------------------------
+		s_tables.put( table._strMaterial, table );
+		updateMaxPieces();
+		}
+
+	/**
+	 * Unregisters a table.
+	 *
+	 * @param table
+	 * 	Table to unregister.
+	 */
+	public static void unregister( Tablebase table )
+		{
+		if (table != null && s_tables.remove( table._strMaterial, table ))
+			updateMaxPieces();
+		}
+
+	/**
+	 * Unregisters all tables.
+	 */
+	public static void unregisterAll()
+		{
+		s_tables.clear();
+		updateMaxPieces();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the material signature.
+	 *
+	 * @return Material, e.g., "KRKP".
+	 */
+	public String getMaterial()
+		{ return _strMaterial; }
+
+	/**
+	 * Gets the longest mate in the table.
+	 *
+	 * @param player
+	 * 	Moving player.
+	 *
+	 * @return Longest mate, in moves.
+	 */
+	public int getMaxMateIn( int player )
+		{
+		DBC.require( player == WHITE || player == BLACK, "Invalid player" );
+		//	-----------------------------------------------------------------
+		int iMax = 0;
+
+		for ( int idx = player * _iSize, iEnd = idx + _iSize; idx < iEnd; ++idx )
+			iMax = Math.max( iMax, _data.get( idx ) );
+
+		return iMax;
+		}
+
+	/**
+	 * Gets the number of positions, for each side to move.
+	 *
+	 * @return Position count, including illegal ones.
+	 */
+	public int size()
+		{ return _iSize; }
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Computes the index of a position.
+	 *
+	 * @param sq
+	 * 	Square for each slot, which will be normalized in place.
+	 *
+	 * @return Index, in the range [0.._iSize).
+	 */
+	int computeIndex( int[] sq )
+		{
+		normalize( sq, _pieces.length, _bPawns );
+
+		int index = _bPawns ? ((Square.getRank( sq[ 0 ] ) << 2) | Square.getFile( sq[ 0 ] ))
+							: s_triangle[ sq[ 0 ] ];
+
+		for ( int idx = 1; idx < sq.length; ++idx )
+			index = (index * _radix[ idx ]) + ((_radix[ idx ] == 48) ? sq[ idx ] - 8 : sq[ idx ]);
+
+		return index;
+		}
+
+	/**
+	 * Converts an index back to a position.
+	 *
+	 * @param index
+	 * 	Index, in the range [0.._iSize).
+	 * @param sq
+	 * 	[out] Square for each slot.
+	 */
+	void decodeIndex( int index, int[] sq )
+		{
+		for ( int idx = sq.length - 1; idx > 0; --idx )
+			{
+			int iCode = index % _radix[ idx ];
+
+			sq[ idx ] = (_radix[ idx ] == 48) ? iCode + 8 : iCode;
+			index /= _radix[ idx ];
+			}
+
+		if (_bPawns)
+			sq[ 0 ] = Square.toIndex( index >> 2, index & 0x03 );
+		else
+			{
+			for ( int iSq = 0; iSq < 64; ++iSq )
+				if (s_triangle[ iSq ] == index)
+					{
+					sq[ 0 ] = iSq;
+					break;
+					}
+			}
+		}
+
+	/**
+	 * Gets the raw value of a position.
+	 *
+	 * @param iOffset
+	 * 	Offset, which is the index plus the moving player times the size.
+	 *
+	 * @return Table value.
+	 */
+	int getValue( int iOffset )
+		{ return _data.get( iOffset ); }
+
+	/**
+	 * Gets the raw value of a position from the registered tables.
+	 *
+	 * @param bd
+	 * 	Position to look up.
+	 *
+	 * @return Table value, or UNKNOWN if not covered.
+	 */
+	static int getValue( Board bd )
+		{
+		assert bd != null;
+		//	-----------------------------------------------------------------
+		final long bbAll = bd.map[ MAP_W_ALL ] | bd.map[ MAP_B_ALL ];
+		final int iCount = Long.bitCount( bbAll );
+
+		if (iCount > s_iMaxPieces ||
+			bd.getCastlingFlags() != Board.CastlingFlags.NONE ||
+			bd.getEnPassantSquare() != INVALID)
+			{
+			return UNKNOWN;
+			}
+
+		int[] pieces = new int[ iCount ];
+		int[] sq = new int[ iCount ];
+		int index = 0;
+
+		for ( long bb = bbAll; bb != 0L; bb &= (bb - 1) )
+			{
+			sq[ index ] = BitUtil.first( bb );
+			pieces[ index ] = bd.get( sq[ index ] );
+			++index;
+			}
+
+		return lookup( s_tables, pieces, sq, iCount, bd.getMovingPlayer() );
+		}
+
+	/**
+	 * Looks up an arbitrary set of pieces.
+	 *
+	 * @param tables
+	 * 	Tables to search, by material.
+	 * @param pieces
+	 * 	Pieces on the board.
+	 * @param sq
+	 * 	Square of each piece.
+	 * @param iCount
+	 * 	Number of pieces.
+	 * @param player
+	 * 	Moving player.
+	 *
+	 * @return Table value, or UNKNOWN if not covered.
+	 */
+	static int lookup( Map<String, Tablebase> tables, int[] pieces, int[] sq, int iCount, int player )
+		{
+		if (iCount <= 2) return DRAW; // bare Kings
+		//	-----------------------------------------------------------------
+		final String strWhite = getSide( pieces, iCount, WHITE );
+		final String strBlack = getSide( pieces, iCount, BLACK );
+		final boolean bFlip = isStronger( strBlack, strWhite );
+		final Tablebase table = tables.get( bFlip ? strBlack + strWhite : strWhite + strBlack );
+
+		if (table == null || table._data == null) return UNKNOWN;
+		//
+		//	Assign each piece to a slot, swapping colors if the table has the
+		//	stronger side as white.
+		//
+		final int[] slots = new int[ table._pieces.length ];
+		final boolean[] used = new boolean[ iCount ];
+
+		for ( int iSlot = 0; iSlot < slots.length; ++iSlot )
+			for ( int idx = 0; idx < iCount; ++idx )
+				{
+				int piece = bFlip ? (pieces[ idx ] ^ 1) : pieces[ idx ];
+
+				if (!used[ idx ] && piece == table._pieces[ iSlot ])
+					{
+					used[ idx ] = true;
+					slots[ iSlot ] = bFlip ? (sq[ idx ] ^ 0x38) : sq[ idx ];
+					break;
+					}
+				}
+
+		int iOffset = table.computeIndex( slots ) + ((bFlip ? player ^ 1 : player) * table._iSize);
+
+		return table._data.get( iOffset );
+		}
+
+	/**
+	 * Normalizes the material signature, so the stronger side is first and the
+	 * pieces are in descending order of value.
+	 *
+	 * @param strMaterial
+	 * 	Material signature, e.g., "KPKR".
+	 *
+	 * @return Normalized signature, e.g., "KRKP", or <code>null</code> if invalid.
+	 */
+	static String normalizeMaterial( String strMaterial )
+		{
+		if (strMaterial == null) return null;
+		//	-----------------------------------------------------------------
+		String str = strMaterial.trim().toUpperCase();
+		int iSecondKing = str.indexOf( 'K', 1 );
+
+		if (str.length() < 3 || str.length() > MAX_PIECES || str.charAt( 0 ) != 'K' ||
+			iSecondKing < 0 || str.indexOf( 'K', iSecondKing + 1 ) >= 0)
+			{
+			return null;
+			}
+
+		for ( int idx = 0; idx < str.length(); ++idx )
+			if ("PNBRQK".indexOf( str.charAt( idx ) ) < 0)
+				return null;
+
+		String strWhite = "K" + sortPieces( str.substring( 1, iSecondKing ) );
+		String strBlack = "K" + sortPieces( str.substring( iSecondKing + 1 ) );
+
+		return isStronger( strBlack, strWhite ) ? strBlack + strWhite : strWhite + strBlack;
+		}
+
+	/**
+	 * Normalizes a position, using the symmetries of the board.
+	 *
+	 * @param sq
+	 * 	Square for each slot; slot zero is the white King.
+	 * @param iCount
+	 * 	Number of slots.
+	 * @param bPawns
+	 * 	.T. if there are pawns, which only allows a left-to-right mirror.
+	 */
+	static void normalize( int[] sq, int iCount, boolean bPawns )
+		{
+		int iMask = (Square.getFile( sq[ 0 ] ) > 3) ? 0x07 : 0;
+
+		if (!bPawns && Square.getRank( sq[ 0 ] ) > 3)
+			iMask |= 0x38;
+
+		if (iMask != 0)
+			for ( int idx = 0; idx < iCount; ++idx )
+				sq[ idx ] ^= iMask;
+
+		if (bPawns) return;
+		//
+		//	Flip along the a1-h8 diagonal if the King is above it or, when the King
+		//	is on the diagonal, the first piece that isn't is above it.
+		//
+		for ( int idx = 0; idx < iCount; ++idx )
+			{
+			int iRank = Square.getRank( sq[ idx ] );
+			int iFile = Square.getFile( sq[ idx ] );
+
+			if (iRank == iFile) continue;
+			if (iRank < iFile) return;
+
+			for ( int iSlot = 0; iSlot < iCount; ++iSlot )
+				sq[ iSlot ] = ((sq[ iSlot ] & 0x07) << 3) | (sq[ iSlot ] >>> 3);
+			return;
+			}
+		}
+
+	/**
+	 * Converts a table value to a score.
+	 *
+	 * @param iValue
+	 * 	Table value.
+	 *
+	 * @return Score, or UNKNOWN.
+	 */
+	static int toScore( int iValue )
+		{
+		if (iValue == UNKNOWN || iValue == ILLEGAL) return UNKNOWN;
+		if (iValue > 0) return MAX_SCORE - ((2 * iValue) - 1);
+		if (iValue < 0) return -(MAX_SCORE - (2 * (-iValue - 1)));
+
+		return 0;
+		}
+
+	/**
+	 * Extracts the material signature from a file name.
+	 *
+	 * @param path
+	 * 	Path to table file.
+	 *
+	 * @return Material signature.
+	 */
+	private static String getMaterialFromPath( Path path )
+		{
+		DBC.requireNotNull( path, "Path" );
+		//	-----------------------------------------------------------------
+		String strName = path.getFileName().toString();
+
+		if (strName.toLowerCase().endsWith( EXTENSION ))
+			strName = strName.substring( 0, strName.length() - EXTENSION.length() );
+
+		return strName;
+		}
+
+	/**
+	 * Builds the signature for one side.
+	 *
+	 * @param pieces
+	 * 	Pieces on the board.
+	 * @param iCount
+	 * 	Number of pieces.
+	 * @param player
+	 * 	Side to build.
+	 *
+	 * @return Signature, e.g., "KRP".
+	 */
+	static String getSide( int[] pieces, int iCount, int player )
+		{
+		StringBuilder sb = new StringBuilder( "K" );
+
+		for ( int pt = QUEEN; pt >= PAWN; --pt )
+			for ( int idx = 0; idx < iCount; ++idx )
+				if (pieces[ idx ] == Piece.create( player, pt ))
+					sb.append( PIECE_GLYPHS.charAt( pt ) );
+
+		return sb.toString();
+		}
+
+	/**
+	 * Determines if one side's material is stronger than another's.
+	 *
+	 * @param strLHS
+	 * 	Sorted signature for one side.
+	 * @param strRHS
+	 * 	Sorted signature for the other side.
+	 *
+	 * @return .T. if LHS has more pieces, or better pieces; .F. otherwise.
+	 */
+	private static boolean isStronger( String strLHS, String strRHS )
+		{
+		if (strLHS.length() != strRHS.length())
+			return strLHS.length() > strRHS.length();
+
+		for ( int idx = 0; idx < strLHS.length(); ++idx )
+			{
+			int ptLHS = PIECE_GLYPHS.indexOf( strLHS.charAt( idx ) );
+			int ptRHS = PIECE_GLYPHS.indexOf( strRHS.charAt( idx ) );
+
+			if (ptLHS != ptRHS) return ptLHS > ptRHS;
+			}
+
+		return false;
+		}
+
+	/**
+	 * Sorts piece glyphs in descending order of value.
+	 *
+	 * @param str
+	 * 	Piece glyphs, without the King.
+	 *
+	 * @return Sorted glyphs.
+	 */
+	private static String sortPieces( String str )
+		{
+		StringBuilder sb = new StringBuilder();
+
+		for ( int pt = QUEEN; pt >= PAWN; --pt )
+			for ( int idx = 0; idx < str.length(); ++idx )
+				if (PIECE_GLYPHS.indexOf( str.charAt( idx ) ) == pt)
+					sb.append( str.charAt( idx ) );
+
+		return sb.toString();
+		}
+
+	/**
+	 * Recomputes the largest registered table.
+	 */
+	private static synchronized void updateMaxPieces()
+		{
+		int iMax = 0;
+
+		for ( Tablebase table : s_tables.values() )
+			iMax = Math.max( iMax, table._pieces.length );
+
+		s_iMaxPieces = iMax;
+		}
+	} /* end of class Tablebase */
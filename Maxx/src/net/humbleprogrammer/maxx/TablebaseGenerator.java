@@ -0,0 +1,703 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.humbleprogrammer.humble.*;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link TablebaseGenerator} class builds a {@link Tablebase} by retrograde
+ * analysis.
+ *
+ * The first pass marks illegal and duplicate positions.  After that, pass N finds the
+ * positions where the moving player can reach a position that was lost in N-1
+ * moves (a win in N), followed by the positions where every move reaches a win in N
+ * or less (a loss in N).  Each pass is split into index ranges that run in parallel;
+ * a pass only ever reads values written by earlier passes, so the workers never
+ * have to coordinate.  Captures and promotions are resolved by probing the smaller
+ * tables, which are generated first.  Whatever is still unresolved when a pass
+ * finds nothing new is a draw.
+ */
+final class TablebaseGenerator
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Number of index ranges per thread, so fast ranges don't leave threads idle. */
+	private static final int RANGES_PER_THREAD = 16;
+
+	private static final int PASS_INIT = 0;
+	private static final int PASS_WIN  = 1;
+	private static final int PASS_LOSS = 2;
+
+	//  -----------------------------------------------------------------------
+	//	STATIC DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Logger */
+	private static final Logger s_log = LoggerFactory.getLogger( TablebaseGenerator.class );
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Layout of the table being generated. */
+	private final Tablebase              _layout;
+	/** Smaller tables, by material. */
+	private final Map<String, Tablebase> _tables;
+	/** Table values, for both sides to move. */
+	private final byte[]                 _values;
+	/** Number of pieces. */
+	private final int                    _iSlots;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param strMaterial
+	 * 	Normalized material signature.
+	 * @param tables
+	 * 	Smaller tables, by material.
+	 */
+	private TablebaseGenerator( String strMaterial, Map<String, Tablebase> tables )
+		{
+		_layout = new Tablebase( strMaterial );
+		_tables = tables;
+		_values = new byte[ 2 * _layout._iSize ];
+		_iSlots = _layout._pieces.length;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Generates a table, after the tables it depends on.
+	 *
+	 * @param strMaterial
+	 * 	Normalized material signature.
+	 * @param pathDir
+	 * 	Folder for the table files.
+	 * @param iThreads
+	 * 	Number of worker threads.
+	 * @param tables
+	 * 	[in/out] Open tables, by material.
+	 *
+	 * @return Open table.
+	 *
+	 * @throws IOException
+	 * 	if a table can't be written or read.
+	 */
+	static Tablebase generate( String strMaterial, Path pathDir, int iThreads,
+							   Map<String, Tablebase> tables ) throws IOException
+		{
+		Tablebase table = tables.get( strMaterial );
+
+		if (table != null) return table;
+		//	-----------------------------------------------------------------
+		final Path path = pathDir.resolve( strMaterial + Tablebase.EXTENSION );
+		//
+		//	The dependencies are always opened, because a capture that promotes
+		//	can skip a generation (e.g., KPKN => KQK).
+		//
+		for ( String strSub : getDependencies( strMaterial ) )
+			generate( strSub, pathDir, iThreads, tables );
+
+		if (!Files.exists( path ))
+			new TablebaseGenerator( strMaterial, tables ).run( iThreads, path );
+
+		table = new Tablebase( path );
+		tables.put( strMaterial, table );
+
+		return table;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Finds the tables that can be reached by a single capture or promotion.
+	 *
+	 * @param strMaterial
+	 * 	Normalized material signature.
+	 *
+	 * @return Set of normalized signatures.
+	 */
+	private static Set<String> getDependencies( String strMaterial )
+		{
+		final Set<String> setSubs = new LinkedHashSet<>();
+		final int[] pieces = new Tablebase( strMaterial )._pieces;
+		final int iCount = pieces.length;
+
+		for ( int iSlot = 2; iSlot < iCount; ++iSlot )
+			{
+			int[] subset = new int[ iCount - 1 ];
+
+			for ( int idx = 0, iSub = 0; idx < iCount; ++idx )
+				if (idx != iSlot) subset[ iSub++ ] = pieces[ idx ];
+
+			if (subset.length > 2)
+				setSubs.add( Tablebase.normalizeMaterial(
+						Tablebase.getSide( subset, subset.length, WHITE ) +
+						Tablebase.getSide( subset, subset.length, BLACK ) ) );
+
+			if (Piece.getType( pieces[ iSlot ] ) == PAWN)
+				{
+				int[] promoted = pieces.clone();
+
+				for ( int pt = QUEEN; pt >= KNIGHT; --pt )
+					{
+					promoted[ iSlot ] = Piece.create( Piece.getColor( pieces[ iSlot ] ), pt );
+					setSubs.add( Tablebase.normalizeMaterial(
+							Tablebase.getSide( promoted, iCount, WHITE ) +
+							Tablebase.getSide( promoted, iCount, BLACK ) ) );
+					}
+				}
+			}
+
+		return setSubs;
+		}
+
+	/**
+	 * Runs all the passes, then writes the table.
+	 *
+	 * @param iThreads
+	 * 	Number of worker threads.
+	 * @param path
+	 * 	Path to the table file.
+	 *
+	 * @throws IOException
+	 * 	if the table can't be written.
+	 */
+	private void run( int iThreads, Path path ) throws IOException
+		{
+		final Stopwatch swatch = Stopwatch.startNew();
+		final ExecutorService executor = Executors.newFixedThreadPool( iThreads );
+		int iMax = 0;
+
+		try
+			{
+			runPass( executor, iThreads, PASS_INIT, 0 );
+
+			for ( int iMoves = 0; ; ++iMoves )
+				{
+				DBC.require( iMoves < Byte.MAX_VALUE, "Mate is too long to store." );
+
+				int iWins = (iMoves > 0) ? runPass( executor, iThreads, PASS_WIN, iMoves ) : 0;
+				int iLosses = runPass( executor, iThreads, PASS_LOSS, iMoves );
+
+				if (iWins > 0) iMax = iMoves;
+				if (iMoves > 0 && iWins == 0 && iLosses == 0) break;
+				}
+			}
+		finally
+			{
+			executor.shutdown();
+			}
+
+		write( path );
+		swatch.stop();
+
+		s_log.info( "Generated {} ({} positions, longest mate {} moves) in {}",
+					_layout.getMaterial(), _values.length, iMax, swatch );
+		}
+
+	/**
+	 * Runs a single pass over the whole table.
+	 *
+	 * @param executor
+	 * 	Worker threads.
+	 * @param iThreads
+	 * 	Number of worker threads.
+	 * @param iPass
+	 * 	Type of pass (PASS_INIT, PASS_WIN, or PASS_LOSS).
+	 * @param iMoves
+	 * 	Distance to mate, in moves.
+	 *
+	 * @return Number of positions resolved.
+	 */
+	private int runPass( ExecutorService executor, int iThreads, int iPass, int iMoves )
+		{
+		final List<Worker> workers = new ArrayList<>();
+		final int iRanges = iThreads * RANGES_PER_THREAD;
+		final int iStep = (_values.length + iRanges - 1) / iRanges;
+
+		for ( int iStart = 0; iStart < _values.length; iStart += iStep )
+			workers.add( new Worker( iPass, iMoves, iStart, Math.min( iStart + iStep, _values.length ) ) );
+
+		int iCount = 0;
+
+		try
+			{
+			for ( Future<Integer> future : executor.invokeAll( workers ) )
+				iCount += future.get();
+			}
+		catch (InterruptedException ex)
+			{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException( "Tablebase generation was interrupted.", ex );
+			}
+		catch (ExecutionException ex)
+			{
+			throw new IllegalStateException( ex.getCause() );
+			}
+
+		return iCount;
+		}
+
+	/**
+	 * Writes the table to disk.
+	 *
+	 * @param path
+	 * 	Path to the table file.
+	 *
+	 * @throws IOException
+	 * 	if the table can't be written.
+	 */
+	private void write( Path path ) throws IOException
+		{
+		final Path pathTemp = path.resolveSibling( path.getFileName() + ".tmp" );
+
+		try (FileChannel channel = FileChannel.open( pathTemp,
+													 StandardOpenOption.CREATE,
+													 StandardOpenOption.TRUNCATE_EXISTING,
+													 StandardOpenOption.WRITE ))
+			{
+			ByteBuffer header = ByteBuffer.allocate( Tablebase.HEADER_BYTES );
+
+			header.putLong( Tablebase.SIGNATURE )
+				  .putInt( Tablebase.VERSION )
+				  .putInt( _layout._iSize )
+				  .flip();
+
+			for ( ByteBuffer buffer : new ByteBuffer[] { header, ByteBuffer.wrap( _values ) } )
+				while ( buffer.hasRemaining() )
+					channel.write( buffer );
+			}
+
+		Files.move( pathTemp, path, StandardCopyOption.REPLACE_EXISTING );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: Worker
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Processes one range of a pass.  Each worker has its own scratch arrays, so
+	 * workers share nothing but the table itself.
+	 */
+	private class Worker implements Callable<Integer>
+		{
+		private final int iPass;
+		private final int iMoves;
+		private final int iStart;
+		private final int iEnd;
+
+		/** Square for each slot, or INVALID once captured. */
+		private final int[] _sq      = new int[ _iSlots ];
+		/** Scratch squares for index computations. */
+		private final int[] _sqIndex = new int[ _iSlots ];
+		/** Scratch pieces & squares for probing smaller tables. */
+		private final int[] _subPieces = new int[ _iSlots ];
+		private final int[] _subSq     = new int[ _iSlots ];
+
+		/** Moving player. */
+		private int     _player;
+		/** Number of legal moves visited. */
+		private int     _iMoveCount;
+		/** .T. if every move visited so far reaches a win in iMoves or less. */
+		private boolean _bAllWins;
+
+		Worker( int iPass, int iMoves, int iStart, int iEnd )
+			{
+			this.iPass = iPass;
+			this.iMoves = iMoves;
+			this.iStart = iStart;
+			this.iEnd = iEnd;
+			}
+
+		@Override
+		public Integer call()
+			{
+			final int iSize = _layout._iSize;
+			int iCount = 0;
+
+			for ( int iOffset = iStart; iOffset < iEnd; ++iOffset )
+				{
+				if (_values[ iOffset ] != Tablebase.DRAW) continue;
+
+				_player = (iOffset < iSize) ? WHITE : BLACK;
+				_layout.decodeIndex( iOffset - (_player * iSize), _sq );
+
+				byte value;
+
+				if (iPass == PASS_INIT)
+					value = isLegal( iOffset - (_player * iSize) ) ? Tablebase.DRAW : Tablebase.ILLEGAL;
+				else
+					value = resolve();
+
+				if (value != Tablebase.DRAW)
+					{
+					_values[ iOffset ] = value;
+					++iCount;
+					}
+				}
+
+			return (iPass == PASS_INIT) ? 0 : iCount;
+			}
+
+		/**
+		 * Determines if the decoded position is legal, and canonical.
+		 *
+		 * @param index
+		 * 	Index of the position.
+		 *
+		 * @return .T. if legal; .F. otherwise.
+		 */
+		private boolean isLegal( int index )
+			{
+			long bbAll = 0L;
+
+			for ( int iSq : _sq )
+				{
+				if ((bbAll & Square.getMask( iSq )) != 0L) return false;
+				bbAll |= Square.getMask( iSq );
+				}
+
+			if ((Bitboards.king[ _sq[ 0 ] ] & Square.getMask( _sq[ 1 ] )) != 0L)
+				return false;
+
+			System.arraycopy( _sq, 0, _sqIndex, 0, _iSlots );
+
+			return (_layout.computeIndex( _sqIndex ) == index &&
+					!isAttacked( _sq[ 1 - _player ], _player, bbAll, INVALID ));
+			}
+
+		/**
+		 * Resolves the decoded position for the current pass.
+		 *
+		 * @return New value, or DRAW if still unresolved.
+		 */
+		private byte resolve()
+			{
+			_iMoveCount = 0;
+			_bAllWins = true;
+
+			if (visitMoves())
+				return (iPass == PASS_WIN) ? (byte) iMoves : Tablebase.DRAW;
+
+			if (iPass == PASS_LOSS)
+				{
+				if (_iMoveCount > 0 && _bAllWins)
+					return (byte) -(iMoves + 1);
+
+				if (_iMoveCount == 0 && iMoves == 0)
+					{
+					long bbAll = 0L;
+
+					for ( int iSq : _sq )
+						bbAll |= Square.getMask( iSq );
+
+					if (isAttacked( _sq[ _player ], _player ^ 1, bbAll, INVALID ))
+						return -1; // checkmate
+					}
+				}
+
+			return Tablebase.DRAW;
+			}
+
+		/**
+		 * Visits the value of a position reached by a legal move.
+		 *
+		 * @param iValue
+		 * 	Value of the new position, from the opponent's point of view.
+		 *
+		 * @return .T. to stop visiting; .F. to continue.
+		 */
+		private boolean visit( int iValue )
+			{
+			++_iMoveCount;
+
+			if (iPass == PASS_WIN)
+				return (iValue == -iMoves); // opponent is mated in (iMoves - 1)
+
+			if (iValue <= 0 || iValue > iMoves)
+				_bAllWins = false;
+
+			return !_bAllWins;
+			}
+
+		/**
+		 * Generates the legal moves in the decoded position.
+		 *
+		 * @return .T. if {@link #visit} stopped the generation; .F. otherwise.
+		 */
+		private boolean visitMoves()
+			{
+			long bbMine = 0L;
+			long bbTheirs = 0L;
+
+			for ( int iSlot = 0; iSlot < _iSlots; ++iSlot )
+				if (Piece.getColor( _layout._pieces[ iSlot ] ) == _player)
+					bbMine |= Square.getMask( _sq[ iSlot ] );
+				else
+					bbTheirs |= Square.getMask( _sq[ iSlot ] );
+
+			final long bbAll = bbMine | bbTheirs;
+
+			for ( int iSlot = 0; iSlot < _iSlots; ++iSlot )
+				{
+				final int piece = _layout._pieces[ iSlot ];
+
+				if (Piece.getColor( piece ) != _player) continue;
+
+				final int iSqFrom = _sq[ iSlot ];
+				final int pt = Piece.getType( piece );
+				long bbTo;
+
+				switch (pt)
+					{
+					case PAWN:
+						bbTo = getPawnMoves( iSqFrom, bbAll, bbTheirs );
+						break;
+					case KNIGHT:
+						bbTo = Bitboards.knight[ iSqFrom ];
+						break;
+					case BISHOP:
+						bbTo = Bitboards.getDiagonalMovesFrom( iSqFrom, bbAll );
+						break;
+					case ROOK:
+						bbTo = Bitboards.getLateralMovesFrom( iSqFrom, bbAll );
+						break;
+					case QUEEN:
+						bbTo = Bitboards.getSlidingMovesFrom( iSqFrom, bbAll );
+						break;
+					default:
+						bbTo = Bitboards.king[ iSqFrom ];
+						break;
+					}
+
+				for ( bbTo &= ~bbMine; bbTo != 0L; bbTo &= (bbTo - 1) )
+					{
+					final int iSqTo = BitUtil.first( bbTo );
+					final long bbAfter = (bbAll & ~Square.getMask( iSqFrom )) | Square.getMask( iSqTo );
+					final int iCaptured = findSlot( iSqTo );
+					final int iSqKing = (pt == KING) ? iSqTo : _sq[ _player ];
+
+					_sq[ iSlot ] = iSqTo;
+
+					boolean bStop = false;
+
+					if (!isAttacked( iSqKing, _player ^ 1, bbAfter, iCaptured ))
+						{
+						if (pt == PAWN && (iSqTo < 8 || iSqTo >= 56))
+							{
+							for ( int ptPromo = QUEEN; ptPromo >= KNIGHT && !bStop; --ptPromo )
+								bStop = visit( probe( iSlot, iCaptured, Piece.create( _player, ptPromo ) ) );
+							}
+						else
+							bStop = visit( probe( iSlot, iCaptured, piece ) );
+						}
+
+					_sq[ iSlot ] = iSqFrom;
+
+					if (bStop) return true;
+					}
+				}
+
+			return false;
+			}
+
+		/**
+		 * Gets the squares a pawn can move to.
+		 *
+		 * @param iSq
+		 * 	Pawn square.
+		 * @param bbAll
+		 * 	All pieces.
+		 * @param bbTheirs
+		 * 	Opposing pieces.
+		 *
+		 * @return Bitboard of target squares.
+		 */
+		private long getPawnMoves( int iSq, long bbAll, long bbTheirs )
+			{
+			final int iDir = (_player == WHITE) ? 8 : -8;
+			final int iHomeRank = (_player == WHITE) ? 1 : 6;
+			long bbTo = bbTheirs & ((_player == WHITE) ? Bitboards.pawnUpwards[ iSq ]
+													   : Bitboards.pawnDownwards[ iSq ]);
+
+			if ((bbAll & Square.getMask( iSq + iDir )) == 0L)
+				{
+				bbTo |= Square.getMask( iSq + iDir );
+
+				if (Square.getRank( iSq ) == iHomeRank &&
+					(bbAll & Square.getMask( iSq + iDir + iDir )) == 0L)
+					{
+					bbTo |= Square.getMask( iSq + iDir + iDir );
+					}
+				}
+
+			return bbTo;
+			}
+
+		/**
+		 * Finds the piece on a square.
+		 *
+		 * @param iSq
+		 * 	Square to search.
+		 *
+		 * @return Slot, or INVALID if empty.
+		 */
+		private int findSlot( int iSq )
+			{
+			for ( int iSlot = 0; iSlot < _iSlots; ++iSlot )
+				if (_sq[ iSlot ] == iSq) return iSlot;
+
+			return INVALID;
+			}
+
+		/**
+		 * Determines if a square is attacked.
+		 *
+		 * @param iSqTarget
+		 * 	Square to test.
+		 * @param player
+		 * 	Attacking player.
+		 * @param bbAll
+		 * 	All pieces.
+		 * @param iSkip
+		 * 	Slot to ignore (a captured piece), or INVALID.
+		 *
+		 * @return .T. if attacked; .F. otherwise.
+		 */
+		private boolean isAttacked( int iSqTarget, int player, long bbAll, int iSkip )
+			{
+			final long bbTarget = Square.getMask( iSqTarget );
+
+			for ( int iSlot = 0; iSlot < _iSlots; ++iSlot )
+				{
+				final int piece = _layout._pieces[ iSlot ];
+
+				if (iSlot == iSkip || Piece.getColor( piece ) != player) continue;
+
+				final int iSq = _sq[ iSlot ];
+				long bbAttacks;
+
+				switch (Piece.getType( piece ))
+					{
+					case PAWN:
+						bbAttacks = (player == WHITE) ? Bitboards.pawnUpwards[ iSq ] : Bitboards.pawnDownwards[ iSq ];
+						break;
+					case KNIGHT:
+						bbAttacks = Bitboards.knight[ iSq ];
+						break;
+					case BISHOP:
+						bbAttacks = Bitboards.getDiagonalMovesFrom( iSq, bbAll );
+						break;
+					case ROOK:
+						bbAttacks = Bitboards.getLateralMovesFrom( iSq, bbAll );
+						break;
+					case QUEEN:
+						bbAttacks = Bitboards.getSlidingMovesFrom( iSq, bbAll );
+						break;
+					default:
+						bbAttacks = Bitboards.king[ iSq ];
+						break;
+					}
+
+				if ((bbAttacks & bbTarget) != 0L) return true;
+				}
+
+			return false;
+			}
+
+		/**
+		 * Gets the value of the position after a move.
+		 *
+		 * @param iSlot
+		 * 	Slot of the moving piece, which has already been moved.
+		 * @param iCaptured
+		 * 	Slot of the captured piece, or INVALID.
+		 * @param piece
+		 * 	Moving piece after the move, which differs on promotion.
+		 *
+		 * @return Value, from the opponent's point of view.
+		 */
+		private int probe( int iSlot, int iCaptured, int piece )
+			{
+			if (iCaptured == INVALID && piece == _layout._pieces[ iSlot ])
+				{
+				System.arraycopy( _sq, 0, _sqIndex, 0, _iSlots );
+				return _values[ _layout.computeIndex( _sqIndex ) + ((_player ^ 1) * _layout._iSize) ];
+				}
+			//
+			//	Captures and promotions change the material, so probe a smaller
+			//	table instead.
+			//
+			int iCount = 0;
+
+			for ( int idx = 0; idx < _iSlots; ++idx )
+				{
+				if (idx == iCaptured) continue;
+
+				_subPieces[ iCount ] = (idx == iSlot) ? piece : _layout._pieces[ idx ];
+				_subSq[ iCount++ ] = _sq[ idx ];
+				}
+
+			int iValue = Tablebase.lookup( _tables, _subPieces, _subSq, iCount, _player ^ 1 );
+
+			if (iValue == Tablebase.UNKNOWN)
+				throw new IllegalStateException( "Missing table for " + _layout.getMaterial() );
+
+			return iValue;
+			}
+		}
+	} /* end of class TablebaseGenerator */
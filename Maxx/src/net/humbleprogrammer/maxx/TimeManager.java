@@ -0,0 +1,371 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import net.humbleprogrammer.humble.DBC;
+
+/**
+ * The {@link TimeManager} class decides how long a search may run.
+ *
+ * A clock budget is split into a <i>soft</i> limit, which is checked between iterations,
+ * and a <i>hard</i> limit, which aborts the search outright.  The soft limit is extended
+ * (but never past the hard limit) when the best move changes or the score drops.
+ *
+ * The search only asks {@link #isTimeUp(long)} once every {@link #NODE_MASK}+1 nodes, so
+ * reading the clock costs next to nothing.  A time manager is good for a single search;
+ * create a new one for each move.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class TimeManager
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** The clock is consulted whenever <code>(nodes &amp; NODE_MASK) == 0</code>. */
+	public static final int  NODE_MASK = 0x0FFF;
+
+	/** Number of moves assumed to remain when the time control doesn't say. */
+	static final int  DEFAULT_MOVES_TO_GO = 30;
+	/** Time held back from every budget to cover move transmission, in milliseconds. */
+	static final long SAFETY_MARGIN       = 50L;
+	/** Hard limit, as a multiple of the soft limit. */
+	static final int  HARD_FACTOR         = 4;
+	/** Score drop, in centipawns, that earns the search more time. */
+	static final int  SCORE_DROP          = 30;
+
+	/** One millisecond, in nanoseconds. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Maximum search depth, in plies. */
+	private int  _iDepthLimit = Search.MAX_DEPTH;
+	/** Maximum number of nodes, or zero for no limit. */
+	private long _lNodeLimit;
+	/** Soft limit as originally allocated, in milliseconds. */
+	private long _lBaseMillisecs;
+	/** Soft limit (don't start another iteration), in milliseconds. */
+	private long _lSoftMillisecs;
+	/** Hard limit (abort the search), in milliseconds. */
+	private long _lHardMillisecs;
+	/** Clock reading when the search started, in nanoseconds. */
+	private volatile long _lStartNanosecs;
+	/** .T. if there is no time limit. */
+	private boolean _bInfinite = true;
+	/** Score at the end of the previous iteration. */
+	private int     _iLastScore;
+	/** .T. once at least one iteration has completed. */
+	private boolean _bHasScore;
+
+	/** .T. while pondering; the clock is ignored until {@link #ponderHit()}. */
+	private volatile boolean _bPondering;
+	/** .T. once the search has been told to stop. */
+	private volatile boolean _bStopped;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.  The search runs until it is stopped, or until it reaches
+	 * the depth or node limit.
+	 */
+	public TimeManager()
+		{
+		/*
+		**	EMPTY CTOR
+		*/
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Budgets time from a game clock.
+	 *
+	 * @param lRemaining
+	 * 	Time left on the moving player's clock, in milliseconds.
+	 * @param lIncrement
+	 * 	Increment per move, in milliseconds.
+	 * @param iMovesToGo
+	 * 	Moves until the next time control, or zero for sudden death.
+	 */
+	public void setClock( long lRemaining, long lIncrement, int iMovesToGo )
+		{
+		DBC.require( lRemaining >= 0L, "Remaining time cannot be negative." );
+		DBC.require( lIncrement >= 0L, "Increment cannot be negative." );
+		//	-----------------------------------------------------------------
+		final long lAvailable = Math.max( 1L, lRemaining - SAFETY_MARGIN );
+		final long lMoves = (iMovesToGo > 0) ? iMovesToGo : DEFAULT_MOVES_TO_GO;
+		//
+		//	Never plan on using more than 80% of what's left, and never let the hard
+		//	limit run past it either.
+		//
+		final long lCeiling = Math.max( 1L, (lAvailable * 4L) / 5L );
+		final long lSoft = Math.min( lCeiling, (lAvailable / lMoves) + ((lIncrement * 3L) / 4L) );
+
+		_lBaseMillisecs = _lSoftMillisecs = Math.max( 1L, lSoft );
+		_lHardMillisecs = Math.max( _lSoftMillisecs, Math.min( lCeiling, lSoft * HARD_FACTOR ) );
+		_bInfinite = false;
+		}
+
+	/**
+	 * Budgets a fixed amount of time for the move.
+	 *
+	 * @param lMillisecs
+	 * 	Time to spend, in milliseconds.
+	 */
+	public void setMoveTime( long lMillisecs )
+		{
+		DBC.requireGreaterThanZero( lMillisecs, "Move Time" );
+		//	-----------------------------------------------------------------
+		_lBaseMillisecs = _lSoftMillisecs = _lHardMillisecs = lMillisecs;
+		_bInfinite = false;
+		}
+
+	/**
+	 * Starts the clock.  Called by the search.
+	 */
+	public void start()
+		{
+		_lStartNanosecs = System.nanoTime();
+		}
+
+	/**
+	 * Tells the search to stop as soon as possible.  Safe to call from any
+	 * thread.
+	 */
+	public void stop()
+		{
+		_bStopped = true;
+		}
+
+	/**
+	 * Tells a pondering search that the opponent played the predicted move.
+	 * The clock starts now and the search continues under the normal limits.
+	 * Safe to call from any thread.
+	 */
+	public void ponderHit()
+		{
+		_lStartNanosecs = System.nanoTime();
+		_bPondering = false;
+		}
+
+	/**
+	 * Determines if the search has to stop right now.  The search calls this every
+	 * {@link #NODE_MASK}+1 nodes.
+	 *
+	 * @param lNodes
+	 * 	Nodes searched so far.
+	 *
+	 * @return .T. if the search must stop, .F. otherwise.
+	 */
+	public boolean isTimeUp( long lNodes )
+		{
+		if (_bStopped) return true;
+		if (_bPondering) return false;
+		//	-----------------------------------------------------------------
+		if (_lNodeLimit > 0L && lNodes >= _lNodeLimit)
+			return true;
+
+		return !_bInfinite && getElapsedMillisecs() >= _lHardMillisecs;
+		}
+
+	/**
+	 * Determines if there is time for another iteration.  The next iteration
+	 * usually takes longer than all the previous ones combined, so there is
+	 * no point starting it once half of the soft limit is gone.
+	 *
+	 * @param iNextDepth
+	 * 	Depth of the next iteration, in plies.
+	 * @param lNodes
+	 * 	Nodes searched so far.
+	 *
+	 * @return .T. if another iteration should be started, .F. otherwise.
+	 */
+	public boolean canStartIteration( int iNextDepth, long lNodes )
+		{
+		if (_bStopped || iNextDepth > _iDepthLimit) return false;
+		if (_bPondering) return true;
+		//	-----------------------------------------------------------------
+		if (_lNodeLimit > 0L && lNodes >= _lNodeLimit)
+			return false;
+
+		return _bInfinite || getElapsedMillisecs() < (_lSoftMillisecs / 2L);
+		}
+
+	/**
+	 * Updates the soft limit once an iteration has completed.
+	 *
+	 * @param bBestMoveChanged
+	 * 	.T. if the iteration picked a different best move.
+	 * @param iScore
+	 * 	Score of the iteration, from the moving player's perspective.
+	 */
+	public void onIterationComplete( boolean bBestMoveChanged, int iScore )
+		{
+		if (_bHasScore && !_bInfinite)
+			{
+			long lExtra = 0L;
+
+			if (bBestMoveChanged)
+				lExtra += _lBaseMillisecs / 2L;
+			if (iScore <= _iLastScore - SCORE_DROP)
+				lExtra += _lBaseMillisecs;
+
+			_lSoftMillisecs = Math.min( _lHardMillisecs, _lSoftMillisecs + lExtra );
+			}
+
+		_iLastScore = iScore;
+		_bHasScore = true;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the maximum search depth.
+	 *
+	 * @return Depth limit, in plies.
+	 */
+	public int getDepthLimit()
+		{
+		return _iDepthLimit;
+		}
+
+	/**
+	 * Sets the maximum search depth.
+	 *
+	 * @param iDepth
+	 * 	Depth limit, in plies, in the range [1..MAX_DEPTH].
+	 */
+	public void setDepthLimit( int iDepth )
+		{
+		DBC.requireGreaterThanZero( iDepth, "Depth" );
+		//	-----------------------------------------------------------------
+		_iDepthLimit = Math.min( iDepth, Search.MAX_DEPTH );
+		}
+
+	/**
+	 * Gets the time elapsed since the search started.
+	 *
+	 * @return Elapsed time, in milliseconds.
+	 */
+	public long getElapsedMillisecs()
+		{
+		return (System.nanoTime() - _lStartNanosecs) / NANOS_PER_MILLI;
+		}
+
+	/**
+	 * Gets the hard limit.
+	 *
+	 * @return Hard limit, in milliseconds, or zero if there is no time limit.
+	 */
+	public long getHardLimit()
+		{
+		return _bInfinite ? 0L : _lHardMillisecs;
+		}
+
+	/**
+	 * Gets the node limit.
+	 *
+	 * @return Maximum number of nodes, or zero for no limit.
+	 */
+	public long getNodeLimit()
+		{
+		return _lNodeLimit;
+		}
+
+	/**
+	 * Sets the node limit.  The limit is only checked every {@link #NODE_MASK}+1
+	 * nodes, so the search may overshoot it slightly.
+	 *
+	 * @param lNodes
+	 * 	Maximum number of nodes, or zero for no limit.
+	 */
+	public void setNodeLimit( long lNodes )
+		{
+		DBC.require( lNodes >= 0L, "Node limit cannot be negative." );
+		//	-----------------------------------------------------------------
+		_lNodeLimit = lNodes;
+		}
+
+	/**
+	 * Gets the soft limit, including any extensions.
+	 *
+	 * @return Soft limit, in milliseconds, or zero if there is no time limit.
+	 */
+	public long getSoftLimit()
+		{
+		return _bInfinite ? 0L : _lSoftMillisecs;
+		}
+
+	/**
+	 * Determines if the search is pondering.
+	 *
+	 * @return .T. if pondering, .F. otherwise.
+	 */
+	public boolean isPondering()
+		{
+		return _bPondering;
+		}
+
+	/**
+	 * Puts the search in pondering mode, where it ignores the clock until
+	 * {@link #ponderHit()} is called.
+	 *
+	 * @param bPondering
+	 * 	.T. to ponder, .F. otherwise.
+	 */
+	public void setPondering( boolean bPondering )
+		{
+		_bPondering = bPondering;
+		}
+
+	/**
+	 * Determines if the search has been told to stop.
+	 *
+	 * @return .T. if stopped, .F. otherwise.
+	 */
+	public boolean isStopped()
+		{
+		return _bStopped;
+		}
+
+	} /* end of class TimeManager */
@@ -0,0 +1,267 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import net.humbleprogrammer.humble.DBC;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link TranspositionTable} class caches search results by Zobrist hash.
+ *
+ * Each entry is a pair of longs: the hash XOR'd with the data, and the data itself.  A torn
+ * write from another thread will fail the XOR test and simply look like a miss, so a single
+ * table can be shared by several searches without locking.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class TranspositionTable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Default table size, in megabytes. */
+	public static final int DEFAULT_MEGABYTES = 16;
+	/** Maximum table size, in megabytes. */
+	public static final int MAX_MEGABYTES     = 4096;
+
+	/** Score is an upper bound (fail low). */
+	static final int BOUND_UPPER = 1;
+	/** Score is a lower bound (fail high). */
+	static final int BOUND_LOWER = 2;
+	/** Score is exact. */
+	static final int BOUND_EXACT = 3;
+
+	/** Bytes per entry (key + data). */
+	private static final int ENTRY_BYTES = 16;
+
+	private static final int SHIFT_SCORE = 24;
+	private static final int SHIFT_DEPTH = 40;
+	private static final int SHIFT_BOUND = 48;
+	private static final int SHIFT_AGE   = 50;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Hash values, XOR'd with the data. */
+	private long[] _keys;
+	/** Packed entry data. */
+	private long[] _data;
+	/** Search generation, used to age out stale entries. */
+	private volatile int _iAge;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 */
+	public TranspositionTable()
+		{
+		this( DEFAULT_MEGABYTES );
+		}
+
+	/**
+	 * Alternate CTOR.
+	 *
+	 * @param iMegabytes
+	 * 	Table size, in megabytes.
+	 */
+	public TranspositionTable( int iMegabytes )
+		{
+		resize( iMegabytes );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Removes all entries from the table.
+	 */
+	public synchronized void clear()
+		{
+		_keys = new long[ _keys.length ];
+		_data = new long[ _data.length ];
+		_iAge = 0;
+		}
+
+	/**
+	 * Marks the start of a new search, so that entries from older searches are
+	 * replaced first.
+	 */
+	public void newSearch()
+		{
+		_iAge = (_iAge + 1) & 0xFF;
+		}
+
+	/**
+	 * Resizes the table.  All existing entries are discarded, so this must not be
+	 * called while a search is using the table.
+	 *
+	 * @param iMegabytes
+	 * 	Table size, in megabytes, in the range [1..MAX_MEGABYTES].  The actual size is
+	 * 	rounded down to a power of two.
+	 */
+	public synchronized void resize( int iMegabytes )
+		{
+		DBC.requireGreaterThanZero( iMegabytes, "Megabytes" );
+		DBC.require( iMegabytes <= MAX_MEGABYTES, "Table size exceeds " + MAX_MEGABYTES + "MB." );
+		//	-----------------------------------------------------------------
+		long lEntries = Long.highestOneBit( ((long) iMegabytes << 20) / ENTRY_BYTES );
+		int iEntries = (int) Math.min( lEntries, 1 << 30 );
+
+		_keys = new long[ iEntries ];
+		_data = new long[ iEntries ];
+		_iAge = 0;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of entries the table can hold.
+	 *
+	 * @return Capacity, in entries.
+	 */
+	public int getCapacity()
+		{
+		return _data.length;
+		}
+
+	/**
+	 * Gets the table fill rate, sampled from the first thousand entries.
+	 *
+	 * @return Fill rate, in permill (0..1000).
+	 */
+	public int getPermillFull()
+		{
+		final long[] data = _data;
+		final int iSamples = Math.min( 1000, data.length );
+		int iUsed = 0;
+
+		for ( int idx = 0; idx < iSamples; ++idx )
+			if (data[ idx ] != 0L && getAge( data[ idx ] ) == _iAge)
+				++iUsed;
+
+		return (iUsed * 1000) / iSamples;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Looks up a position.
+	 *
+	 * @param hash
+	 * 	Zobrist hash of the position.
+	 *
+	 * @return Packed entry data, or zero if not found.
+	 */
+	long probe( long hash )
+		{
+		final long[] keys = _keys;
+		final long[] data = _data;
+		final int idx = (int) hash & (data.length - 1);
+		final long lData = data[ idx ];
+
+		return ((keys[ idx ] ^ lData) == hash) ? lData : 0L;
+		}
+
+	/**
+	 * Stores a search result.
+	 *
+	 * @param hash
+	 * 	Zobrist hash of the position.
+	 * @param iMove
+	 * 	Packed best move, or zero if none.
+	 * @param iScore
+	 * 	Score, in the range [MIN_SCORE..MAX_SCORE].
+	 * @param iDepth
+	 * 	Search depth, in plies.
+	 * @param iBound
+	 * 	One of the BOUND_xxx constants.
+	 */
+	void store( long hash, int iMove, int iScore, int iDepth, int iBound )
+		{
+		assert iScore >= MIN_SCORE && iScore <= MAX_SCORE;
+		assert iBound >= BOUND_UPPER && iBound <= BOUND_EXACT;
+		//	-----------------------------------------------------------------
+		final long[] keys = _keys;
+		final long[] data = _data;
+		final int idx = (int) hash & (data.length - 1);
+		final long lOld = data[ idx ];
+		final int iAge = _iAge;
+
+		if ((keys[ idx ] ^ lOld) == hash)
+			{
+			//	Same position: keep a deeper result from this search, and never lose the move.
+			if (getAge( lOld ) == iAge && getDepth( lOld ) > iDepth && iBound != BOUND_EXACT)
+				return;
+			if (iMove == 0)
+				iMove = getMove( lOld );
+			}
+		else if (lOld != 0L && getAge( lOld ) == iAge && getDepth( lOld ) > iDepth + 2)
+			return;
+
+		final long lData = (iMove & Move.MASK_ALL) |
+						   ((long) (iScore - MIN_SCORE + 1) << SHIFT_SCORE) |
+						   ((long) Math.max( 0, Math.min( iDepth, 0xFF ) ) << SHIFT_DEPTH) |
+						   ((long) iBound << SHIFT_BOUND) |
+						   ((long) iAge << SHIFT_AGE);
+
+		data[ idx ] = lData;
+		keys[ idx ] = hash ^ lData;
+		}
+
+	static int getAge( long lData )
+		{ return (int) (lData >>> SHIFT_AGE) & 0xFF; }
+
+	static int getBound( long lData )
+		{ return (int) (lData >>> SHIFT_BOUND) & 0x03; }
+
+	static int getDepth( long lData )
+		{ return (int) (lData >>> SHIFT_DEPTH) & 0xFF; }
+
+	static int getMove( long lData )
+		{ return (int) lData & Move.MASK_ALL; }
+
+	static int getScore( long lData )
+		{ return (int) ((lData >>> SHIFT_SCORE) & 0xFFFF) + MIN_SCORE - 1; }
+
+	} /* end of class TranspositionTable */
@@ -32,6 +32,10 @@
  ******************************************************************************/
 package net.humbleprogrammer.maxx;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import net.humbleprogrammer.humble.DBC;
 import net.humbleprogrammer.maxx.factories.BoardFactory;
 
 import static net.humbleprogrammer.maxx.Constants.*;
@@ -39,17 +43,38 @@ import static net.humbleprogrammer.maxx.Constants.*;
 /**
  * The {@link Variation} class extends a {@link PV} to include move validation,
  * and the ability to return the position at any point in the sequence.
+ *
+ * A copy of the position is kept every {@link #getCheckpointInterval()} plies, so
+ * reaching any ply takes at most that many moves rather than a replay of the whole
+ * game.  A smaller interval trades memory for speed.
  */
 @SuppressWarnings( "unused" )
 public class Variation extends PV
 	{
 	private static final long serialVersionUID = 20161628L;
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Default number of plies between checkpoints. */
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+
 	//  -----------------------------------------------------------------------
 	//	DECLARATIONS
 	//	-----------------------------------------------------------------------
 
 	/** Current position. */
-	private final Board _board = BoardFactory.createInitial();
+	private final Board       _board       = BoardFactory.createInitial();
+	/** Position after every <code>_iInterval</code> plies, starting with ply zero. */
+	private final List<Board> _checkpoints = new ArrayList<>();
+
+	/** Plies between checkpoints. */
+	private int    _iInterval       = DEFAULT_CHECKPOINT_INTERVAL;
+	/** List modification count that the checkpoints match, or -1 if stale. */
+	private int    _iCheckpointMods = -1;
+	/** List modification count that the current position matches. */
+	private int    _iBoardMods      = 0;
 
 	/** First ply of the variation. */
 	private int    _iFirstPly;
@@ -58,6 +83,31 @@ public class Variation extends PV
 	/** Result, or <code>null</code> if not set. */
 	private Result _result;
 
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 */
+	public Variation()
+		{
+		/*
+		**	EMPTY CTOR
+		*/
+		}
+
+	/**
+	 * Alternate CTOR.
+	 *
+	 * @param iInterval
+	 * 	Plies between checkpoints.
+	 */
+	public Variation( int iInterval )
+		{
+		setCheckpointInterval( iInterval );
+		}
+
 	//  -----------------------------------------------------------------------
 	//	PUBLIC METHODS
 	//	-----------------------------------------------------------------------
@@ -72,15 +122,80 @@ public class Variation extends PV
 	 */
 	public boolean appendMove( final Move move )
 		{
-		if (_board.isLegalMove( move ) && add( move ))
+		final boolean bCheckpointsValid = (_iCheckpointMods == modCount);
+
+		if (getCurrentPosition().isLegalMove( move ) && add( move ))
 			{
 			_board.makeMove( move );
+			_iBoardMods = modCount;
+			//
+			//	Keep the checkpoints current, unless the list was changed behind our
+			//	back, in which case they get rebuilt on the next seek.
+			//
+			if (bCheckpointsValid)
+				{
+				if ((size() % _iInterval) == 0)
+					_checkpoints.add( new Board( _board ) );
+
+				_iCheckpointMods = modCount;
+				}
+
 			return true;
 			}
 
 		return false;
 		}
 
+	/**
+	 * Removes the last move from the variation.  The line is trimmed in place: the
+	 * new current position is reached from the nearest checkpoint, so the cost does
+	 * not grow with the length of the game.
+	 *
+	 * @return Move that was removed, or <code>null</code> if the variation is empty.
+	 */
+	public Move removeLastMove()
+		{
+		final int iPly = size() - 1;
+
+		if (iPly < 0) return null;
+		//	-----------------------------------------------------------------
+		final Board bd = getPositionAt( iPly );
+		final Move move = remove( iPly );
+		//
+		//	getPositionAt() brought the checkpoints up to date, so only the ones
+		//	past the new end of the line need to go.
+		//
+		while (_checkpoints.size() > (iPly / _iInterval) + 1)
+			_checkpoints.remove( _checkpoints.size() - 1 );
+
+		_iCheckpointMods = modCount;
+		_board.copyFrom( bd );
+		_iBoardMods = modCount;
+
+		return move;
+		}
+
+	/**
+	 * Replaces a move.  Unlike an {@link java.util.AbstractList}, this counts as a
+	 * modification, so the checkpoints and the current position are rebuilt from
+	 * the new line on their next use.
+	 *
+	 * @param index
+	 * 	Index of move.
+	 * @param move
+	 * 	New move.
+	 *
+	 * @return Move that was replaced.
+	 */
+	@Override
+	public Move set( int index, Move move )
+		{
+		final Move moveOld = super.set( index, move );
+
+		++modCount;
+		return moveOld;
+		}
+
 	/**
 	 * Creates a variation from a PV.
 	 *
@@ -118,16 +233,8 @@ public class Variation extends PV
 		if (iDelta < 0) iDelta += size();
 
 		if (iDelta < 0 || iDelta >= size()) return null;
-		//
-		//	Make each move
-		//
-		Board bd = (_bdStart != null) ? BoardFactory.createCopy( _bdStart )
-									  : BoardFactory.createInitial();
-
-		for ( int idx = 0; idx < iDelta; ++idx )
-			bd.makeMove( get( idx ) );
-
-		return bd;
+		//	-----------------------------------------------------------------
+		return getPositionAt( iDelta );
 		}
 
 	//  -----------------------------------------------------------------------
@@ -141,6 +248,12 @@ public class Variation extends PV
 	 */
 	public Board getCurrentPosition()
 		{
+		if (_iBoardMods != modCount)
+			{
+			_board.copyFrom( getPositionAt( size() ) );
+			_iBoardMods = modCount;
+			}
+
 		return _board;
 		}
 
@@ -176,18 +289,44 @@ public class Variation extends PV
 		//
 		int iPly = Board.computePly( iMoveNum, player ) - _iFirstPly;
 
-		if (iPly >= 0 && iPly < size())
+		if (iPly > 0 && iPly < size())
 			{
-			for ( Move mv : this )
-				{
-				bd.makeMove( mv );
-				if (bd.getMoveNumber() == iMoveNum && bd.getMovingPlayer() == player) return bd;
-				}
+			bd = getPositionAt( iPly );
+
+			if (bd.getMoveNumber() == iMoveNum && bd.getMovingPlayer() == player) return bd;
 			}
 
 		return null;
 		}
 
+	/**
+	 * Gets the number of plies between checkpoints.
+	 *
+	 * @return Checkpoint interval.
+	 */
+	public int getCheckpointInterval()
+		{
+		return _iInterval;
+		}
+
+	/**
+	 * Sets the number of plies between checkpoints.  Smaller intervals make seeking
+	 * faster, at the cost of one board copy per checkpoint.
+	 *
+	 * @param iInterval
+	 * 	Plies between checkpoints.
+	 */
+	public void setCheckpointInterval( int iInterval )
+		{
+		DBC.requireGreaterThanZero( iInterval, "Checkpoint Interval" );
+		//	-----------------------------------------------------------------
+		if (iInterval != _iInterval)
+			{
+			_iInterval = iInterval;
+			_iCheckpointMods = -1;
+			}
+		}
+
 	/**
 	 * Gets the result.
 	 *
@@ -241,6 +380,8 @@ public class Variation extends PV
 		_bdStart = (bd.getZobristHash() != HASH_INITIAL) ? new Board( bd ) : null;
 
 		clear();
+		_iCheckpointMods = -1;
+		_iBoardMods = modCount;
 
 		return true;
 		}
@@ -260,4 +401,53 @@ public class Variation extends PV
 		return setStartingPosition( BoardFactory.createFromFEN( strFEN ) );
 		}
 
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the position after a number of plies, starting from the nearest
+	 * checkpoint.
+	 *
+	 * @param iPly
+	 * 	Number of moves to play, in the range [0..size()].
+	 *
+	 * @return New board object.
+	 */
+	private Board getPositionAt( int iPly )
+		{
+		assert iPly >= 0 && iPly <= size();
+		//	-----------------------------------------------------------------
+		if (_iCheckpointMods != modCount)
+			rebuildCheckpoints();
+
+		final int iCheckpoint = Math.min( (iPly / _iInterval), (_checkpoints.size() - 1) );
+		final Board bd = new Board( _checkpoints.get( iCheckpoint ) );
+
+		for ( int idx = iCheckpoint * _iInterval; idx < iPly; ++idx )
+			bd.makeMove( get( idx ) );
+
+		return bd;
+		}
+
+	/**
+	 * Rebuilds the checkpoints by replaying the whole variation.
+	 */
+	private void rebuildCheckpoints()
+		{
+		final Board bd = getStartingPosition();
+
+		_checkpoints.clear();
+		_checkpoints.add( new Board( bd ) );
+
+		for ( int idx = 0; idx < size(); ++idx )
+			{
+			bd.makeMove( get( idx ) );
+
+			if (((idx + 1) % _iInterval) == 0)
+				_checkpoints.add( new Board( bd ) );
+			}
+
+		_iCheckpointMods = modCount;
+		}
 	} /* end of class Variation */
@@ -264,6 +264,41 @@ final class ZobristHash
 		return lHash;
 		}
 
+	/**
+	 * Gets the Polyglot opening book keys for castling privileges, e.p. file,
+	 * and moving player.
+	 *
+	 * The piece/square keys are identical to Polyglot's, but the castling keys are
+	 * assigned in a different order and Polyglot hashes the moving player when it
+	 * is White, not Black.
+	 *
+	 * @param castling
+	 *            Castling privileges (Board.CastlingFlags.*)
+	 * @param iSqEP
+	 *            En Passant square, or INVALID if no pawn can capture e.p.
+	 * @param player
+	 *            Moving player color.
+	 * @return Zobrist hash.
+	 */
+	static long getPolyglotExtraHash( final int castling, final int iSqEP, final int player )
+		{
+		long lHash = 0L;
+
+		if (Square.isValid(iSqEP)) lHash ^= s_hashExtra[iSqEP & 0x07];
+
+		if (castling != Board.CastlingFlags.NONE)
+			{
+			if ((castling & Board.CastlingFlags.WHITE_SHORT) != 0) lHash ^= s_hashExtra[10];
+			if ((castling & Board.CastlingFlags.WHITE_LONG) != 0) lHash ^= s_hashExtra[11];
+			if ((castling & Board.CastlingFlags.BLACK_SHORT) != 0) lHash ^= s_hashExtra[8];
+			if ((castling & Board.CastlingFlags.BLACK_LONG) != 0) lHash ^= s_hashExtra[9];
+			}
+
+		if (player == WHITE) lHash ^= s_hashExtra[12];
+
+		return lHash;
+		}
+
 	/**
 	 * Gets the Zobrist hash keys for a piece/square combination.
 	 *
@@ -0,0 +1,693 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link BookBuilder} class aggregates move statistics from any number of games
+ * into a Polyglot book and an {@link OpeningTree}, within a fixed memory budget.
+ *
+ * Statistics are gathered in an open-addressing hash table of 32-byte records that
+ * lives outside the Java heap.  When the table fills up, its records are sorted in
+ * place and spilled to a temporary "run" file; {@link #finish(Path, Path, int)} then
+ * merges the sorted runs into the output files.  The run records use the same layout
+ * as the opening tree, which is nothing more than the final, fully merged run.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class BookBuilder implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Default memory budget, in megabytes. */
+	public static final int DEFAULT_MEGABYTES = 64;
+
+	/** Size of a record, in bytes. */
+	private static final int RECORD_BYTES = OpeningTree.RECORD_BYTES;
+	/** Smallest table, in records. */
+	private static final int MIN_CAPACITY = 1 << 10;
+	/** Largest table, in records (1GB). */
+	private static final int MAX_CAPACITY = 1 << 25;
+	/** Records buffered when reading or writing files. */
+	private static final int IO_RECORDS   = 2048;
+
+	/** Record field offsets. */
+	private static final int OFS_MOVE   = 8;
+	private static final int OFS_COUNT  = 12;
+	private static final int OFS_WINS   = 16;
+	private static final int OFS_DRAWS  = 20;
+	private static final int OFS_LOSSES = 24;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Off-heap hash table. */
+	private final ByteBuffer _table;
+	/** Slot index mask. */
+	private final int        _iMask;
+	/** Number of records that triggers a spill (75% load). */
+	private final int        _iMaxSize;
+	/** Directory for temporary run files. */
+	private final Path       _pathTemp;
+	/** Sorted runs spilled so far. */
+	private final List<Path> _runs = new ArrayList<>();
+
+	/** Number of records in the table. */
+	private int  _iSize;
+	/** Number of moves added. */
+	private long _lMoves;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param iMegabytes
+	 * 	Memory budget for the table, in megabytes.
+	 * @param pathTemp
+	 * 	Directory for temporary files.
+	 */
+	public BookBuilder( int iMegabytes, Path pathTemp )
+		{
+		this( pathTemp,
+			  (int) Math.min( Long.highestOneBit( ((long) iMegabytes << 20) / RECORD_BYTES ), MAX_CAPACITY ) );
+		}
+
+	/**
+	 * Alternate CTOR.
+	 *
+	 * @param pathTemp
+	 * 	Directory for temporary files.
+	 * @param iCapacity
+	 * 	Table size, in records, which is rounded down to a power of two.
+	 */
+	BookBuilder( Path pathTemp, int iCapacity )
+		{
+		DBC.requireNotNull( pathTemp, "Temp Directory" );
+		DBC.requireGreaterThanZero( iCapacity, "Capacity" );
+		//	-----------------------------------------------------------------
+		iCapacity = Math.max( MIN_CAPACITY, Integer.highestOneBit( iCapacity ) );
+
+		_table = ByteBuffer.allocateDirect( iCapacity * RECORD_BYTES );
+		_iMask = iCapacity - 1;
+		_iMaxSize = (iCapacity / 4) * 3;
+		_pathTemp = pathTemp;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Adds a move that was played in a game.
+	 *
+	 * @param lKey
+	 * 	Polyglot key of the position.
+	 * @param iMove
+	 * 	Polyglot move.
+	 * @param result
+	 * 	Result of the game; anything but a win or draw only adds to the count.
+	 * @param player
+	 * 	Player who made the move.
+	 *
+	 * @throws IOException
+	 * 	if the table fills up and can't be spilled.
+	 */
+	public void add( long lKey, int iMove, Result result, int player ) throws IOException
+		{
+		final int iOffset = findSlot( lKey, iMove ) * RECORD_BYTES;
+
+		if (_table.getInt( iOffset + OFS_COUNT ) == 0)
+			{
+			_table.putLong( iOffset, lKey );
+			_table.putInt( iOffset + OFS_MOVE, iMove );
+			++_iSize;
+			}
+
+		increment( iOffset + OFS_COUNT );
+
+		if (result == Result.DRAW)
+			increment( iOffset + OFS_DRAWS );
+		else if (result == Result.WON_BY_WHITE)
+			increment( iOffset + ((player == WHITE) ? OFS_WINS : OFS_LOSSES) );
+		else if (result == Result.WON_BY_BLACK)
+			increment( iOffset + ((player == BLACK) ? OFS_WINS : OFS_LOSSES) );
+
+		++_lMoves;
+
+		if (_iSize >= _iMaxSize)
+			spill();
+		}
+
+	/**
+	 * Adds the first moves of a game.
+	 *
+	 * @param pv
+	 * 	Game moves, with the starting position and result set.
+	 * @param iMaxPlies
+	 * 	Maximum number of plies to add.
+	 *
+	 * @throws IOException
+	 * 	if the table fills up and can't be spilled.
+	 */
+	public void add( Variation pv, int iMaxPlies ) throws IOException
+		{
+		DBC.requireNotNull( pv, "Variation" );
+		//	-----------------------------------------------------------------
+		final Board bd = pv.getStartingPosition();
+		final Result result = pv.getResult();
+		final int iPlies = Math.min( iMaxPlies, pv.size() );
+
+		for ( int idx = 0; idx < iPlies; ++idx )
+			{
+			Move move = pv.get( idx );
+
+			add( bd.getPolyglotKey(), BookEntry.encodeMove( move ), result, bd.getMovingPlayer() );
+			bd.makeMove( move );
+			}
+		}
+
+	/**
+	 * Deletes any temporary files.
+	 */
+	@Override
+	public void close()
+		{
+		for ( Path path : _runs )
+			{
+			try
+				{ Files.deleteIfExists( path ); }
+			catch (IOException ex)
+				{ /* nothing we can do about it */ }
+			}
+
+		_runs.clear();
+		}
+
+	/**
+	 * Merges everything added so far into the output files.
+	 *
+	 * @param pathBook
+	 * 	Polyglot book to write, or <code>null</code> for none.
+	 * @param pathTree
+	 * 	Opening tree to write, or <code>null</code> for none.
+	 * @param iMinCount
+	 * 	Moves played fewer times than this are left out.
+	 *
+	 * @return Number of moves written.
+	 *
+	 * @throws IOException
+	 * 	if the files can't be written.
+	 */
+	public long finish( Path pathBook, Path pathTree, int iMinCount ) throws IOException
+		{
+		spill();
+		//	-----------------------------------------------------------------
+		final PriorityQueue<RunReader> queue = new PriorityQueue<>( Math.max( 1, _runs.size() ) );
+		final Output output = new Output( pathBook, pathTree );
+		boolean bComplete = false;
+
+		try
+			{
+			for ( Path path : _runs )
+				{
+				RunReader run = new RunReader( path );
+
+				if (run.next())
+					queue.add( run );
+				else
+					run.close();
+				}
+			//
+			//	Runs are sorted, so records with the same key and move come off the
+			//	queue back-to-back.
+			//
+			long[] current = null;
+
+			while (!queue.isEmpty())
+				{
+				RunReader run = queue.poll();
+
+				if (current != null && current[ 0 ] == run.lKey && current[ 1 ] == run.iMove)
+					{
+					current[ 2 ] += run.iCount;
+					current[ 3 ] += run.iWins;
+					current[ 4 ] += run.iDraws;
+					current[ 5 ] += run.iLosses;
+					}
+				else
+					{
+					if (current != null && current[ 2 ] >= iMinCount)
+						output.write( current );
+
+					current = new long[] { run.lKey, run.iMove, run.iCount, run.iWins, run.iDraws, run.iLosses };
+					}
+
+				if (run.next())
+					queue.add( run );
+				else
+					run.close();
+				}
+
+			if (current != null && current[ 2 ] >= iMinCount)
+				output.write( current );
+
+			long lRecords = output.close();
+
+			bComplete = true;
+			return lRecords;
+			}
+		finally
+			{
+			for ( RunReader run : queue )
+				run.close();
+
+			if (!bComplete)
+				output.abort();
+
+			close();
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of moves added.
+	 *
+	 * @return Move count.
+	 */
+	public long getMoveCount()
+		{
+		return _lMoves;
+		}
+
+	/**
+	 * Gets the number of runs spilled to disk.
+	 *
+	 * @return Run count.
+	 */
+	public int getRunCount()
+		{
+		return _runs.size();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Compares a record to a key/move pair.
+	 */
+	private int compare( int iRecord, long lKey, int iMove )
+		{
+		final int iOffset = iRecord * RECORD_BYTES;
+		final int iResult = BookEntry.compareKeys( _table.getLong( iOffset ), lKey );
+
+		return (iResult != 0) ? iResult : Integer.compare( _table.getInt( iOffset + OFS_MOVE ), iMove );
+		}
+
+	/**
+	 * Finds the slot for a key/move pair, which is either the slot that holds it
+	 * or the empty slot where it belongs.
+	 */
+	private int findSlot( long lKey, int iMove )
+		{
+		long lHash = lKey ^ (iMove * 0x9E3779B97F4A7C15L);
+		int idx = (int) (lHash ^ (lHash >>> 32)) & _iMask;
+
+		for ( ; ; idx = (idx + 1) & _iMask )
+			{
+			final int iOffset = idx * RECORD_BYTES;
+
+			if (_table.getInt( iOffset + OFS_COUNT ) == 0 ||
+				(_table.getLong( iOffset ) == lKey && _table.getInt( iOffset + OFS_MOVE ) == iMove))
+				{
+				return idx;
+				}
+			}
+		}
+
+	/**
+	 * Adds one to an integer in the table.
+	 */
+	private void increment( int iOffset )
+		{
+		_table.putInt( iOffset, _table.getInt( iOffset ) + 1 );
+		}
+
+	/**
+	 * Sorts a range of records in place (quicksort, finished by insertion sort).
+	 */
+	private void sort( int iLo, int iHi )
+		{
+		while (iHi - iLo > 16)
+			{
+			final int iMid = (iLo + iHi) >>> 1;
+			final long lKey = _table.getLong( iMid * RECORD_BYTES );
+			final int iMove = _table.getInt( iMid * RECORD_BYTES + OFS_MOVE );
+			int idxLo = iLo;
+			int idxHi = iHi;
+
+			while (idxLo <= idxHi)
+				{
+				while (compare( idxLo, lKey, iMove ) < 0) ++idxLo;
+				while (compare( idxHi, lKey, iMove ) > 0) --idxHi;
+
+				if (idxLo <= idxHi)
+					swap( idxLo++, idxHi-- );
+				}
+			//	Recurse on the smaller half to keep the stack shallow.
+			if (idxHi - iLo < iHi - idxLo)
+				{
+				sort( iLo, idxHi );
+				iLo = idxLo;
+				}
+			else
+				{
+				sort( idxLo, iHi );
+				iHi = idxHi;
+				}
+			}
+
+		for ( int idx = iLo + 1; idx <= iHi; ++idx )
+			for ( int idxPrev = idx; idxPrev > iLo; --idxPrev )
+				{
+				final int iOffset = idxPrev * RECORD_BYTES;
+
+				if (compare( idxPrev - 1, _table.getLong( iOffset ), _table.getInt( iOffset + OFS_MOVE ) ) <= 0)
+					break;
+
+				swap( idxPrev - 1, idxPrev );
+				}
+		}
+
+	/**
+	 * Sorts the table and writes it to a new run file.
+	 */
+	private void spill() throws IOException
+		{
+		if (_iSize == 0) return;
+		//	-----------------------------------------------------------------
+		final int iSlots = _iMask + 1;
+		int iCount = 0;
+		//
+		//	Compact the occupied records to the start of the table.
+		//
+		for ( int idx = 0; idx < iSlots; ++idx )
+			if (_table.getInt( idx * RECORD_BYTES + OFS_COUNT ) != 0)
+				{
+				if (idx != iCount)
+					for ( int iField = 0; iField < RECORD_BYTES; iField += 8 )
+						_table.putLong( iCount * RECORD_BYTES + iField, _table.getLong( idx * RECORD_BYTES + iField ) );
+
+				++iCount;
+				}
+
+		sort( 0, iCount - 1 );
+
+		Path path = Files.createTempFile( _pathTemp, "book", ".run" );
+		ByteBuffer buf = _table.duplicate();
+
+		_runs.add( path );
+		buf.position( 0 ).limit( iCount * RECORD_BYTES );
+
+		try (FileChannel channel = FileChannel.open( path, StandardOpenOption.WRITE ))
+			{
+			while (buf.hasRemaining())
+				channel.write( buf );
+			}
+
+		for ( int iOffset = 0; iOffset < _table.capacity(); iOffset += 8 )
+			_table.putLong( iOffset, 0L );
+
+		_iSize = 0;
+		}
+
+	/**
+	 * Swaps two records.
+	 */
+	private void swap( int iRecord1, int iRecord2 )
+		{
+		final int iOffset1 = iRecord1 * RECORD_BYTES;
+		final int iOffset2 = iRecord2 * RECORD_BYTES;
+
+		for ( int iField = 0; iField < RECORD_BYTES; iField += 8 )
+			{
+			long lTmp = _table.getLong( iOffset1 + iField );
+
+			_table.putLong( iOffset1 + iField, _table.getLong( iOffset2 + iField ) );
+			_table.putLong( iOffset2 + iField, lTmp );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: Output
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Writes merged records to the book and tree files.
+	 */
+	private static class Output
+		{
+		/** Polyglot book, or null. */
+		private final PolyglotWriter  _book;
+		/** Opening tree, or null. */
+		private final FileChannel     _tree;
+		/** Tree output buffer. */
+		private final ByteBuffer      _buf   = ByteBuffer.allocate( IO_RECORDS * RECORD_BYTES );
+		/** Moves from the current position, for book weights. */
+		private final List<long[]>    _group = new ArrayList<>();
+
+		/** Number of records written. */
+		private long _lRecords;
+
+		Output( Path pathBook, Path pathTree ) throws IOException
+			{
+			_book = (pathBook != null) ? new PolyglotWriter( pathBook ) : null;
+			_tree = (pathTree != null)
+					? FileChannel.open( pathTree,
+										StandardOpenOption.CREATE,
+										StandardOpenOption.TRUNCATE_EXISTING,
+										StandardOpenOption.WRITE )
+					: null;
+
+			if (_tree != null)
+				_tree.position( OpeningTree.HEADER_BYTES );
+			}
+
+		/**
+		 * Writes a record: { key, move, count, wins, draws, losses }.  Merged counts
+		 * can exceed the 32-bit fields in the tree file, so they are saturated at
+		 * {@link Integer#MAX_VALUE} rather than allowed to wrap.
+		 */
+		void write( long[] record ) throws IOException
+			{
+			if (_tree != null)
+				{
+				if (!_buf.hasRemaining())
+					flush();
+
+				_buf.putLong( record[ 0 ] );
+				for ( int idx = 1; idx < record.length; ++idx )
+					_buf.putInt( (int) Math.min( record[ idx ], Integer.MAX_VALUE ) );
+				_buf.putInt( 0 );
+				}
+
+			if (_book != null)
+				{
+				if (!_group.isEmpty() && _group.get( 0 )[ 0 ] != record[ 0 ])
+					writeGroup();
+
+				_group.add( record );
+				}
+
+			++_lRecords;
+			}
+
+		/**
+		 * Flushes and closes the output files.
+		 *
+		 * @return Number of records written.
+		 */
+		long close() throws IOException
+			{
+			if (_tree != null)
+				{
+				flush();
+				_tree.position( 0L );
+				OpeningTree.writeHeader( _tree, _lRecords );
+				_tree.close();
+				}
+
+			if (_book != null)
+				{
+				writeGroup();
+				_book.close();
+				}
+
+			return _lRecords;
+			}
+
+		/**
+		 * Closes the output files without completing them.
+		 */
+		void abort()
+			{
+			try
+				{
+				if (_tree != null) _tree.close();
+				if (_book != null) _book.close();
+				}
+			catch (IOException ex)
+				{ /* already reporting a failure */ }
+			}
+
+		private void flush() throws IOException
+			{
+			_buf.flip();
+
+			while (_buf.hasRemaining())
+				_tree.write( _buf );
+
+			_buf.clear();
+			}
+
+		/**
+		 * Writes the book entries for a position.  The weight of a move is two
+		 * points for each win and one for each draw, scaled to fit in 16 bits.
+		 */
+		private void writeGroup() throws IOException
+			{
+			long lMax = 0L;
+
+			for ( long[] record : _group )
+				lMax = Math.max( lMax, (2L * record[ 3 ]) + record[ 4 ] );
+
+			for ( long[] record : _group )
+				{
+				long lWeight = (2L * record[ 3 ]) + record[ 4 ];
+
+				if (lMax > 0xFFFF)
+					lWeight = (lWeight * 0xFFFF) / lMax;
+
+				_book.write( record[ 0 ], (int) record[ 1 ], (int) lWeight, 0 );
+				}
+
+			_group.clear();
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: RunReader
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Reads the records of a run, one at a time.
+	 */
+	private static class RunReader implements Comparable<RunReader>, Closeable
+		{
+		private final DataInputStream _input;
+
+		long lKey;
+		int  iMove;
+		int  iCount;
+		int  iWins;
+		int  iDraws;
+		int  iLosses;
+
+		RunReader( Path path ) throws IOException
+			{
+			_input = new DataInputStream(
+				new BufferedInputStream( Files.newInputStream( path ), IO_RECORDS * RECORD_BYTES ) );
+			}
+
+		/**
+		 * Reads the next record.
+		 *
+		 * @return .T. if a record was read, .F. at the end of the run.
+		 */
+		boolean next() throws IOException
+			{
+			try
+				{
+				lKey = _input.readLong();
+				iMove = _input.readInt();
+				iCount = _input.readInt();
+				iWins = _input.readInt();
+				iDraws = _input.readInt();
+				iLosses = _input.readInt();
+				_input.readInt();
+				return true;
+				}
+			catch (EOFException ex)
+				{
+				return false;
+				}
+			}
+
+		@Override
+		public void close()
+			{
+			try
+				{ _input.close(); }
+			catch (IOException ex)
+				{ /* nothing we can do about it */ }
+			}
+
+		@Override
+		public int compareTo( RunReader run )
+			{
+			int iResult = BookEntry.compareKeys( lKey, run.lKey );
+
+			return (iResult != 0) ? iResult : Integer.compare( iMove, run.iMove );
+			}
+		}
+
+	} /* end of class BookBuilder */
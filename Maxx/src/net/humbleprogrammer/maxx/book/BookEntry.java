@@ -0,0 +1,213 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+
+/**
+ * The {@link BookEntry} class is a single 16-byte Polyglot book entry: a
+ * position key, a move, a weight, and a learning value.
+ *
+ * Polyglot moves are packed into 16 bits: "to" square in bits 0-5, "from" square in bits
+ * 6-11, and promotion piece (1=Knight .. 4=Queen) in bits 12-14.  Castling is stored as
+ * the King capturing its own Rook.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class BookEntry implements Comparable<BookEntry>
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Polyglot key of the position. */
+	public final long lKey;
+	/** Polyglot move. */
+	public final int  iMove;
+	/** Move weight, in the range [0..65535]. */
+	public final int  iWeight;
+	/** Learning value (unsigned 32 bits). */
+	public final int  iLearn;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param lKey
+	 * 	Polyglot key of the position.
+	 * @param iMove
+	 * 	Polyglot move.
+	 * @param iWeight
+	 * 	Move weight; values outside [0..65535] are clamped.
+	 * @param iLearn
+	 * 	Learning value.
+	 */
+	public BookEntry( long lKey, int iMove, int iWeight, int iLearn )
+		{
+		this.lKey = lKey;
+		this.iMove = iMove & 0xFFFF;
+		this.iWeight = Math.max( 0, Math.min( iWeight, 0xFFFF ) );
+		this.iLearn = iLearn;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Compares two Polyglot keys as unsigned values, which is how books are
+	 * sorted.
+	 *
+	 * @param lKey1
+	 * 	First key.
+	 * @param lKey2
+	 * 	Second key.
+	 *
+	 * @return Negative, zero, or positive.
+	 */
+	public static int compareKeys( long lKey1, long lKey2 )
+		{
+		lKey1 ^= Long.MIN_VALUE;
+		lKey2 ^= Long.MIN_VALUE;
+
+		return (lKey1 < lKey2) ? -1 : ((lKey1 == lKey2) ? 0 : 1);
+		}
+
+	/**
+	 * Converts a Polyglot move to a legal move.
+	 *
+	 * @param bd
+	 * 	Position the move belongs to.
+	 * @param iMove
+	 * 	Polyglot move.
+	 *
+	 * @return Move, or <code>null</code> if the move isn't legal in the position.
+	 */
+	public static Move decodeMove( Board bd, int iMove )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		//	-----------------------------------------------------------------
+		final int iSqFrom = (iMove >>> 6) & 0x3F;
+
+		for ( Move move : new MoveList( bd, Square.getMask( iSqFrom ), ~0L ) )
+			if (encodeMove( move ) == iMove)
+				return move;
+
+		return null;
+		}
+
+	/**
+	 * Converts a move to Polyglot format.
+	 *
+	 * @param move
+	 * 	Move to convert.
+	 *
+	 * @return Polyglot move.
+	 */
+	public static int encodeMove( Move move )
+		{
+		DBC.requireNotNull( move, "Move" );
+		//	-----------------------------------------------------------------
+		int iSqTo = move.iSqTo;
+		int iPromotion = 0;
+
+		if (move.iType == Move.Type.CASTLING)
+			iSqTo = (Square.getFile( iSqTo ) > Square.getFile( move.iSqFrom )) ? iSqTo + 1 : iSqTo - 2;
+		else if (move.isPromotion())
+			iPromotion = move.getPromotionPiece() - 1;
+
+		return iSqTo | (move.iSqFrom << 6) | (iPromotion << 12);
+		}
+
+	/**
+	 * Converts this entry's move back to a legal move.
+	 *
+	 * @param bd
+	 * 	Position the entry belongs to.
+	 *
+	 * @return Move, or <code>null</code> if the move isn't legal in the position.
+	 */
+	public Move toMove( Board bd )
+		{
+		return decodeMove( bd, iMove );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	OVERRIDES
+	//	-----------------------------------------------------------------------
+
+	@Override
+	public int compareTo( BookEntry entry )
+		{
+		int iResult = compareKeys( lKey, entry.lKey );
+
+		return (iResult != 0) ? iResult : (iMove - entry.iMove);
+		}
+
+	@Override
+	public boolean equals( Object obj )
+		{
+		if (!(obj instanceof BookEntry)) return false;
+		//	-----------------------------------------------------------------
+		BookEntry entry = (BookEntry) obj;
+
+		return lKey == entry.lKey &&
+			   iMove == entry.iMove &&
+			   iWeight == entry.iWeight &&
+			   iLearn == entry.iLearn;
+		}
+
+	@Override
+	public int hashCode()
+		{
+		return (int) (lKey ^ (lKey >>> 32)) ^ (iMove << 16) ^ iWeight;
+		}
+
+	@Override
+	public String toString()
+		{
+		return String.format( "%016X %c%c%c%c%s w=%d",
+							  lKey,
+							  Square.getFileGlyph( (iMove >>> 6) & 0x3F ),
+							  (char) Square.getRankGlyph( (iMove >>> 6) & 0x3F ),
+							  Square.getFileGlyph( iMove & 0x3F ),
+							  (char) Square.getRankGlyph( iMove & 0x3F ),
+							  ((iMove >>> 12) != 0) ? String.valueOf( " nbrq".charAt( iMove >>> 12 ) ) : "",
+							  iWeight );
+		}
+
+	} /* end of class BookEntry */
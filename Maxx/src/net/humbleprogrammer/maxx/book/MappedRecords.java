@@ -0,0 +1,195 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * The {@link MappedRecords} class maps a file of fixed-size records, sorted by an
+ * unsigned 64-bit key stored at the start of each record.
+ *
+ * A single mapping can't exceed 2GB, so large files are mapped in segments.  Records
+ * never straddle a segment.  All reads are absolute, so instances are safe to share
+ * between threads.
+ */
+final class MappedRecords
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Size of a mapped segment, in bytes. */
+	private static final long SEGMENT_BYTES = 1L << 30;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Mapped segments of the file. */
+	private final MappedByteBuffer[] _segments;
+	/** Size of a record, in bytes. */
+	private final int  _iRecordBytes;
+	/** Records per segment. */
+	private final long _lSegmentRecords;
+	/** Total number of records. */
+	private final long _lRecords;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param path
+	 * 	File to map.
+	 * @param lHeaderBytes
+	 * 	Bytes to skip at the start of the file.
+	 * @param iRecordBytes
+	 * 	Size of a record, in bytes, which must be a power of two.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be mapped, or is not a whole number of records.
+	 */
+	MappedRecords( Path path, long lHeaderBytes, int iRecordBytes ) throws IOException
+		{
+		assert path != null;
+		assert Integer.bitCount( iRecordBytes ) == 1;
+		//	-----------------------------------------------------------------
+		try (FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ))
+			{
+			final long lSize = channel.size() - lHeaderBytes;
+
+			if (lSize < 0L || (lSize % iRecordBytes) != 0)
+				throw new IOException( "'" + path + "' has an invalid size." );
+
+			_iRecordBytes = iRecordBytes;
+			_lSegmentRecords = SEGMENT_BYTES / iRecordBytes;
+			_lRecords = lSize / iRecordBytes;
+			_segments = new MappedByteBuffer[ (int) ((lSize + SEGMENT_BYTES - 1) / SEGMENT_BYTES) ];
+
+			for ( int idx = 0; idx < _segments.length; ++idx )
+				{
+				long lOffset = idx * SEGMENT_BYTES;
+
+				_segments[ idx ] = channel.map( FileChannel.MapMode.READ_ONLY,
+												lHeaderBytes + lOffset,
+												Math.min( SEGMENT_BYTES, lSize - lOffset ) );
+				}
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Finds the index of the first record whose key is .GE. the given key.
+	 *
+	 * @param lKey
+	 * 	Key to find.
+	 *
+	 * @return Index, which is the record count if all keys are smaller.
+	 */
+	long findFirst( long lKey )
+		{
+		long lLo = 0L;
+		long lHi = _lRecords;
+
+		while (lLo < lHi)
+			{
+			long lMid = (lLo + lHi) >>> 1;
+
+			if (BookEntry.compareKeys( getKey( lMid ), lKey ) < 0)
+				lLo = lMid + 1;
+			else
+				lHi = lMid;
+			}
+
+		return lLo;
+		}
+
+	/**
+	 * Gets a segment.
+	 *
+	 * @param lIndex
+	 * 	Record index.
+	 *
+	 * @return Segment holding the record.
+	 */
+	MappedByteBuffer getSegment( long lIndex )
+		{
+		return _segments[ (int) (lIndex / _lSegmentRecords) ];
+		}
+
+	/**
+	 * Gets the offset of a record within its segment.
+	 *
+	 * @param lIndex
+	 * 	Record index.
+	 *
+	 * @return Byte offset.
+	 */
+	int getOffset( long lIndex )
+		{
+		return (int) (lIndex % _lSegmentRecords) * _iRecordBytes;
+		}
+
+	/**
+	 * Gets the key of a record.
+	 *
+	 * @param lIndex
+	 * 	Record index.
+	 *
+	 * @return Key.
+	 */
+	long getKey( long lIndex )
+		{
+		return getSegment( lIndex ).getLong( getOffset( lIndex ) );
+		}
+
+	/**
+	 * Gets the number of records.
+	 *
+	 * @return Record count.
+	 */
+	long size()
+		{
+		return _lRecords;
+		}
+
+	} /* end of class MappedRecords */
@@ -0,0 +1,234 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+
+/**
+ * The {@link OpeningTree} class reads an opening tree built by {@link BookBuilder}.
+ *
+ * The file is a short header followed by 32-byte records sorted by Polyglot key and
+ * move, so a lookup is a binary search over the memory-mapped file:
+ * <pre>
+ *	key (8) | move (4) | count (4) | wins (4) | draws (4) | losses (4) | reserved (4)
+ * </pre>
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class OpeningTree implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Size of a record, in bytes. */
+	static final int  RECORD_BYTES = 32;
+	/** Size of the file header, in bytes. */
+	static final int  HEADER_BYTES = 32;
+	/** File signature ("MAXXTREE"). */
+	static final long SIGNATURE    = 0x4D41585854524545L;
+	/** File format version. */
+	static final int  VERSION      = 1;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Mapped tree records. */
+	private MappedRecords _records;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param path
+	 * 	Path to the tree file.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be opened, or isn't an opening tree.
+	 */
+	public OpeningTree( Path path ) throws IOException
+		{
+		DBC.requireNotNull( path, "Path" );
+		//	-----------------------------------------------------------------
+		try (DataInputStream input = new DataInputStream( Files.newInputStream( path ) ))
+			{
+			if (input.readLong() != SIGNATURE || input.readInt() != VERSION)
+				throw new IOException( "'" + path + "' is not an opening tree." );
+			}
+		catch (EOFException ex)
+			{
+			throw new IOException( "'" + path + "' is not an opening tree.", ex );
+			}
+
+		_records = new MappedRecords( path, HEADER_BYTES, RECORD_BYTES );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Releases the tree.  The mapping itself is released when the tree is
+	 * garbage collected.
+	 */
+	@Override
+	public void close()
+		{
+		_records = null;
+		}
+
+	/**
+	 * Finds the moves played from a position.
+	 *
+	 * @param bd
+	 * 	Position to look up.
+	 *
+	 * @return List of entries, most popular first, which is empty if the
+	 * position isn't in the tree.
+	 */
+	public List<TreeEntry> getEntries( Board bd )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		//	-----------------------------------------------------------------
+		return getEntries( bd.getPolyglotKey() );
+		}
+
+	/**
+	 * Finds the moves played from a position.
+	 *
+	 * @param lKey
+	 * 	Polyglot key of the position.
+	 *
+	 * @return List of entries, most popular first, which is empty if the key
+	 * isn't in the tree.
+	 */
+	public List<TreeEntry> getEntries( long lKey )
+		{
+		final List<TreeEntry> entries = new ArrayList<>();
+		final long lSize = _records.size();
+
+		for ( long lIndex = _records.findFirst( lKey ); lIndex < lSize && _records.getKey( lIndex ) == lKey; ++lIndex )
+			entries.add( getEntry( lIndex ) );
+
+		Collections.sort( entries, new Comparator<TreeEntry>()
+		{
+		@Override
+		public int compare( TreeEntry entry1, TreeEntry entry2 )
+			{ return (entry2.iCount < entry1.iCount) ? -1 : ((entry2.iCount == entry1.iCount) ? 0 : 1); }
+		} );
+
+		return entries;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the record at a given index.
+	 *
+	 * @param lIndex
+	 * 	Zero-based record index.
+	 *
+	 * @return Tree entry.
+	 */
+	public TreeEntry getEntry( long lIndex )
+		{
+		DBC.require( lIndex >= 0L && lIndex < _records.size(), "Entry index out of range." );
+		//	-----------------------------------------------------------------
+		final MappedByteBuffer buf = _records.getSegment( lIndex );
+		final int iOffset = _records.getOffset( lIndex );
+
+		return readEntry( buf, iOffset );
+		}
+
+	/**
+	 * Gets the number of records in the tree.
+	 *
+	 * @return Record count.
+	 */
+	public long size()
+		{
+		return _records.size();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Reads a record.
+	 */
+	static TreeEntry readEntry( ByteBuffer buf, int iOffset )
+		{
+		return new TreeEntry( buf.getLong( iOffset ),
+							  buf.getInt( iOffset + 8 ),
+							  buf.getInt( iOffset + 12 ),
+							  buf.getInt( iOffset + 16 ),
+							  buf.getInt( iOffset + 20 ),
+							  buf.getInt( iOffset + 24 ) );
+		}
+
+	/**
+	 * Writes the file header.
+	 *
+	 * @param channel
+	 * 	Output file, positioned at the start.
+	 * @param lRecords
+	 * 	Number of records.
+	 */
+	static void writeHeader( FileChannel channel, long lRecords ) throws IOException
+		{
+		ByteBuffer buf = ByteBuffer.allocate( HEADER_BYTES );
+
+		buf.putLong( SIGNATURE ).putInt( VERSION ).putInt( RECORD_BYTES ).putLong( lRecords );
+		buf.position( HEADER_BYTES );
+		buf.flip();
+
+		while (buf.hasRemaining())
+			channel.write( buf );
+		}
+
+	} /* end of class OpeningTree */
@@ -0,0 +1,250 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+
+/**
+ * The {@link PolyglotBook} class reads a Polyglot opening book.
+ *
+ * The book is memory-mapped rather than loaded, so even a multi-gigabyte book costs
+ * next to nothing on the heap.  Entries are sorted by key, so a lookup is a binary
+ * search over the 16-byte entries.  Lookups only use absolute reads, so a single
+ * book can be shared by several threads.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class PolyglotBook implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Size of a book entry, in bytes. */
+	public static final int ENTRY_BYTES = 16;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Mapped book entries. */
+	private MappedRecords _entries;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param path
+	 * 	Path to the book file.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be opened, or isn't a Polyglot book.
+	 */
+	public PolyglotBook( Path path ) throws IOException
+		{
+		DBC.requireNotNull( path, "Path" );
+		//	-----------------------------------------------------------------
+		_entries = new MappedRecords( path, 0L, ENTRY_BYTES );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Releases the book.  The mapping itself is released when the book is
+	 * garbage collected.  Any further lookup throws {@link IllegalStateException}.
+	 */
+	@Override
+	public void close()
+		{
+		_entries = null;
+		}
+
+	/**
+	 * Finds the entries for a position.
+	 *
+	 * @param bd
+	 * 	Position to look up.
+	 *
+	 * @return List of entries, which is empty if the position isn't in the book.
+	 */
+	public List<BookEntry> getEntries( Board bd )
+		{
+		DBC.requireNotNull( bd, "Board" );
+		//	-----------------------------------------------------------------
+		return getEntries( bd.getPolyglotKey() );
+		}
+
+	/**
+	 * Finds the entries for a Polyglot key.
+	 *
+	 * @param lKey
+	 * 	Polyglot key.
+	 *
+	 * @return List of entries, which is empty if the key isn't in the book.
+	 */
+	public List<BookEntry> getEntries( long lKey )
+		{
+		final MappedRecords records = getRecords();
+		final List<BookEntry> entries = new ArrayList<>();
+		final long lSize = records.size();
+
+		for ( long lIndex = records.findFirst( lKey ); lIndex < lSize && records.getKey( lIndex ) == lKey; ++lIndex )
+			entries.add( getEntry( lIndex ) );
+
+		return entries;
+		}
+
+	/**
+	 * Gets the book move with the highest weight.
+	 *
+	 * @param bd
+	 * 	Position to look up.
+	 *
+	 * @return Move, or <code>null</code> if the position isn't in the book.
+	 */
+	public Move getBestMove( Board bd )
+		{
+		BookEntry entryBest = null;
+
+		for ( BookEntry entry : getEntries( bd ) )
+			if (entryBest == null || entry.iWeight > entryBest.iWeight)
+				entryBest = entry;
+
+		return (entryBest != null) ? entryBest.toMove( bd ) : null;
+		}
+
+	/**
+	 * Picks a book move at random, in proportion to the move weights.
+	 *
+	 * @param bd
+	 * 	Position to look up.
+	 * @param random
+	 * 	Random number generator.
+	 *
+	 * @return Move, or <code>null</code> if the position isn't in the book.
+	 */
+	public Move getRandomMove( Board bd, Random random )
+		{
+		DBC.requireNotNull( random, "Random" );
+		//	-----------------------------------------------------------------
+		final List<BookEntry> entries = getEntries( bd );
+		long lTotal = 0L;
+
+		for ( BookEntry entry : entries )
+			lTotal += entry.iWeight;
+
+		if (lTotal == 0L)
+			return entries.isEmpty() ? null : entries.get( random.nextInt( entries.size() ) ).toMove( bd );
+
+		long lPick = (long) (random.nextDouble() * lTotal);
+
+		for ( BookEntry entry : entries )
+			{
+			lPick -= entry.iWeight;
+			if (lPick < 0L)
+				return entry.toMove( bd );
+			}
+
+		return null;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the entry at a given index.
+	 *
+	 * @param lIndex
+	 * 	Zero-based entry index.
+	 *
+	 * @return Book entry.
+	 */
+	public BookEntry getEntry( long lIndex )
+		{
+		final MappedRecords records = getRecords();
+
+		DBC.require( lIndex >= 0L && lIndex < records.size(), "Entry index out of range." );
+		//	-----------------------------------------------------------------
+		final MappedByteBuffer buf = records.getSegment( lIndex );
+		final int iOffset = records.getOffset( lIndex );
+
+		return new BookEntry( buf.getLong( iOffset ),
+							  buf.getShort( iOffset + 8 ) & 0xFFFF,
+							  buf.getShort( iOffset + 10 ) & 0xFFFF,
+							  buf.getInt( iOffset + 12 ) );
+		}
+
+	/**
+	 * Gets the number of entries in the book.
+	 *
+	 * @return Entry count.
+	 */
+	public long size()
+		{
+		return getRecords().size();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the mapped entries.
+	 *
+	 * @return Mapped entries.
+	 *
+	 * @throws IllegalStateException
+	 * 	if the book has been closed.
+	 */
+	private MappedRecords getRecords()
+		{
+		final MappedRecords records = _entries;
+
+		if (records == null)
+			throw new IllegalStateException( "Book is closed." );
+
+		return records;
+		}
+	} /* end of class PolyglotBook */
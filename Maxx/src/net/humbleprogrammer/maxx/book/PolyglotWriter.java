@@ -0,0 +1,252 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+
+/**
+ * The {@link PolyglotWriter} class writes a Polyglot opening book.
+ *
+ * Entries must be written in book order (ascending unsigned key, then move), which lets
+ * a caller stream a book of any size straight from a sorted source.  When all the
+ * entries are already in memory, {@link #write(Path, Collection)} sorts them and writes
+ * the book through a memory-mapped buffer.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class PolyglotWriter implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Entries buffered between writes. */
+	private static final int BUFFER_ENTRIES = 4096;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Output file. */
+	private final FileChannel _channel;
+	/** Write buffer. */
+	private final ByteBuffer  _buf = ByteBuffer.allocateDirect( BUFFER_ENTRIES * PolyglotBook.ENTRY_BYTES );
+
+	/** Number of entries written. */
+	private long _lEntries;
+	/** Key of the last entry written. */
+	private long _lLastKey;
+	/** Move of the last entry written. */
+	private int  _iLastMove;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param path
+	 * 	Path to the book file, which is replaced if it exists.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be created.
+	 */
+	public PolyglotWriter( Path path ) throws IOException
+		{
+		DBC.requireNotNull( path, "Path" );
+		//	-----------------------------------------------------------------
+		_channel = FileChannel.open( path,
+									 StandardOpenOption.CREATE,
+									 StandardOpenOption.TRUNCATE_EXISTING,
+									 StandardOpenOption.WRITE );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Sorts a set of entries and writes them as a book.
+	 *
+	 * @param path
+	 * 	Path to the book file, which is replaced if it exists.
+	 * @param entries
+	 * 	Entries to write, in any order.
+	 *
+	 * @throws IOException
+	 * 	if the book can't be written.
+	 */
+	public static void write( Path path, Collection<BookEntry> entries ) throws IOException
+		{
+		DBC.requireNotNull( path, "Path" );
+		DBC.requireNotNull( entries, "Entries" );
+		//	-----------------------------------------------------------------
+		final BookEntry[] sorted = entries.toArray( new BookEntry[ entries.size() ] );
+		final long lSize = (long) sorted.length * PolyglotBook.ENTRY_BYTES;
+
+		DBC.require( lSize <= Integer.MAX_VALUE, "Too many entries; use a streaming writer." );
+		Arrays.sort( sorted );
+
+		try (FileChannel channel = FileChannel.open( path,
+													 StandardOpenOption.CREATE,
+													 StandardOpenOption.TRUNCATE_EXISTING,
+													 StandardOpenOption.READ,
+													 StandardOpenOption.WRITE ))
+			{
+			MappedByteBuffer buf = channel.map( FileChannel.MapMode.READ_WRITE, 0L, lSize );
+
+			for ( BookEntry entry : sorted )
+				put( buf, entry.lKey, entry.iMove, entry.iWeight, entry.iLearn );
+
+			buf.force();
+			}
+		}
+
+	/**
+	 * Writes an entry.
+	 *
+	 * @param entry
+	 * 	Entry to write.
+	 *
+	 * @throws IOException
+	 * 	if the entry can't be written.
+	 */
+	public void write( BookEntry entry ) throws IOException
+		{
+		DBC.requireNotNull( entry, "Entry" );
+		//	-----------------------------------------------------------------
+		write( entry.lKey, entry.iMove, entry.iWeight, entry.iLearn );
+		}
+
+	/**
+	 * Writes an entry.
+	 *
+	 * @param lKey
+	 * 	Polyglot key, which must not be less than the previous key.
+	 * @param iMove
+	 * 	Polyglot move.
+	 * @param iWeight
+	 * 	Move weight; values outside [0..65535] are clamped.
+	 * @param iLearn
+	 * 	Learning value.
+	 *
+	 * @throws IOException
+	 * 	if the entry can't be written.
+	 */
+	public void write( long lKey, int iMove, int iWeight, int iLearn ) throws IOException
+		{
+		iMove &= 0xFFFF;
+
+		if (_lEntries > 0L)
+			{
+			int iOrder = BookEntry.compareKeys( _lLastKey, lKey );
+
+			DBC.require( iOrder < 0 || (iOrder == 0 && _iLastMove <= iMove), "Entries are not in book order." );
+			}
+		//	-----------------------------------------------------------------
+		if (!_buf.hasRemaining())
+			flush();
+
+		put( _buf, lKey, iMove, Math.max( 0, Math.min( iWeight, 0xFFFF ) ), iLearn );
+
+		_lLastKey = lKey;
+		_iLastMove = iMove;
+		++_lEntries;
+		}
+
+	/**
+	 * Flushes any buffered entries and closes the file.
+	 *
+	 * @throws IOException
+	 * 	if the entries can't be written.
+	 */
+	@Override
+	public void close() throws IOException
+		{
+		try
+			{ flush(); }
+		finally
+			{ _channel.close(); }
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of entries written so far.
+	 *
+	 * @return Entry count.
+	 */
+	public long getEntryCount()
+		{
+		return _lEntries;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Writes the buffered entries to the file.
+	 */
+	private void flush() throws IOException
+		{
+		_buf.flip();
+
+		while (_buf.hasRemaining())
+			_channel.write( _buf );
+
+		_buf.clear();
+		}
+
+	/**
+	 * Puts a single entry into a buffer, in Polyglot (big-endian) format.
+	 */
+	private static void put( ByteBuffer buf, long lKey, int iMove, int iWeight, int iLearn )
+		{
+		buf.putLong( lKey );
+		buf.putShort( (short) iMove );
+		buf.putShort( (short) iWeight );
+		buf.putInt( iLearn );
+		}
+
+	} /* end of class PolyglotWriter */
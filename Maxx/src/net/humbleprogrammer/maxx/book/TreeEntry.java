@@ -0,0 +1,128 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import net.humbleprogrammer.maxx.*;
+
+/**
+ * The {@link TreeEntry} class holds the statistics of a single move in an
+ * opening tree.  Wins, draws, and losses are from the perspective of the player
+ * making the move.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class TreeEntry
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Polyglot key of the position. */
+	public final long lKey;
+	/** Polyglot move. */
+	public final int  iMove;
+	/** Number of games, including those without a decisive result. */
+	public final int  iCount;
+	/** Games won by the moving player. */
+	public final int  iWins;
+	/** Games drawn. */
+	public final int  iDraws;
+	/** Games lost by the moving player. */
+	public final int  iLosses;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param lKey
+	 * 	Polyglot key of the position.
+	 * @param iMove
+	 * 	Polyglot move.
+	 * @param iCount
+	 * 	Number of games.
+	 * @param iWins
+	 * 	Games won.
+	 * @param iDraws
+	 * 	Games drawn.
+	 * @param iLosses
+	 * 	Games lost.
+	 */
+	public TreeEntry( long lKey, int iMove, int iCount, int iWins, int iDraws, int iLosses )
+		{
+		this.lKey = lKey;
+		this.iMove = iMove;
+		this.iCount = iCount;
+		this.iWins = iWins;
+		this.iDraws = iDraws;
+		this.iLosses = iLosses;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the percentage score of the move, counting a draw as half a win.
+	 *
+	 * @return Score, in the range [0..100], or zero if no games were decided.
+	 */
+	public double getScore()
+		{
+		final int iGames = iWins + iDraws + iLosses;
+
+		return (iGames > 0) ? (100.0 * ((2 * iWins) + iDraws)) / (2 * iGames) : 0.0;
+		}
+
+	/**
+	 * Converts this entry's move back to a legal move.
+	 *
+	 * @param bd
+	 * 	Position the entry belongs to.
+	 *
+	 * @return Move, or <code>null</code> if the move isn't legal in the position.
+	 */
+	public Move toMove( Board bd )
+		{
+		return BookEntry.decodeMove( bd, iMove );
+		}
+
+	@Override
+	public String toString()
+		{
+		return String.format( "%016X %04X n=%d +%d =%d -%d", lKey, iMove, iCount, iWins, iDraws, iLosses );
+		}
+
+	} /* end of class TreeEntry */
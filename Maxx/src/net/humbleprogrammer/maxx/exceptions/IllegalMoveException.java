@@ -46,4 +46,12 @@ public class IllegalMoveException extends RuntimeException
         **  EMPTY CTOR
         */
         }
+
+	public IllegalMoveException( Board bd, int iPacked )
+        {
+        super( String.format( "'%s' => %s is illegal.", bd, Move.toString( iPacked ) ) );
+        /*
+        **  EMPTY CTOR
+        */
+        }
     }   /* end of class IllegalMoveException */
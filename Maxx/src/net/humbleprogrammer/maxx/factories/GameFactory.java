@@ -34,11 +34,12 @@ package net.humbleprogrammer.maxx.factories;
 
 import net.humbleprogrammer.humble.DBC;
 import net.humbleprogrammer.humble.StrUtil;
-import net.humbleprogrammer.maxx.Game;
-import net.humbleprogrammer.maxx.Parser;
+import net.humbleprogrammer.maxx.*;
 import net.humbleprogrammer.maxx.pgn.PgnParser;
+import net.humbleprogrammer.maxx.pgn.PgnValidator;
+import net.humbleprogrammer.maxx.pgn.PgnWriter;
 
-import java.util.List;
+import java.io.IOException;
 
 public class GameFactory extends Parser
     {
@@ -56,23 +57,28 @@ public class GameFactory extends Parser
         { return new Game(); }
 
     /**
-     * Converts a PGN string to a Game.
+     * Converts a PGN string to a Game.  The tags are kept in the order they were
+     * read, and the main line is validated move by move; variations are validated,
+     * but not kept.  A game that ends inside a variation is rejected.
      *
      * @param strPGN
      *     String to parse.
      *
      * @return {@link Game} object if parsed, <c>null</c> otherwise.
      */
+    @SuppressWarnings( "deprecation" )
     public static Game fromString( final String strPGN )
         {
         if (StrUtil.isBlank( strPGN ))
             return null;
-        /*
-        **  CODE
-        */
+        //	-----------------------------------------------------------------
         s_strError = null;
 
-        return null;
+        final GameBuilder builder = new GameBuilder();
+
+        return PgnParser.parseGame( builder, strPGN ).isSuccess()
+               ? builder._game
+               : null;
         }
 
     /**
@@ -82,48 +88,81 @@ public class GameFactory extends Parser
      *     Game to export.
      *
      * @return PGN string.
+     *
+     * @see PgnWriter#write(Game)
      */
     public static String toString( Game gm )
         {
         DBC.requireNotNull( gm, "Game" );
-        /*
-        **  CODE
-        */
-        final List<String> listTags = PgnParser.getMandatoryTags();
+        //	-----------------------------------------------------------------
         final StringBuilder sb = new StringBuilder();
 
-        String strValue;
-        //
-        //  Export mandatory tags.
-        //
-        for ( String strName : listTags )
+        try
             {
-            if ((strValue = gm.getTag( strName )) == null)
-                strValue = "";
-
-            sb.append( String.format( "[%s \"%s\"]" + STR_CRLF,
-                                      strName,
-                                      strValue ) );
+            new PgnWriter( sb ).write( gm );
             }
-        //
-        //  Export optional tags.
-        //
-        for ( String strName : gm.getTagNames() )
-            if (!listTags.contains( strName ) &&
-                (strValue = gm.getTag( strName )) != null)
-                {
-                sb.append( String.format( "[%s \"%s\"]" + STR_CRLF,
-                                          strName,
-                                          strValue ) );
-                }
-
-        sb.append( STR_CRLF );  // empty line after tag section
+        catch (IOException ex)
+            { /* a StringBuilder never throws */ }
 
         return sb.toString();
         }
 
     //  -----------------------------------------------------------------------
-    //	METHODS
+    //	NESTED CLASS: GameBuilder
     //	-----------------------------------------------------------------------
 
+    /**
+     * The GameBuilder class validates a game as it is parsed, and copies the tags and
+     * the main line into a {@link Game}.
+     */
+    private static class GameBuilder extends PgnValidator
+        {
+        /** Game being built, or <c>null</c> if the game was rejected. */
+        private Game      _game;
+        /** Main line, as held by the validator. */
+        private Variation _mainLine;
+
+        @Override
+        public boolean onTag( final CharSequence strName, final CharSequence strValue )
+            {
+            if (!super.onTag( strName, strValue )) return false;
+
+            _game.setTag( strName.toString(), strValue.toString() );
+            return true;
+            }
+
+        @Override
+        public void onGameStart()
+            {
+            super.onGameStart();
+
+            _game = new Game();
+            _mainLine = _pv;
+            }
+
+        @Override
+        public void onGameOver()
+            {
+            super.onGameOver();
+            //
+            //  If the input ran out inside a variation, the variation (or nothing at
+            //  all, after a null move) is current, and the game is incomplete.
+            //
+            if (_pv != _mainLine)
+                {
+                _game = null;
+                return;
+                }
+
+            final Variation line = _game.getMainLine();
+
+            line.setStartingPosition( _mainLine.getStartingPosition() );
+
+            for ( Move move : _mainLine )
+                line.appendMove( move );
+
+            line.setResult( _mainLine.getResult() );
+            }
+        }
+
     }   /* end of class GameFactory */
@@ -56,63 +56,81 @@ public class MoveFactory
 	//	-----------------------------------------------------------------------
 
 	/**
-	 * Converts a SAN string to a move.
+	 * Converts a long algebraic string, such as "e2e4" or "e7e8q", to a move.
 	 *
 	 * @param bd
 	 * 	Current position.
-	 * @param strSAN
-	 * 	SAN string.
+	 * @param strLAN
+	 * 	Long algebraic string, as used by UCI.
 	 *
-	 * @return Move on success; null if move is illegal, ambiguous, or invalid.
+	 * @return Move on success; null if move is illegal or invalid.
 	 */
-	public static Move fromSAN( Board bd, String strSAN )
+	public static Move fromLAN( Board bd, String strLAN )
 		{
-		if (bd == null || StrUtil.isBlank( strSAN )) return null;
+		if (bd == null || StrUtil.isBlank( strLAN )) return null;
 		//	-----------------------------------------------------------------
-		final MoveInfo info = new MoveInfo();
+		final String str = strLAN.trim();
+		final int iSqFrom = Square.fromString( str, 0 );
+		final int iSqTo = Square.fromString( str, 2 );
 
-		if (!info.parse( strSAN, bd.getMovingPlayer() )) return null;
-		//
-		//  Create a bitboard of moving pieces (candidates) and find all
-		//  legal moves to the target square.
-		//
-		int iSqTo = Square.toIndex( info.iRankTo, info.iFileTo );
-		long bbCandidates = bd.getCandidates( info.iPieceMoving, iSqTo );
+		if (iSqFrom == INVALID || iSqTo == INVALID || str.length() > 5) return null;
 
-		if (Square.isValidRankOrFile( info.iFileFrom ))
-			bbCandidates &= Bitboards.getFileMask( info.iFileFrom );
-		else if (info.iPieceMoving == PAWN && info.bCapture)
-			bbCandidates &= ~Bitboards.getFileMask( info.iFileFrom );
-
-		if (Square.isValidRankOrFile( info.iRankFrom )) bbCandidates &=
-			Bitboards.getRankMask( info.iRankFrom );
-
-		if (bbCandidates == 0L)
+		for ( Move move : new MoveList( bd, Square.getMask( iSqFrom ), Square.getMask( iSqTo ) ) )
 			{
-			s_log.debug( "'{}' => '{}' has no candidates.", bd, strSAN );
-			return null;
+			if (move.toString().equalsIgnoreCase( str ))
+				return move;
 			}
-		//
-		//  Look for a matching move.  In a majority of cases (99.99% in over a million legal
-		//	games) only a single move will be returned.
-		//
-		MoveList moves = new MoveList( bd, bbCandidates, Square.getMask( iSqTo ) );
 
-		if (moves.size() == 1) return moves.getFirst();
-		//
-		//	Promotions have to be searched to find the matching piece type.
-		//
-		if (moves.size() > 1 && info.iType >= Move.Type.PROMOTION)
-			{
-			for ( Move move : moves )
-				if (move.iType == info.iType) return move;
-			}
+		s_log.debug( "'{}' => '{}' is illegal.", bd, strLAN );
 
-		s_log.debug( "'{}' => '{}' is ambiguous.", bd, strSAN );
+		return null;
+		}
 
+	/**
+	 * Converts a SAN string to a move.
+	 *
+	 * @param bd
+	 * 	Current position.
+	 * @param strSAN
+	 * 	SAN string; any character sequence, such as a token passed to an
+	 * 	{@link net.humbleprogrammer.maxx.interfaces.IPgnTokenListener}, is accepted.
+	 *
+	 * @return Move on success; null if move is illegal, ambiguous, or invalid.
+	 */
+	public static Move fromSAN( Board bd, CharSequence strSAN )
+		{
+		final MoveInfo info = new MoveInfo();
+		final MoveList moves = getCandidates( bd, strSAN, info );
+		final int index = indexOfMatch( moves, info );
+
+		if (index >= 0) return moves.get( index );
+
+		s_log.debug( "'{}' => '{}' is illegal or ambiguous.", bd, strSAN );
 		return null;
 		}
 
+	/**
+	 * Converts a SAN string to a packed move.
+	 *
+	 * @param bd
+	 * 	Current position.
+	 * @param strSAN
+	 * 	SAN string.
+	 *
+	 * @return Packed move on success; INVALID if move is illegal, ambiguous, or invalid.
+	 */
+	public static int fromSANPacked( Board bd, CharSequence strSAN )
+		{
+		final MoveInfo info = new MoveInfo();
+		final MoveList moves = getCandidates( bd, strSAN, info );
+		final int index = indexOfMatch( moves, info );
+
+		if (index >= 0) return moves.getPacked( index );
+
+		s_log.debug( "'{}' => '{}' is illegal or ambiguous.", bd, strSAN );
+		return INVALID;
+		}
+
 	/**
 	 * Converts a move to a SAN string.
 	 *
@@ -129,28 +147,164 @@ public class MoveFactory
 		{
 		if (bd == null || !bd.isLegalMove( move )) return "";
 		//	-----------------------------------------------------------------
-		final int iSqFrom = move.iSqFrom;
-		final int iSqTo = move.iSqTo;
+		StringBuilder sb = new StringBuilder();
 
-		int pt = bd.getPieceType( iSqFrom );
+		appendLegalSAN( sb, bd, move.toPacked() );
+		//
+		//	Add check indicator, but only if caller asks for it.
+		//
+		if (bCheckIndicator)
+			appendCheckIndicator( sb, new Board( bd ).makeMove( move ) );
+
+		return sb.toString();
+		}
+
+	/**
+	 * Converts a packed move to a SAN string.
+	 *
+	 * @param bd
+	 * 	Position BEFORE move is made.
+	 * @param iPacked
+	 * 	Packed move.
+	 *
+	 * @return SAN move string on success; empty string if move is illegal, ambiguous, or
+	 * invalid.
+	 */
+	public static String toSAN( final Board bd, final int iPacked, boolean bCheckIndicator )
+		{
+		if (bd == null || !bd.isLegalMove( iPacked )) return "";
+		//	-----------------------------------------------------------------
 		StringBuilder sb = new StringBuilder();
 
-		if (move.iType == Move.Type.CASTLING)
+		appendLegalSAN( sb, bd, iPacked );
+		//
+		//	The move has just been validated, so the copy takes it on trust.
+		//
+		if (bCheckIndicator)
+			appendCheckIndicator( sb, new Board( bd ).makeMove( iPacked, bd.getZobristHash() ) );
+
+		return sb.toString();
+		}
+
+	/**
+	 * Appends the SAN string for a packed move, without any check indicator.  Unlike
+	 * {@link #toSAN(Board, int, boolean)}, no string is created, and the move is
+	 * validated in a per-thread buffer, so nothing is allocated.
+	 *
+	 * @param sb
+	 * 	Buffer to append to.
+	 * @param bd
+	 * 	Position BEFORE move is made.
+	 * @param iPacked
+	 * 	Packed move.
+	 *
+	 * @return .T. if appended; .F. if the move is illegal, in which case nothing is
+	 * appended.
+	 */
+	public static boolean appendSAN( StringBuilder sb, Board bd, int iPacked )
+		{
+		if (sb == null || bd == null || !bd.isLegalMove( iPacked )) return false;
+		//	-----------------------------------------------------------------
+		appendLegalSAN( sb, bd, iPacked );
+		return true;
+		}
+
+	/**
+	 * Appends the SAN string for a packed move that is already known to be legal,
+	 * such as a move from a {@link MoveSequence}, without any check indicator.  The
+	 * hash stands in for a legality test, so no moves are generated unless the SAN
+	 * needs disambiguating.
+	 *
+	 * @param sb
+	 * 	Buffer to append to.
+	 * @param bd
+	 * 	Position BEFORE move is made.
+	 * @param iPacked
+	 * 	Packed move.
+	 * @param hashBefore
+	 * 	Zobrist hash of the position the move was validated for.
+	 *
+	 * @return .T. if appended; .F. if the hash doesn't match the position, in which
+	 * case nothing is appended.
+	 */
+	public static boolean appendSAN( StringBuilder sb, Board bd, int iPacked, long hashBefore )
+		{
+		if (sb == null || bd == null || bd.getZobristHash() != hashBefore) return false;
+		//	-----------------------------------------------------------------
+		appendLegalSAN( sb, bd, iPacked );
+		return true;
+		}
+
+	/**
+	 * Appends a check or mate indicator, if needed.
+	 *
+	 * @param sb
+	 * 	Buffer to append to.
+	 * @param bdAfter
+	 * 	Position AFTER move is made.
+	 */
+	public static void appendCheckIndicator( StringBuilder sb, Board bdAfter )
+		{
+		if (bdAfter.isInCheck())
+			sb.append( Arbiter.isMated( bdAfter ) ? '#' : '+' );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Appends the SAN string for a legal move, without any check indicator.
+	 *
+	 * @param sb
+	 * 	Buffer to append to.
+	 * @param bd
+	 * 	Position BEFORE move is made.
+	 * @param iPacked
+	 * 	Packed move, already known to be legal.
+	 */
+	private static void appendLegalSAN( StringBuilder sb, Board bd, int iPacked )
+		{
+		final int iSqFrom = Move.unpackFromSq( iPacked );
+		final int iSqTo = Move.unpackToSq( iPacked );
+		final int iType = Move.unpackType( iPacked );
+
+		int pt = bd.getPieceType( iSqFrom );
+
+		if (iType == Move.Type.CASTLING)
 			{
 			sb.append( (iSqFrom < iSqTo) ? Parser.STR_CASTLE_SHORT : Parser.STR_CASTLE_LONG );
 			}
 		else if (pt == PAWN)
 			{
-			if (move.iType == Move.Type.EN_PASSANT || !bd.isEmpty( iSqTo ))
+			if (iType == Move.Type.EN_PASSANT || !bd.isEmpty( iSqTo ))
 				{
 				sb.append( Square.getFileGlyph( iSqFrom ) );
 				sb.append( 'x' );
 				}
 
-			sb.append( Square.toString( iSqTo ) );
+			sb.append( Square.getFileGlyph( iSqTo ) ).append( (char) Square.getRankGlyph( iSqTo ) );
+
+			if (iType >= Move.Type.PROMOTION)
+				{
+				switch (iType)
+					{
+					case Move.Type.PROMOTE_KNIGHT:
+						pt = KNIGHT;
+						break;
+					case Move.Type.PROMOTE_BISHOP:
+						pt = BISHOP;
+						break;
+					case Move.Type.PROMOTE_ROOK:
+						pt = ROOK;
+						break;
+					default:
+						pt = QUEEN;
+						break;
+					}
 
-			if ((pt = move.getPromotionPiece()) != EMPTY)
-				sb.append( String.format( "=%c", Parser.pieceTypeToGlyph( pt ) ) );
+				sb.append( '=' ).append( Parser.pieceTypeToGlyph( pt ) );
+				}
 			}
 		else
 			{
@@ -163,51 +317,137 @@ public class MoveFactory
 			//
 			if (BitUtil.multiple( bbCandidates ))
 				{
-				MoveList possible = new MoveList( bd, bbCandidates, Square.getMask( iSqTo ) );
-
-				if (possible.size() > 1)
+				boolean bAmbiguous = false;
+				boolean bNeedFile = false;
+				boolean bNeedRank = false;
+				int iFile = Square.getFile( iSqFrom );
+				int iRank = Square.getRank( iSqFrom );
+				//
+				//	A candidate only matters if it can legally reach the "To" square,
+				//	i.e., it isn't pinned.
+				//
+				for ( long bb = bbCandidates; bb != 0L; bb &= (bb - 1) )
 					{
-					boolean bNeedFile = false;
-					boolean bNeedRank = false;
-					int iFile = Square.getFile( iSqFrom );
-					int iRank = Square.getRank( iSqFrom );
-
-					for ( Move mv : possible )
-						if (mv.iSqFrom != iSqFrom)
-							{
-							if (Square.getFile( mv.iSqFrom ) == iFile) bNeedRank = true;
-							if (Square.getRank( mv.iSqFrom ) == iRank) bNeedFile = true;
-							}
+					final int iSqOther = BitUtil.first( bb );
+
+					if (iSqOther != iSqFrom && bd.isLegalMove( Move.pack( iSqOther, iSqTo, Move.Type.NORMAL ) ))
+						{
+						bAmbiguous = true;
 
+						if (Square.getFile( iSqOther ) == iFile) bNeedRank = true;
+						if (Square.getRank( iSqOther ) == iRank) bNeedFile = true;
+						}
+					}
+
+				if (bAmbiguous)
+					{
 					if (bNeedFile || !bNeedRank)
 						sb.append( Square.getFileGlyph( iSqFrom ) );
 
 					if (bNeedRank)
-						sb.append( Square.getRankGlyph( iSqFrom ) );
+						sb.append( (char) Square.getRankGlyph( iSqFrom ) );
 					}
 				}
 
 			if (!bd.isEmpty( iSqTo ))
 				sb.append( 'x' );
 
-			sb.append( Square.toString( iSqTo ) );
+			sb.append( Square.getFileGlyph( iSqTo ) ).append( (char) Square.getRankGlyph( iSqTo ) );
 			}
+		}
+
+	/**
+	 * Generates the legal moves that could match a SAN string.
+	 *
+	 * @param bd
+	 * 	Current position.
+	 * @param strSAN
+	 * 	SAN string.
+	 * @param info
+	 * 	[OUT] Parsed move information.
+	 *
+	 * @return List of candidate moves on success; null if the move is invalid or has
+	 * no candidates.
+	 */
+	private static MoveList getCandidates( Board bd, CharSequence strSAN, MoveInfo info )
+		{
+		if (bd == null || StrUtil.isBlank( strSAN )) return null;
+		if (!info.parse( strSAN, bd.getMovingPlayer() )) return null;
+		//	-----------------------------------------------------------------
 		//
-		//	Add check indicator, but only if caller asks for it.
+		//  Create a bitboard of moving pieces (candidates) and find all
+		//  legal moves to the target square.
 		//
-		if (bCheckIndicator)
+		int iSqTo = Square.toIndex( info.iRankTo, info.iFileTo );
+		long bbCandidates = bd.getCandidates( info.iPieceMoving, iSqTo );
+
+		if (Square.isValidRankOrFile( info.iFileFrom ))
+			bbCandidates &= Bitboards.getFileMask( info.iFileFrom );
+		else if (info.iPieceMoving == PAWN && info.bCapture)
+			bbCandidates &= ~Bitboards.getFileMask( info.iFileFrom );
+
+		if (Square.isValidRankOrFile( info.iRankFrom )) bbCandidates &=
+			Bitboards.getRankMask( info.iRankFrom );
+
+		if (bbCandidates == 0L)
 			{
-			Board bdTest = new Board( bd );
+			s_log.debug( "'{}' => '{}' has no candidates.", bd, strSAN );
+			return null;
+			}
 
-			bdTest.makeMove( move );
+		return new MoveList( bd, bbCandidates, Square.getMask( iSqTo ) );
+		}
 
-			if (Arbiter.isMated( bdTest ))
-				sb.append( '#' );
-			else if (bdTest.isInCheck())
-				sb.append( '+' );
+	/**
+	 * Finds the candidate move that matches the parsed SAN information.
+	 *
+	 * @param moves
+	 * 	Candidate moves; may be <code>null</code>.
+	 * @param info
+	 * 	Parsed move information.
+	 *
+	 * @return Index of matching move on success; INVALID if there is no match, or the
+	 * match is ambiguous.
+	 */
+	private static int indexOfMatch( MoveList moves, MoveInfo info )
+		{
+		if (moves == null) return INVALID;
+		//	-----------------------------------------------------------------
+		//
+		//  In a majority of cases (99.99% in over a million legal games) only a single
+		//	move will be returned.
+		//
+		if (moves.size() == 1) return 0;
+		//
+		//	Promotions have to be searched to find the matching piece type.
+		//
+		if (moves.size() > 1 && info.iType >= Move.Type.PROMOTION)
+			{
+			for ( int index = 0; index < moves.size(); ++index )
+				if (Move.unpackType( moves.getPacked( index ) ) == info.iType) return index;
 			}
 
-		return sb.toString();
+		return INVALID;
+		}
+
+	/**
+	 * Tests if a character sequence starts with a prefix.
+	 *
+	 * @param str
+	 * 	Sequence to test.
+	 * @param strPrefix
+	 * 	Prefix to look for.
+	 *
+	 * @return .T. if <code>str</code> starts with <code>strPrefix</code>; .F. otherwise.
+	 */
+	private static boolean startsWith( CharSequence str, String strPrefix )
+		{
+		if (str.length() < strPrefix.length()) return false;
+		//	-----------------------------------------------------------------
+		for ( int index = 0; index < strPrefix.length(); ++index )
+			if (str.charAt( index ) != strPrefix.charAt( index )) return false;
+
+		return true;
 		}
 
 	//  -----------------------------------------------------------------------
@@ -249,7 +489,7 @@ public class MoveFactory
 		 * @param player
 		 * 	Moving player color [WHITE|BLACK]
 		 */
-		boolean parse( String strIn, int player )
+		boolean parse( CharSequence strIn, int player )
 			{
 			if (StrUtil.isBlank( strIn ) || !Character.isLetter( strIn.charAt( 0 ) ))
 				return false;
@@ -261,7 +501,7 @@ public class MoveFactory
 
 			while ( index < strIn.length() )
 				{
-				int ch = strIn.codePointAt( index++ );
+				int ch = Character.codePointAt( strIn, index++ );
 				if (Character.isSupplementaryCodePoint( ch )) index++;
 
 				if (ch >= 'a' && ch <= 'h')
@@ -305,7 +545,7 @@ public class MoveFactory
 		 * @param player
 		 * 	Moving player color [BLACK|WHITE] return Length of parsed move, or zero on error.
 		 */
-		private int parseCastling( String strIn, int player )
+		private int parseCastling( CharSequence strIn, int player )
 			{
 			assert strIn != null;
 			assert (player & ~0x01) == 0;
@@ -314,12 +554,12 @@ public class MoveFactory
 			//	-----------------------------------------------------------------
 			int iLen;
 
-			if (strIn.startsWith( Parser.STR_CASTLE_LONG ))
+			if (startsWith( strIn, Parser.STR_CASTLE_LONG ))
 				{
 				iFileTo = 2;
 				iLen = Parser.STR_CASTLE_LONG.length();
 				}
-			else if (strIn.startsWith( Parser.STR_CASTLE_SHORT ))
+			else if (startsWith( strIn, Parser.STR_CASTLE_SHORT ))
 				{
 				iFileTo = 6;
 				iLen = Parser.STR_CASTLE_SHORT.length();
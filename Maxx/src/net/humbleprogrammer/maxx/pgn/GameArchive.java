@@ -0,0 +1,118 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import net.humbleprogrammer.maxx.*;
+
+/**
+ * The {@link GameArchive} class holds the layout shared by {@link GameArchiveWriter} and
+ * {@link GameArchiveReader}.
+ *
+ * An archive is a five byte header (the magic number and a version) followed by one
+ * record per game:
+ * <pre>
+ *	varint	tag count
+ *	string	tag name, string tag value	(repeated)
+ *	byte	flags: result in bits 0..2, bit 3 set if a FEN string follows
+ *	string	FEN of the starting position	(optional)
+ *	varint	ply count
+ *	moves	one byte per ply: index into the canonical move list, or
+ *			{@link #MOVE_ESCAPE} followed by a varint of (index - MOVE_ESCAPE)
+ * </pre>
+ * A string is a varint reference: zero means a literal follows (a varint length and
+ * that many bytes of UTF-8), which is then added to the dictionary; any other value is
+ * one more than the index of a string already in the dictionary.  Both sides build the
+ * same dictionary as they go, so repeated tag names, events, sites, and players cost
+ * a byte or two.
+ *
+ * The canonical move list is every legal move, in the order {@link MoveList} generates
+ * them.  That order depends only on the position, so the decoder gets the same list
+ * back without sorting it; any change to the generation order has to bump
+ * {@link #VERSION}.
+ */
+final class GameArchive
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Magic number at the start of every archive. */
+	static final byte[] MAGIC = { 'M', 'X', 'G', 'A' };
+	/** Format version. */
+	static final int    VERSION = 1;
+
+	/** Move index that introduces a varint, for indexes that don't fit in a byte. */
+	static final int MOVE_ESCAPE = 0xFF;
+
+	/** Flag bit set if the record includes a starting position. */
+	static final int FLAG_FEN     = 0x08;
+	/** Flag bits that hold the result. */
+	static final int MASK_RESULT  = 0x07;
+
+	/** Most strings held in the dictionary; later strings are always written as literals. */
+	static final int MAX_DICTIONARY = 1 << 20;
+
+	/** Results, indexed by their code; <code>null</code> means no result. */
+	static final Result[] RESULTS =
+		{ null, Result.WON_BY_WHITE, Result.WON_BY_BLACK, Result.DRAW, Result.INDETERMINATE };
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/** Not instantiable. */
+	private GameArchive()
+		{ /* EMPTY CTOR */ }
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the code for a result.
+	 *
+	 * @param result
+	 * 	Result, which may be <code>null</code>.
+	 *
+	 * @return Index into {@link #RESULTS}.
+	 */
+	static int toCode( Result result )
+		{
+		for ( int idx = 1; idx < RESULTS.length; ++idx )
+			if (RESULTS[ idx ] == result)
+				return idx;
+
+		return 0;
+		}
+	} /* end of class GameArchive */
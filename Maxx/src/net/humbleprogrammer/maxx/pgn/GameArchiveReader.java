@@ -0,0 +1,413 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link GameArchiveReader} class reads games written by {@link GameArchiveWriter}.
+ *
+ * Moves are decoded by replaying them on a {@link Board}: each stored index selects a
+ * move from the canonical list of legal moves for the current position, so no SAN is
+ * parsed and no move has to be checked for legality.  {@link MoveList#makeMove(Board, int)}
+ * counts its way to the index rather than generating the whole list, and moves are
+ * kept in packed form, so decoding allocates nothing per ply.
+ *
+ * {@link #next()} decodes a game into reusable storage, which is the fastest way to
+ * scan an archive; {@link #read()} builds a {@link Game} from it.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class GameArchiveReader implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Size of the read buffer. */
+	private static final int BUFFER_SIZE = 8192;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Input. */
+	private final InputStream         _input;
+	/** Read buffer. */
+	private final byte[]              _buf        = new byte[ BUFFER_SIZE ];
+	/** String dictionary. */
+	private final List<String>        _dictionary = new ArrayList<>();
+	/** Tags of the current game. */
+	private final Map<String, String> _tags       = new LinkedHashMap<>();
+	/** Moves of the current game. */
+	private final MoveSequence        _moves      = new MoveSequence();
+	/** Legal moves for the position being decoded. */
+	private final MoveList            _legal      = new MoveList();
+
+	/** Position after the last move of the current game. */
+	private Board  _board;
+	/** Starting position of the current game. */
+	private Board  _bdStart;
+	/** Result of the current game. */
+	private Result _result;
+	/** Number of bytes in {@link #_buf}. */
+	private int    _iLength;
+	/** Offset of the next byte in {@link #_buf}. */
+	private int    _iOffset;
+	/** Number of games read. */
+	private long   _lGames;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param input
+	 * 	Source.  It is closed when the reader is closed.
+	 *
+	 * @throws IOException
+	 * 	if the header can't be read, or isn't a game archive header.
+	 */
+	public GameArchiveReader( InputStream input ) throws IOException
+		{
+		DBC.requireNotNull( input, "Input" );
+		//	-----------------------------------------------------------------
+		_input = input;
+
+		for ( byte b : GameArchive.MAGIC )
+			if (getByte() != (b & 0xFF))
+				throw new IOException( "Not a game archive." );
+
+		final int iVersion = getByte();
+
+		if (iVersion != GameArchive.VERSION)
+			throw new IOException( "Unsupported game archive version " + iVersion + '.' );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Decodes the next game.
+	 *
+	 * The game's tags, starting position, moves, and result are available through
+	 * the getters until the next call.
+	 *
+	 * @return <code>.T.</code> if a game was decoded; <code>.F.</code> at the end of
+	 * the archive.
+	 *
+	 * @throws IOException
+	 * 	if the input fails, or the archive is truncated or corrupt.
+	 */
+	public boolean next() throws IOException
+		{
+		if (_iOffset >= _iLength && !fill()) return false;
+		//	-----------------------------------------------------------------
+		_tags.clear();
+		_moves.clear();
+
+		for ( int iTags = getVarint(); iTags > 0; --iTags )
+			{
+			final String strName = getString();
+
+			_tags.put( strName, getString() );
+			}
+
+		final int iFlags = getByte();
+
+		if ((iFlags & GameArchive.MASK_RESULT) >= GameArchive.RESULTS.length)
+			throw new IOException( "Invalid result in game archive." );
+
+		_result = GameArchive.RESULTS[ iFlags & GameArchive.MASK_RESULT ];
+
+		if ((iFlags & GameArchive.FLAG_FEN) == 0)
+			_bdStart = BoardFactory.createInitial();
+		else if ((_bdStart = BoardFactory.createFromFEN( getString() )) == null)
+			throw new IOException( "Invalid FEN in game archive." );
+
+		_board = new Board( _bdStart );
+
+		for ( int iPly = getVarint(); iPly > 0; --iPly )
+			{
+			final long hashBefore = _board.getZobristHash();
+			final int iPacked = _legal.makeMove( _board, getMove() );
+
+			if (iPacked == INVALID)
+				throw new IOException( "Invalid move in game archive." );
+
+			_moves.addPacked( iPacked, hashBefore );
+			}
+
+		++_lGames;
+		return true;
+		}
+
+	/**
+	 * Reads the next game.
+	 *
+	 * @return Game, or <code>null</code> at the end of the archive.
+	 *
+	 * @throws IOException
+	 * 	if the input fails, or the archive is truncated or corrupt.
+	 */
+	public Game read() throws IOException
+		{
+		if (!next()) return null;
+		//	-----------------------------------------------------------------
+		final Game gm = new Game();
+		final Variation line = gm.getMainLine();
+
+		for ( Map.Entry<String, String> entry : _tags.entrySet() )
+			gm.setTag( entry.getKey(), entry.getValue() );
+
+		line.setStartingPosition( _bdStart );
+		line.addAll( _moves );
+
+		line.setResult( _result );
+		return gm;
+		}
+
+	/**
+	 * Closes the input.
+	 *
+	 * @throws IOException
+	 * 	if the input fails.
+	 */
+	@Override
+	public void close() throws IOException
+		{
+		_input.close();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of games read.
+	 *
+	 * @return Game count.
+	 */
+	public long getGameCount()
+		{
+		return _lGames;
+		}
+
+	/**
+	 * Gets the moves of the current game.
+	 *
+	 * @return Read-only list of moves, which is reused by the next call to
+	 * {@link #next()}.
+	 */
+	public List<Move> getMoves()
+		{
+		return Collections.unmodifiableList( _moves );
+		}
+
+	/**
+	 * Gets the position after the last move of the current game.
+	 *
+	 * @return Copy of the final position, or <code>null</code> if no game has been read.
+	 */
+	public Board getPosition()
+		{
+		return (_board != null) ? new Board( _board ) : null;
+		}
+
+	/**
+	 * Gets the result of the current game.
+	 *
+	 * @return Result, or <code>null</code> if the game had none.
+	 */
+	public Result getResult()
+		{
+		return _result;
+		}
+
+	/**
+	 * Gets the starting position of the current game.
+	 *
+	 * @return Copy of the starting position, or <code>null</code> if no game has been
+	 * read.
+	 */
+	public Board getStartingPosition()
+		{
+		return (_bdStart != null) ? new Board( _bdStart ) : null;
+		}
+
+	/**
+	 * Gets the tags of the current game.
+	 *
+	 * @return Read-only map of tag names to values, in archive order, which is reused by
+	 * the next call to {@link #next()}.
+	 */
+	public Map<String, String> getTags()
+		{
+		return Collections.unmodifiableMap( _tags );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Refills the read buffer.
+	 *
+	 * @return <code>.T.</code> if bytes were read; <code>.F.</code> at end of input.
+	 *
+	 * @throws IOException
+	 * 	if the input fails.
+	 */
+	private boolean fill() throws IOException
+		{
+		int iRead;
+
+		do
+			iRead = _input.read( _buf, 0, _buf.length );
+		while ( iRead == 0 );
+
+		_iOffset = 0;
+		_iLength = Math.max( iRead, 0 );
+
+		return (iRead > 0);
+		}
+
+	/**
+	 * Reads a byte.
+	 *
+	 * @return Byte, in the range [0..255].
+	 *
+	 * @throws IOException
+	 * 	if the input fails or is exhausted.
+	 */
+	private int getByte() throws IOException
+		{
+		if (_iOffset >= _iLength && !fill())
+			throw new EOFException( "Game archive is truncated." );
+
+		return _buf[ _iOffset++ ] & 0xFF;
+		}
+
+	/**
+	 * Reads a move index.
+	 *
+	 * @return Index into the canonical move list.
+	 *
+	 * @throws IOException
+	 * 	if the input fails or is exhausted.
+	 */
+	private int getMove() throws IOException
+		{
+		final int index = getByte();
+
+		return (index < GameArchive.MOVE_ESCAPE)
+			   ? index
+			   : GameArchive.MOVE_ESCAPE + getVarint();
+		}
+
+	/**
+	 * Reads a string, either a literal or a reference to the dictionary.
+	 *
+	 * @return String.
+	 *
+	 * @throws IOException
+	 * 	if the input fails or is exhausted, or the reference is invalid.
+	 */
+	private String getString() throws IOException
+		{
+		final int iRef = getVarint();
+
+		if (iRef > 0)
+			{
+			if (iRef > _dictionary.size())
+				throw new IOException( "Invalid string reference in game archive." );
+
+			return _dictionary.get( iRef - 1 );
+			}
+
+		final byte[] bytes = new byte[ getVarint() ];
+
+		for ( int idx = 0; idx < bytes.length; ++idx )
+			bytes[ idx ] = (byte) getByte();
+
+		final String str = new String( bytes, StandardCharsets.UTF_8 );
+
+		if (_dictionary.size() < GameArchive.MAX_DICTIONARY)
+			_dictionary.add( str );
+
+		return str;
+		}
+
+	/**
+	 * Reads an unsigned integer, seven bits per byte, low bits first.
+	 *
+	 * @return Value.
+	 *
+	 * @throws IOException
+	 * 	if the input fails or is exhausted, or the value is too large.
+	 */
+	private int getVarint() throws IOException
+		{
+		int iValue = 0;
+
+		for ( int iShift = 0; iShift < 32; iShift += 7 )
+			{
+			final int iByte = getByte();
+
+			iValue |= (iByte & 0x7F) << iShift;
+
+			if ((iByte & 0x80) == 0)
+				{
+				if (iValue < 0)
+					break;
+
+				return iValue;
+				}
+			}
+
+		throw new IOException( "Invalid varint in game archive." );
+		}
+	} /* end of class GameArchiveReader */
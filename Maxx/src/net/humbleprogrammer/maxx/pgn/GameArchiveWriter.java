@@ -0,0 +1,450 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.exceptions.IllegalMoveException;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link GameArchiveWriter} class writes games in a compact binary format.
+ *
+ * Each move is stored as its index in the position's canonical list of legal moves,
+ * which takes a single byte, and tag names and values are stored once, in a string
+ * dictionary, and referred to by index after that.  An archive is usually a fraction
+ * of the size of the same games in PGN, and {@link GameArchiveReader} replays it with
+ * one move generation per ply and no text to decode.  See {@link GameArchive} for the
+ * layout.
+ *
+ * Only the tags and the main line are kept; comments, annotations, and variations are
+ * dropped.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class GameArchiveWriter implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Size of the write buffer. */
+	private static final int BUFFER_SIZE = 8192;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Output. */
+	private final OutputStream         _output;
+	/** Write buffer. */
+	private final byte[]               _buf        = new byte[ BUFFER_SIZE ];
+	/** String dictionary, mapping each string to its index. */
+	private final Map<String, Integer> _dictionary = new HashMap<>();
+
+	/** Legal moves for the position being encoded. */
+	private final MoveList             _legal      = new MoveList();
+
+	/** Number of bytes in {@link #_buf}. */
+	private int  _iLength;
+	/** Number of games written. */
+	private long _lGames;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param output
+	 * 	Destination.  It is closed when the writer is closed.
+	 *
+	 * @throws IOException
+	 * 	if the header can't be written.
+	 */
+	public GameArchiveWriter( OutputStream output ) throws IOException
+		{
+		DBC.requireNotNull( output, "Output" );
+		//	-----------------------------------------------------------------
+		_output = output;
+
+		for ( byte b : GameArchive.MAGIC )
+			putByte( b );
+
+		putByte( GameArchive.VERSION );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Converts PGN to an archive.
+	 *
+	 * Every game is validated as it is parsed; games with errors are counted in the
+	 * result, and left out of the archive.
+	 *
+	 * @param reader
+	 * 	PGN source.
+	 * @param output
+	 * 	Destination, which is left open.
+	 *
+	 * @return Parse results.
+	 *
+	 * @throws IOException
+	 * 	if the PGN can't be read or the archive can't be written.
+	 */
+	public static ParseResult fromPgn( Reader reader, OutputStream output ) throws IOException
+		{
+		DBC.requireNotNull( reader, "Reader" );
+		DBC.requireNotNull( output, "Output" );
+		//	-----------------------------------------------------------------
+		final GameArchiveWriter writer = new GameArchiveWriter( output );
+		final Converter converter = new Converter( writer );
+		final ParseResult result = PgnParser.parseGames( converter, reader );
+
+		if (converter._exception != null)
+			throw converter._exception;
+
+		writer.flush();
+		return result;
+		}
+
+	/**
+	 * Writes a game: its tags and main line.
+	 *
+	 * @param gm
+	 * 	Game to write.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 * @see #write(Map, Variation)
+	 */
+	public void write( Game gm ) throws IOException
+		{
+		DBC.requireNotNull( gm, "Game" );
+		//	-----------------------------------------------------------------
+		write( gm.getTags(), gm.getMainLine() );
+		}
+
+	/**
+	 * Writes a game.
+	 *
+	 * @param tags
+	 * 	Tag pairs, which may be <code>null</code>.  They are stored as supplied, in
+	 * 	the order supplied.
+	 * @param line
+	 * 	Main line.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	public void write( Map<String, String> tags, Variation line ) throws IOException
+		{
+		DBC.requireNotNull( line, "Line" );
+		//	-----------------------------------------------------------------
+		if (tags == null)
+			putVarint( 0 );
+		else
+			{
+			putVarint( tags.size() );
+
+			for ( Map.Entry<String, String> entry : tags.entrySet() )
+				{
+				putString( entry.getKey() );
+				putString( entry.getValue() );
+				}
+			}
+
+		final Board bd = line.getStartingPosition();
+		final boolean bSetUp = (bd.getZobristHash() != HASH_INITIAL);
+
+		putByte( GameArchive.toCode( line.getResult() ) | (bSetUp ? GameArchive.FLAG_FEN : 0) );
+
+		if (bSetUp)
+			putString( BoardFactory.exportFEN( bd ) );
+
+		putVarint( line.size() );
+
+		for ( int iPly = 0; iPly < line.size(); ++iPly )
+			{
+			final int iPacked = line.getPacked( iPly );
+
+			putMove( indexOf( bd, iPacked ) );
+			bd.makeMove( iPacked, line.getHashBefore( iPly ) );
+			}
+
+		++_lGames;
+		}
+
+	/**
+	 * Writes any buffered bytes to the output.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	public void flush() throws IOException
+		{
+		if (_iLength > 0)
+			{
+			_output.write( _buf, 0, _iLength );
+			_iLength = 0;
+			}
+
+		_output.flush();
+		}
+
+	/**
+	 * Flushes any buffered bytes and closes the output.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	@Override
+	public void close() throws IOException
+		{
+		try
+			{
+			flush();
+			}
+		finally
+			{
+			_output.close();
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of games written.
+	 *
+	 * @return Game count.
+	 */
+	public long getGameCount()
+		{
+		return _lGames;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Finds a move in the canonical move list.
+	 *
+	 * @param bd
+	 * 	Position.
+	 * @param iPacked
+	 * 	Packed move to find.
+	 *
+	 * @return Index of move.
+	 *
+	 * @throws IllegalMoveException
+	 * 	if the move isn't legal in the position.
+	 */
+	private int indexOf( Board bd, int iPacked )
+		{
+		final MoveList moves = _legal.generate( bd );
+
+		for ( int idx = 0; idx < moves.size(); ++idx )
+			if (moves.getPacked( idx ) == iPacked)
+				return idx;
+
+		throw new IllegalMoveException( bd, iPacked );
+		}
+
+	/**
+	 * Appends a byte.
+	 *
+	 * @param iByte
+	 * 	Byte to append, in the low eight bits.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void putByte( int iByte ) throws IOException
+		{
+		if (_iLength >= _buf.length)
+			{
+			_output.write( _buf, 0, _iLength );
+			_iLength = 0;
+			}
+
+		_buf[ _iLength++ ] = (byte) iByte;
+		}
+
+	/**
+	 * Appends a move index: a single byte, unless the index needs an escape.
+	 *
+	 * @param index
+	 * 	Index into the canonical move list.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void putMove( int index ) throws IOException
+		{
+		if (index < GameArchive.MOVE_ESCAPE)
+			putByte( index );
+		else
+			{
+			putByte( GameArchive.MOVE_ESCAPE );
+			putVarint( index - GameArchive.MOVE_ESCAPE );
+			}
+		}
+
+	/**
+	 * Appends a string, as a reference to the dictionary if it has already been seen.
+	 *
+	 * @param str
+	 * 	String to append.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void putString( String str ) throws IOException
+		{
+		final Integer index = _dictionary.get( str );
+
+		if (index != null)
+			putVarint( index + 1 );
+		else
+			{
+			final byte[] bytes = str.getBytes( StandardCharsets.UTF_8 );
+
+			putVarint( 0 );
+			putVarint( bytes.length );
+
+			for ( byte b : bytes )
+				putByte( b );
+
+			if (_dictionary.size() < GameArchive.MAX_DICTIONARY)
+				_dictionary.put( str, _dictionary.size() );
+			}
+		}
+
+	/**
+	 * Appends an unsigned integer, seven bits per byte, low bits first.
+	 *
+	 * @param iValue
+	 * 	Value to append, which must not be negative.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void putVarint( int iValue ) throws IOException
+		{
+		assert iValue >= 0;
+
+		while ( iValue > 0x7F )
+			{
+			putByte( (iValue & 0x7F) | 0x80 );
+			iValue >>>= 7;
+			}
+
+		putByte( iValue );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: Converter
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * The Converter class validates each game as it is parsed, and writes its tags and
+	 * main line to an archive.
+	 */
+	private static class Converter extends PgnValidator
+		{
+		/** Tags of the current game. */
+		private final Map<String, String> _tags = new LinkedHashMap<>();
+		/** Archive. */
+		private final GameArchiveWriter   _writer;
+
+		/** Main line, as held by the validator. */
+		private Variation   _mainLine;
+		/** First output error, if any. */
+		private IOException _exception;
+
+		Converter( GameArchiveWriter writer )
+			{ _writer = writer; }
+
+		@Override
+		public boolean onTag( final CharSequence strName, final CharSequence strValue )
+			{
+			if (!super.onTag( strName, strValue )) return false;
+
+			_tags.put( strName.toString(), strValue.toString() );
+			return true;
+			}
+
+		@Override
+		public void onGameStart()
+			{
+			super.onGameStart();
+
+			_tags.clear();
+			_mainLine = _pv;
+			}
+
+		@Override
+		public void onGameOver()
+			{
+			super.onGameOver();
+			//
+			//	A game that ends inside a variation is incomplete, and isn't written.
+			//
+			if (_exception == null && _pv == _mainLine)
+				{
+				try
+					{
+					_writer.write( _tags, _pv );
+					}
+				catch (IOException ex)
+					{
+					_exception = ex;
+					}
+				}
+			}
+		}
+	} /* end of class GameArchiveWriter */
@@ -0,0 +1,142 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link Latin1Sequence} class presents a range of bytes as characters, one byte
+ * per character, without copying them.
+ *
+ * PGN movetext is pure ASCII, so this is exact everywhere except inside tags and
+ * comments; {@link PgnParser} re-decodes those as UTF-8 when they contain non-ASCII
+ * bytes.  Only absolute reads are used, so a single buffer can be shared by many
+ * sequences on many threads.
+ */
+final class Latin1Sequence implements CharSequence
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Underlying bytes. */
+	private final ByteBuffer _buf;
+	/** Offset of the first byte in {@link #_buf}. */
+	private final int        _iStart;
+	/** Number of bytes. */
+	private final int        _iLength;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param buf
+	 * 	Underlying bytes.
+	 * @param iStart
+	 * 	Offset of the first byte.
+	 * @param iLength
+	 * 	Number of bytes.
+	 */
+	Latin1Sequence( ByteBuffer buf, int iStart, int iLength )
+		{
+		assert buf != null;
+		assert iStart >= 0 && iLength >= 0 && iStart + iLength <= buf.limit();
+		//	-----------------------------------------------------------------
+		_buf = buf;
+		_iStart = iStart;
+		_iLength = iLength;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Copies characters into an array, in the manner of {@link String#getChars}.
+	 *
+	 * @param iFrom
+	 * 	Index of first character to copy.
+	 * @param iTo
+	 * 	Index after last character to copy.
+	 * @param dst
+	 * 	Destination array.
+	 * @param iDst
+	 * 	Offset in destination array.
+	 */
+	void getChars( int iFrom, int iTo, char[] dst, int iDst )
+		{
+		for ( int index = _iStart + iFrom, iLast = _iStart + iTo; index < iLast; ++index )
+			dst[ iDst++ ] = (char) (_buf.get( index ) & 0xFF);
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: CharSequence
+	//	-----------------------------------------------------------------------
+
+	@Override
+	public char charAt( int index )
+		{
+		if (index < 0 || index >= _iLength)
+			throw new IndexOutOfBoundsException( "Index: " + index + ", Length: " + _iLength );
+		//	-----------------------------------------------------------------
+		return (char) (_buf.get( _iStart + index ) & 0xFF);
+		}
+
+	@Override
+	public int length()
+		{
+		return _iLength;
+		}
+
+	@Override
+	public CharSequence subSequence( int iFrom, int iTo )
+		{
+		if (iFrom < 0 || iTo > _iLength || iFrom > iTo)
+			throw new IndexOutOfBoundsException( "Range: " + iFrom + ".." + iTo + ", Length: " + _iLength );
+		//	-----------------------------------------------------------------
+		return new Latin1Sequence( _buf, _iStart + iFrom, iTo - iFrom );
+		}
+
+	@Override
+	public String toString()
+		{
+		char[] chars = new char[ _iLength ];
+
+		getChars( 0, _iLength, chars, 0 );
+		return new String( chars );
+		}
+	} /* end of class Latin1Sequence */
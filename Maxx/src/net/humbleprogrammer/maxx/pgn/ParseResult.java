@@ -0,0 +1,155 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+/**
+ * The {@link ParseResult} class reports the outcome of a single call to the parser.
+ *
+ * Each call gets its own result, so several threads can parse at once and still see
+ * their own errors.  This replaces {@link PgnParser#getLastError()}, which is shared by
+ * every thread.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public final class ParseResult
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Number of games parsed successfully. */
+	private int    _iGames;
+	/** Number of games that failed to parse. */
+	private int    _iErrors;
+	/** Number of games whose movetext was skipped by a tag filter. */
+	private int    _iSkipped;
+	/** Most recent error message, or <code>null</code> if none. */
+	private String _strError;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 */
+	ParseResult()
+		{ /* EMPTY CTOR */ }
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the most recent error.
+	 *
+	 * @return Error message, or <code>null</code> if no errors occurred.
+	 */
+	public String getError()
+		{ return _strError; }
+
+	/**
+	 * Gets the number of games that failed to parse.
+	 *
+	 * @return Error count.
+	 */
+	public int getErrorCount()
+		{ return _iErrors; }
+
+	/**
+	 * Gets the number of games parsed successfully.  Games whose movetext was skipped
+	 * are not included.
+	 *
+	 * @return Game count.
+	 */
+	public int getGameCount()
+		{ return _iGames; }
+
+	/**
+	 * Gets the number of games whose tags were parsed, but whose movetext was skipped
+	 * by a tag filter.
+	 *
+	 * @return Skipped game count.
+	 */
+	public int getSkippedCount()
+		{ return _iSkipped; }
+
+	/**
+	 * Tests if parsing succeeded.
+	 *
+	 * @return .T. if at least one game was parsed or skipped, and none failed; .F.
+	 * otherwise.
+	 */
+	public boolean isSuccess()
+		{ return ((_iGames + _iSkipped) > 0 && _iErrors == 0); }
+
+	@Override
+	public String toString()
+		{
+		final String strGames = (_iSkipped == 0)
+								? String.format( "%,d games", _iGames )
+								: String.format( "%,d games, %,d skipped", _iGames, _iSkipped );
+
+		return (_strError == null)
+			   ? strGames
+			   : String.format( "%s, %,d errors (%s)", strGames, _iErrors, _strError );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Records a game that parsed successfully.
+	 */
+	void addGame()
+		{ _iGames++; }
+
+	/**
+	 * Records a game whose movetext was skipped.
+	 */
+	void addSkipped()
+		{ _iSkipped++; }
+
+	/**
+	 * Records a game that failed to parse.
+	 *
+	 * @param strError
+	 * 	Error message.
+	 */
+	void addError( String strError )
+		{
+		_iErrors++;
+		_strError = strError;
+		}
+	} /* end of class ParseResult */
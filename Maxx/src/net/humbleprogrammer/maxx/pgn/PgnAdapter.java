@@ -33,6 +33,7 @@
 package net.humbleprogrammer.maxx.pgn;
 
 import net.humbleprogrammer.maxx.Result;
+import net.humbleprogrammer.maxx.interfaces.IPgnErrorListener;
 import net.humbleprogrammer.maxx.interfaces.IPgnListener;
 
 /**
@@ -40,7 +41,7 @@ import net.humbleprogrammer.maxx.interfaces.IPgnListener;
  * all of the methods to be overridden.  Base methods will always accept the PGN token,
  * effectively ignoring them
  */
-public class PgnAdapter implements IPgnListener
+public class PgnAdapter implements IPgnListener, IPgnErrorListener
     {
     /**
      * A Numeric Annotation Glyph (NAG) has been parsed.
@@ -173,5 +174,14 @@ public class PgnAdapter implements IPgnListener
      */
     public void onGameOver()
         { /* STUB METHOD */ }
+
+    /**
+     * The current game could not be parsed.
+     *
+     * @param strError
+     *     Description of the error.
+     */
+    public void onGameError( final String strError )
+        { /* STUB METHOD */ }
     
 }   /* end of class PgnAdapter */
@@ -0,0 +1,572 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.interfaces.IPgnListener;
+import net.humbleprogrammer.maxx.interfaces.IPgnTokenListener;
+
+import org.slf4j.*;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * The {@link PgnIndex} class records where each game starts in a PGN file, so that any
+ * game can be read directly.
+ *
+ * The file is scanned as bytes through a memory mapping; no characters are decoded.  A
+ * game starts at an Event tag that is the first thing on a line, the same rule used by
+ * {@link PgnParser#parseAll}.  The index can be saved next to the PGN file, and is
+ * reused for as long as the PGN file's size and time stamp don't change.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class PgnIndex
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** File name extension of the index file. */
+	public static final String EXTENSION = ".idx";
+
+	/** Marks an index file ("PGNX"). */
+	private static final int MAGIC   = 0x50474E58;
+	/** Index file format version. */
+	private static final int VERSION = 1;
+
+	/** Size of each mapping when scanning, in bytes. */
+	private static final int SCAN_WINDOW  = 64 << 20;
+	/** Largest mapping used to read games, in bytes. */
+	private static final int SEGMENT_SIZE = 1 << 30;
+
+	/** Event tag prefix, as bytes. */
+	static final byte[] EVENT_TAG = PgnLexer.EVENT_TAG.getBytes( StandardCharsets.US_ASCII );
+
+	//  -----------------------------------------------------------------------
+	//	STATIC DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Logger */
+	private static final Logger s_log = LoggerFactory.getLogger( PgnIndex.class );
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** PGN file. */
+	private final Path   _path;
+	/** Size of the PGN file when indexed. */
+	private final long   _lFileSize;
+	/** Time stamp of the PGN file when indexed, in milliseconds. */
+	private final long   _lFileTime;
+	/** Number of games. */
+	private final int    _iCount;
+	/** Offset of each game, in bytes. */
+	private final long[] _offsets;
+	/** Length of each game, in bytes. */
+	private final int[]  _lengths;
+
+	/** Index of the first game in each mapped segment. */
+	private int[]              _segmentFirst;
+	/** Mapped segments; created on first use. */
+	private MappedByteBuffer[] _segments;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param path
+	 * 	PGN file.
+	 * @param lFileSize
+	 * 	Size of the PGN file.
+	 * @param lFileTime
+	 * 	Time stamp of the PGN file.
+	 * @param iCount
+	 * 	Number of games.
+	 * @param offsets
+	 * 	Offset of each game.
+	 * @param lengths
+	 * 	Length of each game.
+	 */
+	private PgnIndex( Path path, long lFileSize, long lFileTime, int iCount, long[] offsets, int[] lengths )
+		{
+		_path = path;
+		_lFileSize = lFileSize;
+		_lFileTime = lFileTime;
+		_iCount = iCount;
+		_offsets = offsets;
+		_lengths = lengths;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Scans a PGN file for games.
+	 *
+	 * @param path
+	 * 	PGN file.
+	 *
+	 * @return Index.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be read, or a game is larger than 2GB.
+	 */
+	public static PgnIndex build( Path path ) throws IOException
+		{
+		DBC.requireNotNull( path, "PGN file" );
+		//	-----------------------------------------------------------------
+		final long lFileTime = Files.getLastModifiedTime( path ).toMillis();
+
+		long[] offsets = new long[ 1024 ];
+		int[] lengths = new int[ 1024 ];
+		int iCount = 0;
+
+		try (FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ))
+			{
+			final long lFileSize = channel.size();
+
+			boolean bBlank = true;
+			int iMatch = 0;
+			long lCandidate = 0L;
+
+			for ( long lBase = 0L; lBase < lFileSize; lBase += SCAN_WINDOW )
+				{
+				final MappedByteBuffer buf =
+					channel.map( FileChannel.MapMode.READ_ONLY, lBase, Math.min( SCAN_WINDOW, lFileSize - lBase ) );
+
+				for ( int index = 0, iLimit = buf.limit(); index < iLimit; ++index )
+					{
+					final int b = buf.get( index ) & 0xFF;
+					//
+					//	Continue matching an Event tag, which may straddle two windows.
+					//
+					if (iMatch > 0)
+						{
+						if (b == EVENT_TAG[ iMatch ])
+							{
+							if (++iMatch < EVENT_TAG.length) continue;
+
+							if (iCount == offsets.length)
+								{
+								offsets = Arrays.copyOf( offsets, iCount * 2 );
+								lengths = Arrays.copyOf( lengths, iCount * 2 );
+								}
+
+							if (iCount > 0)
+								lengths[ iCount - 1 ] = toLength( lCandidate - offsets[ iCount - 1 ] );
+
+							offsets[ iCount++ ] = lCandidate;
+							iMatch = 0;
+							continue;
+							}
+
+						iMatch = 0;
+						}
+
+					if (b == '\n' || b == '\r')
+						bBlank = true;
+					else if (b == '[' && bBlank)
+						{
+						bBlank = false;
+						iMatch = 1;
+						lCandidate = lBase + index;
+						}
+					else if (!isBlank( b, lBase + index ))
+						bBlank = false;
+					}
+				}
+
+			if (iCount > 0)
+				lengths[ iCount - 1 ] = toLength( lFileSize - offsets[ iCount - 1 ] );
+
+			s_log.debug( "{}: indexed {} games.", path, iCount );
+
+			return new PgnIndex( path, lFileSize, lFileTime, iCount, offsets, lengths );
+			}
+		}
+
+	/**
+	 * Gets the index file that goes with a PGN file.
+	 *
+	 * @param path
+	 * 	PGN file.
+	 *
+	 * @return Index file, which may not exist.
+	 */
+	public static Path getIndexPath( Path path )
+		{
+		DBC.requireNotNull( path, "PGN file" );
+		//	-----------------------------------------------------------------
+		return path.resolveSibling( path.getFileName().toString() + EXTENSION );
+		}
+
+	/**
+	 * Loads the saved index for a PGN file.
+	 *
+	 * @param path
+	 * 	PGN file.
+	 *
+	 * @return Index, or <code>null</code> if there is no index, or it is out of date.
+	 *
+	 * @throws IOException
+	 * 	if either file can't be read.
+	 */
+	public static PgnIndex load( Path path ) throws IOException
+		{
+		DBC.requireNotNull( path, "PGN file" );
+		//	-----------------------------------------------------------------
+		final Path pathIndex = getIndexPath( path );
+
+		if (!Files.isRegularFile( pathIndex )) return null;
+
+		try (DataInputStream in = new DataInputStream(
+			new BufferedInputStream( Files.newInputStream( pathIndex ) ) ))
+			{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+
+			final long lFileSize = in.readLong();
+			final long lFileTime = in.readLong();
+
+			if (lFileSize != Files.size( path ) ||
+				lFileTime != Files.getLastModifiedTime( path ).toMillis())
+				{
+				s_log.debug( "{}: index is out of date.", path );
+				return null;
+				}
+
+			final int iCount = in.readInt();
+			final long[] offsets = new long[ iCount ];
+			final int[] lengths = new int[ iCount ];
+
+			for ( int index = 0; index < iCount; ++index )
+				{
+				offsets[ index ] = in.readLong();
+				lengths[ index ] = in.readInt();
+				}
+
+			return new PgnIndex( path, lFileSize, lFileTime, iCount, offsets, lengths );
+			}
+		catch ( EOFException ex )
+			{
+			s_log.warn( "{}: index is truncated.", pathIndex );
+			return null;
+			}
+		}
+
+	/**
+	 * Gets the index for a PGN file, loading the saved index if it is current, or
+	 * building and saving a new one if not.  Failure to save is not an error.
+	 *
+	 * @param path
+	 * 	PGN file.
+	 *
+	 * @return Index.
+	 *
+	 * @throws IOException
+	 * 	if the PGN file can't be read.
+	 */
+	public static PgnIndex open( Path path ) throws IOException
+		{
+		PgnIndex index = load( path );
+
+		if (index == null)
+			{
+			index = build( path );
+
+			try
+				{
+				index.save();
+				}
+			catch ( IOException ex )
+				{
+				s_log.warn( "{}: failed to save index: {}", path, ex.getMessage() );
+				}
+			}
+
+		return index;
+		}
+
+	/**
+	 * Parses every game in the file.  Games are parsed straight from the mapped file,
+	 * without being copied or decoded.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be mapped.
+	 */
+	public int parse( IPgnListener listener ) throws IOException
+		{
+		return parse( PgnParser.toTokenListener( listener ) );
+		}
+
+	/**
+	 * Parses every game in the file.  Games are parsed straight from the mapped file,
+	 * without being copied or decoded, and text tokens are passed as reusable views
+	 * instead of strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be mapped.
+	 */
+	public int parse( IPgnTokenListener listener ) throws IOException
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//	-----------------------------------------------------------------
+		map();
+
+		int iGames = 0;
+
+		for ( int iSegment = 0; iSegment < _segments.length; ++iSegment )
+			{
+			final MappedByteBuffer buf = _segments[ iSegment ];
+
+			iGames += PgnParser.parseAll( listener, new Latin1Sequence( buf, 0, buf.limit() ) );
+			}
+
+		return iGames;
+		}
+
+	/**
+	 * Saves the index next to the PGN file.
+	 *
+	 * @throws IOException
+	 * 	if the index file can't be written.
+	 */
+	public void save() throws IOException
+		{
+		try (DataOutputStream out = new DataOutputStream(
+			new BufferedOutputStream( Files.newOutputStream( getIndexPath( _path ) ) ) ))
+			{
+			out.writeInt( MAGIC );
+			out.writeInt( VERSION );
+			out.writeLong( _lFileSize );
+			out.writeLong( _lFileTime );
+			out.writeInt( _iCount );
+
+			for ( int index = 0; index < _iCount; ++index )
+				{
+				out.writeLong( _offsets[ index ] );
+				out.writeInt( _lengths[ index ] );
+				}
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the text of a game, straight from the mapped file.  Each byte is presented as
+	 * a single character; {@link PgnParser} decodes UTF-8 tags and comments as needed.
+	 *
+	 * @param iGame
+	 * 	Game index, starting at zero.
+	 *
+	 * @return Game text, suitable for {@link PgnParser#parseAll(IPgnListener, CharSequence)}.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be mapped.
+	 */
+	public CharSequence getGame( int iGame ) throws IOException
+		{
+		DBC.require( iGame >= 0 && iGame < _iCount, "Invalid game index." );
+		//	-----------------------------------------------------------------
+		map();
+
+		int iSegment = Arrays.binarySearch( _segmentFirst, iGame );
+
+		if (iSegment < 0) iSegment = -iSegment - 2;
+
+		final long lBase = _offsets[ _segmentFirst[ iSegment ] ];
+
+		return new Latin1Sequence( _segments[ iSegment ],
+								   (int) (_offsets[ iGame ] - lBase),
+								   _lengths[ iGame ] );
+		}
+
+	/**
+	 * Gets the length of a game.
+	 *
+	 * @param iGame
+	 * 	Game index, starting at zero.
+	 *
+	 * @return Length in bytes, including any trailing white space.
+	 */
+	public int getLength( int iGame )
+		{
+		DBC.require( iGame >= 0 && iGame < _iCount, "Invalid game index." );
+		//	-----------------------------------------------------------------
+		return _lengths[ iGame ];
+		}
+
+	/**
+	 * Gets the position of a game.
+	 *
+	 * @param iGame
+	 * 	Game index, starting at zero.
+	 *
+	 * @return Offset of the game's Event tag, in bytes.
+	 */
+	public long getOffset( int iGame )
+		{
+		DBC.require( iGame >= 0 && iGame < _iCount, "Invalid game index." );
+		//	-----------------------------------------------------------------
+		return _offsets[ iGame ];
+		}
+
+	/**
+	 * Gets the PGN file.
+	 *
+	 * @return PGN file.
+	 */
+	public Path getPath()
+		{
+		return _path;
+		}
+
+	/**
+	 * Gets the number of games.
+	 *
+	 * @return Game count.
+	 */
+	public int size()
+		{
+		return _iCount;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Tests a byte for white space.  A UTF-8 byte order mark at the start of the file
+	 * is treated as white space.
+	 *
+	 * @param b
+	 * 	Byte value.
+	 * @param lOffset
+	 * 	Offset of the byte in the file.
+	 *
+	 * @return .T. if white space; .F. otherwise.
+	 */
+	static boolean isBlank( int b, long lOffset )
+		{
+		if (b < 0x80) return Character.isWhitespace( b );
+
+		return (lOffset < 3 && (b == 0xEF || b == 0xBB || b == 0xBF));
+		}
+
+	/**
+	 * Converts a game length to an integer.
+	 *
+	 * @param lLength
+	 * 	Game length, in bytes.
+	 *
+	 * @return Game length.
+	 *
+	 * @throws IOException
+	 * 	if the game is larger than 2GB.
+	 */
+	private static int toLength( long lLength ) throws IOException
+		{
+		if (lLength > Integer.MAX_VALUE)
+			throw new IOException( "PGN game exceeds 2GB." );
+
+		return (int) lLength;
+		}
+
+	/**
+	 * Maps the file into memory, if not done already.  The file is mapped in segments
+	 * that never split a game, so each game lies within a single buffer.  Once mapped,
+	 * the segments remain valid after the file is closed.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be mapped.
+	 */
+	private synchronized void map() throws IOException
+		{
+		if (_segments != null) return;
+		//	-----------------------------------------------------------------
+		int[] first = new int[ 4 ];
+		MappedByteBuffer[] segments = new MappedByteBuffer[ 4 ];
+		int iSegments = 0;
+
+		try (FileChannel channel = FileChannel.open( _path, StandardOpenOption.READ ))
+			{
+			for ( int iGame = 0; iGame < _iCount; )
+				{
+				final long lBase = _offsets[ iGame ];
+				int iLast = iGame;
+
+				while ( iLast + 1 < _iCount &&
+						_offsets[ iLast + 1 ] + _lengths[ iLast + 1 ] - lBase <= SEGMENT_SIZE )
+					{
+					++iLast;
+					}
+
+				if (iSegments == segments.length)
+					{
+					first = Arrays.copyOf( first, iSegments * 2 );
+					segments = Arrays.copyOf( segments, iSegments * 2 );
+					}
+
+				first[ iSegments ] = iGame;
+				segments[ iSegments++ ] = channel.map( FileChannel.MapMode.READ_ONLY, lBase,
+													   _offsets[ iLast ] + _lengths[ iLast ] - lBase );
+				iGame = iLast + 1;
+				}
+			}
+
+		_segmentFirst = Arrays.copyOf( first, iSegments );
+		_segments = Arrays.copyOf( segments, iSegments );
+		}
+	} /* end of class PgnIndex */
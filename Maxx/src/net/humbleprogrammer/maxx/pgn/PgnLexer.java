@@ -0,0 +1,597 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The {@link PgnLexer} class supplies characters to the {@link PgnParser}.
+ *
+ * Input is read through a fixed-size window, so a stream of any length can be parsed
+ * without building a string for each game.  The interface mirrors {@link
+ * net.humbleprogrammer.humble.StrLexer}, with the addition of game boundary detection.
+ */
+final class PgnLexer
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Size of the input window, in characters. */
+	private static final int BUFFER_SIZE = 16 * 1024;
+	/** Byte order mark, which can appear at the start of a file. */
+	private static final int BYTE_ORDER_MARK = '\uFEFF';
+
+	/** Event tag prefix, which marks the start of a game. */
+	static final String EVENT_TAG = "[Event ";
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Input window. */
+	private final char[]       _buf;
+	/** Input stream, or <code>null</code> if reading from a character sequence. */
+	private final Reader       _reader;
+	/** Input sequence, or <code>null</code> if reading from a stream. */
+	private final CharSequence _source;
+
+	/** Number of valid characters in {@link #_buf}. */
+	private int     _iEnd;
+	/** Offset of the current (last read) character in {@link #_buf}. */
+	private int     _index;
+	/** Offset of the next character in {@link #_buf}. */
+	private int     _iNext;
+	/** Current column value, which is one-based. */
+	private int     _iColumn;
+	/** Column value before the current character was read. */
+	private int     _iColumnPrev;
+	/** Offset of the first character on the current line in {@link #_buf}. */
+	private int     _iLineStart;
+	/** Offset of the next character to copy from {@link #_source}. */
+	private int     _iSourceNext;
+	/** Absolute offset of the first character in {@link #_buf}. */
+	private long    _lBase;
+	/** .T. if the current line was blank before the current character. */
+	private boolean _bBlankBefore = true;
+	/** .T. if the current line is blank so far. */
+	private boolean _bBlankLine   = true;
+	/** .T. if the end of input has been reached. */
+	private boolean _bEOF;
+
+	/** First I/O error encountered, if any. */
+	private IOException _exIO;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param reader
+	 * 	Input stream.
+	 */
+	PgnLexer( Reader reader )
+		{
+		assert reader != null;
+		//	-----------------------------------------------------------------
+		_buf = new char[ BUFFER_SIZE ];
+		_reader = reader;
+		_source = null;
+		}
+
+	/**
+	 * Alternate CTOR.
+	 *
+	 * @param source
+	 * 	Character sequence, such as a {@link String} or {@link java.nio.CharBuffer}.
+	 */
+	PgnLexer( CharSequence source )
+		{
+		assert source != null;
+		//	-----------------------------------------------------------------
+		_buf = new char[ Math.max( 16, Math.min( BUFFER_SIZE, source.length() ) ) ];
+		_reader = null;
+		_source = source;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the line containing the current character, as far as it is still buffered.
+	 *
+	 * @return Current line.
+	 */
+	String extractLine()
+		{
+		int iLast = _iLineStart;
+
+		while ( iLast < _iEnd && _buf[ iLast ] != '\n' && _buf[ iLast ] != '\r' )
+			++iLast;
+
+		return new String( _buf, _iLineStart, iLast - _iLineStart );
+		}
+
+	/**
+	 * Tests for an Event tag at the current character.  Event tags are only recognized
+	 * when they are the first thing on a line, so "[Event " inside a comment or a tag
+	 * value does not count.
+	 *
+	 * @return .T. if the current character starts an Event tag; .F. otherwise.
+	 */
+	boolean isAtEventTag()
+		{
+		return (_bBlankBefore && _index < _iNext && matches( EVENT_TAG ));
+		}
+
+	/**
+	 * Peeks at a character in the input stream.
+	 *
+	 * @param iOffset
+	 * 	Distance (in characters) before/after current character.
+	 *
+	 * @return Character at offset, or zero if outside the buffered input.
+	 */
+	int peek( int iOffset )
+		{
+		if (iOffset < 0)
+			return (_index + iOffset >= 0) ? _buf[ _index + iOffset ] : 0;
+
+		if (!fill( iOffset + 1 )) return 0;
+
+		final int ch = _buf[ _index + iOffset ];
+
+		if (Character.isHighSurrogate( (char) ch ) && fill( iOffset + 2 ))
+			return Character.toCodePoint( (char) ch, _buf[ _index + iOffset + 1 ] );
+
+		return ch;
+		}
+
+	/**
+	 * Reads the next character in the input stream.
+	 *
+	 * @return Next character, or zero if no more characters.
+	 */
+	int readChar()
+		{
+		_index = _iNext;
+
+		if (!fill( 1 )) return 0;
+		//	-----------------------------------------------------------------
+		int ch = _buf[ _iNext++ ];
+
+		if (Character.isHighSurrogate( (char) ch ) &&
+			fill( 2 ) && Character.isLowSurrogate( _buf[ _iNext ] ))
+			{
+			ch = Character.toCodePoint( (char) ch, _buf[ _iNext++ ] );
+			}
+
+		_iColumnPrev = _iColumn;
+		_bBlankBefore = _bBlankLine;
+
+		if (ch == '\n' || ch == '\r')
+			{
+			_iColumn = 0;
+			_iLineStart = _iNext;
+			_bBlankLine = true;
+			}
+		else
+			{
+			_iColumn++;
+
+			if (!(Character.isWhitespace( ch ) || ch == BYTE_ORDER_MARK))
+				_bBlankLine = false;
+			}
+
+		return ch;
+		}
+
+	/**
+	 * Reads in the next character, advancing past any/all whitespace.
+	 *
+	 * @return Next non-whitespace character, or zero if no more characters.
+	 */
+	int readNextChar()
+		{
+		int ch;
+
+		while ( (ch = readChar()) != 0 )
+			if (!Character.isWhitespace( ch ))
+				return ch;
+
+		return 0;
+		}
+
+	/**
+	 * Reads a string from the input stream, starting with the current character.
+	 *
+	 * @param strMatch
+	 * 	String to read.
+	 *
+	 * @return .T. if string read in; .F. otherwise.
+	 */
+	boolean readString( final String strMatch )
+		{
+		if (strMatch == null || strMatch.isEmpty() || !matches( strMatch ))
+			return false;
+		//	-----------------------------------------------------------------
+		_iNext = _index + strMatch.length();
+		return true;
+		}
+
+	/**
+	 * Skips to the end of the current line.
+	 */
+	void skipLine()
+		{
+		int ch;
+
+		while ( (ch = readChar()) != 0 )
+			if (ch == '\n' || ch == '\r')
+				break;
+		}
+
+	/**
+	 * Skips the rest of a comment or variation by bracket counting, without tokenizing
+	 * it.  Comments inside a variation are skipped as a whole, so brackets inside them
+	 * are ignored.  On success, the closing marker is the last character read.
+	 *
+	 * @param chClose
+	 * 	Closing marker: '}' to skip a comment; ')' to skip a variation.
+	 * @param bStopAtEvent
+	 * 	.T. to stop at an Event tag at the start of a line, which always begins a new
+	 * 	game; .F. to ignore Event tags.
+	 *
+	 * @return Zero if the closing marker was found; otherwise the closing marker that
+	 * was being looked for when input ended or an Event tag was found.  In the latter
+	 * case, the next character read will be the tag's opening bracket.
+	 */
+	int skipBlock( final char chClose, final boolean bStopAtEvent )
+		{
+		assert chClose == '}' || chClose == ')';
+		//	-----------------------------------------------------------------
+		boolean bBlank = _bBlankLine;
+		boolean bComment = (chClose == '}');
+		int iDepth = bComment ? 0 : 1;
+
+		for ( ; ; ++_iNext )
+			{
+			if (_iNext >= _iEnd)
+				{
+				_index = _iNext;
+
+				if (!fill( 1 )) break;
+				}
+
+			final char ch = _buf[ _iNext ];
+
+			if (ch == '\n' || ch == '\r')
+				{
+				bBlank = true;
+				_iLineStart = _iNext + 1;
+				continue;
+				}
+
+			if (ch == '[' && bBlank && bStopAtEvent)
+				{
+				_index = _iNext;
+
+				if (matches( EVENT_TAG ))
+					{
+					_iColumn = _iColumnPrev = _iNext - _iLineStart;
+					_bBlankLine = _bBlankBefore = true;
+					return bComment ? '}' : ')';
+					}
+				}
+
+			if (!(Character.isWhitespace( ch ) || ch == BYTE_ORDER_MARK))
+				bBlank = false;
+
+			if (bComment)
+				{
+				if (ch == '}')
+					{
+					bComment = false;
+					if (iDepth == 0) break;
+					}
+				}
+			else if (ch == '{')
+				bComment = true;
+			else if (ch == '(')
+				iDepth++;
+			else if (ch == ')' && --iDepth == 0)
+				break;
+			}
+		//
+		//	Leave the closing marker (if any) as the last character read.
+		//
+		final boolean bFound = (_iNext < _iEnd);
+
+		_index = _iNext;
+		_iColumnPrev = _iNext - _iLineStart;
+
+		if (bFound) _iNext++;
+
+		_iColumn = _iNext - _iLineStart;
+		_bBlankBefore = bBlank;
+		_bBlankLine = bBlank;
+
+		if (bFound) return 0;
+
+		return bComment ? '}' : ')';
+		}
+
+	/**
+	 * Skips forward to the next game, which is marked by an Event tag at the start of
+	 * a line.  On success, the next character read will be the tag's opening bracket.
+	 *
+	 * This scans the window directly rather than going through {@link #readChar()}, so
+	 * skipping unwanted movetext costs little more than reading it in.
+	 *
+	 * @return .T. if a game was found; .F. at end of input.
+	 */
+	boolean skipToEvent()
+		{
+		boolean bBlank = _bBlankLine;
+
+		for ( ; ; ++_iNext )
+			{
+			if (_iNext >= _iEnd)
+				{
+				_index = _iNext;
+
+				if (!fill( 1 )) break;
+				}
+
+			final char ch = _buf[ _iNext ];
+
+			if (ch == '\n' || ch == '\r')
+				{
+				bBlank = true;
+				_iLineStart = _iNext + 1;
+				}
+			else if (ch == '[' && bBlank)
+				{
+				_index = _iNext;
+
+				if (matches( EVENT_TAG ))
+					{
+					_iColumn = _iColumnPrev = _iNext - _iLineStart;
+					_bBlankLine = _bBlankBefore = true;
+					return true;
+					}
+
+				bBlank = false;
+				}
+			else if (!(Character.isWhitespace( ch ) || ch == BYTE_ORDER_MARK))
+				bBlank = false;
+			}
+		//
+		//	Input ended without another game.
+		//
+		_index = _iNext;
+		_iColumn = _iColumnPrev = _iNext - _iLineStart;
+		_bBlankLine = _bBlankBefore = bBlank;
+
+		return false;
+		}
+
+	/**
+	 * Pushes the last character or string read back into the input stream.
+	 */
+	void undoRead()
+		{
+		if (_iNext != _index)
+			{
+			_iNext = _index;
+			_iColumn = _iColumnPrev;
+			_bBlankLine = _bBlankBefore;
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Test for end of input.
+	 *
+	 * @return .T. if at end of the input; .F. if more data available.
+	 */
+	boolean atEnd()
+		{
+		return !fill( _iNext - _index + 1 );
+		}
+
+	/**
+	 * Gets the current column number.
+	 *
+	 * @return Column number, which starts at 1.
+	 */
+	int getColumn()
+		{
+		return _iColumn;
+		}
+
+	/**
+	 * Gets the first I/O error encountered.  Errors are treated as the end of input.
+	 *
+	 * @return I/O exception, or <code>null</code> if none.
+	 */
+	IOException getException()
+		{
+		return _exIO;
+		}
+
+	/**
+	 * Tests for byte input, where each character is a single undecoded byte.
+	 *
+	 * @return .T. if reading bytes; .F. if reading characters.
+	 */
+	boolean isByteSource()
+		{
+		return (_source instanceof Latin1Sequence);
+		}
+
+	/**
+	 * Gets the offset of the last character read in.
+	 *
+	 * @return Offset, or -1 if no characters read in yet.
+	 */
+	int getOffset()
+		{
+		return (_index < _iNext) ? (int) (_lBase + _index) : -1;
+		}
+
+	/**
+	 * Gets the offset of the next character to be read.
+	 *
+	 * @return Absolute offset from the start of input, in characters.
+	 */
+	long getPosition()
+		{
+		return _lBase + _iNext;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Makes sure that characters are available, starting at the current character.
+	 * When the window is exhausted, everything before the current character is
+	 * discarded and the window is refilled.
+	 *
+	 * @param iCount
+	 * 	Number of characters required.
+	 *
+	 * @return .T. if the characters are available; .F. if input ended first.
+	 */
+	private boolean fill( int iCount )
+		{
+		if (_index + iCount <= _iEnd) return true;
+		if (_bEOF) return false;
+		//	-----------------------------------------------------------------
+		if (_index > 0)
+			{
+			final int iShift = _index;
+
+			System.arraycopy( _buf, iShift, _buf, 0, _iEnd - iShift );
+
+			_iEnd -= iShift;
+			_index = 0;
+			_iNext -= iShift;
+			_iLineStart = Math.max( 0, _iLineStart - iShift );
+			_lBase += iShift;
+			}
+
+		while ( _iEnd < iCount && !_bEOF )
+			{
+			final int iRead = read( _buf.length - _iEnd );
+
+			if (iRead < 0)
+				_bEOF = true;
+			else
+				_iEnd += iRead;
+			}
+
+		return (iCount <= _iEnd);
+		}
+
+	/**
+	 * Tests for a string, starting with the current character, without consuming it.
+	 *
+	 * @param strMatch
+	 * 	String to test for.
+	 *
+	 * @return .T. if the input matches; .F. otherwise.
+	 */
+	private boolean matches( final String strMatch )
+		{
+		final int iLength = strMatch.length();
+
+		if (!fill( iLength )) return false;
+		//	-----------------------------------------------------------------
+		for ( int idx = 0; idx < iLength; ++idx )
+			if (_buf[ _index + idx ] != strMatch.charAt( idx ))
+				return false;
+
+		return true;
+		}
+
+	/**
+	 * Reads more input into the window.
+	 *
+	 * @param iMax
+	 * 	Maximum number of characters to read.
+	 *
+	 * @return Number of characters read, or -1 at end of input.
+	 */
+	private int read( int iMax )
+		{
+		if (_reader == null)
+			{
+			final int iCount = Math.min( iMax, _source.length() - _iSourceNext );
+
+			if (iCount <= 0) return -1;
+
+			if (_source instanceof String)
+				((String) _source).getChars( _iSourceNext, _iSourceNext + iCount, _buf, _iEnd );
+			else if (_source instanceof Latin1Sequence)
+				((Latin1Sequence) _source).getChars( _iSourceNext, _iSourceNext + iCount, _buf, _iEnd );
+			else
+				{
+				for ( int idx = 0; idx < iCount; ++idx )
+					_buf[ _iEnd + idx ] = _source.charAt( _iSourceNext + idx );
+				}
+
+			_iSourceNext += iCount;
+			return iCount;
+			}
+
+		try
+			{
+			return _reader.read( _buf, _iEnd, iMax );
+			}
+		catch ( IOException ex )
+			{
+			if (_exIO == null) _exIO = ex;
+			return -1;
+			}
+		}
+	} /* end of class PgnLexer */
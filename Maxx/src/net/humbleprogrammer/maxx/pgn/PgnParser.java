@@ -34,12 +34,21 @@ package net.humbleprogrammer.maxx.pgn;
 
 import net.humbleprogrammer.humble.*;
 import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.interfaces.IPgnErrorListener;
 import net.humbleprogrammer.maxx.interfaces.IPgnListener;
+import net.humbleprogrammer.maxx.interfaces.IPgnTagFilter;
+import net.humbleprogrammer.maxx.interfaces.IPgnTokenListener;
 
 import org.slf4j.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
 import java.text.ParseException;
 import java.util.*;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @SuppressWarnings( { "PointlessBitwiseExpression", "WeakerAccess" } )
@@ -53,6 +62,14 @@ public class PgnParser extends Parser
 	/** PGN Tag name of starting position. */
 	public static final String TAG_FEN = "FEN";
 
+	/** Tag filter that skips all movetext, so only the tags are parsed. */
+	public static final IPgnTagFilter HEADERS_ONLY = new IPgnTagFilter()
+	{
+	@Override
+	public boolean acceptGame()
+		{ return false; }
+	};
+
 	/** Period, full stop, dot, whatever. */
 	private static final char SYM_DOT     = '.';
 	/** Numeric Annotation Glyph (NAG) */
@@ -97,6 +114,9 @@ public class PgnParser extends Parser
 		Arrays.asList( "Event", "Site", "Date", "Round",
 					   "White", "Black", "Result" );
 
+	/** Compiled form of {@link #STR_TAG_NAME}. */
+	private static final Pattern s_patTagName = Pattern.compile( STR_TAG_NAME );
+
 	/** Logger */
 	private static final Logger s_log = LoggerFactory.getLogger( PgnParser.class );
 	//  -----------------------------------------------------------------------
@@ -104,11 +124,42 @@ public class PgnParser extends Parser
 	//	-----------------------------------------------------------------------
 
 	/** Receives notification of tokens. */
-	private final IPgnListener _listener;
+	private final IPgnTokenListener _listener;
+	/** Decides which games have their movetext parsed, or <code>null</code> for all. */
+	private final IPgnTagFilter     _filter;
+	/** Validates tag names, reused for every tag. */
+	private final Matcher           _matchTagName = s_patTagName.matcher( "" );
 	/** Used for building tokens. */
-	private final StringBuilder _sb = new StringBuilder();
-	/** Used for parsing the input string. */
-	private final StrLexer _lexer;
+	private final StringBuilder _sb       = new StringBuilder();
+	/** Used for building tag names, which are passed along with the tag value. */
+	private final StringBuilder _sbName   = new StringBuilder();
+	/** Used for building move suffixes, which are passed along with the move. */
+	private final StringBuilder _sbSuffix = new StringBuilder();
+	/** Reusable view of the current tag name. */
+	private final PgnToken _tokName   = new PgnToken();
+	/** Reusable view of the move suffix. */
+	private final PgnToken _tokSuffix = new PgnToken();
+	/** Reusable view of the current text token. */
+	private final PgnToken _tokText   = new PgnToken();
+	/** Used for parsing the input. */
+	private final PgnLexer _lexer;
+	/** .T. if parsing a stream of games; .F. if parsing a single game. */
+	private final boolean _bStream;
+	/** .T. to skip comments, annotations and variations; .F. to parse everything. */
+	private boolean _bMainLine;
+
+	/** Number of tokens read in the current game. */
+	private int _iTokens;
+	/** .T. while reading the tag pairs of the current game. */
+	private boolean _bInTags;
+	/** .T. if the movetext of the current game was skipped by {@link #_filter}. */
+	private boolean _bSkipped;
+	/** Decodes UTF-8 text from byte input; created on first use. */
+	private CharsetDecoder _decoder;
+	/** Bytes to be decoded as UTF-8; created on first use. */
+	private ByteBuffer     _bytes;
+	/** Decoded UTF-8 text; created on first use. */
+	private CharBuffer     _chars;
 
 	/** Numer of moves seen since the last move number. */
 	private int _iMovesSeen;
@@ -128,16 +179,23 @@ public class PgnParser extends Parser
 	 *
 	 * @param listener
 	 * 	Listener that will receive notifications.
-	 * @param strPGN
-	 * 	Strng to parse.
+	 * @param filter
+	 * 	Tag filter, or <code>null</code> to parse the movetext of every game.
+	 * @param lexer
+	 * 	Input to parse.
+	 * @param bStream
+	 * 	.T. if the input may hold more than one game; .F. otherwise.
 	 */
-	private PgnParser( IPgnListener listener, final String strPGN )
+	private PgnParser( IPgnTokenListener listener, IPgnTagFilter filter, PgnLexer lexer,
+					   boolean bStream )
 		{
 		assert listener != null;
-		assert strPGN != null;
+		assert lexer != null;
 		//  -----------------------------------------------------------------
-		_lexer = new StrLexer( strPGN );
+		_lexer = lexer;
 		_listener = listener;
+		_filter = filter;
+		_bStream = bStream;
 		}
 
 	//  -----------------------------------------------------------------------
@@ -165,9 +223,9 @@ public class PgnParser extends Parser
 	 *
 	 * @return <code>.T.</code> if valid; <code>.F.</code> otherwise.
 	 */
-	public static boolean isValidTagName( String strName )
+	public static boolean isValidTagName( CharSequence strName )
 		{
-		return (strName != null && Pattern.matches( STR_TAG_NAME, strName ));
+		return (strName != null && s_patTagName.matcher( strName ).matches());
 		}
 
 	/**
@@ -178,7 +236,7 @@ public class PgnParser extends Parser
 	 *
 	 * @return <code>.T.</code> if valid; <code>.F.</code> otherwise.
 	 */
-	public static boolean isValidTagValue( String strValue )
+	public static boolean isValidTagValue( CharSequence strValue )
 		{
 		return (strValue != null && strValue.length() < 256);
 		}
@@ -192,40 +250,472 @@ public class PgnParser extends Parser
 	 * 	String to parse.
 	 *
 	 * @return .T. if parsed successfully; .F. on error.
+	 *
+	 * @see #parseGame(IPgnListener, String)
 	 */
 	public static boolean parse( IPgnListener listener, String strPGN )
+		{
+		return parseGame( listener, strPGN ).isSuccess();
+		}
+
+	/**
+	 * Parses a stream of PGN games.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 * @see #parseGames(IPgnListener, Reader)
+	 */
+	public static int parseAll( IPgnListener listener, Reader reader ) throws IOException
+		{
+		return parseGames( listener, reader ).getGameCount();
+		}
+
+	/**
+	 * Parses a sequence of PGN games, such as the contents of a
+	 * {@link java.nio.CharBuffer}.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @see #parseGames(IPgnListener, CharSequence)
+	 */
+	public static int parseAll( IPgnListener listener, CharSequence source )
+		{
+		return parseGames( listener, source ).getGameCount();
+		}
+
+	/**
+	 * Parses a PGN string, passing text tokens as reusable views instead of strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param strPGN
+	 * 	String to parse.
+	 *
+	 * @return .T. if parsed successfully; .F. on error.
+	 *
+	 * @see #parseGame(IPgnTokenListener, String)
+	 */
+	public static boolean parse( IPgnTokenListener listener, String strPGN )
+		{
+		return parseGame( listener, strPGN ).isSuccess();
+		}
+
+	/**
+	 * Parses a stream of PGN games, passing text tokens as reusable views instead of
+	 * strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 * @see #parseGames(IPgnTokenListener, Reader)
+	 */
+	public static int parseAll( IPgnTokenListener listener, Reader reader ) throws IOException
+		{
+		return parseGames( listener, reader ).getGameCount();
+		}
+
+	/**
+	 * Parses a sequence of PGN games, passing text tokens as reusable views instead of
+	 * strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @see #parseGames(IPgnTokenListener, CharSequence)
+	 */
+	public static int parseAll( IPgnTokenListener listener, CharSequence source )
+		{
+		return parseGames( listener, source ).getGameCount();
+		}
+
+	/**
+	 * Parses a PGN string.
+	 *
+	 * Each call returns its own result, so this is safe to call from several threads at
+	 * once, provided each thread uses its own listener.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param strPGN
+	 * 	String to parse.
+	 *
+	 * @return Result, which holds the error message if parsing failed.
+	 */
+	public static ParseResult parseGame( IPgnListener listener, String strPGN )
 		{
 		DBC.requireNotNull( listener, "PGN Listener" );
-		if (StrUtil.isBlank( strPGN )) return false;
 		//  -----------------------------------------------------------------
-		PgnParser parser = new PgnParser( listener, strPGN );
+		return parseGame( new StringListener( listener ), strPGN );
+		}
 
-		try
-			{
-			listener.onGameStart();
+	/**
+	 * Parses a PGN string, passing text tokens as reusable views instead of strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param strPGN
+	 * 	String to parse.
+	 *
+	 * @return Result, which holds the error message if parsing failed.
+	 *
+	 * @see #parseGame(IPgnListener, String)
+	 */
+	public static ParseResult parseGame( IPgnTokenListener listener, String strPGN )
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//  -----------------------------------------------------------------
+		final ParseResult result = new ParseResult();
+
+		if (StrUtil.isBlank( strPGN )) return result;
 
-			//noinspection StatementWithEmptyBody
-			while ( parser.nextToken() )
-				{ /* EMPTY LOOP */ }
+		PgnParser parser = new PgnParser( listener, null, new PgnLexer( strPGN ), false );
 
-			listener.onGameOver();
+		try
+			{
+			parser.parseNextGame();
+			result.addGame();
 			}
 		catch (ParseException ex)
 			{
-			s_strError = ex.getMessage();
+			onError( listener, result, ex.getMessage() );
 
 			s_log.debug( parser.getCurrentLine() );
-			s_log.warn( "Parsing failed: {}", s_strError );
-			return false;
+			s_log.warn( "Parsing failed: {}", ex.getMessage() );
 			}
 
-		return true;
+		return result;
+		}
+
+	/**
+	 * Parses a stream of PGN games.
+	 *
+	 * Games are tokenized straight from the input, without being copied into a string
+	 * first.  If a game fails to parse, the listener is notified and parsing resumes with
+	 * the next Event tag found at the start of a line.  Each call returns its own result,
+	 * so this is safe to call from several threads at once, provided each thread uses its
+	 * own listener.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 *
+	 * @return Result, which counts the games parsed and the games that failed.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 */
+	public static ParseResult parseGames( IPgnListener listener, Reader reader ) throws IOException
+		{
+		return parseGames( listener, reader, null );
+		}
+
+	/**
+	 * Parses a stream of PGN games, skipping the movetext of games that a tag filter
+	 * rejects.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 * @see #parseGames(IPgnListener, Reader)
+	 */
+	public static ParseResult parseGames( IPgnListener listener, Reader reader,
+										  IPgnTagFilter filter ) throws IOException
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//  -----------------------------------------------------------------
+		return parseGames( new StringListener( listener ), reader, filter );
+		}
+
+	/**
+	 * Parses a stream of PGN games, passing text tokens as reusable views instead of
+	 * strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 *
+	 * @return Result, which counts the games parsed and the games that failed.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 * @see #parseGames(IPgnListener, Reader)
+	 */
+	public static ParseResult parseGames( IPgnTokenListener listener, Reader reader )
+		throws IOException
+		{
+		return parseGames( listener, reader, null );
+		}
+
+	/**
+	 * Parses a stream of PGN games, passing text tokens as reusable views, and skipping
+	 * the movetext of games that a tag filter rejects.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 * @see #parseGames(IPgnListener, Reader, IPgnTagFilter)
+	 */
+	public static ParseResult parseGames( IPgnTokenListener listener, Reader reader,
+										  IPgnTagFilter filter ) throws IOException
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		DBC.requireNotNull( reader, "Input reader" );
+		//  -----------------------------------------------------------------
+		final PgnLexer lexer = new PgnLexer( reader );
+		final ParseResult result = parseGames( listener, filter, lexer );
+
+		if (lexer.getException() != null) throw lexer.getException();
+
+		return result;
+		}
+
+	/**
+	 * Parses a sequence of PGN games, such as the contents of a
+	 * {@link java.nio.CharBuffer}.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 *
+	 * @return Result, which counts the games parsed and the games that failed.
+	 *
+	 * @see #parseGames(IPgnListener, Reader)
+	 */
+	public static ParseResult parseGames( IPgnListener listener, CharSequence source )
+		{
+		return parseGames( listener, source, null );
+		}
+
+	/**
+	 * Parses a sequence of PGN games, skipping the movetext of games that a tag filter
+	 * rejects.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @see #parseGames(IPgnListener, Reader, IPgnTagFilter)
+	 */
+	public static ParseResult parseGames( IPgnListener listener, CharSequence source,
+										  IPgnTagFilter filter )
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//  -----------------------------------------------------------------
+		return parseGames( new StringListener( listener ), source, filter );
+		}
+
+	/**
+	 * Parses a sequence of PGN games, passing text tokens as reusable views instead of
+	 * strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 *
+	 * @return Result, which counts the games parsed and the games that failed.
+	 *
+	 * @see #parseGames(IPgnListener, CharSequence)
+	 */
+	public static ParseResult parseGames( IPgnTokenListener listener, CharSequence source )
+		{
+		return parseGames( listener, source, null );
+		}
+
+	/**
+	 * Parses a sequence of PGN games, passing text tokens as reusable views, and skipping
+	 * the movetext of games that a tag filter rejects.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @see #parseGames(IPgnListener, Reader, IPgnTagFilter)
+	 */
+	public static ParseResult parseGames( IPgnTokenListener listener, CharSequence source,
+										  IPgnTagFilter filter )
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		DBC.requireNotNull( source, "Input" );
+		//  -----------------------------------------------------------------
+		return parseGames( listener, filter, new PgnLexer( source ) );
+		}
+
+	/**
+	 * Parses only the main lines of a stream of PGN games.
+	 *
+	 * Comments and variations are skipped by bracket counting, without being tokenized
+	 * or validated, and annotations are dropped; so the listener only sees tags, the
+	 * moves of the main line, and the result.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 */
+	public static ParseResult parseMainLines( IPgnListener listener, Reader reader,
+											  IPgnTagFilter filter ) throws IOException
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//  -----------------------------------------------------------------
+		return parseMainLines( new StringListener( listener ), reader, filter );
+		}
+
+	/**
+	 * Parses only the main lines of a stream of PGN games, passing text tokens as
+	 * reusable views.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param reader
+	 * 	Input stream.  Callers should supply a buffered stream for best performance.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @throws IOException
+	 * 	if the stream could not be read.
+	 * @see #parseMainLines(IPgnListener, Reader, IPgnTagFilter)
+	 */
+	public static ParseResult parseMainLines( IPgnTokenListener listener, Reader reader,
+											  IPgnTagFilter filter ) throws IOException
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		DBC.requireNotNull( reader, "Input reader" );
+		//  -----------------------------------------------------------------
+		final PgnLexer lexer = new PgnLexer( reader );
+		final PgnParser parser = new PgnParser( listener, filter, lexer, true );
+
+		parser._bMainLine = true;
+
+		final ParseResult result = parser.parseGames();
+
+		if (lexer.getException() != null) throw lexer.getException();
+
+		return result;
+		}
+
+	/**
+	 * Parses only the main lines of a sequence of PGN games.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @see #parseMainLines(IPgnListener, Reader, IPgnTagFilter)
+	 */
+	public static ParseResult parseMainLines( IPgnListener listener, CharSequence source,
+											  IPgnTagFilter filter )
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//  -----------------------------------------------------------------
+		return parseMainLines( new StringListener( listener ), source, filter );
+		}
+
+	/**
+	 * Parses only the main lines of a sequence of PGN games, passing text tokens as
+	 * reusable views.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param source
+	 * 	Characters to parse.
+	 * @param filter
+	 * 	Tag filter, such as {@link #HEADERS_ONLY}; <code>null</code> to parse every game.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 *
+	 * @see #parseMainLines(IPgnListener, Reader, IPgnTagFilter)
+	 */
+	public static ParseResult parseMainLines( IPgnTokenListener listener, CharSequence source,
+											  IPgnTagFilter filter )
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		DBC.requireNotNull( source, "Input" );
+		//  -----------------------------------------------------------------
+		final PgnParser parser = new PgnParser( listener, filter, new PgnLexer( source ), true );
+
+		parser._bMainLine = true;
+		return parser.parseGames();
 		}
 
 //  -----------------------------------------------------------------------
 //	PUBLIC GETTERS & SETTERS
 //	-----------------------------------------------------------------------
 
+	/**
+	 * Gets the most recent parsing error, from any thread.
+	 *
+	 * @return Error message, or <code>null</code> if none.
+	 *
+	 * @deprecated Not reliable when several threads parse at once; use the
+	 * {@link ParseResult} returned by {@link #parseGame} or {@link #parseGames} instead.
+	 */
+	@Deprecated
 	public static String getLastError()
 		{ return s_strError; }
 
@@ -250,7 +740,217 @@ public class PgnParser extends Parser
 	 */
 	private String getCurrentLine()
 		{
-		return _lexer.extractLine( _lexer.getOffset() );
+		return _lexer.extractLine();
+		}
+
+	/**
+	 * Gets the text token in {@link #_sb}.  When reading bytes, text that contains
+	 * non-ASCII characters is decoded as UTF-8, or left as Latin-1 if it isn't valid
+	 * UTF-8.
+	 *
+	 * @return Reusable view of the text.
+	 */
+	private CharSequence getText()
+		{
+		if (_lexer.isByteSource())
+			{
+			final int iLength = _sb.length();
+
+			for ( int index = 0; index < iLength; ++index )
+				if (_sb.charAt( index ) >= 0x80)
+					return decodeText();
+			}
+
+		return _tokText.set( _sb );
+		}
+
+	/**
+	 * Decodes the bytes in {@link #_sb} as UTF-8.  The buffers are kept between calls, so
+	 * this only allocates when a longer token than any before it is seen.
+	 *
+	 * @return Reusable view of the decoded text, or of the original Latin-1 text if not
+	 * valid UTF-8.
+	 */
+	private CharSequence decodeText()
+		{
+		final int iLength = _sb.length();
+
+		if (_decoder == null)
+			{
+			_decoder = StandardCharsets.UTF_8.newDecoder()
+											 .onMalformedInput( CodingErrorAction.REPORT )
+											 .onUnmappableCharacter( CodingErrorAction.REPORT );
+			}
+
+		if (_bytes == null || _bytes.capacity() < iLength)
+			{
+			//	UTF-8 never decodes to more characters than there are bytes.
+			_bytes = ByteBuffer.allocate( Math.max( iLength, 256 ) );
+			_chars = CharBuffer.allocate( _bytes.capacity() );
+			}
+
+		_bytes.clear();
+		_chars.clear();
+
+		for ( int index = 0; index < iLength; ++index )
+			_bytes.put( (byte) _sb.charAt( index ) );
+
+		_bytes.flip();
+
+		final CoderResult cr = _decoder.reset().decode( _bytes, _chars, true );
+
+		if (cr.isError() || _decoder.flush( _chars ).isError())
+			return _tokText.set( _sb );
+
+		_chars.flip();
+		return _tokText.set( _chars );
+		}
+
+	/**
+	 * Wraps a listener that takes strings, so it can be passed where a token listener
+	 * is expected.
+	 *
+	 * @param listener
+	 * 	Listener to wrap.
+	 *
+	 * @return Token listener that copies each text token into a string.
+	 */
+	static IPgnTokenListener toTokenListener( IPgnListener listener )
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//	-----------------------------------------------------------------
+		return new StringListener( listener );
+		}
+
+	/**
+	 * Reports a game that failed to parse.
+	 *
+	 * @param listener
+	 * 	Listener to notify.
+	 * @param result
+	 * 	Result of the current call.
+	 * @param strError
+	 * 	Error message.
+	 */
+	@SuppressWarnings( "deprecation" )
+	private static void onError( IPgnTokenListener listener, ParseResult result, String strError )
+		{
+		s_strError = strError;
+
+		result.addError( strError );
+		listener.onGameError( strError );
+		}
+
+	/**
+	 * Parses a sequence of PGN games.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 * @param filter
+	 * 	Tag filter, or <code>null</code> to parse every game.
+	 * @param lexer
+	 * 	Input to parse.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 */
+	private static ParseResult parseGames( IPgnTokenListener listener, IPgnTagFilter filter,
+										   PgnLexer lexer )
+		{
+		return new PgnParser( listener, filter, lexer, true ).parseGames();
+		}
+
+	/**
+	 * Parses every game in the input.
+	 *
+	 * @return Result, which counts the games parsed, skipped, and failed.
+	 */
+	private ParseResult parseGames()
+		{
+		assert _bStream;
+		//	-------------------------------------------------------------
+		final ParseResult result = new ParseResult();
+
+		while ( _lexer.skipToEvent() )
+			{
+			final long lStart = _lexer.getPosition();
+
+			try
+				{
+				if (parseNextGame())
+					result.addGame();
+				else
+					result.addSkipped();
+				}
+			catch (ParseException ex)
+				{
+				s_log.debug( "Parsing failed: {} => {}", ex.getMessage(), getCurrentLine() );
+
+				onError( _listener, result, ex.getMessage() );
+				//
+				//	Resynchronize on the next Event tag.  If the error was caused by the
+				//	next game's Event tag, it is pushed back so that game isn't lost;
+				//	but there must always be some forward progress.
+				//
+				_lexer.undoRead();
+
+				if (_lexer.getPosition() <= lStart)
+					_lexer.readChar();
+				}
+			}
+
+		return result;
+		}
+
+	/**
+	 * Asks the tag filter whether to parse the movetext of the current game.  If not,
+	 * the movetext is skipped by scanning for the next game.
+	 *
+	 * @return .T. if the movetext is to be parsed; .F. if it was skipped.
+	 */
+	private boolean acceptMovetext()
+		{
+		_bInTags = false;
+
+		if (_filter == null || _filter.acceptGame()) return true;
+		//	-------------------------------------------------------------
+		_bSkipped = true;
+
+		if (_bStream) _lexer.skipToEvent();
+
+		return false;
+		}
+
+	/**
+	 * Parses a single game.
+	 *
+	 * @return .T. if the game was parsed; .F. if the movetext was skipped.
+	 *
+	 * @throws ParseException
+	 * 	if parsing encounters a syntax error.
+	 */
+	private boolean parseNextGame() throws ParseException
+		{
+		_iMovesSeen = 0;
+		_iTokens = 0;
+		_iValidTokens = TT_TAG_PAIR;
+		_iVariations = TT_VARIATION_BEGIN;
+		_iVariationDepth = 0;
+		_bInTags = true;
+		_bSkipped = false;
+
+		_listener.onGameStart();
+
+		//noinspection StatementWithEmptyBody
+		while ( nextToken() )
+			{ /* EMPTY LOOP */ }
+		//
+		//	A game with no movetext still has to be offered to the filter.
+		//
+		if (_bInTags) acceptMovetext();
+
+		_listener.onGameOver();
+
+		return !_bSkipped;
 		}
 
 	/**
@@ -271,6 +971,14 @@ public class PgnParser extends Parser
 
 		if ((ch = _lexer.readNextChar()) == 0) return false;
 
+		_iTokens++;
+		//
+		//	The first token that isn't a tag pair (or an escaped line) starts the
+		//	movetext, which the tag filter may choose to skip.
+		//
+		if (_bInTags && ch != TAG_BEGIN && ch != SYM_PERCENT && !acceptMovetext())
+			return false;
+
 		// Moves all start with a letter.
 		if (Character.isLetter( ch ))
 			{
@@ -309,7 +1017,7 @@ public class PgnParser extends Parser
 			case SYM_PERCENT:
 				if (_lexer.getColumn() == 1)
 					{
-					_sb.append( _lexer.readLine() );
+					_lexer.skipLine();
 					return true;
 					}
 				break;
@@ -319,6 +1027,16 @@ public class PgnParser extends Parser
 				return (_iVariationDepth > 0);
 
 			case TAG_BEGIN:
+				//
+				//	When parsing a stream, an Event tag at the start of a line always
+				//	begins the next game, even if this one had no result.
+				//
+				if (_bStream && _iTokens > 1 && _lexer.isAtEventTag())
+					{
+					_lexer.undoRead();
+					return false;
+					}
+
 				parseTag();
 				return true;
 
@@ -358,9 +1076,10 @@ public class PgnParser extends Parser
 
 		if (!(ch == 0 || Character.isWhitespace( ch ))) _lexer.undoRead();
 		//
-		//  Pass the NAG to the listener
+		//  Pass the NAG to the listener, unless only the main line is wanted.
 		//
-		_listener.onAnnotation( _sb.toString() );
+		if (!_bMainLine)
+			_listener.onAnnotation( _tokText.set( _sb ) );
 		}
 
 	/**
@@ -373,11 +1092,29 @@ public class PgnParser extends Parser
 		if ((_iValidTokens & TT_COMMENT) == 0)
 			throw new ParseException( "Unexpected comment.", _lexer.getOffset() );
 		//	-------------------------------------------------------------
+		if (_bMainLine)
+			{
+			skipComment();
+			return;
+			}
+
 		boolean bNeedSpace = false;
 		int ch;
 
 		while ( (ch = _lexer.readChar()) != 0 && ch != COMMENT_END )
-			if (Character.isWhitespace( ch ))
+			if (_bStream && ch == TAG_BEGIN && _lexer.isAtEventTag())
+				{
+				//
+				//	An Event tag at the start of a line always begins a new game, so
+				//	the comment was never closed.  This keeps game boundaries the same
+				//	as PgnIndex and PgnShard, which find them without parsing, and makes
+				//	a game that is cut off there fail the same way as one cut off by the
+				//	end of input.
+				//
+				_lexer.undoRead();
+				throw new ParseException( "Comment close marker '}' not found.", _lexer.getOffset() );
+				}
+			else if (Character.isWhitespace( ch ))
 				bNeedSpace = (_sb.length() > 0);
 			else if (bNeedSpace)
 				{
@@ -387,14 +1124,29 @@ public class PgnParser extends Parser
 				}
 			else
 				_sb.appendCodePoint( ch );
+
+		if (_bStream && ch != COMMENT_END)
+			throw new ParseException( "Comment close marker '}' not found.", _lexer.getOffset() );
 		//
 		//  Pass the comment to the listener.
 		//
-		_listener.onComment( _sb.toString() );
+		_listener.onComment( getText() );
 
 		_iValidTokens = _iVariations | TT_COMMENT | TT_MOVE | TT_MOVE_NUMBER | TT_RESULT;
 		}
 
+	/**
+	 * Skips a comment without reading its text.  The same errors are reported as for
+	 * {@link #parseComment()}.
+	 */
+	private void skipComment() throws ParseException
+		{
+		if (_lexer.skipBlock( (char) COMMENT_END, _bStream ) != 0 && _bStream)
+			throw new ParseException( "Comment close marker '}' not found.", _lexer.getOffset() );
+		//	-------------------------------------------------------------
+		_iValidTokens = _iVariations | TT_COMMENT | TT_MOVE | TT_MOVE_NUMBER | TT_RESULT;
+		}
+
 	/**
 	 * Parses a move, including the suffix.
 	 */
@@ -405,22 +1157,23 @@ public class PgnParser extends Parser
 		final int iMoveCol = _lexer.getColumn();
 
 		int ch;
-		String strSuffix;
 
 		for ( ch = _lexer.peek( 0 ); STR_MOVE.indexOf( ch ) >= 0; ch = _lexer.readChar() )
 			_sb.appendCodePoint( ch );
 		//
-		//  Build the move suffix, if any. These are typically ver short (2-3 characters
-		//  at most) so any performance hit from string concantenation is acceptable.
+		//  Build the move suffix, if any.
 		//
-		for ( strSuffix = ""; STR_MOVE_SUFFIX.indexOf( ch ) >= 0; ch = _lexer.readChar() )
-			strSuffix += (char) ch;
+		_sbSuffix.setLength( 0 );
+
+		for ( ; STR_MOVE_SUFFIX.indexOf( ch ) >= 0; ch = _lexer.readChar() )
+			_sbSuffix.append( (char) ch );
 
 		if (!(ch == 0 || Character.isWhitespace( ch ))) _lexer.undoRead();
 		//
 		//  Pass the move to the listener.
 		//
-		if ((_iValidTokens & TT_MOVE) != 0 && _listener.onMove( _sb.toString(), strSuffix ))
+		if ((_iValidTokens & TT_MOVE) != 0 &&
+			_listener.onMove( _tokText.set( _sb ), _tokSuffix.set( _sbSuffix ) ))
 			{
 			_iMovesSeen++;
 			_iValidTokens = _iVariations | TT_ANNOTATION | TT_COMMENT | TT_RESULT
@@ -586,32 +1339,32 @@ public class PgnParser extends Parser
 	/**
 	 * Parses a tag name.
 	 *
-	 * @return Tag name.
+	 * @return Reusable view of the tag name.
 	 */
-	private String parseTagName() throws ParseException
+	private CharSequence parseTagName() throws ParseException
 		{
+		_sbName.setLength( 0 );
+
 		for ( int ch = _lexer.readNextChar(); ch != 0; ch = _lexer.readChar() )
 			if (Character.isLetterOrDigit( ch ) || ch == '_')
-				_sb.appendCodePoint( ch );
+				_sbName.appendCodePoint( ch );
 			else
 				break;
 		//
 		//  Validate the name.
 		//
-		final String strName = _sb.toString();
-
-		if (isValidTagName( strName )) return strName;
+		if (_matchTagName.reset( _sbName ).matches()) return _tokName.set( _sbName );
 
-		String strWhat = String.format( "Invalid tag name '%s'.", _sb.toString() );
-		throw new ParseException( strWhat, _lexer.getOffset() - strName.length() );
+		String strWhat = String.format( "Invalid tag name '%s'.", _sbName.toString() );
+		throw new ParseException( strWhat, _lexer.getOffset() - _sbName.length() );
 		}
 
 	/**
 	 * Parses a tag value.
 	 *
-	 * @return Tag value.
+	 * @return Reusable view of the tag value.
 	 */
-	private String parseTagValue() throws ParseException
+	private CharSequence parseTagValue() throws ParseException
 		{
 		if (_lexer.readNextChar() != SYM_QUOTE)
 			throw new ParseException( "Tag values must be in quotes.", _lexer.getOffset() );
@@ -649,15 +1402,15 @@ public class PgnParser extends Parser
 		//
 		//  Validate the value.
 		//
-		final String strValue = _sb.toString();
+		final CharSequence value = getText();
 
-		if (!isValidTagValue( strValue ))
+		if (!isValidTagValue( value ))
 			{
-			String strWhat = String.format( "Invalid tag value '%s'.", strValue );
-			throw new ParseException( strWhat, _lexer.getOffset() - strValue.length() );
+			String strWhat = String.format( "Invalid tag value '%s'.", value.toString() );
+			throw new ParseException( strWhat, _lexer.getOffset() - value.length() );
 			}
 
-		return strValue;
+		return value;
 		}
 
 	/**
@@ -670,6 +1423,12 @@ public class PgnParser extends Parser
 		if ((_iValidTokens & TT_VARIATION_BEGIN) == 0)
 			throw new ParseException( "Unexpected '(' marker.", _lexer.getOffset() );
 		//	-------------------------------------------------------------
+		if (_bMainLine)
+			{
+			skipVariation();
+			return;
+			}
+
 		_listener.onVariationEnter();
 
 		_iVariationDepth++;
@@ -677,6 +1436,23 @@ public class PgnParser extends Parser
 		_iValidTokens = _iVariations | TT_COMMENT | TT_MOVE_NUMBER;
 		}
 
+	/**
+	 * Skips a variation, including any nested variations and comments, without
+	 * tokenizing it.  The listener is not notified.
+	 */
+	private void skipVariation() throws ParseException
+		{
+		final int chOpen = _lexer.skipBlock( (char) VARIATION_END, _bStream );
+		//
+		//	Like parseComment(), a comment left open by the end of the game is an error;
+		//	a variation left open just ends the game, as it does when tokenized.
+		//
+		if (chOpen == COMMENT_END && _bStream)
+			throw new ParseException( "Comment close marker '}' not found.", _lexer.getOffset() );
+		//	-------------------------------------------------------------
+		_iValidTokens = _iVariations | TT_COMMENT | TT_MOVE_NUMBER | TT_MOVE | TT_RESULT;
+		}
+
 	/**
 	 * Parses a variation close marker.
 	 */
@@ -709,4 +1485,90 @@ public class PgnParser extends Parser
 	private static final int TT_VARIATION_BEGIN  = 1 << 7;
 	private static final int TT_VARIATION_END    = 1 << 8;
 
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: StringListener
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * The StringListener class passes tokens to an {@link IPgnListener}, copying each
+	 * text token into a string.  Errors are only passed on if the listener is also an
+	 * {@link IPgnErrorListener}.
+	 */
+	private static final class StringListener implements IPgnTokenListener
+		{
+		/** Listener to notify. */
+		private final IPgnListener _target;
+
+		/**
+		 * CTOR
+		 *
+		 * @param target
+		 * 	Listener to notify.
+		 */
+		StringListener( IPgnListener target )
+			{
+			assert target != null;
+			//	-------------------------------------------------------------
+			_target = target;
+			}
+
+		@Override
+		public void onAnnotation( final CharSequence annotation )
+			{ _target.onAnnotation( annotation.toString() ); }
+
+		@Override
+		public void onComment( final CharSequence comment )
+			{ _target.onComment( comment.toString() ); }
+
+		@Override
+		public boolean onMove( final CharSequence san, final CharSequence suffix )
+			{
+			return _target.onMove( san.toString(),
+								   (suffix.length() > 0) ? suffix.toString() : "" );
+			}
+
+		@Override
+		public boolean onMoveNumber( final int iMoveNumber )
+			{ return _target.onMoveNumber( iMoveNumber ); }
+
+		@Override
+		public boolean onMovePlaceholder()
+			{ return _target.onMovePlaceholder(); }
+
+		@Override
+		public boolean onNullMove()
+			{ return _target.onNullMove(); }
+
+		@Override
+		public boolean onResult( final Result result )
+			{ return _target.onResult( result ); }
+
+		@Override
+		public boolean onTag( final CharSequence name, final CharSequence value )
+			{ return _target.onTag( name.toString(), value.toString() ); }
+
+		@Override
+		public void onVariationEnter()
+			{ _target.onVariationEnter(); }
+
+		@Override
+		public void onVariationExit()
+			{ _target.onVariationExit(); }
+
+		@Override
+		public void onGameStart()
+			{ _target.onGameStart(); }
+
+		@Override
+		public void onGameOver()
+			{ _target.onGameOver(); }
+
+		@Override
+		public void onGameError( final String strError )
+			{
+			if (_target instanceof IPgnErrorListener)
+				((IPgnErrorListener) _target).onGameError( strError );
+			}
+		}
+
 	} /* end of class PgnParser() */
@@ -0,0 +1,500 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.interfaces.IPgnListener;
+import net.humbleprogrammer.maxx.interfaces.IPgnTokenListener;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.humbleprogrammer.maxx.pgn.PgnIndex.EVENT_TAG;
+
+/**
+ * The {@link PgnShard} class reads the games that start within a byte range of a PGN
+ * file, so that a single large file can be processed by several threads at once.
+ *
+ * A game belongs to the shard that contains the opening bracket of its Event tag.  A
+ * shard skips ahead to the first Event tag at the start of a line, then reads games
+ * until the next one starts at or beyond its end; the last game may run past the end
+ * of the range.  Since the rule for finding a game is the same one used by
+ * {@link PgnIndex} and {@link PgnParser#parseAll}, the shards of a file together yield
+ * exactly the games of a sequential pass, each one once.
+ *
+ * Each shard is meant to be used by a single thread.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class PgnShard implements AutoCloseable
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Size of each mapping, in bytes. */
+	private static final int SCAN_WINDOW = 64 << 20;
+	/** Size of each read when looking for the start of a line, in bytes. */
+	private static final int LOOK_BACK   = 256;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** PGN file. */
+	private final Path _path;
+	/** Offset of the first byte in the range. */
+	private final long _lStart;
+	/** Offset of the first byte beyond the range. */
+	private final long _lEnd;
+
+	/** Open file, or <code>null</code> if not opened yet. */
+	private FileChannel _channel;
+	/** Size of the file. */
+	private long        _lFileSize;
+	/** Current mapping. */
+	private ByteBuffer  _buf;
+	/** Offset of the current mapping in the file. */
+	private long        _lBase;
+	/** Offset of the current game in {@link #_buf}. */
+	private int         _iGame;
+	/** Size of the next mapping, in bytes. */
+	private int         _iWindow = SCAN_WINDOW;
+	/** Offset of the game most recently returned. */
+	private long        _lLastGame = -1L;
+	/** Number of games read so far. */
+	private int         _iCount;
+	/** .T. once the last game has been read. */
+	private boolean     _bDone;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param path
+	 * 	PGN file.
+	 * @param lStart
+	 * 	Offset of the first byte in the range.
+	 * @param lEnd
+	 * 	Offset of the first byte beyond the range.
+	 */
+	PgnShard( Path path, long lStart, long lEnd )
+		{
+		DBC.requireNotNull( path, "PGN file" );
+		DBC.require( lStart >= 0L && lStart <= lEnd, "Invalid byte range." );
+		//	-----------------------------------------------------------------
+		_path = path;
+		_lStart = lStart;
+		_lEnd = lEnd;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Splits a PGN file into byte ranges of (nearly) equal size.
+	 *
+	 * @param path
+	 * 	PGN file.
+	 * @param iShards
+	 * 	Number of shards.
+	 *
+	 * @return List of shards, in file order.  Some may contain no games.
+	 *
+	 * @throws IOException
+	 * 	if the file size can't be read.
+	 */
+	public static List<PgnShard> split( Path path, int iShards ) throws IOException
+		{
+		DBC.requireNotNull( path, "PGN file" );
+		DBC.requireGreaterThanZero( iShards, "Shards" );
+		//	-----------------------------------------------------------------
+		final long lFileSize = Files.size( path );
+		final List<PgnShard> shards = new ArrayList<>( iShards );
+
+		long lStart = 0L;
+
+		for ( int index = 1; index <= iShards; ++index )
+			{
+			long lEnd = (index == iShards) ? lFileSize : (lFileSize / iShards) * index;
+
+			shards.add( new PgnShard( path, lStart, lEnd ) );
+			lStart = lEnd;
+			}
+
+		return shards;
+		}
+
+	/**
+	 * Releases the file.  Games that have already been returned remain readable.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be closed.
+	 */
+	@Override
+	public void close() throws IOException
+		{
+		_buf = null;
+		_bDone = true;
+
+		if (_channel != null)
+			{
+			_channel.close();
+			_channel = null;
+			}
+		}
+
+	/**
+	 * Reads the next game in the shard.  Each byte is presented as a single character;
+	 * {@link PgnParser} decodes UTF-8 tags and comments as needed.
+	 *
+	 * @return Game text, or <code>null</code> if there are no more games.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be read, or a game is larger than 2GB.
+	 */
+	public CharSequence nextGame() throws IOException
+		{
+		if (_bDone) return null;
+		if (_channel == null && !open()) return null;
+		//	-----------------------------------------------------------------
+		for ( ; ; )
+			{
+			final int iNext = findEvent( _buf, _iGame + 1, false, _lBase );
+
+			if (iNext >= 0)
+				{
+				CharSequence game = new Latin1Sequence( _buf, _iGame, iNext - _iGame );
+
+				_lLastGame = _lBase + _iGame;
+				_iGame = iNext;
+				_bDone = (_lBase + iNext >= _lEnd);
+				++_iCount;
+				return game;
+				}
+
+			if (_lBase + _buf.limit() == _lFileSize)
+				{
+				_lLastGame = _lBase + _iGame;
+				_bDone = true;
+				++_iCount;
+				return new Latin1Sequence( _buf, _iGame, _buf.limit() - _iGame );
+				}
+			//
+			//	The current game runs past the end of the mapping; map again, starting
+			//	with the current game.  If it didn't fit at all, use a bigger window.
+			//
+			if (_iGame == 0)
+				{
+				if (_iWindow == Integer.MAX_VALUE)
+					throw new IOException( "PGN game exceeds 2GB." );
+
+				_iWindow = (int) Math.min( Integer.MAX_VALUE, _iWindow * 2L );
+				}
+
+			map( _lBase + _iGame );
+			}
+		}
+
+	/**
+	 * Parses every game in the shard.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be read.
+	 */
+	public int parse( IPgnListener listener ) throws IOException
+		{
+		return parse( PgnParser.toTokenListener( listener ) );
+		}
+
+	/**
+	 * Parses every game in the shard.  Text tokens are passed as reusable views
+	 * instead of strings.
+	 *
+	 * @param listener
+	 * 	Listener to receive PGN tokens.
+	 *
+	 * @return Number of games parsed successfully.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be read.
+	 */
+	public int parse( IPgnTokenListener listener ) throws IOException
+		{
+		DBC.requireNotNull( listener, "PGN Listener" );
+		//	-----------------------------------------------------------------
+		int iGames = 0;
+
+		try
+			{
+			CharSequence game;
+
+			while ( (game = nextGame()) != null )
+				iGames += PgnParser.parseAll( listener, game );
+			}
+		finally
+			{
+			close();
+			}
+
+		return iGames;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of games read so far.
+	 *
+	 * @return Game count.
+	 */
+	public int getCount()
+		{
+		return _iCount;
+		}
+
+	/**
+	 * Gets the end of the byte range.
+	 *
+	 * @return Offset of the first byte beyond the range.
+	 */
+	public long getEnd()
+		{
+		return _lEnd;
+		}
+
+	/**
+	 * Gets the file offset of the game most recently returned by {@link #nextGame}.
+	 *
+	 * @return Offset of the game's Event tag, or -1 if no game has been read.
+	 */
+	public long getOffset()
+		{
+		return _lLastGame;
+		}
+
+	/**
+	 * Gets the PGN file.
+	 *
+	 * @return PGN file.
+	 */
+	public Path getPath()
+		{
+		return _path;
+		}
+
+	/**
+	 * Gets the start of the byte range.
+	 *
+	 * @return Offset of the first byte in the range.
+	 */
+	public long getStart()
+		{
+		return _lStart;
+		}
+
+	@Override
+	public String toString()
+		{
+		return String.format( "%s [%,d..%,d)", _path.getFileName(), _lStart, _lEnd );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Looks for an Event tag at the start of a line.
+	 *
+	 * @param buf
+	 * 	Bytes to search.
+	 * @param iFrom
+	 * 	Offset of the first byte to examine.
+	 * @param bBlank
+	 * 	.T. if only white space precedes <code>iFrom</code> on its line.
+	 * @param lBase
+	 * 	Offset of the buffer in the file.
+	 *
+	 * @return Offset of the tag's opening bracket, or -1 if no complete tag was found.
+	 */
+	static int findEvent( ByteBuffer buf, int iFrom, boolean bBlank, long lBase )
+		{
+		final int iLast = buf.limit() - EVENT_TAG.length;
+
+		for ( int index = iFrom; index <= iLast; ++index )
+			{
+			final int b = buf.get( index ) & 0xFF;
+
+			if (b == '\n' || b == '\r')
+				bBlank = true;
+			else if (b == '[' && bBlank)
+				{
+				if (matches( buf, index )) return index;
+
+				bBlank = false;
+				}
+			else if (!PgnIndex.isBlank( b, lBase + index ))
+				bBlank = false;
+			}
+
+		return -1;
+		}
+
+	/**
+	 * Tests if only white space precedes a byte on its line.
+	 *
+	 * @param lOffset
+	 * 	Offset of the byte in the file.
+	 *
+	 * @return .T. if at the start of a line; .F. otherwise.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be read.
+	 */
+	private boolean isLineStart( long lOffset ) throws IOException
+		{
+		final ByteBuffer buf = ByteBuffer.allocate( LOOK_BACK );
+
+		while ( lOffset > 0L )
+			{
+			final long lFrom = Math.max( 0L, lOffset - LOOK_BACK );
+
+			buf.clear().limit( (int) (lOffset - lFrom) );
+			while ( buf.hasRemaining() )
+				if (_channel.read( buf, lFrom + buf.position() ) < 0)
+					throw new EOFException( _path.toString() );
+
+			for ( int index = buf.limit() - 1; index >= 0; --index )
+				{
+				final int b = buf.get( index ) & 0xFF;
+
+				if (b == '\n' || b == '\r') return true;
+				if (!PgnIndex.isBlank( b, lFrom + index )) return false;
+				}
+
+			lOffset = lFrom;
+			}
+
+		return true;
+		}
+
+	/**
+	 * Maps part of the file.
+	 *
+	 * @param lOffset
+	 * 	Offset of the first byte to map.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be mapped.
+	 */
+	private void map( long lOffset ) throws IOException
+		{
+		_lBase = lOffset;
+		_iGame = 0;
+		_buf = _channel.map( FileChannel.MapMode.READ_ONLY, lOffset, Math.min( _iWindow, _lFileSize - lOffset ) );
+		}
+
+	/**
+	 * Tests for the Event tag.
+	 *
+	 * @param buf
+	 * 	Bytes to test.
+	 * @param index
+	 * 	Offset of the opening bracket.
+	 *
+	 * @return .T. if the tag is present; .F. otherwise.
+	 */
+	private static boolean matches( ByteBuffer buf, int index )
+		{
+		for ( int iChar = 1; iChar < EVENT_TAG.length; ++iChar )
+			if (buf.get( index + iChar ) != EVENT_TAG[ iChar ]) return false;
+
+		return true;
+		}
+
+	/**
+	 * Opens the file and finds the first game in the range.
+	 *
+	 * @return .T. if the range contains a game; .F. otherwise.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be read.
+	 */
+	private boolean open() throws IOException
+		{
+		_channel = FileChannel.open( _path, StandardOpenOption.READ );
+		_lFileSize = _channel.size();
+
+		long lOffset = _lStart;
+
+		while ( lOffset < _lEnd && lOffset < _lFileSize )
+			{
+			map( lOffset );
+
+			final int iFound = findEvent( _buf, 0, isLineStart( lOffset ), lOffset );
+
+			if (iFound >= 0)
+				{
+				if (lOffset + iFound >= _lEnd) break;
+
+				_iGame = iFound;
+				return true;
+				}
+
+			if (lOffset + _buf.limit() == _lFileSize) break;
+			//
+			//	Only complete tags are found, so the next window overlaps this one by
+			//	enough to catch a tag that straddles the two.
+			//
+			lOffset += _buf.limit() - EVENT_TAG.length + 1;
+			}
+
+		close();
+		return false;
+		}
+	} /* end of class PgnShard */
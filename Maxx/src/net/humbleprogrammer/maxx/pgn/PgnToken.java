@@ -0,0 +1,143 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+/**
+ * The {@link PgnToken} class is a reusable view of a range of characters in one of
+ * the {@link PgnParser} buffers.
+ *
+ * A token is pointed at new text for every call to a
+ * {@link net.humbleprogrammer.maxx.interfaces.IPgnTokenListener}, so it is only valid
+ * for the duration of that call.  Nothing is copied until {@link #toString()} or
+ * {@link #subSequence(int, int)} is called.
+ */
+final class PgnToken implements CharSequence
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Underlying characters. */
+	private CharSequence _source = "";
+	/** Offset of the first character in {@link #_source}. */
+	private int          _iStart;
+	/** Number of characters. */
+	private int          _iLength;
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Points the token at all of a character sequence.
+	 *
+	 * @param source
+	 * 	Underlying characters.
+	 *
+	 * @return This token.
+	 */
+	PgnToken set( CharSequence source )
+		{
+		return set( source, 0, source.length() );
+		}
+
+	/**
+	 * Points the token at a range of characters.
+	 *
+	 * @param source
+	 * 	Underlying characters.
+	 * @param iStart
+	 * 	Offset of the first character.
+	 * @param iLength
+	 * 	Number of characters.
+	 *
+	 * @return This token.
+	 */
+	PgnToken set( CharSequence source, int iStart, int iLength )
+		{
+		assert source != null;
+		assert iStart >= 0 && iLength >= 0 && iStart + iLength <= source.length();
+		//	-----------------------------------------------------------------
+		_source = source;
+		_iStart = iStart;
+		_iLength = iLength;
+
+		return this;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: CharSequence
+	//	-----------------------------------------------------------------------
+
+	@Override
+	public char charAt( int index )
+		{
+		if (index < 0 || index >= _iLength)
+			throw new IndexOutOfBoundsException( "Index: " + index + ", Length: " + _iLength );
+		//	-----------------------------------------------------------------
+		return _source.charAt( _iStart + index );
+		}
+
+	@Override
+	public int length()
+		{
+		return _iLength;
+		}
+
+	/**
+	 * Copies a range of characters.  Unlike the token itself, the copy remains valid
+	 * after the listener returns.
+	 *
+	 * @param iFrom
+	 * 	Index of first character to copy.
+	 * @param iTo
+	 * 	Index after last character to copy.
+	 *
+	 * @return Copied characters.
+	 */
+	@Override
+	public CharSequence subSequence( int iFrom, int iTo )
+		{
+		if (iFrom < 0 || iTo > _iLength || iFrom > iTo)
+			throw new IndexOutOfBoundsException( "Range: " + iFrom + ".." + iTo + ", Length: " + _iLength );
+		//	-----------------------------------------------------------------
+		return _source.subSequence( _iStart + iFrom, _iStart + iTo ).toString();
+		}
+
+	@Override
+	public String toString()
+		{
+		return _source.subSequence( _iStart, _iStart + _iLength ).toString();
+		}
+	} /* end of class PgnToken */
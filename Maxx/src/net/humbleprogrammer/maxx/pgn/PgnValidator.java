@@ -32,6 +32,7 @@
  ******************************************************************************/
 package net.humbleprogrammer.maxx.pgn;
 
+import net.humbleprogrammer.humble.StrUtil;
 import net.humbleprogrammer.maxx.*;
 import net.humbleprogrammer.maxx.factories.MoveFactory;
 import org.slf4j.Logger;
@@ -41,7 +42,7 @@ import java.util.Stack;
 
 import static net.humbleprogrammer.maxx.Constants.*;
 
-public class PgnValidator extends PgnAdapter
+public class PgnValidator extends PgnTokenAdapter
 	{
 	//  -----------------------------------------------------------------------
 	//	STATIC DECLARATIONS
@@ -65,23 +66,23 @@ public class PgnValidator extends PgnAdapter
 	protected Variation				_pv			= new Variation();
 
 	//  -----------------------------------------------------------------------
-	//	INTERFACE: IPgnListener
+	//	INTERFACE: IPgnTokenListener
 	//	-----------------------------------------------------------------------
 
 	/**
 	 * A move has been parsed.
 	 *
-	 * @param strSAN
+	 * @param san
 	 *            Move string.
-	 * @param strSuffix
-	 *            Optional suffix string.
+	 * @param suffix
+	 *            Optional suffix string; empty if none.
 	 * @return .T. if parsing is to continue; .F. to abort parsing.
 	 */
 	@Override
-	public boolean onMove( final String strSAN, final String strSuffix )
+	public boolean onMove( final CharSequence san, final CharSequence suffix )
 		{
-		assert strSAN != null;
-		assert strSuffix != null;
+		assert san != null;
+		assert suffix != null;
 
 		if (_pv == null) return true;
 		//	-----------------------------------------------------------------
@@ -114,13 +115,11 @@ public class PgnValidator extends PgnAdapter
 		//  Try to find the move based on the current position.  This will fail if the
 		//  move is nonsensical, illegal, or ambiguous.
 		//
-		final Move moveFound = MoveFactory.fromSAN(_pv.getCurrentPosition(), strSAN);
+		final Move moveFound = MoveFactory.fromSAN(_pv.getCurrentPosition(), san);
 
 		if (moveFound != null) return _pv.appendMove(moveFound);
 
-		s_log.debug("{} => '{}' is illegal or ambiguous.", _pv.getCurrentPosition(), strSAN);
-
-		// MoveFactory.fromSAN( _pv.getCurrentPosition(), strSAN );
+		s_log.debug("{} => '{}' is illegal or ambiguous.", _pv.getCurrentPosition(), san);
 
 		return false;
 		}
@@ -208,19 +207,19 @@ public class PgnValidator extends PgnAdapter
 	/**
 	 * A tag name/value pair has been parsed.
 	 *
-	 * @param strName
+	 * @param name
 	 *            Tag name.
-	 * @param strValue
+	 * @param value
 	 *            Tag value.
 	 * @return .T. if parsing should continue; .F. to abort parsing.
 	 */
 	@Override
-	public boolean onTag( final String strName, final String strValue )
+	public boolean onTag( final CharSequence name, final CharSequence value )
 		{
-		assert PgnParser.isValidTagName(strName);
-		assert PgnParser.isValidTagValue(strValue);
+		assert PgnParser.isValidTagName(name);
+		assert PgnParser.isValidTagValue(value);
 		//	-----------------------------------------------------------------
-		return (!strName.equalsIgnoreCase(PgnParser.TAG_FEN) || _pv.setStartingPosition(strValue));
+		return (!StrUtil.equalsIgnoreCase(name, PgnParser.TAG_FEN) || _pv.setStartingPosition(value.toString()));
 		}
 
 	/**
@@ -0,0 +1,393 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link PgnWriter} class writes games in PGN export format.
+ *
+ * Games are streamed straight to the output, one token at a time, with the move text
+ * wrapped at {@link #MAX_LINE_LENGTH} columns.  Nothing is buffered between games,
+ * so the writer is cheap enough for tournament output and bulk conversion.
+ *
+ * Tokens are built in a single reusable buffer, and written to a {@link Writer}
+ * through a reusable character array, so no strings are created for each move.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class PgnWriter
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Maximum length of a line of move text. */
+	public static final int MAX_LINE_LENGTH = 80;
+
+	/** Line separator; PGN export format uses a single newline. */
+	private static final char NEWLINE = '\n';
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Output. */
+	private final Appendable    _output;
+	/** Output, if it is a {@link Writer}; <code>null</code> otherwise. */
+	private final Writer        _writer;
+	/** Used for building tokens. */
+	private final StringBuilder _sb = new StringBuilder();
+
+	/** Used for copying tokens to {@link #_writer}. */
+	private char[] _chars = new char[ MAX_LINE_LENGTH ];
+	/** Current column in the move text. */
+	private int    _iColumn;
+	/** Number of games written. */
+	private long   _lGames;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param output
+	 * 	Destination, such as a {@link java.io.Writer} or {@link StringBuilder}.
+	 */
+	public PgnWriter( Appendable output )
+		{
+		DBC.requireNotNull( output, "Output" );
+		//	-----------------------------------------------------------------
+		_output = output;
+		_writer = (output instanceof Writer) ? (Writer) output : null;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Writes a game: its tags and main line.
+	 *
+	 * @param gm
+	 * 	Game to write.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 * @see #write(Map, Variation)
+	 */
+	public void write( Game gm ) throws IOException
+		{
+		DBC.requireNotNull( gm, "Game" );
+		//	-----------------------------------------------------------------
+		write( gm.getTags(), gm.getMainLine(), null );
+		}
+
+	/**
+	 * Writes a game.
+	 *
+	 * The Seven Tag Roster comes first, in the standard order, followed by the
+	 * "SetUp" and "FEN" tags if the game doesn't start from the initial position, and
+	 * then any other tags in the order supplied.  The "Result" tag always matches the
+	 * result of the line.
+	 *
+	 * @param tags
+	 * 	Tag pairs, which may be <code>null</code>.
+	 * @param line
+	 * 	Main line.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	public void write( Map<String, String> tags, Variation line ) throws IOException
+		{
+		write( tags, line, null );
+		}
+
+	/**
+	 * Writes an annotated game.
+	 *
+	 * Annotations are written verbatim after the move they belong to, so they may
+	 * hold NAGs (e.g., "$2") and comments (e.g., "{[%eval 0.35]}").  After an
+	 * annotation, a Black move is numbered again ("12...") as the export format
+	 * requires.
+	 *
+	 * @param tags
+	 * 	Tag pairs, which may be <code>null</code>.
+	 * @param line
+	 * 	Main line.
+	 * @param annotations
+	 * 	Annotation for each ply, which may be <code>null</code>, as may any entry.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	public void write( Map<String, String> tags, Variation line, List<String> annotations ) throws IOException
+		{
+		DBC.requireNotNull( line, "Line" );
+		//	-----------------------------------------------------------------
+		final Map<String, String> mapTags = (tags != null) ? tags : Collections.<String, String>emptyMap();
+		final List<String> listMandatory = PgnParser.getMandatoryTags();
+		final String strResult = Result.toString( line.getResult() );
+		final Board bd = line.getStartingPosition();
+		final boolean bSetUp = (bd.getZobristHash() != HASH_INITIAL);
+
+		for ( String strName : listMandatory )
+			{
+			String strValue = mapTags.get( strName );
+
+			if (strName.equals( "Result" ))
+				strValue = strResult;
+
+			writeTag( strName, (strValue != null) ? strValue : "?" );
+			}
+
+		if (bSetUp)
+			{
+			writeTag( "SetUp", "1" );
+			writeTag( PgnParser.TAG_FEN, BoardFactory.exportFEN( bd ) );
+			}
+
+		for ( Map.Entry<String, String> entry : mapTags.entrySet() )
+			{
+			String strName = entry.getKey();
+
+			if (listMandatory.contains( strName ) || entry.getValue() == null) continue;
+			if (bSetUp && (strName.equals( "SetUp" ) || strName.equals( PgnParser.TAG_FEN ))) continue;
+
+			writeTag( strName, entry.getValue() );
+			}
+
+		_output.append( NEWLINE );
+		//
+		//	Move text.
+		//
+		_iColumn = 0;
+
+		boolean bNumber = true;
+
+		for ( int iPly = 0; iPly < line.size(); ++iPly )
+			{
+			final int iPacked = line.getPacked( iPly );
+			final long hashBefore = line.getHashBefore( iPly );
+
+			if (bd.getMovingPlayer() == WHITE || bNumber)
+				{
+				_sb.setLength( 0 );
+				_sb.append( bd.getMoveNumber() ).append( (bd.getMovingPlayer() == WHITE) ? "." : "..." );
+				writeToken( _sb, 0, _sb.length() );
+				}
+			//
+			//	The line has already been validated, so its moves are taken on trust;
+			//	the check indicator comes from the position after the move, which
+			//	saves copying the board.
+			//
+			_sb.setLength( 0 );
+			MoveFactory.appendSAN( _sb, bd, iPacked, hashBefore );
+			bd.makeMove( iPacked, hashBefore );
+			MoveFactory.appendCheckIndicator( _sb, bd );
+			writeToken( _sb, 0, _sb.length() );
+
+			String strAnnotation = (annotations != null && iPly < annotations.size())
+								   ? annotations.get( iPly )
+								   : null;
+
+			bNumber = (strAnnotation != null && !strAnnotation.isEmpty());
+
+			if (bNumber)
+				writeText( strAnnotation );
+			}
+
+		writeToken( strResult, 0, strResult.length() );
+		_output.append( NEWLINE ).append( NEWLINE );
+		++_lGames;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of games written.
+	 *
+	 * @return Game count.
+	 */
+	public long getGameCount()
+		{
+		return _lGames;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Writes a range of characters to the output.  A {@link Writer} is given the
+	 * characters directly, since {@link Writer#append(CharSequence, int, int)} would
+	 * copy them into a new string first.
+	 *
+	 * @param text
+	 * 	Text to write.
+	 * @param iFrom
+	 * 	Index of first character to write.
+	 * @param iTo
+	 * 	Index after last character to write.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void emit( CharSequence text, int iFrom, int iTo ) throws IOException
+		{
+		if (_writer == null)
+			_output.append( text, iFrom, iTo );
+		else if (text instanceof String)
+			_writer.write( (String) text, iFrom, iTo - iFrom );
+		else
+			{
+			final int iLength = iTo - iFrom;
+
+			if (_chars.length < iLength)
+				_chars = new char[ Math.max( iLength, 2 * _chars.length ) ];
+
+			if (text instanceof StringBuilder)
+				((StringBuilder) text).getChars( iFrom, iTo, _chars, 0 );
+			else
+				{
+				for ( int idx = 0; idx < iLength; ++idx )
+					_chars[ idx ] = text.charAt( iFrom + idx );
+				}
+
+			_writer.write( _chars, 0, iLength );
+			}
+		}
+
+	/**
+	 * Writes a tag pair, escaping quotes and backslashes in the value.
+	 *
+	 * @param strName
+	 * 	Tag name.
+	 * @param strValue
+	 * 	Tag value.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void writeTag( String strName, String strValue ) throws IOException
+		{
+		_sb.setLength( 0 );
+		_sb.append( '[' ).append( strName ).append( " \"" );
+
+		for ( int idx = 0; idx < strValue.length(); ++idx )
+			{
+			char ch = strValue.charAt( idx );
+
+			if (ch == '"' || ch == '\\')
+				_sb.append( '\\' );
+
+			_sb.append( ch );
+			}
+
+		_sb.append( "\"]" ).append( NEWLINE );
+		emit( _sb, 0, _sb.length() );
+		}
+
+	/**
+	 * Writes free text, breaking it into tokens at spaces so it wraps like move text.
+	 *
+	 * @param strText
+	 * 	Text to write.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void writeText( String strText ) throws IOException
+		{
+		final int iLength = strText.length();
+		int iStart = 0;
+
+		for ( int idx = 0; idx <= iLength; ++idx )
+			if (idx == iLength || strText.charAt( idx ) == ' ')
+				{
+				if (idx > iStart)
+					writeToken( strText, iStart, idx );
+
+				iStart = idx + 1;
+				}
+		}
+
+	/**
+	 * Writes a token of move text, wrapping the line if it would be too long.
+	 *
+	 * @param token
+	 * 	Text that holds the token.
+	 * @param iFrom
+	 * 	Index of first character of the token.
+	 * @param iTo
+	 * 	Index after last character of the token.
+	 *
+	 * @throws IOException
+	 * 	if the output fails.
+	 */
+	private void writeToken( CharSequence token, int iFrom, int iTo ) throws IOException
+		{
+		final int iLength = iTo - iFrom;
+
+		if (_iColumn > 0)
+			{
+			if (_iColumn + 1 + iLength > MAX_LINE_LENGTH)
+				{
+				_output.append( NEWLINE );
+				_iColumn = 0;
+				}
+			else
+				{
+				_output.append( ' ' );
+				++_iColumn;
+				}
+			}
+
+		emit( token, iFrom, iTo );
+		_iColumn += iLength;
+		}
+	} /* end of class PgnWriter */
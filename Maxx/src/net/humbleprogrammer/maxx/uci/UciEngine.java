@@ -0,0 +1,706 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.uci;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
+import net.humbleprogrammer.maxx.interfaces.ISearchListener;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link UciEngine} class speaks the Universal Chess Interface (UCI) protocol,
+ * so Maxx can be run from any UCI GUI or match runner.
+ *
+ * Commands are read from one stream and answered on another.  The search always runs
+ * on its own thread, so "stop", "ponderhit" and "isready" are handled while it runs.
+ * Extra search threads (the "Threads" option) share the transposition table with the
+ * main search, and are stopped when it finishes.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class UciEngine implements ISearchListener
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Engine name, as reported to the GUI. */
+	public static final String ENGINE_NAME   = "Maxx";
+	/** Engine author, as reported to the GUI. */
+	public static final String ENGINE_AUTHOR = "Lee Neuse";
+	/** Maximum number of search threads. */
+	public static final int    MAX_THREADS   = 64;
+
+	//  -----------------------------------------------------------------------
+	//	STATIC DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Logger */
+	private static final Logger s_log = LoggerFactory.getLogger( UciEngine.class );
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Command input. */
+	private final BufferedReader     _input;
+	/** Response output. */
+	private final PrintWriter        _output;
+	/** Transposition table, shared by all search threads. */
+	private final TranspositionTable _tt       = new TranspositionTable();
+	/** Main search. */
+	private final Search             _search   = new Search( _tt );
+	/** Helper searches, one per extra thread. */
+	private final List<Search>       _helpers  = new ArrayList<>();
+	/** Guards waiting for "stop" or "ponderhit". */
+	private final Object             _lock     = new Object();
+
+	/** Current position. */
+	private Board  _board = BoardFactory.createInitial();
+	/** Thread running the current search, or <code>null</code>. */
+	private Thread _threadSearch;
+
+	/** Time manager for the current search. */
+	private volatile TimeManager _tm;
+	/** .T. if the best move must wait for "stop" (infinite or ponder search). */
+	private volatile boolean     _bWaitForStop;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param input
+	 * 	Stream to read commands from.
+	 * @param output
+	 * 	Stream to write responses to.
+	 */
+	public UciEngine( Reader input, Writer output )
+		{
+		DBC.requireNotNull( input, "Input" );
+		DBC.requireNotNull( output, "Output" );
+		//	-----------------------------------------------------------------
+		_input = (input instanceof BufferedReader) ? (BufferedReader) input : new BufferedReader( input );
+		_output = new PrintWriter( output );
+		_search.addListener( this );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Entry point for the engine.
+	 *
+	 * @param strArgs
+	 * 	Command-line parameters, which are ignored.
+	 */
+	public static void main( String[] strArgs )
+		{
+		try
+			{
+			new UciEngine( new InputStreamReader( System.in ), new OutputStreamWriter( System.out ) ).run();
+			}
+		catch (IOException ex)
+			{
+			s_log.error( "UCI input failed.", ex );
+			}
+		}
+
+	/**
+	 * Executes a single command.
+	 *
+	 * @param strLine
+	 * 	Command line.
+	 *
+	 * @return .T. to keep going; .F. if the command was "quit".
+	 */
+	public boolean execute( String strLine )
+		{
+		if (strLine == null) return false;
+		//	-----------------------------------------------------------------
+		final String[] tokens = strLine.trim().split( "\\s+" );
+
+		try
+			{
+			switch (tokens[ 0 ])
+				{
+				case "uci":
+					send( "id name " + ENGINE_NAME );
+					send( "id author " + ENGINE_AUTHOR );
+					send( String.format( "option name Hash type spin default %d min 1 max %d",
+										 TranspositionTable.DEFAULT_MEGABYTES,
+										 TranspositionTable.MAX_MEGABYTES ) );
+					send( "option name Clear Hash type button" );
+					send( "option name Threads type spin default 1 min 1 max " + MAX_THREADS );
+					send( "option name MultiPV type spin default 1 min 1 max " + Search.MAX_MULTI_PV );
+					send( "option name Ponder type check default false" );
+					send( "option name TablebasePath type string default <empty>" );
+					send( "uciok" );
+					break;
+
+				case "isready":
+					send( "readyok" );
+					break;
+
+				case "ucinewgame":
+					stopSearch();
+					_tt.clear();
+					_board = BoardFactory.createInitial();
+					break;
+
+				case "position":
+					stopSearch();
+					setPosition( tokens );
+					break;
+
+				case "go":
+					stopSearch();
+					go( tokens );
+					break;
+
+				case "stop":
+					stopSearch();
+					break;
+
+				case "ponderhit":
+					ponderHit();
+					break;
+
+				case "setoption":
+					stopSearch();
+					setOption( strLine.trim() );
+					break;
+
+				case "quit":
+					stopSearch();
+					return false;
+
+				default:
+					s_log.debug( "Ignoring '{}'.", strLine );
+					break;
+				}
+			}
+		catch (IllegalArgumentException ex)
+			{
+			s_log.warn( "Invalid command '{}': {}", strLine, ex.getMessage() );
+			}
+
+		return true;
+		}
+
+	/**
+	 * Reads and executes commands until "quit" or the end of the input.
+	 *
+	 * @throws IOException
+	 * 	if the input can't be read.
+	 */
+	public void run() throws IOException
+		{
+		try
+			{
+			String strLine;
+
+			while ( (strLine = _input.readLine()) != null )
+				if (!execute( strLine )) break;
+			}
+		finally
+			{
+			stopSearch();
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the current position.
+	 *
+	 * @return Copy of the position.
+	 */
+	public Board getBoard()
+		{
+		return new Board( _board );
+		}
+
+	/**
+	 * Gets the number of search threads.
+	 *
+	 * @return Thread count.
+	 */
+	public int getThreads()
+		{
+		return _helpers.size() + 1;
+		}
+
+	/**
+	 * Gets the shared transposition table.
+	 *
+	 * @return Transposition table.
+	 */
+	TranspositionTable getTranspositionTable()
+		{
+		return _tt;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: ISearchListener
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Streams a completed line to the GUI.
+	 */
+	@Override
+	public void onLine( int iDepth, int iRank, int iScore, PV pv, long lNodes, long lMillisecs )
+		{
+		StringBuilder sb = new StringBuilder( 256 );
+
+		sb.append( "info depth " ).append( iDepth );
+
+		if (_search.getMultiPV() > 1)
+			sb.append( " multipv " ).append( iRank );
+
+		sb.append( " score " ).append( formatScore( iScore ) )
+		  .append( " nodes " ).append( lNodes )
+		  .append( " nps " ).append( (lMillisecs > 0) ? (lNodes * 1000L) / lMillisecs : 0L )
+		  .append( " hashfull " ).append( _tt.getPermillFull() )
+		  .append( " tbhits " ).append( _search.getTablebaseHits() )
+		  .append( " time " ).append( lMillisecs )
+		  .append( " pv" );
+
+		for ( Move move : pv )
+			sb.append( ' ' ).append( move );
+
+		send( sb.toString() );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Formats a score the way UCI expects, as either centipawns or moves to mate.
+	 *
+	 * @param iScore
+	 * 	Score, from the engine's point of view.
+	 *
+	 * @return Score string, e.g., "cp 35" or "mate -3".
+	 */
+	static String formatScore( int iScore )
+		{
+		if (!Evaluator.isMateScore( iScore ))
+			return "cp " + iScore;
+
+		int iPlies = MAX_SCORE - Math.abs( iScore );
+
+		return (iScore > 0) ? "mate " + ((iPlies + 1) / 2) : "mate -" + (iPlies / 2);
+		}
+
+	/**
+	 * Handles the "go" command.
+	 *
+	 * @param tokens
+	 * 	Command tokens.
+	 */
+	private void go( String[] tokens )
+		{
+		final TimeManager tm = new TimeManager();
+		final int player = _board.getMovingPlayer();
+		long lTime = -1L;
+		long lIncrement = 0L;
+		int iMovesToGo = 0;
+		boolean bInfinite = false;
+		boolean bPonder = false;
+
+		for ( int idx = 1; idx < tokens.length; ++idx )
+			{
+			switch (tokens[ idx ])
+				{
+				case "depth":
+					tm.setDepthLimit( parseInt( tokens, ++idx ) );
+					break;
+				case "nodes":
+					tm.setNodeLimit( parseLong( tokens, ++idx ) );
+					break;
+				case "movetime":
+					tm.setMoveTime( parseLong( tokens, ++idx ) );
+					break;
+				case "wtime":
+				case "btime":
+					if (tokens[ idx ].charAt( 0 ) == ((player == WHITE) ? 'w' : 'b'))
+						lTime = parseLong( tokens, ++idx );
+					else
+						++idx;
+					break;
+				case "winc":
+				case "binc":
+					if (tokens[ idx ].charAt( 0 ) == ((player == WHITE) ? 'w' : 'b'))
+						lIncrement = parseLong( tokens, ++idx );
+					else
+						++idx;
+					break;
+				case "movestogo":
+					iMovesToGo = parseInt( tokens, ++idx );
+					break;
+				case "infinite":
+					bInfinite = true;
+					break;
+				case "ponder":
+					bPonder = true;
+					break;
+				default:
+					s_log.debug( "Ignoring 'go {}'.", tokens[ idx ] );
+					break;
+				}
+			}
+
+		if (lTime >= 0L)
+			tm.setClock( lTime, lIncrement, iMovesToGo );
+
+		tm.setPondering( bPonder );
+		startSearch( tm, bInfinite || bPonder );
+		}
+
+	/**
+	 * Parses an integer parameter.
+	 *
+	 * @param tokens
+	 * 	Command tokens.
+	 * @param index
+	 * 	Index of the parameter.
+	 *
+	 * @return Value.
+	 */
+	private static int parseInt( String[] tokens, int index )
+		{
+		DBC.require( index < tokens.length, "Missing parameter." );
+		//	-----------------------------------------------------------------
+		return Integer.parseInt( tokens[ index ] );
+		}
+
+	/**
+	 * Parses a long parameter.
+	 *
+	 * @param tokens
+	 * 	Command tokens.
+	 * @param index
+	 * 	Index of the parameter.
+	 *
+	 * @return Value.
+	 */
+	private static long parseLong( String[] tokens, int index )
+		{
+		DBC.require( index < tokens.length, "Missing parameter." );
+		//	-----------------------------------------------------------------
+		return Long.parseLong( tokens[ index ] );
+		}
+
+	/**
+	 * Handles the "ponderhit" command: the opponent played the predicted move, so
+	 * the search switches over to the clock.
+	 */
+	private void ponderHit()
+		{
+		TimeManager tm = _tm;
+
+		if (tm == null) return;
+		//	-----------------------------------------------------------------
+		tm.ponderHit();
+
+		synchronized (_lock)
+			{
+			_bWaitForStop = false;
+			_lock.notifyAll();
+			}
+		}
+
+	/**
+	 * Writes a line to the GUI.
+	 *
+	 * @param str
+	 * 	Line to write.
+	 */
+	private void send( String str )
+		{
+		synchronized (_output)
+			{
+			_output.println( str );
+			_output.flush();
+			}
+		}
+
+	/**
+	 * Handles the "setoption" command.
+	 *
+	 * @param strLine
+	 * 	Complete command line, since names and values may contain spaces.
+	 */
+	private void setOption( String strLine )
+		{
+		final int iName = strLine.indexOf( " name " );
+		final int iValue = strLine.indexOf( " value " );
+
+		DBC.require( iName > 0, "Missing option name." );
+		//	-----------------------------------------------------------------
+		final String strName = ((iValue > iName) ? strLine.substring( iName + 6, iValue )
+												 : strLine.substring( iName + 6 )).trim();
+		final String strValue = (iValue > iName) ? strLine.substring( iValue + 7 ).trim() : "";
+
+		switch (strName.toLowerCase())
+			{
+			case "hash":
+				_tt.resize( Math.max( 1, Math.min( Integer.parseInt( strValue ),
+												   TranspositionTable.MAX_MEGABYTES ) ) );
+				break;
+
+			case "clear hash":
+				_tt.clear();
+				break;
+
+			case "threads":
+				int iThreads = Math.max( 1, Math.min( Integer.parseInt( strValue ), MAX_THREADS ) );
+
+				while ( _helpers.size() >= iThreads )
+					_helpers.remove( _helpers.size() - 1 );
+				while ( _helpers.size() < iThreads - 1 )
+					_helpers.add( new Search( _tt ) );
+				break;
+
+			case "multipv":
+				_search.setMultiPV( Math.max( 1, Math.min( Integer.parseInt( strValue ), Search.MAX_MULTI_PV ) ) );
+				break;
+
+			case "tablebasepath":
+				Tablebase.unregisterAll();
+
+				if (!strValue.isEmpty() && !strValue.equals( "<empty>" ))
+					{
+					try
+						{
+						Tablebase.load( Paths.get( strValue ) );
+						}
+					catch (IOException ex)
+						{
+						s_log.warn( "Failed to load tablebases from '{}': {}", strValue, ex.getMessage() );
+						}
+					}
+				break;
+
+			case "ponder":
+				break; // nothing to do; the GUI decides when to ponder
+
+			default:
+				s_log.debug( "Ignoring unknown option '{}'.", strName );
+				break;
+			}
+		}
+
+	/**
+	 * Handles the "position" command.  If any of the moves are illegal, the position
+	 * is left at the last legal move.
+	 *
+	 * @param tokens
+	 * 	Command tokens.
+	 */
+	private void setPosition( String[] tokens )
+		{
+		int index = 1;
+		Board bd;
+
+		if (tokens.length > 1 && tokens[ 1 ].equals( "startpos" ))
+			{
+			bd = BoardFactory.createInitial();
+			index = 2;
+			}
+		else if (tokens.length > 1 && tokens[ 1 ].equals( "fen" ))
+			{
+			StringBuilder sb = new StringBuilder();
+
+			for ( index = 2; index < tokens.length && !tokens[ index ].equals( "moves" ); ++index )
+				sb.append( tokens[ index ] ).append( ' ' );
+
+			bd = BoardFactory.createFromFEN( sb.toString().trim() );
+			}
+		else
+			bd = null;
+
+		if (bd == null)
+			{
+			s_log.warn( "Invalid position: {}", Arrays.toString( tokens ) );
+			return;
+			}
+
+		if (index < tokens.length && tokens[ index ].equals( "moves" ))
+			{
+			for ( ++index; index < tokens.length; ++index )
+				{
+				Move move = MoveFactory.fromLAN( bd, tokens[ index ] );
+
+				if (move == null)
+					{
+					s_log.warn( "Illegal move '{}' in {}", tokens[ index ], BoardFactory.exportFEN( bd ) );
+					break;
+					}
+
+				bd.makeMove( move );
+				}
+			}
+
+		_board = bd;
+		}
+
+	/**
+	 * Starts searching the current position on a background thread.
+	 *
+	 * @param tm
+	 * 	Time manager.
+	 * @param bWaitForStop
+	 * 	.T. if the best move must wait for "stop" or "ponderhit".
+	 */
+	private void startSearch( final TimeManager tm, boolean bWaitForStop )
+		{
+		final Board bd = new Board( _board );
+		final List<TimeManager> helperTMs = new ArrayList<>();
+		final List<Thread> helperThreads = new ArrayList<>();
+
+		_tm = tm;
+		_bWaitForStop = bWaitForStop;
+
+		for ( final Search helper : _helpers )
+			{
+			final TimeManager tmHelper = new TimeManager();
+
+			tmHelper.setDepthLimit( tm.getDepthLimit() );
+			helperTMs.add( tmHelper );
+			helperThreads.add( new Thread( new Runnable()
+				{
+				@Override
+				public void run()
+					{ helper.think( new Board( bd ), tmHelper ); }
+				}, "Helper" ) );
+			}
+
+		_threadSearch = new Thread( new Runnable()
+			{
+			@Override
+			public void run()
+				{
+				for ( Thread thread : helperThreads )
+					thread.start();
+
+				PV pv = _search.think( bd, tm );
+
+				for ( TimeManager tmHelper : helperTMs )
+					tmHelper.stop();
+
+				try
+					{
+					for ( Thread thread : helperThreads )
+						thread.join();
+					//
+					//	UCI doesn't allow a best move during an infinite or ponder
+					//	search until the GUI says so.
+					//
+					synchronized (_lock)
+						{
+						while ( _bWaitForStop && !tm.isStopped() )
+							_lock.wait();
+						}
+					}
+				catch (InterruptedException ex)
+					{
+					Thread.currentThread().interrupt();
+					}
+
+				if (pv.isEmpty())
+					send( "bestmove 0000" );
+				else if (pv.size() > 1)
+					send( "bestmove " + pv.get( 0 ) + " ponder " + pv.get( 1 ) );
+				else
+					send( "bestmove " + pv.get( 0 ) );
+				}
+			}, "Search" );
+
+		_threadSearch.start();
+		}
+
+	/**
+	 * Stops the current search, if any, and waits for its best move.
+	 */
+	private void stopSearch()
+		{
+		final TimeManager tm = _tm;
+
+		if (tm != null)
+			{
+			tm.stop();
+
+			synchronized (_lock)
+				{ _lock.notifyAll(); }
+			}
+
+		waitForSearch();
+		_tm = null;
+		}
+
+	/**
+	 * Waits for the current search to finish on its own.
+	 */
+	void waitForSearch()
+		{
+		if (_threadSearch == null) return;
+		//	-----------------------------------------------------------------
+		try
+			{
+			_threadSearch.join();
+			_threadSearch = null;
+			}
+		catch (InterruptedException ex)
+			{
+			Thread.currentThread().interrupt();
+			}
+		}
+	} /* end of class UciEngine */
@@ -33,7 +33,9 @@
 package net.humbleprogrammer.maxx;
 
 import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.exceptions.IllegalMoveException;
 import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
 import org.junit.Test;
 
 import static net.humbleprogrammer.maxx.Constants.*;
@@ -113,6 +115,50 @@ public class TestBoard extends TestBase
 			assertEquals(EMPTY, bd.get(iSq));
 		}
 
+	@Test
+	public void t_makeMove_packed()
+		{
+		Board bd = BoardFactory.createInitial();
+		Board bdCheck = BoardFactory.createInitial();
+		int iPacked = Move.pack(Square.G1, Square.F3, Move.Type.NORMAL);
+
+		assertTrue(bd.isLegalMove(iPacked));
+		assertFalse(bd.isLegalMove(Move.pack(Square.G1, Square.G3, Move.Type.NORMAL)));
+		assertFalse(bd.isLegalMove(INVALID));
+
+		bd.makeMove(iPacked);
+		bdCheck.makeMove(MoveFactory.fromSAN(bdCheck, "Nf3"));
+
+		assertEquals(bdCheck, bd);
+		assertEquals(bdCheck.getZobristHash(), bd.getZobristHash());
+		}
+
+	@Test(expected = IllegalMoveException.class)
+	public void t_makeMove_packed_fail()
+		{
+		BoardFactory.createInitial().makeMove(Move.pack(Square.E2, Square.E5, Move.Type.NORMAL));
+		}
+
+	@Test
+	public void t_makeMove_packed_hash()
+		{
+		Board bd = BoardFactory.createInitial();
+		Board bdCheck = BoardFactory.createInitial();
+
+		bd.makeMove(Move.pack(Square.G1, Square.F3, Move.Type.NORMAL), HASH_INITIAL);
+		bdCheck.makeMove(MoveFactory.fromSAN(bdCheck, "Nf3"));
+
+		assertEquals(bdCheck, bd);
+		}
+
+	@Test(expected = IllegalMoveException.class)
+	public void t_makeMove_packed_hash_fail()
+		{
+		Board bd = BoardFactory.createInitial();
+
+		bd.makeMove(Move.pack(Square.G1, Square.F3, Move.Type.NORMAL), ~HASH_INITIAL);
+		}
+
 	@Test
 	public void t_getZobristHash()
 		{
@@ -152,4 +198,42 @@ public class TestBoard extends TestBase
 		assertEquals(bd.hashCode(), bdCopy.hashCode());
 		assertEquals(bd.getZobristHash(), bdCopy.getZobristHash());
 		}
+
+	@Test
+	public void t_getPolyglotKey()
+		{
+		//	Reference keys from the Polyglot book format specification.
+		String[] strMoves = { "e4", "d5", "e5", "f5", "Ke2", "Kf7" };
+		long[] keys = {
+			0x463B96181691FC9CL, 0x823C9B50FD114196L, 0x0756B94461C50FB0L, 0x662FAFB965DB29D4L,
+			0x22A48B5A8E47FF78L, 0x652A607CA3F242C1L, 0x00FDD303C946BDD9L };
+
+		Board bd = BoardFactory.createInitial();
+
+		assertEquals(keys[0], bd.getPolyglotKey());
+
+		for ( int idx = 0; idx < strMoves.length; ++idx )
+			{
+			bd.makeMove(MoveFactory.fromSAN(bd, strMoves[idx]));
+			assertEquals(keys[idx + 1], bd.getPolyglotKey());
+			}
+		}
+
+	@Test
+	public void t_getPolyglotKey_enPassant()
+		{
+		//	1. a4 b5 2. h4 b4 3. c4 (e.p. capture possible) bxc3 4. Ra3
+		String[] strMoves = { "a4", "b5", "h4", "b4", "c4", "bxc3", "Ra3" };
+		Board bd = BoardFactory.createInitial();
+
+		for ( int idx = 0; idx < 5; ++idx )
+			bd.makeMove(MoveFactory.fromSAN(bd, strMoves[idx]));
+
+		assertEquals(0x3C8123EA7B067637L, bd.getPolyglotKey());
+
+		for ( int idx = 5; idx < strMoves.length; ++idx )
+			bd.makeMove(MoveFactory.fromSAN(bd, strMoves[idx]));
+
+		assertEquals(0x5C3F9B829B279560L, bd.getPolyglotKey());
+		}
 	} /* end of class TestBoard */
@@ -0,0 +1,287 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.pgn.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs the parser and the mate search on many threads at once, and checks that every
+ * thread sees exactly what a sequential run sees.
+ */
+public class TestConcurrency extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	private static final int THREADS    = 8;
+	private static final int ITERATIONS = 25;
+
+	/** Games that parse, and games that fail in different ways. */
+	private static final String[] PGN_GAMES = {
+		SAMPLE_PGN,
+		"[Event \"Illegal\"]\n\n1. e4 e5 2. Ke3 *\n",
+		"[Event \"Bad Tag\"]\n[1Site \"x\"]\n\n1. d4 *\n",
+		"[Event \"Unterminated\"]\n\n1. c4 {never closed\n",
+		"[Event \"Short\"]\n\n1. f3 e5 2. g4 Qh4# 0-1\n",
+		"[Event \"Move Number\"]\n\n1. e4 e5 3. Nf3 *\n"
+	};
+
+	/** Positions with forced mates. */
+	private static final String[] FEN_MATES = {
+		"1Q4n1/nq2k1b1/b2rpppr/p3p3/P1pP1P1p/NP2P2K/R1P1N2R/2B5 b - -",
+		"1k6/8/3P4/2PK4/R4BB1/8/5N2/8 w - -",
+		"6kn/4R3/N1R4K/7p/4r1P1/7P/2p2q2/5R2 w - -",
+		"1B3B2/5N2/8/7p/1n5k/5K2/8/5b2 w - -",
+		"r5k1/pR2R1p1/6pp/3p4/P1p5/5r1P/5qB1/4Bn1K b - -",
+		"8/8/4R3/p7/k2B4/2Q3K1/8/8 w - -"
+	};
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_parseGame() throws Exception
+		{
+		final List<String> expected = new ArrayList<>();
+
+		for ( String strPGN : PGN_GAMES )
+			expected.add( parseGame( strPGN ) );
+
+		assertTrue( expected.get( 0 ).startsWith( "OK" ) );
+		assertTrue( expected.get( 1 ).startsWith( "FAILED" ) );
+
+		runConcurrently( new Task()
+			{
+			@Override
+			public void run( int iThread, int iIteration )
+				{
+				int index = (iThread + iIteration) % PGN_GAMES.length;
+
+				assertEquals( expected.get( index ), parseGame( PGN_GAMES[ index ] ) );
+				}
+			} );
+		}
+
+	@Test
+	public void t_parseGames() throws Exception
+		{
+		final StringBuilder sb = new StringBuilder();
+
+		for ( String strPGN : PGN_GAMES )
+			sb.append( strPGN ).append( '\n' );
+
+		final String strAll = sb.toString();
+		final String strExpected = parseGames( strAll );
+
+		runConcurrently( new Task()
+			{
+			@Override
+			public void run( int iThread, int iIteration )
+				{
+				assertEquals( strExpected, parseGames( strAll ) );
+				}
+			} );
+		}
+
+	@Test
+	public void t_findMateIn() throws Exception
+		{
+		final List<String> expected = new ArrayList<>();
+
+		for ( String strFEN : FEN_MATES )
+			expected.add( findMates( strFEN ) );
+
+		runConcurrently( new Task()
+			{
+			@Override
+			public void run( int iThread, int iIteration )
+				{
+				int index = (iThread + iIteration) % FEN_MATES.length;
+
+				assertEquals( expected.get( index ), findMates( FEN_MATES[ index ] ) );
+				}
+			} );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Searches for mates in two, and summarizes the solutions and the node count.  The
+	 * search is deterministic, so the node count is too.
+	 */
+	private static String findMates( String strFEN )
+		{
+		SearchStats stats = new SearchStats();
+		Board bd = BoardFactory.createFromFEN( strFEN );
+		StringBuilder sb = new StringBuilder();
+
+		for ( PV pv : Evaluator.findMateIn( bd, 2, true, stats ) )
+			sb.append( pv.toString() ).append( '|' );
+
+		assertTrue( stats.getNodeCount() > 0L );
+
+		return sb.append( stats.getNodeCount() ).toString();
+		}
+
+	private static String parseGame( String strPGN )
+		{
+		GameRecorder recorder = new GameRecorder();
+		ParseResult result = PgnParser.parseGame( recorder, strPGN );
+
+		return (result.isSuccess() ? "OK " : "FAILED ") + result.getError() + ' ' + recorder;
+		}
+
+	private static String parseGames( String strPGN )
+		{
+		GameRecorder recorder = new GameRecorder();
+		ParseResult result = PgnParser.parseGames( recorder, strPGN );
+
+		return result.toString() + ' ' + recorder;
+		}
+
+	private static void runConcurrently( final Task task ) throws Exception
+		{
+		final ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+		final CountDownLatch latch = new CountDownLatch( 1 );
+		final List<Future<?>> futures = new ArrayList<>();
+
+		try
+			{
+			for ( int iThread = 0; iThread < THREADS; ++iThread )
+				{
+				final int iThreadNum = iThread;
+
+				futures.add( executor.submit( new Callable<Void>()
+					{
+					@Override
+					public Void call() throws Exception
+						{
+						latch.await();
+
+						for ( int iIteration = 0; iIteration < ITERATIONS; ++iIteration )
+							task.run( iThreadNum, iIteration );
+
+						return null;
+						}
+					} ) );
+				}
+
+			latch.countDown();
+
+			for ( Future<?> future : futures )
+				{
+				try
+					{
+					future.get();
+					}
+				catch (ExecutionException ex)
+					{
+					if (ex.getCause() instanceof Error) throw (Error) ex.getCause();
+
+					throw ex;
+					}
+				}
+			}
+		finally
+			{
+			executor.shutdownNow();
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: GameRecorder
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Records the tags, moves, and errors of every game.
+	 */
+	private static class GameRecorder extends PgnValidator
+		{
+		private final StringBuilder _sb = new StringBuilder();
+
+		@Override
+		public void onGameError( final String strError )
+			{
+			_sb.append( "!" ).append( strError ).append( ';' );
+			}
+
+		@Override
+		public void onGameOver()
+			{
+			_sb.append( _pv ).append( ';' );
+			}
+
+		@Override
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
+			{
+			_sb.append( strSAN ).append( ' ' );
+			return super.onMove( strSAN, strSuffix );
+			}
+
+		@Override
+		public boolean onTag( final CharSequence strName, final CharSequence strValue )
+			{
+			_sb.append( strName ).append( '=' ).append( strValue ).append( ';' );
+			return super.onTag( strName, strValue );
+			}
+
+		@Override
+		public String toString()
+			{
+			return _sb.toString();
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: Task
+	//	-----------------------------------------------------------------------
+
+	private interface Task
+		{
+		void run( int iThread, int iIteration );
+		}
+	} /* end of class TestConcurrency */
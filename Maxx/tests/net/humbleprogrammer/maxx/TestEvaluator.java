@@ -46,6 +46,13 @@ import java.util.List;
 public class TestEvaluator extends TestBase
 	{
 
+	//  -----------------------------------------------------------------------
+	//	STATIC DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Statistics for all of the mate searches. */
+	private static final SearchStats s_stats = new SearchStats();
+
 	//  -----------------------------------------------------------------------
 	//	UNIT TESTS
 	//	-----------------------------------------------------------------------
@@ -95,7 +102,7 @@ public class TestEvaluator extends TestBase
 		for ( String str : strFEN )
 			{
 			Board bd = BoardFactory.createFromFEN( str );
-			List<PV> solutions = Evaluator.findMateIn( bd, 2 );
+			List<PV> solutions = Evaluator.findMateIn( bd, 2, true, s_stats );
 
 			assertNotNull( solutions );
 			assertTrue( solutions.size() > 0 );
@@ -105,12 +112,36 @@ public class TestEvaluator extends TestBase
 			}
 		}
 
+	@Test
+	public void t_findMateIn_stats()
+		{
+		Board bd = BoardFactory.createFromFEN( "1k6/8/3P4/2PK4/R4BB1/8/5N2/8 w - -" );
+		SearchStats stats = new SearchStats();
+
+		assertEquals( 1, Evaluator.findMateIn( bd, 2, true, stats ).size() );
+
+		final long lNodes = stats.getNodeCount();
+
+		assertTrue( lNodes > 0L );
+		//
+		//	Statistics accumulate, and the search is deterministic.
+		//
+		Evaluator.findMateIn( bd, 2, true, stats );
+		assertEquals( 2 * lNodes, stats.getNodeCount() );
+
+		assertEquals( lNodes, new SearchStats().add( stats ).getNodeCount() / 2 );
+
+		stats.reset();
+		assertEquals( 0L, stats.getNodeCount() );
+		assertEquals( 0L, stats.getNPS() );
+		}
+
 	@Test
 	public void t_findMateIn_2_fail()
 		{
 		//	Has a mate in 1: 1...Qxh2#
 		Board bd = BoardFactory.createFromFEN( "8/p5k1/2p3p1/8/1P6/P2P1pPq/4r2P/1R5K b - -" );
-		List<PV> solutions = Evaluator.findMateIn( bd, 2, true );
+		List<PV> solutions = Evaluator.findMateIn( bd, 2, true, s_stats );
 
 		assertNotNull( solutions );
 		assertTrue( solutions.isEmpty() );
@@ -123,7 +154,7 @@ public class TestEvaluator extends TestBase
 		//		1. Rxh3+ Bxh3 Qh2#
 		//		1. Rxh3+ Bhx3 Ng3#
 		Board bd = BoardFactory.createFromFEN( "r5k1/pR2R1p1/6pp/3p4/P1p5/5r1P/5qB1/4Bn1K b - -" );
-		List<PV> solutions = Evaluator.findMateIn( bd, 2, true );
+		List<PV> solutions = Evaluator.findMateIn( bd, 2, true, s_stats );
 
 		assertNotNull( solutions );
 		assertEquals( 1, solutions.size() );
@@ -134,7 +165,7 @@ public class TestEvaluator extends TestBase
 		{
 		//	Has 19 different mate in 2 solutions!
 		Board bd = BoardFactory.createFromFEN( "8/8/4R3/p7/k2B4/2Q3K1/8/8 w - -" );
-		List<PV> solutions = Evaluator.findMateIn( bd, 2, true );
+		List<PV> solutions = Evaluator.findMateIn( bd, 2, true, s_stats );
 
 		assertNotNull( solutions );
 		assertEquals( 19, solutions.size() );
@@ -150,7 +181,7 @@ public class TestEvaluator extends TestBase
 		//		1. Rh7 Kf8 2. Rb8#
 		//		1. Rbb7 Kf8 2. Rb8#
 		Board bd = BoardFactory.createFromFEN( "4k3/3R4/1R6/2K5/7P/8/8/8 w - - 0 1" );
-		List<PV> solutions = Evaluator.findMateIn( bd, 2, true );
+		List<PV> solutions = Evaluator.findMateIn( bd, 2, true, s_stats );
 
 		assertNotNull( solutions );
 		assertEquals( 5, solutions.size() );
@@ -174,7 +205,7 @@ public class TestEvaluator extends TestBase
 			Board bd = BoardFactory.createFromFEN( str );
 			assertNotNull( bd );
 
-			List<PV> solutions = Evaluator.findMateIn( bd, 6 );
+			List<PV> solutions = Evaluator.findMateIn( bd, 6, true, s_stats );
 
 			assertNotNull( solutions );
 			assertTrue( solutions.size() > 0 );
@@ -187,9 +218,6 @@ public class TestEvaluator extends TestBase
 	@AfterClass
 	public static void displayResults()
 		{
-		s_log.info( String.format( "Nodes: %,16d  NPS: %,12d",
-								   Evaluator.getNodeCount(),
-								   Evaluator.getNPS() ) );
-
+		s_log.info( s_stats.toString() );
 		}
 	} /* end of class TestEvaluator */
@@ -34,7 +34,10 @@ package net.humbleprogrammer.maxx;
 
 import net.humbleprogrammer.TestBase;
 import net.humbleprogrammer.maxx.factories.BoardFactory;
-import net.humbleprogrammer.maxx.interfaces.IMoveScorer;
+import net.humbleprogrammer.maxx.interfaces.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.junit.*;
 
@@ -110,6 +113,119 @@ public class TestMoveList extends TestBase
 			}
 		}
 
+	@Test
+	public void t_generate_reuse()
+		{
+		MoveList moves = new MoveList();
+
+		assertTrue( moves.isEmpty() );
+		assertEquals( 20, moves.generate( BoardFactory.createInitial() ).size() );
+		assertEquals( new MoveList( BoardFactory.createFromFEN( FEN_TEST ) ).size(),
+					  moves.generate( BoardFactory.createFromFEN( FEN_TEST ) ).size() );
+		}
+
+	@Test
+	public void t_makeMove_index()
+		{
+		final String[] positions =
+			{
+				FEN_TEST,
+				"r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1",	// castling
+				"4k3/8/8/8/1b6/8/3N4/4K3 w - - 0 1",	// pinned Knight
+				"4k3/8/8/8/4r3/8/3N4/4K3 w - - 0 1",	// check
+				"4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2",	// e.p.
+				"4k3/1P6/8/8/8/8/8/4K3 w - - 0 1"		// promotion
+			};
+		final MoveList scratch = new MoveList();
+		final Random random = new Random( 1L );
+
+		for ( String strFEN : positions )
+			assertMakeMove( scratch, BoardFactory.createFromFEN( strFEN ) );
+		//
+		//	Random games reach plenty of checks and pins.
+		//
+		for ( int iGame = 0; iGame < 20; ++iGame )
+			{
+			Board bd = BoardFactory.createInitial();
+
+			for ( int iPly = 0; iPly < 200; ++iPly )
+				{
+				MoveList moves = new MoveList( bd );
+
+				if (moves.isEmpty()) break;
+
+				assertMakeMove( scratch, bd );
+				bd.makeMove( moves.get( random.nextInt( moves.size() ) ) );
+				}
+			}
+		}
+
+	@Test
+	public void t_iteratorPacked()
+		{
+		Board bd = BoardFactory.createFromFEN( FEN_TEST );
+		MoveList moves = new MoveList( bd );
+		IPackedMoveIterator iter = moves.iteratorPacked();
+		int index = 0;
+
+		for ( Move move : moves )
+			{
+			assertTrue( iter.hasNext() );
+
+			int iPacked = iter.nextInt();
+
+			assertEquals( move.toPacked(), iPacked );
+			assertEquals( iPacked, moves.getPacked( index ) );
+			assertEquals( move, moves.get( index++ ) );
+			assertTrue( moves.contains( iPacked ) );
+			}
+
+		assertFalse( iter.hasNext() );
+		assertEquals( moves.size(), index );
+		}
+
+	@Test( expected = NoSuchElementException.class )
+	public void t_iteratorPacked_fail()
+		{
+		IPackedMoveIterator iter = new MoveList( BoardFactory.createBlank() ).iteratorPacked();
+
+		iter.nextInt();
+		}
+
+	@Test( expected = IndexOutOfBoundsException.class )
+	public void t_getPacked_fail()
+		{
+		MoveList moves = new MoveList( BoardFactory.createInitial() );
+
+		moves.getPacked( moves.size() );
+		}
+
+	@Test
+	public void t_sort_packed()
+		{
+		Board bd = BoardFactory.createFromFEN( FEN_TEST );
+		MoveList moves = new MoveList( bd );
+
+		moves.sortPacked( new IPackedMoveScorer()
+			{
+			@Override
+			public int scoreMove( final Board bd, final int iPacked )
+				{
+				return Move.unpackFromSq( iPacked ) + (Move.unpackToSq( iPacked ) << 6);
+				}
+			} );
+
+		for ( int index = 1; index < moves.size(); ++index )
+			{
+			Move mvPrev = moves.get( index - 1 );
+			Move move = moves.get( index );
+
+			assertTrue(
+				(mvPrev.iSqTo > move.iSqTo) ||
+				(mvPrev.iSqTo == move.iSqTo && mvPrev.iSqFrom > move.iSqFrom) );
+			}
+		}
+
 	//  -----------------------------------------------------------------------
 	//	METHODS
 	//	-----------------------------------------------------------------------
@@ -129,4 +245,27 @@ public class TestMoveList extends TestBase
 		return (bd != null) ? new MoveList( bd ).size() : 0;
 		}
 
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static void assertMakeMove( MoveList scratch, Board bd )
+		{
+		final MoveList moves = new MoveList( bd );
+
+		for ( int index = 0; index < moves.size(); ++index )
+			{
+			Board bdCopy = new Board( bd );
+
+			assertEquals( moves.getPacked( index ), scratch.makeMove( bdCopy, index ) );
+			assertEquals( new Board( bd ).makeMove( moves.get( index ) ), bdCopy );
+			assertTrue( scratch.isEmpty() );
+			}
+
+		Board bdCopy = new Board( bd );
+
+		assertEquals( Constants.INVALID, scratch.makeMove( bdCopy, moves.size() ) );
+		assertEquals( bd, bdCopy );
+		}
+
 	} /* end of unit test class TestMoveList */
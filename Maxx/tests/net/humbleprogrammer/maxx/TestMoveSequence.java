@@ -0,0 +1,143 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import java.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class TestMoveSequence extends net.humbleprogrammer.TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_ctor()
+		{
+		assertTrue( new MoveSequence().isEmpty() );
+		assertTrue( new MoveSequence( 0 ).isEmpty() );
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_ctor_fail()
+		{
+		new MoveSequence( -1 );
+		}
+
+	@Test
+	public void t_add()
+		{
+		List<Move> moves = getMoves();
+		MoveSequence seq = new MoveSequence( 0 );
+
+		for ( Move move : moves )
+			assertTrue( seq.add( move ) );
+
+		assertEquals( moves.size(), seq.size() );
+		assertEquals( moves, seq );
+
+		for ( int idx = 0; idx < seq.size(); ++idx )
+			{
+			assertEquals( moves.get( idx ).hashBefore, seq.get( idx ).hashBefore );
+			assertEquals( moves.get( idx ).hashBefore, seq.getHashBefore( idx ) );
+			}
+		}
+
+	@Test
+	public void t_add_fail_null()
+		{
+		assertFalse( new MoveSequence().add( null ) );
+		}
+
+	@Test
+	public void t_addAll()
+		{
+		List<Move> moves = getMoves();
+		MoveSequence seq = new MoveSequence();
+		MoveSequence seqCopy = new MoveSequence( 1 );
+
+		assertTrue( seq.addAll( moves ) );
+		assertTrue( seqCopy.addAll( seq ) );
+		assertFalse( seqCopy.addAll( new MoveSequence() ) );
+
+		assertEquals( moves, seqCopy );
+		}
+
+	@Test
+	public void t_insertRemove()
+		{
+		List<Move> moves = new ArrayList<>( getMoves() );
+		MoveSequence seq = new MoveSequence();
+
+		seq.addAll( moves );
+
+		seq.add( 2, moves.get( 0 ) );
+		moves.add( 2, moves.get( 0 ) );
+		assertEquals( moves, seq );
+
+		assertEquals( moves.remove( 3 ), seq.remove( 3 ) );
+		assertEquals( moves.set( 1, moves.get( 4 ) ), seq.set( 1, moves.get( 4 ) ) );
+		assertEquals( moves, seq );
+
+		seq.subList( 1, 5 ).clear();
+		moves.subList( 1, 5 ).clear();
+		assertEquals( moves, seq );
+
+		seq.clear();
+		assertTrue( seq.isEmpty() );
+		}
+
+	@Test( expected = IndexOutOfBoundsException.class )
+	public void t_get_fail()
+		{
+		MoveSequence seq = new MoveSequence();
+
+		seq.addAll( getMoves() );
+		seq.get( seq.size() );
+		}
+
+	@Test( expected = ConcurrentModificationException.class )
+	public void t_iterator_fail()
+		{
+		MoveSequence seq = new MoveSequence();
+
+		seq.addAll( getMoves() );
+
+		for ( Move move : seq )
+			seq.add( move );
+		}
+
+	} /* end of class TestMoveSequence */
@@ -0,0 +1,234 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.interfaces.ISearchListener;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static net.humbleprogrammer.maxx.Constants.*;
+
+import java.util.*;
+
+public class TestSearch extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_think_mateIn1()
+		{
+		//	1...Qxh2# (or 1...Qg2#)
+		Board bd = BoardFactory.createFromFEN( "8/p5k1/2p3p1/8/1P6/P2P1pPq/4r2P/1R5K b - -" );
+		Search search = new Search();
+		PV pv = search.think( bd, createDepthLimited( 4 ) );
+
+		assertNotNull( pv );
+		assertFalse( pv.isEmpty() );
+		assertTrue( Arbiter.isMated( new Board( bd, pv.get( 0 ) ) ) );
+		assertEquals( MAX_SCORE - 1, search.getScore() );
+		assertTrue( Evaluator.isMateScore( search.getScore() ) );
+		}
+
+	@Test
+	public void t_think_capture()
+		{
+		//	White can win a hanging queen.
+		Board bd = BoardFactory.createFromFEN( "4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1" );
+		Search search = new Search();
+		PV pv = search.think( bd, createDepthLimited( 3 ) );
+
+		assertEquals( Square.D2, pv.get( 0 ).iSqFrom );
+		assertEquals( Square.D5, pv.get( 0 ).iSqTo );
+		assertTrue( search.getScore() > 0 );
+		}
+
+	@Test
+	public void t_think_depthLimit()
+		{
+		Search search = new Search();
+
+		search.think( BoardFactory.createInitial(), createDepthLimited( 3 ) );
+		assertEquals( 3, search.getDepth() );
+		assertTrue( search.getNodeCount() > 0L );
+		}
+
+	@Test
+	public void t_think_noMoves()
+		{
+		//	Stalemate
+		Board bd = BoardFactory.createFromFEN( "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1" );
+		PV pv = new Search().think( bd, createDepthLimited( 2 ) );
+
+		assertNotNull( pv );
+		assertTrue( pv.isEmpty() );
+		}
+
+	@Test
+	public void t_think_moveTime()
+		{
+		TimeManager tm = new TimeManager();
+		tm.setMoveTime( 200L );
+
+		Search search = new Search();
+		PV pv = search.think( BoardFactory.createInitial(), tm );
+
+		assertFalse( pv.isEmpty() );
+		assertTrue( tm.getElapsedMillisecs() < 1000L );
+		}
+
+	@Test
+	public void t_think_sharedTable()
+		{
+		TranspositionTable tt = new TranspositionTable( 1 );
+		Board bd = BoardFactory.createInitial();
+
+		PV pvFirst = new Search( tt ).think( bd, createDepthLimited( 4 ) );
+		PV pvSecond = new Search( tt ).think( bd, createDepthLimited( 4 ) );
+
+		assertEquals( pvFirst.get( 0 ), pvSecond.get( 0 ) );
+		}
+
+	@Test
+	public void t_think_multiPV()
+		{
+		final List<String> events = new ArrayList<>();
+		Search search = new Search();
+
+		search.setMultiPV( 3 );
+		search.addListener( new ISearchListener()
+		{
+		@Override
+		public void onLine( int iDepth, int iRank, int iScore, PV pv, long lNodes, long lMillisecs )
+			{ events.add( iDepth + ":" + iRank ); }
+		} );
+
+		PV pv = search.think( BoardFactory.createInitial(), createDepthLimited( 3 ) );
+		List<PV> lines = search.getLines();
+
+		assertEquals( 3, lines.size() );
+		assertEquals( pv, lines.get( 0 ) );
+		assertEquals( search.getScore(), search.getScore( 0 ) );
+
+		Set<Move> roots = new HashSet<>();
+		for ( PV line : lines )
+			assertTrue( roots.add( line.get( 0 ) ) );
+
+		assertEquals( Arrays.asList( "1:1", "1:2", "1:3", "2:1", "2:2", "2:3", "3:1", "3:2", "3:3" ), events );
+		}
+
+	@Test
+	public void t_think_multiPV_ranked()
+		{
+		//	1. Ra8# is the only mate; every other line is worse.
+		Board bd = BoardFactory.createFromFEN( "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1" );
+		Search search = new Search();
+
+		search.setMultiPV( 2 );
+		search.think( bd, createDepthLimited( 3 ) );
+
+		assertEquals( 2, search.getLines().size() );
+		assertEquals( MAX_SCORE - 1, search.getScore( 0 ) );
+		assertTrue( search.getScore( 1 ) < search.getScore( 0 ) );
+		}
+
+	@Test
+	public void t_think_multiPV_fewMoves()
+		{
+		//	Only two legal moves.
+		Board bd = BoardFactory.createFromFEN( "k7/8/1Q6/8/8/8/8/7K b - - 0 1" );
+		Search search = new Search();
+
+		search.setMultiPV( 5 );
+		search.think( bd, createDepthLimited( 2 ) );
+
+		assertEquals( new MoveList( bd ).size(), search.getLines().size() );
+		}
+
+	@Test
+	public void t_ponder()
+		{
+		Board bd = BoardFactory.createInitial();
+		Search search = new Search();
+		PV pv = search.think( bd, createDepthLimited( 3 ) );
+
+		TimeManager tm = new TimeManager();
+		tm.setMoveTime( 100L );
+		//	Ponder on our own best move, from the opponent's point of view.
+		search.startPondering( bd, pv.get( 0 ), tm );
+		assertTrue( search.isPondering() );
+
+		PV pvPonder = search.ponderHit();
+
+		assertFalse( search.isPondering() );
+		assertNotNull( pvPonder );
+		assertFalse( pvPonder.isEmpty() );
+		}
+
+	@Test
+	public void t_stopPondering()
+		{
+		Board bd = BoardFactory.createInitial();
+		Search search = new Search();
+		Move move = new MoveList( bd ).getFirst();
+
+		search.startPondering( bd, move, new TimeManager() );
+		search.stopPondering();
+
+		assertFalse( search.isPondering() );
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_think_fail_null()
+		{
+		new Search().think( null, new TimeManager() );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static TimeManager createDepthLimited( int iDepth )
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setDepthLimit( iDepth );
+		return tm;
+		}
+
+	} /* end of class TestSearch */
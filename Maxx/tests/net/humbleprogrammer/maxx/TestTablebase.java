@@ -0,0 +1,259 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+import static net.humbleprogrammer.maxx.Constants.*;
+
+public class TestTablebase extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	private static Path      s_pathTemp;
+	private static Tablebase s_KQK;
+	private static Tablebase s_KRK;
+	private static Tablebase s_KPK;
+
+	@BeforeClass
+	public static void generateTables() throws IOException
+		{
+		s_pathTemp = Files.createTempDirectory( "maxx" );
+		s_KQK = Tablebase.generate( "KQK", s_pathTemp, 4 );
+		s_KRK = Tablebase.generate( "KRK", s_pathTemp, 4 );
+		s_KPK = Tablebase.generate( "KPK", s_pathTemp, 4 );
+		}
+
+	@AfterClass
+	public static void deleteTables() throws IOException
+		{
+		Tablebase.unregisterAll();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream( s_pathTemp ))
+			{
+			for ( Path path : stream )
+				Files.delete( path );
+			}
+
+		Files.delete( s_pathTemp );
+		}
+
+	@After
+	public void unregister()
+		{
+		Tablebase.unregisterAll();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_normalizeMaterial()
+		{
+		assertEquals( "KRKP", Tablebase.normalizeMaterial( "KPKR" ) );
+		assertEquals( "KQK", Tablebase.normalizeMaterial( "kkq" ) );
+		assertEquals( "KBNK", Tablebase.normalizeMaterial( "KNBK" ) );
+		assertEquals( "KPKP", Tablebase.normalizeMaterial( "KPKP" ) );
+		}
+
+	@Test
+	public void t_normalizeMaterial_fail()
+		{
+		assertNull( Tablebase.normalizeMaterial( null ) );
+		assertNull( Tablebase.normalizeMaterial( "KK" ) );
+		assertNull( Tablebase.normalizeMaterial( "QKK" ) );
+		assertNull( Tablebase.normalizeMaterial( "KQRKB" ) );
+		assertNull( Tablebase.normalizeMaterial( "KXK" ) );
+		}
+
+	@Test
+	public void t_generate()
+		{
+		assertEquals( "KQK", s_KQK.getMaterial() );
+		assertEquals( 10, s_KQK.getMaxMateIn( WHITE ) );
+		assertEquals( 16, s_KRK.getMaxMateIn( WHITE ) );
+		assertEquals( 0, s_KRK.getMaxMateIn( BLACK ) );
+		assertTrue( Files.exists( s_pathTemp.resolve( "KNK" + Tablebase.EXTENSION ) ) );
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_generate_fail() throws IOException
+		{
+		Tablebase.generate( "KQRBK", s_pathTemp, 1 );
+		}
+
+	@Test
+	public void t_computeIndex()
+		{
+		int[] sq = new int[ 3 ];
+		int[] sqCopy = new int[ 3 ];
+
+		for ( int index = 0; index < s_KRK.size(); ++index )
+			{
+			s_KRK.decodeIndex( index, sq );
+			System.arraycopy( sq, 0, sqCopy, 0, sq.length );
+
+			if (s_KRK.getValue( index ) != Tablebase.ILLEGAL)
+				assertEquals( index, s_KRK.computeIndex( sqCopy ) );
+			}
+		}
+
+	@Test
+	public void t_probe()
+		{
+		Tablebase.register( s_KQK );
+		Tablebase.register( s_KPK );
+
+		assertEquals( MAX_SCORE - 1, Tablebase.probe( BoardFactory.createFromFEN( "k7/8/1K6/8/8/8/7Q/8 w - - 0 1" ) ) );
+		assertEquals( MAX_SCORE - 1, Tablebase.probe( BoardFactory.createFromFEN( "K7/8/1k6/8/8/8/7q/8 b - - 0 1" ) ) );
+		assertEquals( MIN_SCORE, Tablebase.probe( BoardFactory.createFromFEN( "k6Q/8/1K6/8/8/8/8/8 b - - 0 1" ) ) );
+		assertEquals( 0, Tablebase.probe( BoardFactory.createFromFEN( "7k/8/8/8/8/8/7P/7K w - - 0 1" ) ) );
+		assertTrue( Tablebase.probe( BoardFactory.createFromFEN( "8/8/8/8/8/8/k3P3/4K3 w - - 0 1" ) ) > 0 );
+		}
+
+	@Test
+	public void t_probe_unknown()
+		{
+		Tablebase.register( s_KQK );
+
+		assertEquals( Tablebase.UNKNOWN, Tablebase.probe( BoardFactory.createInitial() ) );
+		assertEquals( Tablebase.UNKNOWN, Tablebase.probe( BoardFactory.createFromFEN( "k7/8/1K6/8/8/8/8/7R w - - 0 1" ) ) );
+		}
+
+	@Test
+	public void t_findMateIn()
+		{
+		final Random random = new Random( 1 );
+		int iChecked = 0;
+
+		Tablebase.register( s_KRK );
+
+		while ( iChecked < 20 )
+			{
+			Board bd = createRandom( random, Piece.W_ROOK );
+			int iScore = Tablebase.probe( bd );
+
+			if (iScore == Tablebase.UNKNOWN || iScore <= 0) continue;
+
+			int iMoves = (MAX_SCORE - iScore + 1) / 2;
+
+			if (iMoves > 3) continue;
+			//
+			//	The tables and the brute-force search must agree.
+			//
+			Tablebase.unregisterAll();
+
+			assertFalse( Evaluator.findMateIn( bd, iMoves, false ).isEmpty() );
+			if (iMoves > 1)
+				assertTrue( Evaluator.findMateIn( bd, iMoves - 1, false ).isEmpty() );
+
+			Tablebase.register( s_KRK );
+			++iChecked;
+			}
+		}
+
+	@Test
+	public void t_getLine()
+		{
+		Tablebase.register( s_KRK );
+
+		Board bd = BoardFactory.createFromFEN( "8/8/8/8/3k4/8/8/R3K3 w - - 0 1" );
+		int iScore = Tablebase.probe( bd );
+		PV pv = Tablebase.getLine( bd, 100 );
+
+		assertTrue( iScore > 0 );
+		assertEquals( MAX_SCORE - iScore, pv.size() );
+
+		for ( Move move : pv )
+			bd = new Board( bd, move );
+
+		assertTrue( Arbiter.isMated( bd ) );
+		}
+
+	@Test
+	public void t_search()
+		{
+		Tablebase.register( s_KRK );
+
+		Board bd = BoardFactory.createFromFEN( "8/8/8/8/3k4/8/8/R3K3 w - - 0 1" );
+		TimeManager tm = new TimeManager();
+		Search search = new Search();
+
+		tm.setDepthLimit( 2 );
+		search.think( bd, tm );
+
+		assertEquals( Tablebase.probe( bd ), search.getScore() );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static Board createRandom( Random random, int piece )
+		{
+		for ( ; ; )
+			{
+			int iSqKing = random.nextInt( 64 );
+			int iSqPiece = random.nextInt( 64 );
+			int iSqOther = random.nextInt( 64 );
+
+			if (iSqKing == iSqPiece || iSqKing == iSqOther || iSqPiece == iSqOther ||
+				Square.distance( iSqKing, iSqOther ) < 2)
+				{
+				continue;
+				}
+
+			Board bd = new Board();
+
+			bd.set( iSqKing, Piece.W_KING );
+			bd.set( iSqPiece, piece );
+			bd.set( iSqOther, Piece.B_KING );
+			bd.setMovingPlayer( WHITE );
+
+			if (Arbiter.isLegalPosition( bd ))
+				return bd;
+			}
+		}
+	} /* end of class TestTablebase */
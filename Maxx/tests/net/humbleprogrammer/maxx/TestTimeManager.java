@@ -0,0 +1,219 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import net.humbleprogrammer.TestBase;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestTimeManager extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_ctor()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.start();
+		assertEquals( 0L, tm.getSoftLimit() );
+		assertEquals( 0L, tm.getHardLimit() );
+		assertFalse( tm.isTimeUp( Long.MAX_VALUE ) );
+		assertTrue( tm.canStartIteration( 1, 0L ) );
+		}
+
+	@Test
+	public void t_setClock()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setClock( 60000L, 0L, 0 );
+
+		long lSoft = tm.getSoftLimit();
+		long lHard = tm.getHardLimit();
+
+		assertTrue( lSoft > 0L );
+		assertTrue( lHard >= lSoft );
+		assertEquals( (60000L - TimeManager.SAFETY_MARGIN) / TimeManager.DEFAULT_MOVES_TO_GO, lSoft );
+		assertEquals( lSoft * TimeManager.HARD_FACTOR, lHard );
+		}
+
+	@Test
+	public void t_setClock_increment()
+		{
+		TimeManager tmPlain = new TimeManager();
+		TimeManager tmIncrement = new TimeManager();
+
+		tmPlain.setClock( 60000L, 0L, 20 );
+		tmIncrement.setClock( 60000L, 2000L, 20 );
+
+		assertTrue( tmIncrement.getSoftLimit() > tmPlain.getSoftLimit() );
+		}
+
+	@Test
+	public void t_setClock_lastMove()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setClock( 1000L, 0L, 1 );
+
+		assertTrue( tm.getHardLimit() < 1000L - TimeManager.SAFETY_MARGIN );
+		assertTrue( tm.getSoftLimit() <= tm.getHardLimit() );
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_setClock_fail()
+		{
+		new TimeManager().setClock( -1L, 0L, 0 );
+		}
+
+	@Test
+	public void t_setMoveTime()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setMoveTime( 250L );
+		assertEquals( 250L, tm.getSoftLimit() );
+		assertEquals( 250L, tm.getHardLimit() );
+		}
+
+	@Test
+	public void t_onIterationComplete()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setClock( 60000L, 0L, 0 );
+
+		long lSoft = tm.getSoftLimit();
+
+		tm.onIterationComplete( false, 50 );
+		assertEquals( lSoft, tm.getSoftLimit() );
+		//	Best move changed...
+		tm.onIterationComplete( true, 50 );
+		assertTrue( tm.getSoftLimit() > lSoft );
+		lSoft = tm.getSoftLimit();
+		//	Score dropped...
+		tm.onIterationComplete( false, 50 - TimeManager.SCORE_DROP );
+		assertTrue( tm.getSoftLimit() > lSoft );
+		//	...but never past the hard limit.
+		for ( int idx = 0; idx < 20; ++idx )
+			tm.onIterationComplete( true, -1000 * idx );
+		assertEquals( tm.getHardLimit(), tm.getSoftLimit() );
+		}
+
+	@Test
+	public void t_isTimeUp()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setMoveTime( 1L );
+		tm.start();
+		sleep( 5L );
+
+		assertTrue( tm.isTimeUp( 0L ) );
+		assertFalse( tm.canStartIteration( 2, 0L ) );
+		}
+
+	@Test
+	public void t_isTimeUp_nodes()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setNodeLimit( 10000L );
+		tm.start();
+
+		assertFalse( tm.isTimeUp( 9999L ) );
+		assertTrue( tm.isTimeUp( 10000L ) );
+		}
+
+	@Test
+	public void t_ponderHit()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setMoveTime( 1L );
+		tm.setPondering( true );
+		tm.start();
+		sleep( 5L );
+
+		assertTrue( tm.isPondering() );
+		assertFalse( tm.isTimeUp( 0L ) );
+
+		tm.ponderHit();
+		assertFalse( tm.isPondering() );
+		sleep( 5L );
+		assertTrue( tm.isTimeUp( 0L ) );
+		}
+
+	@Test
+	public void t_stop()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setPondering( true );
+		tm.start();
+		tm.stop();
+
+		assertTrue( tm.isStopped() );
+		assertTrue( tm.isTimeUp( 0L ) );
+		assertFalse( tm.canStartIteration( 1, 0L ) );
+		}
+
+	@Test
+	public void t_setDepthLimit()
+		{
+		TimeManager tm = new TimeManager();
+
+		tm.setDepthLimit( 4 );
+		assertTrue( tm.canStartIteration( 4, 0L ) );
+		assertFalse( tm.canStartIteration( 5, 0L ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static void sleep( long lMillisecs )
+		{
+		try
+			{ Thread.sleep( lMillisecs ); }
+		catch (InterruptedException ex)
+			{ Thread.currentThread().interrupt(); }
+		}
+
+	} /* end of class TestTimeManager */
@@ -0,0 +1,120 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx;
+
+import net.humbleprogrammer.TestBase;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static net.humbleprogrammer.maxx.Constants.*;
+
+public class TestTranspositionTable extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_ctor()
+		{
+		TranspositionTable tt = new TranspositionTable( 1 );
+
+		assertEquals( (1 << 20) / 16, tt.getCapacity() );
+		assertEquals( 0, tt.getPermillFull() );
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_ctor_fail()
+		{
+		new TranspositionTable( 0 );
+		}
+
+	@Test
+	public void t_store()
+		{
+		TranspositionTable tt = new TranspositionTable( 1 );
+		int iMove = Move.pack( Square.E2, Square.E4, Move.Type.PAWN_PUSH );
+		int[] scores = { MIN_SCORE, -1, 0, 1, MAX_SCORE };
+
+		for ( int iScore : scores )
+			{
+			tt.store( HASH_INITIAL, iMove, iScore, 7, TranspositionTable.BOUND_EXACT );
+
+			long lEntry = tt.probe( HASH_INITIAL );
+
+			assertTrue( lEntry != 0L );
+			assertEquals( iMove, TranspositionTable.getMove( lEntry ) );
+			assertEquals( iScore, TranspositionTable.getScore( lEntry ) );
+			assertEquals( 7, TranspositionTable.getDepth( lEntry ) );
+			assertEquals( TranspositionTable.BOUND_EXACT, TranspositionTable.getBound( lEntry ) );
+			}
+		}
+
+	@Test
+	public void t_store_keepsMove()
+		{
+		TranspositionTable tt = new TranspositionTable( 1 );
+		int iMove = Move.pack( Square.G1, Square.F3, Move.Type.NORMAL );
+
+		tt.store( HASH_INITIAL, iMove, 10, 2, TranspositionTable.BOUND_LOWER );
+		tt.store( HASH_INITIAL, 0, 5, 3, TranspositionTable.BOUND_UPPER );
+
+		assertEquals( iMove, TranspositionTable.getMove( tt.probe( HASH_INITIAL ) ) );
+		}
+
+	@Test
+	public void t_probe_miss()
+		{
+		TranspositionTable tt = new TranspositionTable( 1 );
+
+		tt.store( HASH_INITIAL, 0, 0, 1, TranspositionTable.BOUND_EXACT );
+
+		assertEquals( 0L, tt.probe( ~HASH_INITIAL ) );
+		//	Same slot, different key.
+		assertEquals( 0L, tt.probe( HASH_INITIAL ^ (1L << 40) ) );
+		}
+
+	@Test
+	public void t_clear()
+		{
+		TranspositionTable tt = new TranspositionTable( 1 );
+
+		tt.store( HASH_INITIAL, 0, 0, 1, TranspositionTable.BOUND_EXACT );
+		tt.clear();
+
+		assertEquals( 0L, tt.probe( HASH_INITIAL ) );
+		}
+
+	} /* end of class TestTranspositionTable */
@@ -32,9 +32,13 @@
  ******************************************************************************/
 package net.humbleprogrammer.maxx;
 
+import java.util.*;
+
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
 import org.junit.Test;
 
-import static net.humbleprogrammer.maxx.Constants.HASH_INITIAL;
+import static net.humbleprogrammer.maxx.Constants.*;
 import static org.junit.Assert.*;
 
 public class TestVariation extends net.humbleprogrammer.TestBase
@@ -71,4 +75,151 @@ public class TestVariation extends net.humbleprogrammer.TestBase
             }
         }
 
+    @Test
+    public void t_seekPosition()
+        {
+        for ( int iInterval : new int[] { 1, 3, Variation.DEFAULT_CHECKPOINT_INTERVAL, 1000 } )
+            {
+            Variation var = createGame( new Random( iInterval ), iInterval, 120 );
+            Board bd = var.getStartingPosition();
+
+            for ( int iPly = 0; iPly < var.size(); ++iPly )
+                {
+                assertEquals( bd, var.seekPosition( iPly ) );
+                assertEquals( bd, var.getPosition( bd.getMoveNumber(), bd.getMovingPlayer() ) );
+                assertEquals( bd, var.seekPosition( iPly - var.size() ) );
+
+                bd.makeMove( var.get( iPly ) );
+                }
+
+            assertEquals( bd, var.getCurrentPosition() );
+            assertNull( var.seekPosition( var.size() ) );
+            }
+        }
+
+    @Test
+    public void t_seekPosition_modified()
+        {
+        Variation var = createGame( new Random( 1L ), 4, 40 );
+        Board bd = var.seekPosition( 30 );
+
+        assertNotNull( bd );
+        //
+        //  Truncating the list behind the variation's back must not leave stale
+        //  checkpoints; the next seek rebuilds them.
+        //
+        var.subList( 20, var.size() ).clear();
+        assertNull( var.seekPosition( 30 ) );
+        assertEquals( 20, var.size() );
+
+        var.setCheckpointInterval( 7 );
+        assertEquals( 7, var.getCheckpointInterval() );
+        assertEquals( var.getStartingPosition(), var.seekPosition( 0 ) );
+        assertNotNull( var.seekPosition( 19 ) );
+        }
+
+    @Test
+    public void t_removeLastMove()
+        {
+        for ( int iInterval : new int[] { 1, 3, Variation.DEFAULT_CHECKPOINT_INTERVAL } )
+            {
+            Variation var = createGame( new Random( iInterval ), iInterval, 40 );
+            Variation ref = createGame( new Random( iInterval ), iInterval, 40 );
+
+            while (!var.isEmpty())
+                {
+                final Board bd = var.seekPosition( -1 );
+
+                assertEquals( ref.getLastMove(), var.removeLastMove() );
+                assertEquals( bd, var.getCurrentPosition() );
+
+                ref.subList( ref.size() - 1, ref.size() ).clear();
+                for ( int iPly = 0; iPly < var.size(); ++iPly )
+                    assertEquals( ref.seekPosition( iPly ), var.seekPosition( iPly ) );
+                //
+                //  Moves appended after a take-back must land on fresh checkpoints.
+                //
+                if (var.size() == 20)
+                    {
+                    Move move = new MoveList( var.getCurrentPosition() ).iterator().next();
+
+                    assertTrue( var.appendMove( move ) );
+                    assertTrue( ref.appendMove( move ) );
+                    assertEquals( ref.getCurrentPosition(), var.getCurrentPosition() );
+                    assertEquals( ref.seekPosition( 20 ), var.seekPosition( 20 ) );
+                    assertEquals( move, var.removeLastMove() );
+                    ref.subList( ref.size() - 1, ref.size() ).clear();
+                    }
+                }
+
+            assertNull( var.removeLastMove() );
+            assertEquals( var.getStartingPosition(), var.getCurrentPosition() );
+            }
+        }
+
+    @Test
+    public void t_set()
+        {
+        final String[] moves = { "Nf3", "Nf6", "Nc3", "Nc6", "e4", "e5", "d4", "d5" };
+        Variation var = new Variation( 2 );
+
+        for ( String strSAN : moves )
+            assertTrue( var.appendMove( MoveFactory.fromSAN( var.getCurrentPosition(), strSAN ) ) );
+
+        final Board bdFinal = new Board( var.getCurrentPosition() );
+
+        assertEquals( Piece.W_KNIGHT, var.seekPosition( 2 ).get( Square.F3 ) );
+        //
+        //  Swap the order of White's first two moves; the line transposes back into
+        //  the same position, but the plies in between must reflect the edit.
+        //
+        Board bd = BoardFactory.createInitial();
+        final String[] edits = { "Nc3", "Nf6", "Nf3" };
+
+        for ( int iPly = 0; iPly < edits.length; ++iPly )
+            {
+            var.set( iPly, MoveFactory.fromSAN( bd, edits[ iPly ] ) );
+            bd.makeMove( var.get( iPly ) );
+            }
+
+        bd = var.seekPosition( 2 );
+        assertEquals( Piece.W_KNIGHT, bd.get( Square.C3 ) );
+        assertTrue( bd.isEmpty( Square.F3 ) );
+        assertEquals( bd, var.getPosition( 2, WHITE ) );
+
+        assertEquals( Piece.W_KNIGHT, var.seekPosition( 3 ).get( Square.F3 ) );
+        assertEquals( bdFinal, var.getCurrentPosition() );
+        }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void t_setCheckpointInterval_fail()
+        {
+        new Variation( 0 );
+        }
+
+    //  -----------------------------------------------------------------------
+    //	IMPLEMENTATION
+    //	-----------------------------------------------------------------------
+
+    private static Variation createGame( Random random, int iInterval, int iMaxPlies )
+        {
+        Variation var = new Variation( iInterval );
+
+        var.setStartingPosition( BoardFactory.createInitial() );
+
+        for ( int iPly = 0; iPly < iMaxPlies; ++iPly )
+            {
+            List<Move> moves = new ArrayList<>();
+
+            for ( Move move : new MoveList( var.getCurrentPosition() ) )
+                moves.add( move );
+
+            if (moves.isEmpty()) break;
+
+            assertTrue( var.appendMove( moves.get( random.nextInt( moves.size() ) ) ) );
+            }
+
+        return var;
+        }
+
     }   /* end of class TestVariation */
@@ -0,0 +1,238 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+public class TestBookBuilder extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	private Path _pathTemp;
+	private Path _pathBook;
+	private Path _pathTree;
+
+	@Before
+	public void createTempFiles() throws IOException
+		{
+		_pathTemp = Files.createTempDirectory( "maxx" );
+		_pathBook = _pathTemp.resolve( "test.bin" );
+		_pathTree = _pathTemp.resolve( "test.tree" );
+		}
+
+	@After
+	public void deleteTempFiles() throws IOException
+		{
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream( _pathTemp ))
+			{
+			for ( Path path : stream )
+				Files.delete( path );
+			}
+
+		Files.delete( _pathTemp );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_finish_single() throws IOException
+		{
+		Variation pv = createGame( new Random( 1L ), 10, Result.WON_BY_WHITE );
+
+		try (BookBuilder builder = new BookBuilder( 1, _pathTemp ))
+			{
+			builder.add( pv, 4 );
+			builder.add( pv, 4 );
+
+			assertEquals( 8L, builder.getMoveCount() );
+			assertEquals( 4L, builder.finish( _pathBook, _pathTree, 1 ) );
+			}
+
+		try (OpeningTree tree = new OpeningTree( _pathTree ))
+			{
+			List<TreeEntry> entries = tree.getEntries( BoardFactory.createInitial() );
+
+			assertEquals( 1, entries.size() );
+			assertEquals( 2, entries.get( 0 ).iCount );
+			assertEquals( 2, entries.get( 0 ).iWins );
+			assertEquals( pv.get( 0 ), entries.get( 0 ).toMove( BoardFactory.createInitial() ) );
+			}
+		}
+
+	@Test
+	public void t_finish_spilled() throws IOException
+		{
+		final int iMaxPlies = 12;
+		final Random random = new Random( 42L );
+		final Result[] results = Result.values();
+		final Map<String, int[]> expected = new HashMap<>();
+		long lRecords;
+
+		try (BookBuilder builder = new BookBuilder( _pathTemp, 1024 ))
+			{
+			for ( int iGame = 0; iGame < 400; ++iGame )
+				{
+				Variation pv = createGame( random, 2 + random.nextInt( 16 ), results[ random.nextInt( results.length ) ] );
+
+				builder.add( pv, iMaxPlies );
+				tally( expected, pv, iMaxPlies );
+				}
+
+			assertTrue( builder.getRunCount() > 1 );
+			lRecords = builder.finish( _pathBook, _pathTree, 1 );
+			assertEquals( 0, builder.getRunCount() );
+			}
+
+		assertEquals( expected.size(), lRecords );
+
+		try (OpeningTree tree = new OpeningTree( _pathTree ))
+			{
+			assertEquals( lRecords, tree.size() );
+
+			for ( long idx = 0; idx < tree.size(); ++idx )
+				{
+				TreeEntry entry = tree.getEntry( idx );
+				int[] stats = expected.get( entry.lKey + ":" + entry.iMove );
+
+				assertNotNull( stats );
+				assertArrayEquals( stats, new int[] { entry.iCount, entry.iWins, entry.iDraws, entry.iLosses } );
+
+				if (idx > 0)
+					assertTrue( BookEntry.compareKeys( tree.getEntry( idx - 1 ).lKey, entry.lKey ) <= 0 );
+				}
+			}
+
+		try (PolyglotBook book = new PolyglotBook( _pathBook ))
+			{
+			assertEquals( lRecords, book.size() );
+			assertFalse( book.getEntries( BoardFactory.createInitial() ).isEmpty() );
+			}
+		}
+
+	@Test
+	public void t_finish_minCount() throws IOException
+		{
+		Random random = new Random( 7L );
+
+		try (BookBuilder builder = new BookBuilder( 1, _pathTemp ))
+			{
+			Variation pvCommon = createGame( random, 6, Result.DRAW );
+
+			builder.add( pvCommon, 6 );
+			builder.add( pvCommon, 6 );
+			builder.add( createGame( random, 6, Result.DRAW ), 6 );
+
+			assertTrue( builder.finish( _pathBook, null, 2 ) <= 6L );
+			}
+
+		try (PolyglotBook book = new PolyglotBook( _pathBook ))
+			{
+			for ( long idx = 0; idx < book.size(); ++idx )
+				assertEquals( 2, book.getEntry( idx ).iWeight );	// two draws
+			}
+		}
+
+	@Test( expected = IOException.class )
+	public void t_open_fail() throws IOException
+		{
+		Files.write( _pathTree, new byte[ 64 ] );
+		new OpeningTree( _pathTree ).close();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static Variation createGame( Random random, int iPlies, Result result )
+		{
+		Variation pv = new Variation();
+
+		for ( int idx = 0; idx < iPlies; ++idx )
+			{
+			List<Move> moves = new ArrayList<>();
+
+			for ( Move move : new MoveList( pv.getCurrentPosition() ) )
+				moves.add( move );
+
+			if (moves.isEmpty()) break;
+
+			pv.appendMove( moves.get( random.nextInt( Math.min( 4, moves.size() ) ) ) );
+			}
+
+		pv.setResult( result );
+		return pv;
+		}
+
+	private static void tally( Map<String, int[]> map, Variation pv, int iMaxPlies )
+		{
+		Board bd = pv.getStartingPosition();
+
+		for ( int idx = 0; idx < Math.min( iMaxPlies, pv.size() ); ++idx )
+			{
+			Move move = pv.get( idx );
+			String strKey = bd.getPolyglotKey() + ":" + BookEntry.encodeMove( move );
+			int[] stats = map.get( strKey );
+
+			if (stats == null)
+				map.put( strKey, stats = new int[ 4 ] );
+
+			boolean bWhite = bd.getMovingPlayer() == Constants.WHITE;
+
+			stats[ 0 ]++;
+			if (pv.getResult() == Result.DRAW)
+				stats[ 2 ]++;
+			else if (pv.getResult() == Result.WON_BY_WHITE)
+				stats[ bWhite ? 1 : 3 ]++;
+			else if (pv.getResult() == Result.WON_BY_BLACK)
+				stats[ bWhite ? 3 : 1 ]++;
+
+			bd.makeMove( move );
+			}
+		}
+
+	} /* end of class TestBookBuilder */
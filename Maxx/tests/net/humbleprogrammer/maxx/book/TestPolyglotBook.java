@@ -0,0 +1,253 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.book;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.*;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+public class TestPolyglotBook extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	private Path _path;
+
+	@Before
+	public void createTempFile() throws IOException
+		{
+		_path = Files.createTempFile( "maxx", ".bin" );
+		}
+
+	@After
+	public void deleteTempFile() throws IOException
+		{
+		Files.deleteIfExists( _path );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_encodeMove()
+		{
+		Board bd = BoardFactory.createInitial();
+		Move move = MoveFactory.fromSAN( bd, "e4" );
+		int iMove = BookEntry.encodeMove( move );
+
+		assertEquals( Square.E4 | (Square.E2 << 6), iMove );
+		assertEquals( move, new BookEntry( bd.getPolyglotKey(), iMove, 1, 0 ).toMove( bd ) );
+		}
+
+	@Test
+	public void t_encodeMove_castling()
+		{
+		Board bd = BoardFactory.createFromFEN( "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1" );
+
+		assertEquals( Square.H1 | (Square.E1 << 6), BookEntry.encodeMove( MoveFactory.fromSAN( bd, "O-O" ) ) );
+		assertEquals( Square.A1 | (Square.E1 << 6), BookEntry.encodeMove( MoveFactory.fromSAN( bd, "O-O-O" ) ) );
+
+		Move move = MoveFactory.fromSAN( bd, "O-O-O" );
+
+		assertEquals( move, new BookEntry( 0L, BookEntry.encodeMove( move ), 1, 0 ).toMove( bd ) );
+		}
+
+	@Test
+	public void t_encodeMove_promotion()
+		{
+		Board bd = BoardFactory.createFromFEN( "8/1P6/8/8/8/8/8/k6K w - - 0 1" );
+		Move move = MoveFactory.fromSAN( bd, "b8=N" );
+
+		assertEquals( Square.B8 | (Square.B7 << 6) | (1 << 12), BookEntry.encodeMove( move ) );
+		assertEquals( move, new BookEntry( 0L, BookEntry.encodeMove( move ), 1, 0 ).toMove( bd ) );
+		}
+
+	@Test
+	public void t_write_read() throws IOException
+		{
+		Map<Long, List<BookEntry>> expected = buildEntries();
+		List<BookEntry> all = new ArrayList<>();
+
+		for ( List<BookEntry> list : expected.values() )
+			all.addAll( list );
+
+		Collections.shuffle( all, new Random( 1L ) );
+		PolyglotWriter.write( _path, all );
+
+		try (PolyglotBook book = new PolyglotBook( _path ))
+			{
+			assertEquals( all.size(), book.size() );
+
+			for ( long idx = 1; idx < book.size(); ++idx )
+				assertTrue( book.getEntry( idx - 1 ).compareTo( book.getEntry( idx ) ) <= 0 );
+
+			for ( Map.Entry<Long, List<BookEntry>> entry : expected.entrySet() )
+				{
+				List<BookEntry> found = book.getEntries( entry.getKey() );
+
+				assertEquals( new HashSet<>( entry.getValue() ), new HashSet<>( found ) );
+				}
+
+			assertTrue( book.getEntries( 0x0123456789ABCDEFL ).isEmpty() );
+			}
+		}
+
+	@Test
+	public void t_streaming() throws IOException
+		{
+		List<BookEntry> all = new ArrayList<>();
+
+		for ( List<BookEntry> list : buildEntries().values() )
+			all.addAll( list );
+
+		Collections.sort( all );
+
+		try (PolyglotWriter writer = new PolyglotWriter( _path ))
+			{
+			for ( BookEntry entry : all )
+				writer.write( entry );
+
+			assertEquals( all.size(), writer.getEntryCount() );
+			}
+
+		try (PolyglotBook book = new PolyglotBook( _path ))
+			{
+			for ( int idx = 0; idx < all.size(); ++idx )
+				assertEquals( all.get( idx ), book.getEntry( idx ) );
+			}
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_streaming_fail_order() throws IOException
+		{
+		try (PolyglotWriter writer = new PolyglotWriter( _path ))
+			{
+			writer.write( -1L, 0, 1, 0 );	// largest unsigned key
+			writer.write( 1L, 0, 1, 0 );
+			}
+		}
+
+	@Test
+	public void t_getBestMove() throws IOException
+		{
+		Board bd = BoardFactory.createInitial();
+		long lKey = bd.getPolyglotKey();
+		List<BookEntry> entries = Arrays.asList(
+			new BookEntry( lKey, BookEntry.encodeMove( MoveFactory.fromSAN( bd, "e4" ) ), 10, 0 ),
+			new BookEntry( lKey, BookEntry.encodeMove( MoveFactory.fromSAN( bd, "d4" ) ), 30, 0 ),
+			new BookEntry( lKey, BookEntry.encodeMove( MoveFactory.fromSAN( bd, "c4" ) ), 0, 0 ) );
+
+		PolyglotWriter.write( _path, entries );
+
+		try (PolyglotBook book = new PolyglotBook( _path ))
+			{
+			assertEquals( MoveFactory.fromSAN( bd, "d4" ), book.getBestMove( bd ) );
+
+			Random random = new Random( 42L );
+			Move moveC4 = MoveFactory.fromSAN( bd, "c4" );
+
+			for ( int idx = 0; idx < 100; ++idx )
+				{
+				Move move = book.getRandomMove( bd, random );
+
+				assertNotNull( move );
+				assertNotEquals( moveC4, move );
+				}
+
+			Board bdNext = new Board( bd ).makeMove( MoveFactory.fromSAN( bd, "e4" ) );
+
+			assertNull( book.getBestMove( bdNext ) );
+			}
+		}
+
+	@Test( expected = IllegalStateException.class )
+	public void t_getEntries_fail_closed() throws IOException
+		{
+		Board bd = BoardFactory.createInitial();
+
+		PolyglotWriter.write( _path, Collections.singletonList(
+			new BookEntry( bd.getPolyglotKey(), BookEntry.encodeMove( MoveFactory.fromSAN( bd, "e4" ) ), 1, 0 ) ) );
+
+		PolyglotBook book = new PolyglotBook( _path );
+
+		book.close();
+		book.getEntries( bd );
+		}
+
+	@Test( expected = IOException.class )
+	public void t_open_fail() throws IOException
+		{
+		Files.write( _path, new byte[ 17 ] );
+		new PolyglotBook( _path ).close();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Builds book entries for every position in the sample game.
+	 */
+	private static Map<Long, List<BookEntry>> buildEntries()
+		{
+		Map<Long, List<BookEntry>> map = new HashMap<>();
+		Board bd = BoardFactory.createInitial();
+		int iWeight = 1;
+
+		for ( String strSAN : SAMPLE_MOVES )
+			{
+			Move move = MoveFactory.fromSAN( bd, strSAN );
+			long lKey = bd.getPolyglotKey();
+
+			if (!map.containsKey( lKey ))
+				map.put( lKey, new ArrayList<BookEntry>() );
+
+			map.get( lKey ).add( new BookEntry( lKey, BookEntry.encodeMove( move ), iWeight++, 0 ) );
+			bd.makeMove( move );
+			}
+
+		return map;
+		}
+
+	} /* end of class TestPolyglotBook */
@@ -33,10 +33,12 @@
 package net.humbleprogrammer.maxx.factories;
 
 import net.humbleprogrammer.TestBase;
-import net.humbleprogrammer.maxx.Game;
+import net.humbleprogrammer.maxx.*;
 import net.humbleprogrammer.maxx.factories.GameFactory;
 import org.junit.Test;
 
+import java.util.*;
+
 import static net.humbleprogrammer.maxx.Constants.HASH_INITIAL;
 import static org.junit.Assert.*;
 
@@ -64,9 +66,63 @@ public class TestGameFactory extends TestBase
         assertNull( GameFactory.fromString( "  \n\r\t" ) );
         }
 
+    @Test
+    public void t_fromString()
+        {
+        Game gm = GameFactory.fromString( SAMPLE_PGN );
+
+        assertNotNull( gm );
+        assertEquals( 9, gm.getTagNames().size() );
+        assertEquals( "Rusanov, M ", gm.getTag( "White" ) );
+        assertEquals( "Event", gm.getTagNames().iterator().next() );
+        assertEquals( SAMPLE_MOVES.length, gm.getMainLine().size() );
+        assertEquals( Result.WON_BY_BLACK, gm.getMainLine().getResult() );
+        }
+
+    @Test
+    public void t_fromString_FEN()
+        {
+        final String strFEN = "4k3/8/8/8/8/8/4P3/4K3 b - - 0 12";
+        Game gm = GameFactory.fromString( "[Event \"Ending\"]\n[FEN \"" + strFEN + "\"]\n\n" +
+                                          "12... Kd7 (12... Kf7 13. e4) 13. e4 *\n" );
+
+        assertNotNull( gm );
+        assertEquals( 2, gm.getMainLine().size() );
+        assertEquals( strFEN, BoardFactory.exportFEN( gm.getMainLine().getStartingPosition() ) );
+        }
+
     @Test
     public void t_fromString_fail_FEN()
         {
         assertNull( GameFactory.fromString( "[FEN \"\"]" ) );
         }
+
+    @Test
+    public void t_fromString_fail_illegal()
+        {
+        assertNull( GameFactory.fromString( "[Event \"Illegal\"]\n\n1. e5 *\n" ) );
+        }
+
+    @Test
+    public void t_fromString_fail_variation()
+        {
+        assertNull( GameFactory.fromString( "[Event \"x\"]\n\n1. e4 (1. d4" ) );
+        assertNull( GameFactory.fromString( "[Event \"x\"]\n\n1. e4 (1. d4 --" ) );
+        }
+
+    @Test
+    public void t_toString()
+        {
+        Game gm = GameFactory.fromString( SAMPLE_PGN );
+        String strPGN = GameFactory.toString( gm );
+        //
+        //  A round trip has to give back the same game, and the same text.
+        //
+        Game gmCopy = GameFactory.fromString( strPGN );
+
+        assertNotNull( gmCopy );
+        assertEquals( gm.getTags(), gmCopy.getTags() );
+        assertEquals( new ArrayList<>( gm.getMainLine() ), new ArrayList<>( gmCopy.getMainLine() ) );
+        assertEquals( strPGN, gmCopy.toString() );
+        }
     }
@@ -37,6 +37,7 @@ import net.humbleprogrammer.maxx.*;
 
 import org.junit.Test;
 
+import static net.humbleprogrammer.maxx.Constants.*;
 import static org.junit.Assert.*;
 
 public class TestMoveFactory extends TestBase
@@ -62,12 +63,111 @@ public class TestMoveFactory extends TestBase
 			}
 		}
 
+	@Test
+	public void t_sample_packed()
+		{
+		Board bd = BoardFactory.createInitial();
+
+		for ( String str : SAMPLE_MOVES )
+			{
+			int iPacked = MoveFactory.fromSANPacked( bd, str );
+			Move move = MoveFactory.fromSAN( bd, str );
+
+			assertNotEquals( str, INVALID, iPacked );
+			assertEquals( move.toPacked(), iPacked );
+			assertEquals( MoveFactory.toSAN( bd, move, true ), MoveFactory.toSAN( bd, iPacked, true ) );
+
+			bd.makeMove( iPacked );
+			}
+		}
+
+	@Test
+	public void t_fromSANPacked_promotion()
+		{
+		Board bd = BoardFactory.createFromFEN( "r3k2r/1P6/8/8/8/8/8/R3K2R w KQkq - 0 1" );
+		int iPacked = MoveFactory.fromSANPacked( bd, "bxa8=N" );
+
+		assertEquals( Move.pack( Square.B7, Square.A8, Move.Type.PROMOTE_KNIGHT ), iPacked );
+		assertEquals( "bxa8=N", MoveFactory.toSAN( bd, iPacked, true ) );
+		assertEquals( "b8=Q", MoveFactory.toSAN( bd, MoveFactory.fromSANPacked( bd, "b8" ), false ) );
+		}
+
+	@Test
+	public void t_fromSANPacked_fail()
+		{
+		Board bd = BoardFactory.createInitial();
+
+		assertEquals( INVALID, MoveFactory.fromSANPacked( null, "e4" ) );
+		assertEquals( INVALID, MoveFactory.fromSANPacked( bd, null ) );
+		assertEquals( INVALID, MoveFactory.fromSANPacked( bd, "e5" ) );
+		assertEquals( "", MoveFactory.toSAN( bd, Move.pack( Square.E2, Square.E5, Move.Type.NORMAL ), false ) );
+		}
+
+	@Test
+	public void t_fromLAN()
+		{
+		Board bd = BoardFactory.createFromFEN( "r3k2r/1P6/8/8/8/8/8/R3K2R w KQkq - 0 1" );
+		Move move = MoveFactory.fromLAN( bd, "e1g1" );
+
+		assertNotNull( move );
+		assertEquals( Move.Type.CASTLING, move.iType );
+
+		move = MoveFactory.fromLAN( bd, "b7a8n" );
+		assertNotNull( move );
+		assertEquals( Move.Type.PROMOTE_KNIGHT, move.iType );
+
+		assertEquals( "b7b8q", MoveFactory.fromLAN( bd, "B7B8Q" ).toString() );
+		}
+
+	@Test
+	public void t_fromLAN_fail()
+		{
+		Board bd = BoardFactory.createInitial();
+
+		assertNull( MoveFactory.fromLAN( null, "e2e4" ) );
+		assertNull( MoveFactory.fromLAN( bd, null ) );
+		assertNull( MoveFactory.fromLAN( bd, "e2e5" ) );
+		assertNull( MoveFactory.fromLAN( bd, "e2" ) );
+		assertNull( MoveFactory.fromLAN( bd, "z9e4" ) );
+		assertNull( MoveFactory.fromLAN( bd, "e2e4xx" ) );
+		}
+
 	@Test
 	public void t_fromSAN_fail()
 		{
 		assertNull( MoveFactory.fromSAN( null, null ) );
 		}
 
+	@Test
+	public void t_toSAN_disambiguation()
+		{
+		final int iPacked = Move.pack( Square.E5, Square.C4, Move.Type.NORMAL );
+		Board bd = BoardFactory.createFromFEN( "7k/8/8/4N3/8/8/3N4/4K3 w - - 0 1" );
+
+		assertEquals( "Nec4", MoveFactory.toSAN( bd, iPacked, true ) );
+		//
+		//	With the Knight on d2 pinned, the move is no longer ambiguous.
+		//
+		bd = BoardFactory.createFromFEN( "7k/8/8/4N3/1b6/8/3N4/4K3 w - - 0 1" );
+
+		assertEquals( "Nc4", MoveFactory.toSAN( bd, iPacked, true ) );
+		assertEquals( "", MoveFactory.toSAN( bd, Move.pack( Square.D2, Square.C4, Move.Type.NORMAL ), true ) );
+		}
+
+	@Test
+	public void t_appendSAN_hash()
+		{
+		final StringBuilder sb = new StringBuilder();
+		final Board bd = BoardFactory.createInitial();
+		final int iPacked = Move.pack( Square.G1, Square.F3, Move.Type.NORMAL );
+
+		assertFalse( MoveFactory.appendSAN( sb, bd, iPacked, ~HASH_INITIAL ) );
+		assertEquals( 0, sb.length() );
+
+		assertTrue( MoveFactory.appendSAN( sb, bd, iPacked, HASH_INITIAL ) );
+		assertEquals( "Nf3", sb.toString() );
+		}
+
 	@Test
 	public void t_fromSAN_extra_disambiguation()
 		{
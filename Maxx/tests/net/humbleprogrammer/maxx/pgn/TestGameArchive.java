@@ -0,0 +1,295 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.humble.Stopwatch;
+import net.humbleprogrammer.humble.TimeUtil;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.factories.GameFactory;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestGameArchive extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_ctor_fail()
+		throws IOException
+		{
+		new GameArchiveWriter( null );
+		}
+
+	@Test
+	public void t_roundTrip()
+		throws IOException
+		{
+		final Game gm = GameFactory.fromString( SAMPLE_PGN );
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		assertNotNull( gm );
+
+		try (GameArchiveWriter writer = new GameArchiveWriter( output ))
+			{
+			writer.write( gm );
+			assertEquals( 1L, writer.getGameCount() );
+			}
+
+		try (GameArchiveReader reader = new GameArchiveReader( new ByteArrayInputStream( output.toByteArray() ) ))
+			{
+			final Game gmRead = reader.read();
+
+			assertNotNull( gmRead );
+			assertEquals( gm.getTags(), gmRead.getTags() );
+			assertEquals( new ArrayList<>( gm.getTagNames() ), new ArrayList<>( gmRead.getTagNames() ) );
+			assertEquals( Result.WON_BY_BLACK, gmRead.getMainLine().getResult() );
+			assertEquals( GameFactory.toString( gm ), GameFactory.toString( gmRead ) );
+			assertNull( reader.read() );
+			assertEquals( 1L, reader.getGameCount() );
+			}
+		}
+
+	@Test
+	public void t_roundTrip_FEN()
+		throws IOException
+		{
+		final String strFEN = "4k3/8/8/8/8/8/4P3/4K3 b - - 0 12";
+		final Game gm = new Game();
+		final Variation line = gm.getMainLine();
+
+		assertTrue( line.setStartingPosition( strFEN ) );
+		assertTrue( line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), "Kd7" ) ) );
+		assertTrue( line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), "e4" ) ) );
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		try (GameArchiveWriter writer = new GameArchiveWriter( output ))
+			{
+			writer.write( gm );
+			}
+
+		try (GameArchiveReader reader = new GameArchiveReader( new ByteArrayInputStream( output.toByteArray() ) ))
+			{
+			assertTrue( reader.next() );
+			assertEquals( strFEN, BoardFactory.exportFEN( reader.getStartingPosition() ) );
+			assertEquals( 2, reader.getMoves().size() );
+			assertEquals( line.getCurrentPosition().getZobristHash(), reader.getPosition().getZobristHash() );
+			assertTrue( reader.getTags().isEmpty() );
+			assertNull( reader.getResult() );
+			assertFalse( reader.next() );
+			}
+		}
+
+	@Test
+	public void t_fromPgn()
+		throws IOException
+		{
+		final String strCorpus = createCorpus( 100 ) + "[Event \"Illegal\"]\n\n1. e5 *\n\n";
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final ParseResult result = GameArchiveWriter.fromPgn( new StringReader( strCorpus ), output );
+
+		assertEquals( 100, result.getGameCount() );
+		assertEquals( 1, result.getErrorCount() );
+		//
+		//	One byte per ply, and a byte or two per tag once the dictionary is built.
+		//
+		final byte[] archive = output.toByteArray();
+
+		assertTrue( archive.length * 4 < strCorpus.length() );
+
+		try (GameArchiveReader reader = new GameArchiveReader( new ByteArrayInputStream( archive ) ))
+			{
+			while ( reader.next() )
+				{
+				final Board bd = reader.getStartingPosition();
+				final List<Move> moves = reader.getMoves();
+
+				assertEquals( SAMPLE_MOVES.length, moves.size() );
+				assertEquals( "M.I.Chigorin Memorial Open", reader.getTags().get( "Event" ) );
+
+				for ( int idx = 0; idx < SAMPLE_MOVES.length; ++idx )
+					{
+					final Move move = moves.get( idx );
+
+					assertEquals( SAMPLE_MOVES[ idx ], MoveFactory.toSAN( bd, move, true ) );
+					bd.makeMove( move );
+					}
+				}
+
+			assertEquals( 100L, reader.getGameCount() );
+			}
+		}
+
+	@Test
+	public void t_fromPgn_fail_variation()
+		throws IOException
+		{
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		GameArchiveWriter.fromPgn( new StringReader( "[Event \"x\"]\n\n1. e4 (1. d4 --" ), output );
+
+		try (GameArchiveReader reader = new GameArchiveReader( new ByteArrayInputStream( output.toByteArray() ) ))
+			{
+			assertFalse( reader.next() );
+			}
+		}
+
+	@Test( expected = IOException.class )
+	public void t_read_fail_header()
+		throws IOException
+		{
+		new GameArchiveReader( new ByteArrayInputStream( SAMPLE_PGN.getBytes( "UTF-8" ) ) );
+		}
+
+	@Test
+	public void t_read_fail_corrupt()
+		throws IOException
+		{
+		final byte[] archive = toArchive( SAMPLE_PGN );
+		//
+		//	Truncated in the middle of the moves.
+		//
+		try (GameArchiveReader reader = new GameArchiveReader(
+			new ByteArrayInputStream( Arrays.copyOf( archive, archive.length - 10 ) ) ))
+			{
+			reader.next();
+			fail( "Truncated archive was read." );
+			}
+		catch (EOFException ex)
+			{ /* expected */ }
+		//
+		//	An escaped index past the end of the legal moves.
+		//
+		archive[ archive.length - 2 ] = (byte) 0xFF;
+		archive[ archive.length - 1 ] = 0x01;
+
+		try (GameArchiveReader reader = new GameArchiveReader( new ByteArrayInputStream( archive ) ))
+			{
+			reader.next();
+			fail( "Invalid move was read." );
+			}
+		catch (IOException ex)
+			{
+			assertFalse( ex instanceof EOFException );
+			}
+		}
+
+	@Test
+	public void t_read_throughput()
+		throws IOException
+		{
+		final int iGames = (DURATION == Duration.QUICK) ? 100 : 1000;
+		final String strCorpus = createCorpus( iGames );
+		final byte[] archive = toArchive( strCorpus );
+		//
+		//	Timings are only logged.  Both paths are warmed up, then the best of three
+		//	runs is kept, so a stray GC pause doesn't skew the figures.
+		//
+		long lParse = timeParse( strCorpus, iGames );
+		long lReplay = timeReplay( archive, iGames );
+
+		for ( int iPass = 0; iPass < 3; ++iPass )
+			{
+			lParse = Math.min( lParse, timeParse( strCorpus, iGames ) );
+			lReplay = Math.min( lReplay, timeReplay( archive, iGames ) );
+			}
+
+		s_log.info( String.format( "GameArchive: %,d games (%,d/%,d bytes) parsed in %s, replayed in %s (%.1fx)",
+								   iGames,
+								   strCorpus.length(),
+								   archive.length,
+								   TimeUtil.formatMillisecs( TimeUnit.NANOSECONDS.toMillis( lParse ), true ),
+								   TimeUtil.formatMillisecs( TimeUnit.NANOSECONDS.toMillis( lReplay ), true ),
+								   (double) lParse / Math.max( lReplay, 1L ) ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static String createCorpus( int iGames )
+		{
+		final StringBuilder sb = new StringBuilder();
+
+		for ( int idx = 0; idx < iGames; ++idx )
+			sb.append( SAMPLE_PGN ).append( "\n\n" );
+
+		return sb.toString();
+		}
+
+	private static long timeParse( String strCorpus, int iGames )
+		throws IOException
+		{
+		final Stopwatch swatch = Stopwatch.startNew();
+
+		assertEquals( iGames, PgnParser.parseGames( new PgnValidator(), new StringReader( strCorpus ) ).getGameCount() );
+		return swatch.getElapsed();
+		}
+
+	private static long timeReplay( byte[] archive, int iGames )
+		throws IOException
+		{
+		final Stopwatch swatch = Stopwatch.startNew();
+
+		try (GameArchiveReader reader = new GameArchiveReader( new ByteArrayInputStream( archive ) ))
+			{
+			while ( reader.next() )
+				assertEquals( SAMPLE_MOVES.length, reader.getMoves().size() );
+
+			assertEquals( iGames, reader.getGameCount() );
+			}
+
+		return swatch.getElapsed();
+		}
+
+	private static byte[] toArchive( String strPGN )
+		throws IOException
+		{
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		GameArchiveWriter.fromPgn( new StringReader( strPGN ), output );
+		return output.toByteArray();
+		}
+	} /* end of class TestGameArchive */
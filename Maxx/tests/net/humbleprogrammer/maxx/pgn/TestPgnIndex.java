@@ -0,0 +1,225 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import net.humbleprogrammer.TestBase;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+public class TestPgnIndex extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Game with UTF-8 text, CR/LF line ends, and an Event tag inside a comment. */
+	private static final String PGN_UMLAUT   = "[Event \"Umlaut\"]\r\n" +
+											   "[White \"M\u00fcller, J\u00fcrgen\"]\r\n" +
+											   "\r\n" +
+											   "1. e4 {Spa\u00df [Event \"x\"]} e5 *\r\n";
+	/** Game with an indented Event tag. */
+	private static final String PGN_INDENTED = "  [Event \"Indented\"]\n\n1. d4 d5 *\n";
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	private Path _pathTemp;
+	private Path _pathPGN;
+
+	@Before
+	public void createTempFiles() throws IOException
+		{
+		_pathTemp = Files.createTempDirectory( "maxx" );
+		_pathPGN = _pathTemp.resolve( "test.pgn" );
+
+		write( "\uFEFF" + SAMPLE_PGN + "\n" + PGN_UMLAUT + PGN_INDENTED );
+		}
+
+	@After
+	public void deleteTempFiles() throws IOException
+		{
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream( _pathTemp ))
+			{
+			for ( Path path : stream )
+				Files.delete( path );
+			}
+
+		Files.delete( _pathTemp );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_build() throws IOException
+		{
+		PgnIndex index = PgnIndex.build( _pathPGN );
+
+		assertEquals( 3, index.size() );
+		assertEquals( 3L, index.getOffset( 0 ) );
+		assertEquals( Files.size( _pathPGN ),
+					  index.getOffset( 2 ) + index.getLength( 2 ) );
+
+		for ( int iGame = 0; iGame < index.size(); ++iGame )
+			{
+			String strGame = index.getGame( iGame ).toString();
+
+			assertTrue( strGame.trim().startsWith( "[Event " ) );
+			assertEquals( index.getLength( iGame ), strGame.length() );
+
+			if (iGame > 0)
+				assertEquals( index.getOffset( iGame - 1 ) + index.getLength( iGame - 1 ), index.getOffset( iGame ) );
+			}
+		}
+
+	@Test
+	public void t_getGame() throws IOException
+		{
+		PgnIndex index = PgnIndex.build( _pathPGN );
+		final Map<String, String> tags = new HashMap<>();
+		final List<String> comments = new ArrayList<>();
+
+		PgnValidator listener = new PgnValidator()
+			{
+			@Override
+			public void onComment( final CharSequence strComment )
+				{
+				comments.add( strComment.toString() );
+				}
+
+			@Override
+			public boolean onTag( final CharSequence strName, final CharSequence strValue )
+				{
+				tags.put( strName.toString(), strValue.toString() );
+				return super.onTag( strName, strValue );
+				}
+			};
+
+		assertEquals( 1, PgnParser.parseAll( listener, index.getGame( 1 ) ) );
+		assertEquals( "M\u00fcller, J\u00fcrgen", tags.get( "White" ) );
+		assertEquals( Collections.singletonList( "Spa\u00df [Event \"x\"]" ), comments );
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_getGame_fail() throws IOException
+		{
+		PgnIndex index = PgnIndex.build( _pathPGN );
+
+		index.getGame( index.size() );
+		}
+
+	@Test
+	public void t_parse() throws IOException
+		{
+		final int[] counts = new int[ 2 ];
+
+		PgnValidator listener = new PgnValidator()
+			{
+			@Override
+			public void onGameOver()
+				{
+				counts[ 0 ]++;
+				}
+
+			@Override
+			public void onGameError( final String strError )
+				{
+				counts[ 1 ]++;
+				}
+			};
+
+		assertEquals( 3, PgnIndex.build( _pathPGN ).parse( listener ) );
+		assertEquals( 3, counts[ 0 ] );
+		assertEquals( 0, counts[ 1 ] );
+		}
+
+	@Test
+	public void t_open() throws IOException
+		{
+		PgnIndex index = PgnIndex.open( _pathPGN );
+
+		assertTrue( Files.isRegularFile( PgnIndex.getIndexPath( _pathPGN ) ) );
+
+		PgnIndex loaded = PgnIndex.load( _pathPGN );
+
+		assertNotNull( loaded );
+		assertEquals( index.size(), loaded.size() );
+
+		for ( int iGame = 0; iGame < index.size(); ++iGame )
+			{
+			assertEquals( index.getOffset( iGame ), loaded.getOffset( iGame ) );
+			assertEquals( index.getLength( iGame ), loaded.getLength( iGame ) );
+			}
+		//
+		//	Changing the PGN file makes the saved index stale.
+		//
+		write( SAMPLE_PGN + PGN_INDENTED );
+		Files.setLastModifiedTime( _pathPGN, FileTime.fromMillis( 0L ) );
+
+		assertNull( PgnIndex.load( _pathPGN ) );
+		assertEquals( 2, PgnIndex.open( _pathPGN ).size() );
+		assertEquals( 2, PgnIndex.load( _pathPGN ).size() );
+		}
+
+	@Test
+	public void t_open_empty() throws IOException
+		{
+		write( "" );
+
+		PgnIndex index = PgnIndex.open( _pathPGN );
+
+		assertEquals( 0, index.size() );
+		assertEquals( 0, index.parse( new PgnValidator() ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private void write( String strPGN ) throws IOException
+		{
+		Files.write( _pathPGN, strPGN.getBytes( StandardCharsets.UTF_8 ) );
+		}
+
+	} /* end of class TestPgnIndex */
@@ -34,11 +34,16 @@ package net.humbleprogrammer.maxx.pgn;
 
 import net.humbleprogrammer.TestBase;
 import net.humbleprogrammer.humble.*;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.*;
+import net.humbleprogrammer.maxx.interfaces.IPgnListener;
+import net.humbleprogrammer.maxx.interfaces.IPgnTagFilter;
 import org.junit.*;
 
-import java.io.FileReader;
-import java.io.IOException;
+import java.io.*;
+import java.nio.CharBuffer;
 import java.nio.file.Path;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
@@ -132,10 +137,298 @@ public class TestPgnParser extends TestBase
         assertFalse( PgnParser.isValidTagValue( StrUtil.create( ' ', 256 ) ) );
         }
 
+    @Test
+    public void t_parseAll()
+        throws IOException
+        {
+        final String strCorpus = createCorpus( 25 );
+        GameCounter counter = new GameCounter();
+
+        assertEquals( 25, PgnParser.parseAll( counter, strCorpus ) );
+        assertEquals( 25, PgnParser.parseAll( counter, CharBuffer.wrap( strCorpus ) ) );
+        assertEquals( 25, PgnParser.parseAll( counter, new StringReader( strCorpus ) ) );
+
+        assertEquals( 75, counter.iGames );
+        assertEquals( 75 * SAMPLE_MOVES.length, counter.iMoves );
+        assertEquals( 0, counter.iErrors );
+        }
+
+    @Test
+    public void t_parseAll_resync()
+        {
+        final String strCorpus =
+            "Text before the first game is ignored.\n" +
+            SAMPLE_PGN +
+            "\n[Event \"Illegal\"]\n\n1. e5 e4 *\n" +
+            "\n[Event \"Truncated\"]\n\n1. e4 e5 2. Nf3\n" +
+            SAMPLE_PGN +
+            "\n[Event \"Garbage\"]\n\n1. e4 @@@ {\n[Event \"In a comment\"]\n}\n" +
+            SAMPLE_PGN;
+        GameCounter counter = new GameCounter();
+
+        assertEquals( 4, PgnParser.parseAll( counter, strCorpus ) );
+        assertEquals( 4, counter.iGames );
+        assertEquals( 3, counter.iErrors );
+        assertEquals( (3 * SAMPLE_MOVES.length) + 3 + 1, counter.iMoves );
+        }
+
+    @Test
+    public void t_parseAll_empty()
+        {
+        GameCounter counter = new GameCounter();
+
+        assertEquals( 0, PgnParser.parseAll( counter, "" ) );
+        assertEquals( 0, PgnParser.parseAll( counter, "1. e4 e5 *" ) );
+        assertEquals( 0, counter.iErrors );
+        }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void t_parseAll_fail_null()
+        {
+        PgnParser.parseAll( (IPgnListener) null, "" );
+        }
+
+    @Test
+    public void t_parseGames_tokens()
+        throws IOException
+        {
+        final String strCorpus =
+            SAMPLE_PGN +
+            "\n[Event \"Tokens\"]\n[White \"Caf\u00e9 \\\"Noir\\\"\"]\n\n" +
+            "1. e4! $1 {A   spaced\n comment} e5?! (1... c5 2. Nf3 -- $2) 2. Qh5 Nc6\n" +
+            "3. Bc4 Nf6?? 4. Qxf7# 1-0\n" +
+            "\n[Event \"Garbage\"]\n\n1. e4 @@@ *\n";
+        StringTranscript expected = new StringTranscript();
+        TokenTranscript actual = new TokenTranscript();
+
+        ParseResult result = PgnParser.parseGames( expected, strCorpus );
+
+        assertEquals( 2, result.getGameCount() );
+        assertEquals( 1, result.getErrorCount() );
+        assertEquals( result.toString(), PgnParser.parseGames( actual, strCorpus ).toString() );
+        assertEquals( expected.list, actual.list );
+
+        actual.list.clear();
+        PgnParser.parseGames( actual, new StringReader( strCorpus ) );
+        assertEquals( expected.list, actual.list );
+
+        actual.list.clear();
+        assertTrue( PgnParser.parseGame( actual, SAMPLE_PGN ).isSuccess() );
+        assertEquals( expected.list.subList( 0, actual.list.size() ), actual.list );
+        }
+
+    @Test
+    public void t_parseGames_tokens_reused()
+        {
+        final String strCorpus = createCorpus( 3 );
+        MovePlayer player = new MovePlayer();
+
+        assertEquals( 3, PgnParser.parseGames( player, strCorpus ).getGameCount() );
+        assertEquals( 3 * SAMPLE_MOVES.length, player.iMoves );
+        //
+        //  Every move is passed in the same view, and no strings are created for them.
+        //
+        assertEquals( 1, player.setSAN.size() );
+        assertEquals( 1, player.setTags.size() );
+        assertFalse( player.setSAN.iterator().next() instanceof String );
+        }
+
+    @Test
+    public void t_parseGames_headersOnly()
+        throws IOException
+        {
+        final String strCorpus =
+            createCorpus( 250 ) +
+            "\n[Event \"Garbage\"]\n\n1. e4 @@@ {\n[Event \"In a comment\"]\n}\n" +
+            "\n[Event \"No movetext\"]\n[Result \"*\"]\n" +
+            "\n[Event \"Bad tag\"]\n[9 \"x\"]\n\n1. e4 *\n" +
+            SAMPLE_PGN;
+        TagCounter counter = new TagCounter( null );
+
+        ParseResult result = PgnParser.parseGames( counter, strCorpus, PgnParser.HEADERS_ONLY );
+        //
+        //  Skipped movetext isn't tokenized, so the Event tag in the unclosed comment
+        //  starts a game of its own, and only the game with a bad tag name fails.
+        //
+
+        assertEquals( 0, result.getGameCount() );
+        assertEquals( 254, result.getSkippedCount() );
+        assertEquals( 1, result.getErrorCount() );
+        assertEquals( 0, counter.iMoves );
+        assertEquals( 254, counter.iGames );
+        assertEquals( (251 * 9) + 1 + 1 + 2 + 1, counter.iTags );
+
+        counter = new TagCounter( null );
+        result = PgnParser.parseGames( counter, new StringReader( strCorpus ), PgnParser.HEADERS_ONLY );
+
+        assertEquals( 254, result.getSkippedCount() );
+        assertEquals( (251 * 9) + 1 + 1 + 2 + 1, counter.iTags );
+        }
+
+    @Test
+    public void t_parseGames_filter()
+        throws IOException
+        {
+        final StringBuilder sb = new StringBuilder();
+
+        for ( int idx = 0; idx < 100; ++idx )
+            sb.append( (idx % 4 == 0) ? SAMPLE_PGN : SAMPLE_PGN.replace( "A45", "B99" ) ).append( '\n' );
+
+        TagCounter counter = new TagCounter( "A45" );
+        ParseResult result = PgnParser.parseGames( counter, new StringReader( sb.toString() ), counter );
+
+        assertTrue( result.isSuccess() );
+        assertEquals( 25, result.getGameCount() );
+        assertEquals( 75, result.getSkippedCount() );
+        assertEquals( 25 * SAMPLE_MOVES.length, counter.iMoves );
+        assertEquals( 100 * 9, counter.iTags );
+        }
+
+    @Test
+    public void t_parseMainLines()
+        {
+        final String strPGN =
+            "[Event \"Annotated\"]\n\n" +
+            "1. e4 {Best (by test)} e5 $1 (1... c5 {Sicilian :)} 2. Nf3 (2. c3 d5)\n" +
+            "2... d6) 2. Nf3 {Knight} Nc6 (2... d6 {Philidor} (2... Nf6)) 3. Bb5 1-0\n";
+        TokenTranscript transcript = new TokenTranscript();
+
+        ParseResult result = PgnParser.parseMainLines( transcript, strPGN, null );
+
+        assertTrue( result.isSuccess() );
+        assertEquals( Arrays.asList( "Event=Annotated", "e4|", "e5|", "Nf3|", "Nc6|", "Bb5|" ),
+                      transcript.list );
+        }
+
+    @Test
+    public void t_parseMainLines_resync()
+        throws IOException
+        {
+        final String strCorpus =
+            SAMPLE_PGN +
+            "\n[Event \"Illegal\"]\n\n1. e5 e4 *\n" +
+            "\n[Event \"Illegal variation\"]\n\n1. e4 (1. e5) e5 *\n" +
+            "\n[Event \"Open comment\"]\n\n1. e4 (1. d4 {open\n" +
+            "\n[Event \"Open variation\"]\n\n1. e4 (1. d4 d5\n" +
+            SAMPLE_PGN +
+            "\n[Event \"Garbage\"]\n\n1. e4 @@@ {\n[Event \"In a comment\"]\n}\n" +
+            SAMPLE_PGN;
+        GameCounter full = new GameCounter();
+        GameCounter main = new GameCounter();
+
+        ParseResult result = PgnParser.parseGames( full, new StringReader( strCorpus ) );
+
+        assertEquals( 4, result.getGameCount() );
+        assertEquals( 5, result.getErrorCount() );
+        assertEquals( (3 * SAMPLE_MOVES.length) + 7, full.iMoves );
+        //
+        //  Skipping a side line means it isn't validated, but game boundaries and
+        //  unclosed comments are handled the same way.
+        //
+        result = PgnParser.parseMainLines( main, new StringReader( strCorpus ), null );
+
+        assertEquals( 5, result.getGameCount() );
+        assertEquals( 4, result.getErrorCount() );
+        assertEquals( (3 * SAMPLE_MOVES.length) + 5, main.iMoves );
+        }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void t_parseGames_tokens_fail_null()
+        {
+        PgnParser.parseGames( (PgnTokenAdapter) null, "" );
+        }
+
+    @Test
+    public void t_parseAll_throughput()
+        throws IOException
+        {
+        final String strCorpus = createCorpus( 500 );
+        //
+        //  Two-pass: split into game strings, then parse each string.
+        //
+        GameCounter counter = new GameCounter();
+        Stopwatch swatch = Stopwatch.startNew();
+        int iGames = 0;
+
+        try (PgnReader pgn = new PgnReader( new StringReader( strCorpus ) ))
+            {
+            String strPGN;
+
+            while ( (strPGN = pgn.readGame()) != null )
+                if (PgnParser.parse( counter, strPGN ))
+                    iGames++;
+            }
+
+        final long lTwoPass = swatch.getElapsed();
+        //
+        //  Streaming: tokenize straight from the reader.
+        //
+        swatch = Stopwatch.startNew();
+        assertEquals( iGames, PgnParser.parseAll( counter, new StringReader( strCorpus ) ) );
+
+        final long lStream = swatch.getElapsed();
+
+        assertEquals( 1000, counter.iGames );
+        s_log.info( String.format( "PgnParser: %,d games two-pass in %s, streaming in %s",
+                                   iGames,
+                                   TimeUtil.formatMillisecs( TimeUnit.NANOSECONDS.toMillis( lTwoPass ), true ),
+                                   TimeUtil.formatMillisecs( TimeUnit.NANOSECONDS.toMillis( lStream ), true ) ) );
+        //
+        //  Repeat on the real corpus, if present.
+        //
+        for ( Path path : getPGN() )
+            {
+            int iTwoPass = 0;
+
+            swatch = Stopwatch.startNew();
+
+            try (PgnReader pgn = new PgnReader( new FileReader( path.toFile() ) ))
+                {
+                String strPGN;
+
+                while ( (strPGN = pgn.readGame()) != null )
+                    if (PgnParser.isValid( strPGN ))
+                        iTwoPass++;
+                }
+
+            final long lFileTwoPass = swatch.getElapsed();
+
+            swatch = Stopwatch.startNew();
+
+            try (Reader reader = new BufferedReader( new FileReader( path.toFile() ) ))
+                {
+                iGames = PgnParser.parseAll( new PgnValidator(), reader );
+                }
+
+            s_log.info( String.format( "%s: %,d/%,d games two-pass/streaming in %s/%s",
+                                       path.getFileName(), iTwoPass, iGames,
+                                       TimeUtil.formatMillisecs( TimeUnit.NANOSECONDS.toMillis( lFileTwoPass ), true ),
+                                       TimeUtil.formatMillisecs( TimeUnit.NANOSECONDS.toMillis( swatch.getElapsed() ), true ) ) );
+            }
+        }
+
     //  -----------------------------------------------------------------------
     //	METHODS
     //	-----------------------------------------------------------------------
 
+    /**
+     * Creates a multi-game PGN string.
+     *
+     * @param iGames
+     *     Number of games.
+     *
+     * @return PGN string.
+     */
+    private static String createCorpus( int iGames )
+        {
+        StringBuilder sb = new StringBuilder();
+
+        for ( int idx = 0; idx < iGames; ++idx )
+            sb.append( SAMPLE_PGN ).append( '\n' );
+
+        return sb.toString();
+        }
+
     @AfterClass
     public static void displayResults()
         {
@@ -158,4 +451,213 @@ public class TestPgnParser extends TestBase
         s_lNetNanosecs = 0L;
         }
 
+    //  -----------------------------------------------------------------------
+    //	NESTED CLASS: MovePlayer
+    //	-----------------------------------------------------------------------
+
+    private static class MovePlayer extends PgnTokenAdapter
+        {
+        private final Set<CharSequence> setSAN  =
+            Collections.newSetFromMap( new IdentityHashMap<CharSequence, Boolean>() );
+        private final Set<CharSequence> setTags =
+            Collections.newSetFromMap( new IdentityHashMap<CharSequence, Boolean>() );
+
+        private Board bd;
+        private int   iMoves;
+
+        @Override
+        public boolean onMove( final CharSequence san, final CharSequence suffix )
+            {
+            final Move move = MoveFactory.fromSAN( bd, san );
+
+            if (move == null) return false;
+
+            setSAN.add( san );
+            bd.makeMove( move );
+            iMoves++;
+            return true;
+            }
+
+        @Override
+        public boolean onTag( final CharSequence name, final CharSequence value )
+            {
+            setTags.add( name );
+            return true;
+            }
+
+        @Override
+        public void onGameStart()
+            {
+            bd = BoardFactory.createInitial();
+            }
+        }
+
+    //  -----------------------------------------------------------------------
+    //	NESTED CLASS: StringTranscript
+    //	-----------------------------------------------------------------------
+
+    private static class StringTranscript extends PgnAdapter
+        {
+        private final List<String> list = new ArrayList<>();
+
+        @Override
+        public void onAnnotation( final String strAnnotation )
+            { list.add( "NAG " + strAnnotation ); }
+
+        @Override
+        public void onComment( final String strComment )
+            { list.add( "{" + strComment + "}" ); }
+
+        @Override
+        public boolean onMove( final String strSAN, final String strSuffix )
+            { return list.add( strSAN + "|" + strSuffix ); }
+
+        @Override
+        public boolean onNullMove()
+            { return list.add( "--" ); }
+
+        @Override
+        public boolean onTag( final String strName, final String strValue )
+            { return list.add( strName + "=" + strValue ); }
+
+        @Override
+        public void onVariationEnter()
+            { list.add( "(" ); }
+
+        @Override
+        public void onVariationExit()
+            { list.add( ")" ); }
+
+        @Override
+        public void onGameError( final String strError )
+            { list.add( "ERROR " + strError ); }
+        }
+
+    //  -----------------------------------------------------------------------
+    //	NESTED CLASS: TagCounter
+    //	-----------------------------------------------------------------------
+
+    private static class TagCounter extends PgnTokenAdapter implements IPgnTagFilter
+        {
+        private final String strECO;
+
+        private boolean bMatch;
+        private int     iGames;
+        private int     iMoves;
+        private int     iTags;
+
+        TagCounter( String strECO )
+            {
+            this.strECO = strECO;
+            }
+
+        @Override
+        public boolean acceptGame()
+            {
+            return bMatch;
+            }
+
+        @Override
+        public boolean onMove( final CharSequence san, final CharSequence suffix )
+            {
+            iMoves++;
+            return true;
+            }
+
+        @Override
+        public boolean onTag( final CharSequence name, final CharSequence value )
+            {
+            if ("ECO".contentEquals( name ) && strECO != null)
+                bMatch = strECO.contentEquals( value );
+
+            iTags++;
+            return true;
+            }
+
+        @Override
+        public void onGameStart()
+            {
+            bMatch = false;
+            }
+
+        @Override
+        public void onGameOver()
+            {
+            iGames++;
+            }
+        }
+
+    //  -----------------------------------------------------------------------
+    //	NESTED CLASS: TokenTranscript
+    //	-----------------------------------------------------------------------
+
+    private static class TokenTranscript extends PgnTokenAdapter
+        {
+        private final List<String> list = new ArrayList<>();
+
+        @Override
+        public void onAnnotation( final CharSequence annotation )
+            { list.add( "NAG " + annotation ); }
+
+        @Override
+        public void onComment( final CharSequence comment )
+            { list.add( "{" + comment + "}" ); }
+
+        @Override
+        public boolean onMove( final CharSequence san, final CharSequence suffix )
+            { return list.add( san + "|" + suffix ); }
+
+        @Override
+        public boolean onNullMove()
+            { return list.add( "--" ); }
+
+        @Override
+        public boolean onTag( final CharSequence name, final CharSequence value )
+            { return list.add( name + "=" + value ); }
+
+        @Override
+        public void onVariationEnter()
+            { list.add( "(" ); }
+
+        @Override
+        public void onVariationExit()
+            { list.add( ")" ); }
+
+        @Override
+        public void onGameError( final String strError )
+            { list.add( "ERROR " + strError ); }
+        }
+
+    //  -----------------------------------------------------------------------
+    //	NESTED CLASS: GameCounter
+    //	-----------------------------------------------------------------------
+
+    private static class GameCounter extends PgnValidator
+        {
+        private int iErrors;
+        private int iGames;
+        private int iMoves;
+
+        @Override
+        public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
+            {
+            if (!super.onMove( strSAN, strSuffix )) return false;
+
+            iMoves++;
+            return true;
+            }
+
+        @Override
+        public void onGameOver()
+            {
+            iGames++;
+            }
+
+        @Override
+        public void onGameError( final String strError )
+            {
+            iErrors++;
+            }
+        }
+
     }   /* end of class TestPgnParser */
@@ -0,0 +1,324 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import net.humbleprogrammer.TestBase;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class TestPgnShard extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Game with UTF-8 text, CR/LF line ends, and an Event tag inside a comment. */
+	private static final String PGN_UMLAUT   = "[Event \"Umlaut\"]\r\n" +
+											   "[White \"M\u00fcller, J\u00fcrgen\"]\r\n" +
+											   "\r\n" +
+											   "1. e4 {Spa\u00df [Event \"x\"]} e5 *\r\n";
+	/** Game with an indented Event tag, followed by text that isn't a game. */
+	private static final String PGN_INDENTED = " \t[Event \"Indented\"]\n\n1. d4 d5 *\n" +
+											   "junk [Event \"Not a game\"]\n\n";
+	/** Game with a comment that contains an Event tag at the start of a line. */
+	private static final String PGN_SPLIT    = "[Event \"Split\"]\n\n1. c4 {open\n" +
+											   "[Event \"Inside\"]\n\n1. Nf3 Nf6 *\n";
+	/** Game with an illegal move. */
+	private static final String PGN_ILLEGAL  = "[Event \"Illegal\"]\n\n1. e4 e5 2. Ke3 *\n\n";
+	/** Short game with no trailing line end. */
+	private static final String PGN_LAST     = "[Event \"Last\"]\n1. f3 e5 2. g4 Qh4# 0-1";
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	private Path _pathTemp;
+	private Path _pathPGN;
+
+	@Before
+	public void createTempFiles() throws IOException
+		{
+		_pathTemp = Files.createTempDirectory( "maxx" );
+		_pathPGN = _pathTemp.resolve( "test.pgn" );
+
+		write( "\uFEFF" + PGN_LAST + "\n\n" +
+			   PGN_UMLAUT + PGN_INDENTED + PGN_SPLIT + PGN_ILLEGAL +
+			   SAMPLE_PGN + "\n" + PGN_LAST );
+		}
+
+	@After
+	public void deleteTempFiles() throws IOException
+		{
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream( _pathTemp ))
+			{
+			for ( Path path : stream )
+				Files.delete( path );
+			}
+
+		Files.delete( _pathTemp );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_split() throws IOException
+		{
+		final long lFileSize = Files.size( _pathPGN );
+
+		for ( int iShards = 1; iShards <= 16; ++iShards )
+			{
+			List<PgnShard> shards = PgnShard.split( _pathPGN, iShards );
+			long lStart = 0L;
+
+			assertEquals( iShards, shards.size() );
+
+			for ( PgnShard shard : shards )
+				{
+				assertEquals( lStart, shard.getStart() );
+				assertTrue( shard.getEnd() >= shard.getStart() );
+				lStart = shard.getEnd();
+				}
+
+			assertEquals( lFileSize, lStart );
+			}
+		}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_split_fail() throws IOException
+		{
+		PgnShard.split( _pathPGN, 0 );
+		}
+
+	@Test
+	public void t_nextGame() throws IOException
+		{
+		List<String> games = new ArrayList<>();
+		List<Long> offsets = new ArrayList<>();
+
+		readAll( PgnShard.split( _pathPGN, 1 ), games, offsets );
+
+		assertEquals( 8, games.size() );
+		assertEquals( Long.valueOf( 3L ), offsets.get( 0 ) );
+		assertEquals( getIndexedGames(), games );
+		}
+
+	@Test
+	public void t_nextGame_everyBoundary() throws IOException
+		{
+		final List<String> expected = getIndexedGames();
+		final long lFileSize = Files.size( _pathPGN );
+		//
+		//	Try every possible split point, including the middle of an Event tag, the
+		//	middle of a CR/LF pair, and the byte order mark.
+		//
+		for ( long lSplit = 0L; lSplit <= lFileSize; ++lSplit )
+			{
+			List<String> games = new ArrayList<>();
+
+			readAll( Arrays.asList( new PgnShard( _pathPGN, 0L, lSplit ),
+									new PgnShard( _pathPGN, lSplit, lSplit ),
+									new PgnShard( _pathPGN, lSplit, lFileSize ) ),
+					 games,
+					 null );
+
+			assertEquals( "Split at " + lSplit, expected, games );
+			}
+		}
+
+	@Test
+	public void t_nextGame_manyShards() throws IOException
+		{
+		final List<String> expected = getIndexedGames();
+		final int iFileSize = (int) Files.size( _pathPGN );
+
+		for ( int iShards = 2; iShards <= iFileSize + 1; iShards += 7 )
+			{
+			List<String> games = new ArrayList<>();
+
+			readAll( PgnShard.split( _pathPGN, iShards ), games, null );
+
+			assertEquals( iShards + " shards", expected, games );
+			}
+		}
+
+	@Test
+	public void t_nextGame_empty() throws IOException
+		{
+		write( "" );
+		assertNull( PgnShard.split( _pathPGN, 1 ).get( 0 ).nextGame() );
+
+		write( "no games here\n[Site \"?\"]\n" );
+		for ( PgnShard shard : PgnShard.split( _pathPGN, 3 ) )
+			assertNull( shard.nextGame() );
+		}
+
+	@Test
+	public void t_parse() throws IOException
+		{
+		final GameRecorder sequential = new GameRecorder();
+		final GameRecorder sharded = new GameRecorder();
+
+		int iExpected;
+
+		try (Reader reader = Files.newBufferedReader( _pathPGN, StandardCharsets.UTF_8 ))
+			{
+			iExpected = PgnParser.parseAll( sequential, reader );
+			}
+
+		assertEquals( 8, sequential.games.size() );
+
+		for ( int iShards = 1; iShards <= 32; ++iShards )
+			{
+			int iParsed = 0;
+
+			sharded.games.clear();
+			for ( PgnShard shard : PgnShard.split( _pathPGN, iShards ) )
+				iParsed += shard.parse( sharded );
+
+			assertEquals( iShards + " shards", sequential.games, sharded.games );
+			assertEquals( iShards + " shards", iExpected, iParsed );
+			assertEquals( iShards + " shards", sequential.games, sharded.games );
+			}
+		}
+
+	@Test
+	public void t_parse_commentEventTag() throws IOException
+		{
+		write( PGN_SPLIT );
+
+		GameRecorder recorder = new GameRecorder();
+
+		assertEquals( 1, PgnParser.parseAll( recorder, PGN_SPLIT ) );
+		assertEquals( 2, recorder.games.size() );
+		assertTrue( recorder.games.get( 0 ).endsWith( "!" ) );
+		assertTrue( recorder.games.get( 1 ).contains( "Event=Inside" ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private List<String> getIndexedGames() throws IOException
+		{
+		PgnIndex index = PgnIndex.build( _pathPGN );
+		List<String> games = new ArrayList<>();
+
+		for ( int iGame = 0; iGame < index.size(); ++iGame )
+			games.add( index.getGame( iGame ).toString() );
+
+		return games;
+		}
+
+	private static void readAll( List<PgnShard> shards, List<String> games, List<Long> offsets )
+		throws IOException
+		{
+		for ( PgnShard shard : shards )
+			{
+			try (PgnShard closeable = shard)
+				{
+				CharSequence game;
+
+				while ( (game = closeable.nextGame()) != null )
+					{
+					games.add( game.toString() );
+
+					if (offsets != null)
+						offsets.add( closeable.getOffset() );
+					}
+				}
+			}
+		}
+
+	private void write( String strPGN ) throws IOException
+		{
+		Files.write( _pathPGN, strPGN.getBytes( StandardCharsets.UTF_8 ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: GameRecorder
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Records a summary of every game: its tags, moves, and whether it failed.
+	 */
+	private static class GameRecorder extends PgnValidator
+		{
+		final List<String> games = new ArrayList<>();
+
+		private StringBuilder _sb;
+
+		@Override
+		public void onGameStart()
+			{
+			super.onGameStart();
+			_sb = new StringBuilder();
+			}
+
+		@Override
+		public void onGameOver()
+			{
+			games.add( _sb.toString() );
+			}
+
+		@Override
+		public void onGameError( final String strError )
+			{
+			_sb.append( '!' );
+			games.add( _sb.toString() );
+			}
+
+		@Override
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
+			{
+			_sb.append( strSAN ).append( ' ' );
+			return super.onMove( strSAN, strSuffix );
+			}
+
+		@Override
+		public boolean onTag( final CharSequence strName, final CharSequence strValue )
+			{
+			_sb.append( strName ).append( '=' ).append( strValue ).append( ';' );
+			return super.onTag( strName, strValue );
+			}
+		}
+	} /* end of class TestPgnShard */
@@ -0,0 +1,197 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.pgn;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+import net.humbleprogrammer.maxx.factories.GameFactory;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestPgnWriter extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	private static final String[] OPERA_GAME =
+		{
+			"e4", "e5", "Nf3", "d6", "d4", "Bg4", "dxe5", "Bxf3", "Qxf3", "dxe5",
+			"Bc4", "Nf6", "Qb3", "Qe7", "Nc3", "c6", "Bg5", "b5", "Nxb5", "cxb5",
+			"Bxb5+", "Nbd7", "O-O-O", "Rd8", "Rxd7", "Rxd7", "Rd1", "Qe6", "Bxd7+", "Nxd7",
+			"Qb8+", "Nxb8", "Rd8#"
+		};
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test( expected = IllegalArgumentException.class )
+	public void t_ctor_fail()
+		{
+		new PgnWriter( null );
+		}
+
+	@Test
+	public void t_write() throws IOException
+		{
+		final StringBuilder sb = new StringBuilder();
+		final PgnWriter writer = new PgnWriter( sb );
+		final Map<String, String> tags = new LinkedHashMap<>();
+
+		tags.put( "Annotator", "Test" );
+		tags.put( "White", "Morphy, Paul" );
+		tags.put( "Event", "Paris \"Opera\"" );
+		tags.put( "Result", "*" );
+
+		writer.write( tags, createLine() );
+
+		String strPGN = sb.toString();
+
+		assertEquals( 1, writer.getGameCount() );
+		assertTrue( strPGN.startsWith( "[Event \"Paris \\\"Opera\\\"\"]\n[Site \"?\"]\n" ) );
+		assertTrue( strPGN.contains( "[Result \"1-0\"]\n[Annotator \"Test\"]\n\n1. e4 e5 2. Nf3" ) );
+		assertTrue( strPGN.contains( "O-O-O" ) );
+		assertTrue( strPGN.endsWith( "Rd8# 1-0\n\n" ) );
+
+		for ( String strLine : strPGN.split( "\n" ) )
+			assertTrue( strLine, strLine.length() <= PgnWriter.MAX_LINE_LENGTH );
+		//
+		//	It has to read back in.
+		//
+		PgnValidator validator = new PgnValidator();
+
+		assertTrue( PgnParser.parse( validator, strPGN ) );
+		}
+
+	@Test
+	public void t_write_setUp() throws IOException
+		{
+		final StringBuilder sb = new StringBuilder();
+		final Variation line = new Variation();
+		final String strFEN = "4k3/8/8/8/8/8/4P3/4K3 b - - 0 12";
+
+		line.setStartingPosition( strFEN );
+		line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), "Kd7" ) );
+		line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), "e4" ) );
+		new PgnWriter( sb ).write( null, line );
+
+		assertTrue( sb.toString().contains( "[SetUp \"1\"]\n[FEN \"" + strFEN + "\"]\n" ) );
+		assertTrue( sb.toString().contains( "\n12... Kd7 13. e4 *\n" ) );
+		}
+
+	@Test
+	public void t_write_annotations() throws IOException
+		{
+		final StringBuilder sb = new StringBuilder();
+		final Variation line = new Variation();
+
+		line.setStartingPosition( BoardFactory.createInitial() );
+		line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), "e4" ) );
+		line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), "e5" ) );
+		line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), "Qh5" ) );
+		new PgnWriter( sb ).write( null, line, Arrays.asList( "{[%eval 0.30]}", null, "$6 {[%eval -0.40]}" ) );
+
+		assertTrue( sb.toString().contains( "\n1. e4 {[%eval 0.30]} 1... e5 2. Qh5 $6 {[%eval -0.40]} *\n" ) );
+
+		assertTrue( PgnParser.parse( new PgnValidator(), sb.toString() ) );
+		}
+
+	@Test
+	public void t_write_game() throws IOException
+		{
+		final Game gm = GameFactory.fromString( SAMPLE_PGN );
+		final StringBuilder sb = new StringBuilder();
+
+		assertNotNull( gm );
+		new PgnWriter( sb ).write( gm );
+		//
+		//	Every SAN move has to come out the same as it went in, including the
+		//	rank and file specifiers.
+		//
+		final List<String> listSAN = new ArrayList<>();
+		final String strPGN = sb.toString();
+
+		for ( String strToken : strPGN.substring( strPGN.indexOf( "\n\n" ) ).trim().split( "\\s+" ) )
+			if (Character.isLetter( strToken.charAt( 0 ) ))
+				listSAN.add( strToken );
+
+		assertEquals( Arrays.asList( SAMPLE_MOVES ), listSAN );
+		assertTrue( strPGN.startsWith( "[Event \"M.I.Chigorin Memorial Open\"]\n" ) );
+		assertTrue( strPGN.contains( "[Result \"0-1\"]\n[ECO \"A45\"]\n" ) );
+		assertTrue( strPGN.endsWith( " Qg5+ 0-1\n\n" ) );
+
+		for ( String strLine : strPGN.split( "\n" ) )
+			assertTrue( strLine, strLine.length() <= PgnWriter.MAX_LINE_LENGTH );
+		}
+
+	@Test
+	public void t_write_writer() throws IOException
+		{
+		final StringBuilder sb = new StringBuilder();
+		final StringWriter writer = new StringWriter();
+		final List<String> annotations = Arrays.asList( "{Opening  move}", null, "$1" );
+
+		new PgnWriter( sb ).write( null, createLine(), annotations );
+		new PgnWriter( writer ).write( null, createLine(), annotations );
+
+		assertEquals( sb.toString(), writer.toString() );
+		assertTrue( sb.toString().contains( "1. e4 {Opening move} 1... e5 2. Nf3 $1 2... d6" ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static Variation createLine()
+		{
+		Variation line = new Variation();
+
+		line.setStartingPosition( BoardFactory.createInitial() );
+
+		for ( String strSAN : OPERA_GAME )
+			assertTrue( strSAN, line.appendMove( MoveFactory.fromSAN( line.getCurrentPosition(), strSAN ) ) );
+
+		line.setResult( Result.WON_BY_WHITE );
+		return line;
+		}
+	} /* end of class TestPgnWriter */
@@ -0,0 +1,213 @@
+/* ****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ ** @since 1.0
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.maxx.uci;
+
+import java.io.*;
+
+import net.humbleprogrammer.TestBase;
+import net.humbleprogrammer.maxx.factories.BoardFactory;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+import static net.humbleprogrammer.maxx.Constants.*;
+
+public class TestUciEngine extends TestBase
+	{
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	private StringWriter _output;
+	private UciEngine    _engine;
+
+	@Before
+	public void createEngine()
+		{
+		_output = new StringWriter();
+		_engine = new UciEngine( new StringReader( "" ), _output );
+		}
+
+	@After
+	public void quitEngine()
+		{
+		_engine.execute( "quit" );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	UNIT TESTS
+	//	-----------------------------------------------------------------------
+
+	@Test
+	public void t_uci()
+		{
+		assertTrue( _engine.execute( "uci" ) );
+		assertTrue( _output.toString().contains( "id name Maxx" ) );
+		assertTrue( _output.toString().contains( "option name Hash type spin" ) );
+		assertTrue( _output.toString().trim().endsWith( "uciok" ) );
+
+		assertTrue( _engine.execute( "isready" ) );
+		assertTrue( _output.toString().trim().endsWith( "readyok" ) );
+		assertFalse( _engine.execute( "quit" ) );
+		}
+
+	@Test
+	public void t_run()
+		{
+		StringWriter output = new StringWriter();
+		UciEngine engine = new UciEngine( new StringReader( "uci\nbogus command\nisready\nquit\nisready\n" ), output );
+
+		try
+			{
+			engine.run();
+			}
+		catch (IOException ex)
+			{
+			fail( ex.getMessage() );
+			}
+
+		assertEquals( output.toString().indexOf( "readyok" ), output.toString().lastIndexOf( "readyok" ) );
+		}
+
+	@Test
+	public void t_position()
+		{
+		_engine.execute( "position startpos moves e2e4 e7e5 g1f3" );
+		assertEquals( "rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2",
+					  BoardFactory.exportFEN( _engine.getBoard() ) );
+
+		_engine.execute( "position fen 4k3/8/8/8/8/8/8/4K2R w K - 0 1 moves e1g1" );
+		assertEquals( "4k3/8/8/8/8/8/8/5RK1 b - - 1 1", BoardFactory.exportFEN( _engine.getBoard() ) );
+		}
+
+	@Test
+	public void t_position_fail()
+		{
+		_engine.execute( "position startpos moves e2e4 e2e4 d7d5" );
+		assertEquals( "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+					  BoardFactory.exportFEN( _engine.getBoard() ) );
+
+		_engine.execute( "position fen not/a/fen w - - 0 1" );
+		assertEquals( BLACK, _engine.getBoard().getMovingPlayer() );
+		}
+
+	@Test
+	public void t_go_depth()
+		{
+		_engine.execute( "position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1" );
+		_engine.execute( "go depth 3" );
+		_engine.waitForSearch();
+
+		assertTrue( _output.toString().contains( "score mate 1" ) );
+		assertTrue( _output.toString().contains( "bestmove a1a8" ) );
+		}
+
+	@Test
+	public void t_go_infinite()
+		{
+		_engine.execute( "go infinite" );
+		sleep( 200 );
+		assertFalse( _output.toString().contains( "bestmove" ) );
+
+		long lStart = System.currentTimeMillis();
+
+		_engine.execute( "stop" );
+		assertTrue( System.currentTimeMillis() - lStart < 250 );
+		assertTrue( _output.toString().contains( "bestmove" ) );
+		}
+
+	@Test
+	public void t_go_ponder()
+		{
+		_engine.execute( "go ponder wtime 1000 btime 1000" );
+		sleep( 200 );
+		assertFalse( _output.toString().contains( "bestmove" ) );
+
+		_engine.execute( "ponderhit" );
+		_engine.waitForSearch();
+		assertTrue( _output.toString().contains( "bestmove" ) );
+		}
+
+	@Test
+	public void t_go_nodes()
+		{
+		_engine.execute( "setoption name Threads value 2" );
+		_engine.execute( "go nodes 20000 movetime 5000" );
+		_engine.waitForSearch();
+
+		assertEquals( 2, _engine.getThreads() );
+		assertTrue( _output.toString().contains( "bestmove" ) );
+		}
+
+	@Test
+	public void t_setoption()
+		{
+		_engine.execute( "setoption name Hash value 1" );
+		assertEquals( (1 << 20) / 16, _engine.getTranspositionTable().getCapacity() );
+
+		_engine.execute( "setoption name Threads value 4" );
+		assertEquals( 4, _engine.getThreads() );
+		_engine.execute( "setoption name Threads value 1" );
+		assertEquals( 1, _engine.getThreads() );
+
+		_engine.execute( "setoption name Hash value bogus" );
+		assertEquals( (1 << 20) / 16, _engine.getTranspositionTable().getCapacity() );
+		}
+
+	@Test
+	public void t_formatScore()
+		{
+		assertEquals( "cp 35", UciEngine.formatScore( 35 ) );
+		assertEquals( "cp -120", UciEngine.formatScore( -120 ) );
+		assertEquals( "mate 1", UciEngine.formatScore( MAX_SCORE - 1 ) );
+		assertEquals( "mate 3", UciEngine.formatScore( MAX_SCORE - 5 ) );
+		assertEquals( "mate -2", UciEngine.formatScore( MIN_SCORE + 4 ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private static void sleep( long lMillisecs )
+		{
+		try
+			{
+			Thread.sleep( lMillisecs );
+			}
+		catch (InterruptedException ex)
+			{
+			Thread.currentThread().interrupt();
+			}
+		}
+	} /* end of class TestUciEngine */
@@ -0,0 +1,453 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.toolbox;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import net.humbleprogrammer.humble.*;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.pgn.*;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link Annotator} application analyses every position of every game in a set
+ * of PGN files, and writes the games back out with "[%eval]" comments and NAGs
+ * marking inaccuracies, mistakes, and blunders.
+ *
+ * The plies of a game are analysed in parallel, newest first.  All workers share a
+ * single transposition table, so by the time a worker reaches a position, the
+ * positions that follow it have usually been searched already.
+ *
+ * Arguments are <code>name=value</code> pairs:
+ * <pre>
+ *	pgn=folder           folder of *.pgn files
+ *	out=annotated.pgn    output file
+ *	depth=12             search depth per position (ignored if nodes is set)
+ *	nodes=N              node limit per position
+ *	threads=N            worker threads (default: processors)
+ *	hash=256             shared transposition table, in MB
+ * </pre>
+ */
+@SuppressWarnings( "unused" )
+public class Annotator extends ToolboxApp
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Losses of at least this many centipawns are blunders ("??"). */
+	private static final int  BLUNDER_CP      = 300;
+	/** Losses of at least this many centipawns are mistakes ("?"). */
+	private static final int  MISTAKE_CP      = 100;
+	/** Losses of at least this many centipawns are inaccuracies ("?!"). */
+	private static final int  INACCURACY_CP   = 50;
+	/** Scores are clamped to this range before losses are computed. */
+	private static final int  MAX_CP          = 2000;
+	private static final long REPORT_INTERVAL = 60L * 1000;    // 60 seconds
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Command-line options. */
+	private final Map<String, String> _options = new HashMap<>();
+	/** Array of PGN files. */
+	private final List<Path>          _listPGN;
+
+	private final int                _iDepth;
+	private final long               _lNodes;
+	private final int                _iThreads;
+	/** Transposition table shared by all workers. */
+	private final TranspositionTable _tt;
+
+	/** Each worker thread has its own search, all sharing {@link #_tt}. */
+	private final ThreadLocal<Search> _search = new ThreadLocal<Search>()
+	{
+	@Override
+	protected Search initialValue()
+		{ return new Search( _tt ); }
+	};
+
+	/** Number of positions analysed. */
+	private long _lPositions;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param strArgs
+	 * 	Command-line arguments.
+	 */
+	private Annotator( String[] strArgs )
+		{
+		assert strArgs != null;
+		//	-----------------------------------------------------------------
+		for ( String strArg : strArgs )
+			{
+			int iEquals = strArg.indexOf( '=' );
+
+			if (iEquals > 0)
+				_options.put( strArg.substring( 0, iEquals ).toLowerCase(), strArg.substring( iEquals + 1 ) );
+			}
+
+		_iDepth = Integer.parseInt( getOption( "depth", "12" ) );
+		_lNodes = Long.parseLong( getOption( "nodes", "0" ) );
+		_iThreads = Integer.parseInt( getOption( "threads",
+												 Integer.toString( Runtime.getRuntime().availableProcessors() ) ) );
+		_tt = new TranspositionTable( Integer.parseInt( getOption( "hash", "256" ) ) );
+		_listPGN = getPGN( getOption( "pgn", "P:\\Chess\\PGN\\TWIC" ) );
+
+		DBC.requireGreaterThanZero( _iDepth, "Depth" );
+		DBC.requireGreaterThanZero( _iThreads, "Threads" );
+
+		printLine( "# Found %,d *.pgn %s",
+				   _listPGN.size(),
+				   StrUtil.pluralize( _listPGN.size(), "file", null ) );
+
+		if (_listPGN.isEmpty()) throw new RuntimeException( "No *.pgn files found." );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Entry point for the application.
+	 *
+	 * @param strArgs
+	 * 	Command-line parameters.
+	 */
+	public static void main( String[] strArgs )
+		{
+		try
+			{
+			new Annotator( strArgs ).run();
+			}
+		catch (Exception ex)
+			{
+			s_log.warn( "Caught fatal exception.", ex );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Analyses every position in a game.
+	 *
+	 * @param executor
+	 * 	Worker threads.
+	 * @param line
+	 * 	Game to analyse.
+	 *
+	 * @return Annotation for each ply.
+	 *
+	 * @throws InterruptedException
+	 * 	if the analysis is interrupted.
+	 * @throws ExecutionException
+	 * 	if a search fails.
+	 */
+	private List<String> annotate( ExecutorService executor, Variation line )
+		throws InterruptedException, ExecutionException
+		{
+		final int iPlies = line.size();
+		final List<Callable<Integer>> tasks = new ArrayList<>( iPlies + 1 );
+		final Board bd = line.getStartingPosition();
+		final Board[] positions = new Board[ iPlies + 1 ];
+		int iPly = 0;
+
+		positions[ 0 ] = new Board( bd );
+
+		for ( Move move : line )
+			{
+			bd.makeMove( move );
+			positions[ ++iPly ] = new Board( bd );
+			}
+		//
+		//	The pool takes tasks in order, so submitting the last position first
+		//	gets the end of the game into the transposition table early.
+		//
+		for ( iPly = iPlies; iPly >= 0; --iPly )
+			{
+			final Board bdAnalyse = positions[ iPly ];
+
+			tasks.add( new Callable<Integer>()
+				{
+				@Override
+				public Integer call()
+					{ return analyse( bdAnalyse ); }
+				} );
+			}
+
+		final List<Future<Integer>> futures = executor.invokeAll( tasks );
+		final int[] scores = new int[ iPlies + 1 ];
+		final List<String> listAnnotations = new ArrayList<>( iPlies );
+
+		for ( iPly = 0; iPly <= iPlies; ++iPly )
+			scores[ iPly ] = futures.get( iPlies - iPly ).get();
+
+		_lPositions += iPlies + 1;
+		//
+		//	scores[] are from the point of view of the side to move, so the player
+		//	making move N sees scores[N] before it and -scores[N+1] after it.
+		//
+		for ( iPly = 0; iPly < iPlies; ++iPly )
+			{
+			final Board bdAfter = positions[ iPly + 1 ];
+			final int iLoss = clamp( scores[ iPly ] ) - clamp( -scores[ iPly + 1 ] );
+			final StringBuilder sb = new StringBuilder();
+
+			if (iLoss >= BLUNDER_CP)
+				sb.append( "$4 " );
+			else if (iLoss >= MISTAKE_CP)
+				sb.append( "$2 " );
+			else if (iLoss >= INACCURACY_CP)
+				sb.append( "$6 " );
+
+			if (!Arbiter.isMated( bdAfter ) && !Arbiter.isStalemated( bdAfter ))
+				{
+				int iScore = scores[ iPly + 1 ];
+
+				sb.append( "{[%eval " )
+				  .append( formatEval( (bdAfter.getMovingPlayer() == WHITE) ? iScore : -iScore ) )
+				  .append( "]}" );
+				}
+
+			listAnnotations.add( sb.toString().trim() );
+			}
+
+		return listAnnotations;
+		}
+
+	/**
+	 * Analyses a single position.
+	 *
+	 * @param bd
+	 * 	Position to analyse.
+	 *
+	 * @return Score, from the point of view of the side to move.
+	 */
+	private Integer analyse( Board bd )
+		{
+		if (Arbiter.isMated( bd ))
+			return MIN_SCORE;
+
+		if (Arbiter.isStalemated( bd ))
+			return 0;
+
+		final TimeManager tm = new TimeManager();
+		final Search search = _search.get();
+
+		if (_lNodes > 0L)
+			tm.setNodeLimit( _lNodes );
+		else
+			tm.setDepthLimit( _iDepth );
+
+		search.think( bd, tm );
+		return search.getScore();
+		}
+
+	/**
+	 * Clamps a score so a missed mate doesn't outweigh everything else.
+	 *
+	 * @param iScore
+	 * 	Score, in centipawns.
+	 *
+	 * @return Score, in the range [-MAX_CP..MAX_CP]
+	 */
+	private static int clamp( int iScore )
+		{
+		return Math.max( -MAX_CP, Math.min( MAX_CP, iScore ) );
+		}
+
+	/**
+	 * Formats a score for an "[%eval]" command.
+	 *
+	 * @param iScore
+	 * 	Score, from White's point of view.
+	 *
+	 * @return Score in pawns (e.g., "-0.35"), or moves to mate (e.g., "#3", "#-2").
+	 */
+	static String formatEval( int iScore )
+		{
+		if (!Evaluator.isMateScore( iScore ))
+			return String.format( Locale.ROOT, "%.2f", iScore / 100.0 );
+
+		int iPlies = MAX_SCORE - Math.abs( iScore );
+
+		return (iScore > 0) ? "#" + ((iPlies + 1) / 2) : "#-" + ((iPlies + 1) / 2);
+		}
+
+	/**
+	 * Gets a command-line option.
+	 *
+	 * @param strName
+	 * 	Option name.
+	 * @param strDefault
+	 * 	Default value.
+	 *
+	 * @return Option value.
+	 */
+	private String getOption( String strName, String strDefault )
+		{
+		String strValue = _options.get( strName );
+
+		return StrUtil.isBlank( strValue ) ? strDefault : strValue;
+		}
+
+	private void run() throws IOException
+		{
+		final Stopwatch swatch = Stopwatch.startNew();
+		final ExecutorService executor = Executors.newFixedThreadPool( _iThreads );
+		final Path pathOut = Paths.get( getOption( "out", "annotated.pgn" ) );
+
+		try (Writer writer = Files.newBufferedWriter( pathOut, StandardCharsets.UTF_8 ))
+			{
+			AnnotatorListener listener = new AnnotatorListener( executor, new PgnWriter( writer ) );
+
+			for ( Path path : _listPGN )
+				{
+				try (PgnReader pgn = new PgnReader( new FileReader( path.toFile() ) ))
+					{
+					String strPGN;
+
+					printLine( "# " + path.toString() );
+
+					while ( (strPGN = pgn.readGame()) != null )
+						{
+						if (!PgnParser.parse( listener, strPGN ))
+							s_log.warn( "{}: skipped game that failed to parse.", path.getFileName() );
+
+						if (listener._exception != null) throw listener._exception;
+						}
+					}
+				}
+
+			swatch.stop();
+
+			printLine( "# Annotated %,d %s (%,d %s) in %s",
+					   listener._writer.getGameCount(),
+					   StrUtil.pluralize( (int) listener._writer.getGameCount(), "game", null ),
+					   _lPositions,
+					   ((_lPositions == 1) ? "position" : "positions"),
+					   swatch.toString() );
+			}
+		finally
+			{
+			executor.shutdownNow();
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: IPgnTokenListener
+	//	-----------------------------------------------------------------------
+
+	private class AnnotatorListener extends PgnValidator
+		{
+		private final ExecutorService     _executor;
+		private final PgnWriter           _writer;
+		/** Tags of the current game, in the order parsed. */
+		private final Map<String, String> _tags = new LinkedHashMap<>();
+		private       long                _deadline;
+		/** First error raised while annotating, or <code>null</code>. */
+		private       IOException         _exception;
+
+		AnnotatorListener( ExecutorService executor, PgnWriter writer )
+			{
+			DBC.requireNotNull( executor, "Executor" );
+			DBC.requireNotNull( writer, "Writer" );
+			//	-------------------------------------------------------------
+			_executor = executor;
+			_writer = writer;
+			}
+
+		/**
+		 * The game has been parsed; the main line is analysed and written.
+		 */
+		@Override
+		public void onGameOver()
+			{
+			super.onGameOver();
+			//	-------------------------------------------------------------
+			if (_pv == null || _pv.isEmpty() || _exception != null) return;
+
+			try
+				{
+				_writer.write( _tags, _pv, annotate( _executor, _pv ) );
+				}
+			catch (IOException ex)
+				{
+				_exception = ex;
+				return;
+				}
+			catch (InterruptedException | ExecutionException ex)
+				{
+				_exception = new IOException( "Analysis failed.", ex );
+				return;
+				}
+
+			if (System.currentTimeMillis() >= _deadline)
+				{
+				printLine( "# %,d games, %,d positions", _writer.getGameCount(), _lPositions );
+				_deadline = System.currentTimeMillis() + REPORT_INTERVAL;
+				}
+			}
+
+		@Override
+		public void onGameStart()
+			{
+			super.onGameStart();
+			//	-------------------------------------------------------------
+			_tags.clear();
+			}
+
+		@Override
+		public boolean onTag( final CharSequence strName, final CharSequence strValue )
+			{
+			if (!super.onTag( strName, strValue )) return false;
+			//	-------------------------------------------------------------
+			_tags.put( strName.toString(), strValue.toString() );
+			return true;
+			}
+		}
+	} /* end of class Annotator */
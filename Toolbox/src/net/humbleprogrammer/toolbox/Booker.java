@@ -0,0 +1,233 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.toolbox;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import net.humbleprogrammer.humble.*;
+import net.humbleprogrammer.maxx.book.BookBuilder;
+import net.humbleprogrammer.maxx.pgn.*;
+
+/**
+ * The {@link Booker} application builds a Polyglot opening book and an opening
+ * tree from a folder of PGN files.
+ *
+ * Usage: <code>Booker [pgn-folder [output-name]]</code>, which writes
+ * <code>output-name.bin</code> and <code>output-name.tree</code>.
+ */
+@SuppressWarnings( "unused" )
+public class Booker extends ToolboxApp
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Number of plies from each game to add. */
+	private static final int  MAX_PLIES       = 30;
+	/** Memory budget for the statistics table, in megabytes. */
+	private static final int  MEMORY_MB       = 256;
+	/** Moves played fewer times than this are left out of the book. */
+	private static final int  MIN_COUNT       = 3;
+	private static final long REPORT_INTERVAL = 60L * 1000;    // 60 seconds
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Array of PGN files. */
+	private final List<Path> _listPGN;
+	/** Base name of the output files. */
+	private final String     _strOutput;
+
+	/** .T. to display parser errors; .F. to ignore them */
+	private boolean _bShowErrors;
+	/** Number of games added. */
+	private long    _lGames;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param strArgs
+	 * 	Command-line arguments.
+	 */
+	private Booker( String[] strArgs )
+		{
+		assert strArgs != null;
+		//	-----------------------------------------------------------------
+		String strPath = (strArgs.length > 0) ? strArgs[ 0 ] : "P:\\Chess\\PGN\\TWIC";
+
+		_strOutput = (strArgs.length > 1) ? strArgs[ 1 ] : "book";
+		_listPGN = getPGN( strPath );
+
+		printLine( "# Found %,d *.pgn %s",
+				   _listPGN.size(),
+				   StrUtil.pluralize( _listPGN.size(), "file", null ) );
+
+		if (_listPGN.isEmpty()) throw new RuntimeException( "No *.pgn files found." );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Entry point for the application.
+	 *
+	 * @param strArgs
+	 * 	Command-line parameters.
+	 */
+	public static void main( String[] strArgs )
+		{
+		try
+			{
+			new Booker( strArgs ).run();
+			}
+		catch (Exception ex)
+			{
+			s_log.warn( "Caught fatal exception.", ex );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	private void run()
+		{
+		final Stopwatch swatch = Stopwatch.startNew();
+		final Path pathTemp = Paths.get( System.getProperty( "java.io.tmpdir" ) );
+
+		try (BookBuilder builder = new BookBuilder( MEMORY_MB, pathTemp ))
+			{
+			BookerListener listener = new BookerListener( builder );
+
+			for ( Path path : _listPGN )
+				{
+				try (PgnReader pgn = new PgnReader( new FileReader( path.toFile() ) ))
+					{
+					String strPGN;
+
+					printLine( "# " + path.toString() );
+
+					while ( (strPGN = pgn.readGame()) != null )
+						{
+						if (!PgnParser.parse( listener, strPGN ) && _bShowErrors)
+							s_log.warn( String.format( "%s:\n%s", path.toFile(), strPGN ) );
+
+						if (listener._exception != null) throw listener._exception;
+						}
+					}
+				}
+
+			printLine( "# Merging %,d moves from %,d games (%,d %s)...",
+					   builder.getMoveCount(),
+					   _lGames,
+					   builder.getRunCount(),
+					   StrUtil.pluralize( builder.getRunCount(), "run", null ) );
+
+			long lEntries = builder.finish( Paths.get( _strOutput + ".bin" ),
+											Paths.get( _strOutput + ".tree" ),
+											MIN_COUNT );
+			swatch.stop();
+
+			printLine( "# Wrote %,d %s in %s",
+					   lEntries,
+					   ((lEntries == 1) ? "entry" : "entries"),
+					   swatch.toString() );
+			}
+		catch (IOException ex)
+			{
+			s_log.error( ex.getMessage() );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: IPgnTokenListener
+	//	-----------------------------------------------------------------------
+
+	private class BookerListener extends PgnValidator
+		{
+		private final BookBuilder _builder;
+		private       long        _deadline;
+		/** First I/O error raised while spilling, or <code>null</code>. */
+		private       IOException _exception;
+
+		BookerListener( BookBuilder builder )
+			{
+			DBC.requireNotNull( builder, "Book Builder" );
+			//	-------------------------------------------------------------
+			_builder = builder;
+			}
+
+		/**
+		 * The game has been parsed.  Only the main line is added, since
+		 * variations don't have a result of their own.
+		 */
+		@Override
+		public void onGameOver()
+			{
+			super.onGameOver();
+			//	-------------------------------------------------------------
+			if (_pv == null || _pv.isEmpty() || _exception != null) return;
+
+			try
+				{
+				_builder.add( _pv, MAX_PLIES );
+				++_lGames;
+				}
+			catch (IOException ex)
+				{
+				_exception = ex;
+				return;
+				}
+			//
+			//	See if it's time to report our progress...
+			//
+			if (System.currentTimeMillis() >= _deadline)
+				{
+				s_log.info( String.format( "Games: %,12d  Moves: %,16d  Runs: %,d",
+										   _lGames,
+										   _builder.getMoveCount(),
+										   _builder.getRunCount() ) );
+				_deadline = System.currentTimeMillis() + REPORT_INTERVAL;
+				}
+			}
+		}
+	} /* end of class Booker */
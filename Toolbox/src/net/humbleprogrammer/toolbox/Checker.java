@@ -40,8 +40,6 @@ import net.humbleprogrammer.humble.*;
 import net.humbleprogrammer.maxx.*;
 import net.humbleprogrammer.maxx.factories.BoardFactory;
 import net.humbleprogrammer.maxx.factories.MoveFactory;
-import net.humbleprogrammer.maxx.interfaces.IPgnListener;
-import net.humbleprogrammer.maxx.pgn.*;
 
 import static net.humbleprogrammer.maxx.Constants.*;
 
@@ -117,45 +115,62 @@ public class Checker extends ToolboxApp
 	//	IMPLEMENTATION
 	//	-----------------------------------------------------------------------
 
-	private void run( int iMaxCount )
+	private void run( final int iMaxCount )
 		{
 		assert iMaxCount >= 0;
 		//	-----------------------------------------------------------------
 		try
 			{
-			IPgnListener listener = new ForkListener();
+			PgnPipeline<List<String>> pipeline = new PgnPipeline<>( new PgnPipeline.WorkerFactory<List<String>>()
+			{
+			@Override
+			public PgnPipeline.Worker<List<String>> createWorker( int iWorker )
+				{ return new ForkListener(); }
+			}, Runtime.getRuntime().availableProcessors(), true );
+
+			pipeline.run( _listPGN, new PgnPipeline.Sink<List<String>>()
+			{
+			/** File currently being displayed. */
+			private Path _pathCurrent;
 
-			for ( Path path : _listPGN )
+			@Override
+			public boolean accept( PgnPipeline.Game game, List<String> results )
 				{
-				String strPGN;
+				if (!game.getPath().equals( _pathCurrent ))
+					{
+					_pathCurrent = game.getPath();
+					printLine( "# " + _pathCurrent.toString() );
+					}
 
-				try (PgnReader pgn = new PgnReader( new FileReader( path.toFile() ) ))
+				if (!game.isParsed())
 					{
-					printLine( "# " + path.toString() );
-
-					for ( int iGames = 0; (strPGN = pgn.readGame()) != null; ++iGames )
-						if (PgnParser.parse( listener, strPGN ))
-							{
-							if (iMaxCount > 0 && _iFound >= iMaxCount)
-								{
-								printLine( "Stopped after %,d %s.",
-										   _iFound,
-										   StrUtil.pluralize( _iFound, "result", null ) );
-								return;
-								}
-							}
-						else
-							{
-							printLine( "Game #%,d:", (iGames + 1) );
-							printLine( strPGN );
-							printLine( PgnParser.getLastError() );
-							printLine( "" );
-							}
+					printLine( "Game #%,d:", (game.getIndex() + 1) );
+					printLine( game.getText() );
+					printLine( game.getError() );
+					printLine( "" );
+					}
+
+				if (results == null) return true;
+
+				for ( String strResult : results )
+					{
+					printLine( strResult );
+					_iFound++;
+					}
 
+				if (iMaxCount > 0 && _iFound >= iMaxCount)
+					{
+					printLine( "Stopped after %,d %s.",
+							   _iFound,
+							   StrUtil.pluralize( _iFound, "result", null ) );
+					return false;
 					}
+
+				return true;
 				}
+			} );
 			}
-		catch (IOException ex)
+		catch (IOException | InterruptedException ex)
 			{
 			s_log.error( ex.getMessage() );
 			}
@@ -166,7 +181,7 @@ public class Checker extends ToolboxApp
 	//	-----------------------------------------------------------------------
 
 	@SuppressWarnings( "unused" )
-	private class CheckFinderListener extends PgnValidator
+	private class CheckFinderListener extends PgnPipeline.ReportingWorker
 		{
 		/** Longest sequence of moves found so far. */
 		private int _iLongest = 0;
@@ -183,15 +198,15 @@ public class Checker extends ToolboxApp
 			{
 			if (bd == null || moves.size() <= _iLongest) return;
 			//	-----------------------------------------------------------------
-			_iFound++;
 			_iLongest = moves.size();
 
-			print( BoardFactory.exportEPD( bd ) );
-			print( "; bm" );
+			StringBuilder sb = new StringBuilder( BoardFactory.exportEPD( bd ) );
+
+			sb.append( "; bm" );
 			for ( Move move : moves )
-				print( ' ' + MoveFactory.toSAN( bd, move, true ) );
+				sb.append( ' ' ).append( MoveFactory.toSAN( bd, move, true ) );
 
-			printLine( "" );
+			report( sb.toString() );
 
 			moves.clear();
 			}
@@ -207,7 +222,7 @@ public class Checker extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (!super.onMove( strSAN, strSuffix )) return false;
 			//	-------------------------------------------------------------
@@ -239,7 +254,7 @@ public class Checker extends ToolboxApp
 	//	-----------------------------------------------------------------------
 
 	@SuppressWarnings( "unused" )
-	private class ForkListener extends PgnValidator
+	private class ForkListener extends PgnPipeline.ReportingWorker
 		{
 		/**
 		 * Display all the moves for a given position.
@@ -265,9 +280,7 @@ public class Checker extends ToolboxApp
 										  Square.toString( sqTo ) );
 				}
 
-			_iFound++;
-
-			printLine( "%s; bm %s; c0 \"%s\"",
+			report( "%s; bm %s; c0 \"%s\"",
 					   BoardFactory.exportEPD( bd ),
 					   MoveFactory.toSAN( bd, move, true ),
 					   message );
@@ -284,7 +297,7 @@ public class Checker extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (_pv == null)
 				return super.onMove( strSAN, strSuffix );
@@ -331,16 +344,14 @@ public class Checker extends ToolboxApp
 	//	-----------------------------------------------------------------------
 
 	@SuppressWarnings( "unused" )
-	private class PinListener extends PgnValidator
+	private class PinListener extends PgnPipeline.ReportingWorker
 		{
 		/**
 		 * Display all the moves for a given position.
 		 */
 		private void display( Board bd, int sqPinned )
 			{
-			_iFound++;
-
-			printLine( "%s; c0 \"%s on %s is pinned\"",
+			report( "%s; c0 \"%s on %s is pinned\"",
 					   BoardFactory.exportEPD( bd ),
 					   Parser.pieceToString( bd.get( sqPinned ) ),
 					   Square.toString( sqPinned ) );
@@ -357,7 +368,7 @@ public class Checker extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (!super.onMove( strSAN, strSuffix )) return false;
 			if (_pv == null) return true;
@@ -412,7 +423,7 @@ public class Checker extends ToolboxApp
 //	-----------------------------------------------------------------------
 
 	@SuppressWarnings( "unused" )
-	private class MateListener extends PgnValidator
+	private class MateListener extends PgnPipeline.ReportingWorker
 		{
 		private final List<Move> _moves = new ArrayList<>();
 
@@ -436,9 +447,7 @@ public class Checker extends ToolboxApp
 						message +=
 							String.format( " %s", MoveFactory.toSAN( _board, mv, true ) );
 
-					_iFound++;
-
-					printLine( message );
+					report( message );
 					}
 
 				_board = new Board( bd );
@@ -458,7 +467,7 @@ public class Checker extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (!super.onMove( strSAN, strSuffix )) return false;
 			if (_pv == null) return true;
@@ -484,7 +493,7 @@ public class Checker extends ToolboxApp
 //	-----------------------------------------------------------------------
 
 	@SuppressWarnings( "unused" )
-	private class TestListener extends PgnValidator
+	private class TestListener extends PgnPipeline.ReportingWorker
 		{
 		private int _iLongest = 64;
 
@@ -494,7 +503,7 @@ public class Checker extends ToolboxApp
 		 */
 		private void display( Board bd )
 			{
-			printLine( "%s; %,d",
+			report( "%s; %,d",
 					   BoardFactory.exportEPD( bd ),
 					   _iLongest );
 			}
@@ -510,7 +519,7 @@ public class Checker extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (!super.onMove( strSAN, strSuffix )) return false;
 			//	-------------------------------------------------------------
@@ -533,16 +542,14 @@ public class Checker extends ToolboxApp
 //	-----------------------------------------------------------------------
 
 	@SuppressWarnings( "unused" )
-	private class SkewerListener extends PgnValidator
+	private class SkewerListener extends PgnPipeline.ReportingWorker
 		{
 		/**
 		 * Display all the moves for a given position.
 		 */
 		private void display( Board bd )
 			{
-			_iFound++;
-
-			printLine( "%s;",
+			report( "%s;",
 					   BoardFactory.exportEPD( bd ) );
 			}
 
@@ -557,7 +564,7 @@ public class Checker extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (!super.onMove( strSAN, strSuffix )) return false;
 			if (_pv == null) return true;
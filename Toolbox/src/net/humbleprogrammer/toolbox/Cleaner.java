@@ -38,8 +38,6 @@ import java.util.*;
 
 import net.humbleprogrammer.humble.Stopwatch;
 import net.humbleprogrammer.humble.TimeUtil;
-import net.humbleprogrammer.maxx.interfaces.IPgnListener;
-import net.humbleprogrammer.maxx.pgn.*;
 
 public class Cleaner extends ToolboxApp
 	{
@@ -111,53 +109,85 @@ public class Cleaner extends ToolboxApp
 		printLine("");
 		}
 
-	private void run( int iMaxCount )
+	private void run( final int iMaxCount )
 		{
 		assert iMaxCount >= 0;
 		//	-----------------------------------------------------------------
 		try
 			{
-			int iNetGames = 0;
-			IPgnListener listener = new PgnValidator();
 			Stopwatch swatch = Stopwatch.startNew();
+			PgnPipeline<String> pipeline = new PgnPipeline<>(new PgnPipeline.WorkerFactory<String>()
+			{
+			@Override
+			public PgnPipeline.Worker<String> createWorker( int iWorker )
+				{ return new CleanerWorker(); }
+			}, Runtime.getRuntime().availableProcessors(), true);
+
+			boolean bFinished = pipeline.run(_listPGN, new PgnPipeline.Sink<String>()
+			{
+			/** File currently being displayed. */
+			private Path _pathCurrent;
 
-			for ( Path path : _listPGN )
+			@Override
+			public boolean accept( PgnPipeline.Game game, String strError )
 				{
-				try (PgnReader pgn = new PgnReader(new FileReader(path.toFile())))
+				if (!game.getPath().equals(_pathCurrent))
 					{
-					int iGames;
-					String strPGN;
-
-					printLine(path.toString());
+					_pathCurrent = game.getPath();
+					printLine(_pathCurrent.toString());
+					}
 
-					for ( iGames = 0; (strPGN = pgn.readGame()) != null; ++iGames )
-						if (!PgnParser.parse(listener, strPGN))
-							{
-							displayError(strPGN, PgnParser.getLastError(), iGames);
+				if (strError == null) return true;
 
-							if (iMaxCount > 0 && ++_iErrorsFound >= iMaxCount)
-								{
-								printLine("Stopped after %,d errors.", _iErrorsFound);
-								return;
-								}
-							}
+				displayError(game.getText(), strError, game.getIndex());
 
-					iNetGames += iGames;
+				if (iMaxCount > 0 && ++_iErrorsFound >= iMaxCount)
+					{
+					printLine("Stopped after %,d errors.", _iErrorsFound);
+					return false;
 					}
+
+				return true;
 				}
+			});
 
 			swatch.stop();
+			if (!bFinished) return;
 
+			long iNetGames = pipeline.getGameCount();
 			long lMillisecs = Math.max(1L, swatch.getElapsedMillisecs());
 			String strFiles = String.format("%,d %s", _listPGN.size(), ((_listPGN.size() == 1) ? "file" : "files"));
 			String strGames = String.format("%,d %s", iNetGames, ((iNetGames == 1) ? "game" : "games"));
 
 			print("Validated %s containing %s in %s ", strFiles, strGames, TimeUtil.formatMillisecs(lMillisecs, false));
 			printLine("(%,d gps)", ((iNetGames * 1000L) / lMillisecs));
+
+			for ( PgnPipeline.WorkerStats stats : pipeline.getStats() )
+				s_log.debug(stats.toString());
 			}
-		catch ( IOException ex )
+		catch ( IOException | InterruptedException ex )
 			{
 			s_log.error(ex.getMessage());
 			}
 		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: CleanerWorker
+	//	-----------------------------------------------------------------------
+
+	private static class CleanerWorker extends PgnPipeline.ValidatorWorker<String>
+		{
+		/**
+		 * Called after a game has been parsed.
+		 *
+		 * @param game
+		 *            Game that was parsed.
+		 * @return Error message, or <code>null</code> if the game is valid.
+		 */
+		@Override
+		public String onGame( PgnPipeline.Game game )
+			{
+			return game.getError();
+			}
+		}
 	} /* end of class Cleaner */
@@ -38,8 +38,6 @@ import java.util.*;
 
 import net.humbleprogrammer.humble.BitUtil;
 import net.humbleprogrammer.maxx.*;
-import net.humbleprogrammer.maxx.interfaces.IPgnListener;
-import net.humbleprogrammer.maxx.pgn.*;
 
 public class Hanger extends ToolboxApp
 	{
@@ -102,56 +100,65 @@ public class Hanger extends ToolboxApp
 	//	IMPLEMENTATION
 	//	-----------------------------------------------------------------------
 
-	private void displayResults( Board bd, long bbCaptures )
+	private static String formatResults( Board bd, long bbCaptures )
 		{
-		if (bd == null || bbCaptures == 0L) return;
+		assert bd != null;
+		assert bbCaptures != 0L;
 		//	-----------------------------------------------------------------
-		_iResultsFound++;
+		StringBuilder sb = new StringBuilder(bd.toString());
 
-		print(bd.toString());
-		print("; c0 \"");
+		sb.append("; c0 \"");
 
 		for ( long bb = bbCaptures; bb != 0L; bb &= (bb - 1) )
 			{
 			if (bb != bbCaptures) // true for 2nd...n square
-				print(" ");
-			print(Square.toString(BitUtil.first(bb)));
+				sb.append(' ');
+			sb.append(Square.toString(BitUtil.first(bb)));
 			}
 
-		printLine("\"");
+		return sb.append('"').toString();
 		}
 
-	private void run( int iMaxCount )
+	private void run( final int iMaxCount )
 		{
 		assert iMaxCount >= 0;
 		//	-----------------------------------------------------------------
 		try
 			{
-			IPgnListener listener = new HangerListener();
+			PgnPipeline<List<String>> pipeline = new PgnPipeline<>(new PgnPipeline.WorkerFactory<List<String>>()
+			{
+			@Override
+			public PgnPipeline.Worker<List<String>> createWorker( int iWorker )
+				{ return new HangerListener(); }
+			}, Runtime.getRuntime().availableProcessors(), true);
 
-			for ( Path path : _listPGN )
+			pipeline.run(_listPGN, new PgnPipeline.Sink<List<String>>()
+			{
+			@Override
+			public boolean accept( PgnPipeline.Game game, List<String> results )
 				{
-				try (PgnReader pgn = new PgnReader(new FileReader(path.toFile())))
+				if (!game.isParsed())
+					s_log.warn(String.format("%s:\n%s", game.getPath().toFile(), game.getText()));
+
+				if (results == null) return true;
+
+				for ( String strResult : results )
 					{
-					String strPGN;
-
-					while ( (strPGN = pgn.readGame()) != null )
-						if (PgnParser.parse(listener, strPGN))
-							{
-							if (iMaxCount > 0 && _iResultsFound >= iMaxCount)
-								{
-								printLine("Stopped after %,d results.", _iResultsFound);
-								return;
-								}
-							}
-						else
-							{
-							s_log.warn(String.format("%s:\n%s", path.toFile(), strPGN));
-							}
+					printLine(strResult);
+					_iResultsFound++;
 					}
+
+				if (iMaxCount > 0 && _iResultsFound >= iMaxCount)
+					{
+					printLine("Stopped after %,d results.", _iResultsFound);
+					return false;
+					}
+
+				return true;
 				}
+			});
 			}
-		catch ( IOException ex )
+		catch ( IOException | InterruptedException ex )
 			{
 			s_log.error(ex.getMessage());
 			}
@@ -161,7 +168,7 @@ public class Hanger extends ToolboxApp
 	//	NESTED CLASS: HangerListener
 	//	-----------------------------------------------------------------------
 
-	private class HangerListener extends PgnValidator
+	private static class HangerListener extends PgnPipeline.ReportingWorker
 		{
 		/**
 		 * A move has been parsed.
@@ -173,13 +180,16 @@ public class Hanger extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (!super.onMove(strSAN, strSuffix)) return false;
+			if (_pv == null) return true;
 			//	-----------------------------------------------------------------
 			final Board bd = _pv.getCurrentPosition();
+			final long bbCaptures = Evaluator.findEnPrisePieces(bd);
 
-			displayResults(bd, Evaluator.findEnPrisePieces(bd));
+			if (bbCaptures != 0L)
+				report(formatResults(bd, bbCaptures));
 
 			return true;
 			}
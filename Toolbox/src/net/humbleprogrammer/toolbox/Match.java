@@ -0,0 +1,663 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.toolbox;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.humbleprogrammer.humble.*;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.epd.EPD;
+import net.humbleprogrammer.maxx.factories.*;
+import net.humbleprogrammer.maxx.pgn.PgnWriter;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link Match} application plays engine-vs-engine games to check whether a
+ * change makes the engine stronger.
+ *
+ * Each opening is played twice, with colors reversed.  Every worker thread plays one
+ * game at a time with its own engines, so each game gets its own transposition
+ * table.  Games end on mate, stalemate, threefold repetition, the fifty-move rule, or
+ * insufficient material, and are adjudicated as draws after MAX_PLIES.  A sequential
+ * probability ratio test stops the match as soon as the result is clear.
+ *
+ * Arguments are <code>name=value</code> pairs:
+ * <pre>
+ *	test=maxx            engine under test: "maxx" or "uci:command line"
+ *	base=maxx            baseline engine, in the same format
+ *	epd=openings.epd     opening positions (default: initial position)
+ *	pgn=match.pgn        output file
+ *	games=1000           maximum number of games
+ *	threads=N            concurrent games (default: processors)
+ *	hash=16              transposition table per engine per game, in MB
+ *	nodes=N, movetime=N, depth=N    limits per move (default: 100 ms)
+ *	elo0=0 elo1=5 alpha=0.05 beta=0.05    SPRT parameters
+ * </pre>
+ */
+@SuppressWarnings( "unused" )
+public class Match extends ToolboxApp
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Games longer than this are adjudicated as draws. */
+	private static final int  MAX_PLIES       = 400;
+	/** Time allowed for a UCI engine to answer, beyond the move time. */
+	private static final long UCI_TIMEOUT     = 10L * 1000;    // 10 seconds
+	private static final long REPORT_INTERVAL = 60L * 1000;    // 60 seconds
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Opening positions. */
+	private final List<Board>         _listOpenings = new ArrayList<>();
+	/** Command-line options. */
+	private final Map<String, String> _options      = new HashMap<>();
+	/** Next game to play. */
+	private final AtomicInteger       _iNextGame    = new AtomicInteger();
+
+	private final int  _iGames;
+	private final int  _iThreads;
+	private final int  _iHashMB;
+	private final long _lNodes;
+	private final long _lMoveTime;
+	private final int  _iDepth;
+	private final Sprt _sprt;
+
+	/** PGN output. */
+	private PgnWriter         _pgn;
+	/** Set when the SPRT reaches a decision. */
+	private volatile boolean  _bStop;
+	/** Time of the next progress report. */
+	private long              _deadline;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param strArgs
+	 * 	Command-line arguments.
+	 */
+	private Match( String[] strArgs ) throws IOException
+		{
+		assert strArgs != null;
+		//	-----------------------------------------------------------------
+		for ( String strArg : strArgs )
+			{
+			int iEquals = strArg.indexOf( '=' );
+
+			if (iEquals > 0)
+				_options.put( strArg.substring( 0, iEquals ).toLowerCase(), strArg.substring( iEquals + 1 ) );
+			}
+
+		_iGames = Integer.parseInt( getOption( "games", "1000" ) );
+		_iThreads = Integer.parseInt( getOption( "threads",
+												 Integer.toString( Runtime.getRuntime().availableProcessors() ) ) );
+		_iHashMB = Integer.parseInt( getOption( "hash", "16" ) );
+		_lNodes = Long.parseLong( getOption( "nodes", "0" ) );
+		_lMoveTime = Long.parseLong( getOption( "movetime", (_lNodes > 0L) ? "0" : "100" ) );
+		_iDepth = Integer.parseInt( getOption( "depth", "0" ) );
+		_sprt = new Sprt( Double.parseDouble( getOption( "elo0", "0" ) ),
+						  Double.parseDouble( getOption( "elo1", "5" ) ),
+						  Double.parseDouble( getOption( "alpha", "0.05" ) ),
+						  Double.parseDouble( getOption( "beta", "0.05" ) ) );
+
+		DBC.requireGreaterThanZero( _iGames, "Games" );
+		DBC.requireGreaterThanZero( _iThreads, "Threads" );
+		DBC.requireGreaterThanZero( _iHashMB, "Hash" );
+
+		if (_options.containsKey( "epd" ))
+			loadOpenings( Paths.get( _options.get( "epd" ) ) );
+
+		if (_listOpenings.isEmpty())
+			_listOpenings.add( BoardFactory.createInitial() );
+
+		printLine( "# %,d %s, %,d %s, %d %s",
+				   _listOpenings.size(), StrUtil.pluralize( _listOpenings.size(), "opening", null ),
+				   _iGames, StrUtil.pluralize( _iGames, "game", null ),
+				   _iThreads, StrUtil.pluralize( _iThreads, "thread", null ) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Entry point for the application.
+	 *
+	 * @param strArgs
+	 * 	Command-line parameters.
+	 */
+	public static void main( String[] strArgs )
+		{
+		try
+			{
+			new Match( strArgs ).run();
+			}
+		catch (Exception ex)
+			{
+			s_log.warn( "Caught fatal exception.", ex );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Creates an engine from a specification.
+	 *
+	 * @param strSpec
+	 * 	"maxx" for the built-in engine, or "uci:command line" for an external one.
+	 *
+	 * @return Engine.
+	 *
+	 * @throws IOException
+	 * 	if an external engine can't be started.
+	 */
+	private Engine createEngine( String strSpec ) throws IOException
+		{
+		if (strSpec.regionMatches( true, 0, "uci:", 0, 4 ))
+			return new UciProcessEngine( strSpec.substring( 4 ).trim() );
+
+		DBC.require( strSpec.equalsIgnoreCase( "maxx" ), "Unknown engine '" + strSpec + "'" );
+
+		return new MaxxEngine();
+		}
+
+	/**
+	 * Gets a command-line option.
+	 *
+	 * @param strName
+	 * 	Option name.
+	 * @param strDefault
+	 * 	Default value.
+	 *
+	 * @return Option value.
+	 */
+	private String getOption( String strName, String strDefault )
+		{
+		String strValue = _options.get( strName );
+
+		return StrUtil.isBlank( strValue ) ? strDefault : strValue;
+		}
+
+	/**
+	 * Determines if neither side can possibly mate.
+	 *
+	 * @param bd
+	 * 	Position to test.
+	 *
+	 * @return .T. if only Kings and at most one minor piece remain; .F. otherwise.
+	 */
+	private static boolean isInsufficientMaterial( Board bd )
+		{
+		long bbMajors = bd.getPieceMap( MAP_W_PAWN ) | bd.getPieceMap( MAP_B_PAWN ) |
+						bd.getPieceMap( MAP_W_ROOK ) | bd.getPieceMap( MAP_B_ROOK ) |
+						bd.getPieceMap( MAP_W_QUEEN ) | bd.getPieceMap( MAP_B_QUEEN );
+		long bbMinors = bd.getPieceMap( MAP_W_KNIGHT ) | bd.getPieceMap( MAP_B_KNIGHT ) |
+						bd.getPieceMap( MAP_W_BISHOP ) | bd.getPieceMap( MAP_B_BISHOP );
+
+		return (bbMajors == 0L && BitUtil.count( bbMinors ) <= 1);
+		}
+
+	/**
+	 * Loads opening positions from an EPD file.
+	 *
+	 * @param path
+	 * 	Path to EPD file.
+	 *
+	 * @throws IOException
+	 * 	if the file can't be read.
+	 */
+	private void loadOpenings( Path path ) throws IOException
+		{
+		for ( String strLine : Files.readAllLines( path, StandardCharsets.UTF_8 ) )
+			{
+			if (StrUtil.isBlank( strLine ) || strLine.trim().startsWith( "#" )) continue;
+
+			Board bd = new EPD( strLine.trim() ).getPosition();
+
+			if (bd != null && Arbiter.isLegalPosition( bd ))
+				_listOpenings.add( bd );
+			else
+				s_log.warn( "Skipping invalid opening '{}'", strLine );
+			}
+		}
+
+	/**
+	 * Plays a single game.
+	 *
+	 * @param white
+	 * 	Engine playing white.
+	 * @param black
+	 * 	Engine playing black.
+	 * @param bdStart
+	 * 	Opening position.
+	 * @param tags
+	 * 	[out] Receives the "Termination" tag.
+	 *
+	 * @return Completed game, with its result set.
+	 */
+	private Variation playGame( Engine white, Engine black, Board bdStart, Map<String, String> tags )
+		{
+		final Variation line = new Variation();
+		final Map<Long, Integer> mapSeen = new HashMap<>();
+		String strTermination = "normal";
+		Result result;
+
+		line.setStartingPosition( bdStart );
+		white.newGame();
+		black.newGame();
+
+		for ( ; ; )
+			{
+			final Board bd = line.getCurrentPosition();
+			final int player = bd.getMovingPlayer();
+			final Integer iSeen = mapSeen.get( bd.getZobristHash() );
+
+			mapSeen.put( bd.getZobristHash(), (iSeen != null) ? iSeen + 1 : 1 );
+
+			if (Arbiter.isMated( bd ))
+				{
+				result = (player == WHITE) ? Result.WON_BY_BLACK : Result.WON_BY_WHITE;
+				break;
+				}
+
+			if (Arbiter.isStalemated( bd ) || bd.getHalfMoveClock() >= 100 ||
+				(iSeen != null && iSeen >= 2) || isInsufficientMaterial( bd ))
+				{
+				result = Result.DRAW;
+				break;
+				}
+
+			if (line.size() >= MAX_PLIES)
+				{
+				result = Result.DRAW;
+				strTermination = "adjudication";
+				break;
+				}
+
+			Move move;
+
+			try
+				{
+				move = ((player == WHITE) ? white : black).think( line );
+				}
+			catch (IOException ex)
+				{
+				s_log.warn( "Engine failed: {}", ex.getMessage() );
+				move = null;
+				}
+
+			if (move == null || !line.appendMove( move ))
+				{
+				result = (player == WHITE) ? Result.WON_BY_BLACK : Result.WON_BY_WHITE;
+				strTermination = "rules infraction";
+				break;
+				}
+			}
+
+		line.setResult( result );
+		tags.put( "Termination", strTermination );
+
+		return line;
+		}
+
+	/**
+	 * Records a finished game.
+	 *
+	 * @param iGame
+	 * 	Game index.
+	 * @param tags
+	 * 	Game tags.
+	 * @param line
+	 * 	Game.
+	 * @param bTestIsWhite
+	 * 	.T. if the engine under test played white.
+	 */
+	private synchronized void recordGame( int iGame, Map<String, String> tags, Variation line, boolean bTestIsWhite )
+		{
+		Result result = line.getResult();
+		//
+		//	The SPRT wants results from the test engine's point of view.
+		//
+		if (!bTestIsWhite && result != Result.DRAW)
+			result = (result == Result.WON_BY_WHITE) ? Result.WON_BY_BLACK : Result.WON_BY_WHITE;
+
+		_sprt.addResult( result );
+
+		try
+			{
+			if (_pgn != null) _pgn.write( tags, line );
+			}
+		catch (IOException ex)
+			{
+			s_log.warn( "Failed to write game {}: {}", iGame + 1, ex.getMessage() );
+			}
+
+		if (_sprt.getStatus() != Sprt.CONTINUE)
+			_bStop = true;
+
+		if (_bStop || System.currentTimeMillis() >= _deadline)
+			{
+			printLine( "# Games: %,6d  +%d =%d -%d  Elo: %+.1f +/- %.1f  LLR: %.2f [%.2f, %.2f]",
+					   _sprt.getWins() + _sprt.getDraws() + _sprt.getLosses(),
+					   _sprt.getWins(), _sprt.getDraws(), _sprt.getLosses(),
+					   _sprt.getElo(), _sprt.getEloMargin(),
+					   _sprt.getLLR(), _sprt.getLowerBound(), _sprt.getUpperBound() );
+			_deadline = System.currentTimeMillis() + REPORT_INTERVAL;
+			}
+		}
+
+	/**
+	 * Plays the match.
+	 */
+	private void run() throws IOException, InterruptedException
+		{
+		final Stopwatch swatch = Stopwatch.startNew();
+		final ExecutorService executor = Executors.newFixedThreadPool( _iThreads );
+		final Path pathPGN = Paths.get( getOption( "pgn", "match.pgn" ) );
+		final String strDate = new SimpleDateFormat( "yyyy.MM.dd" ).format( new Date() );
+
+		try (Writer writer = Files.newBufferedWriter( pathPGN, StandardCharsets.UTF_8 ))
+			{
+			_pgn = new PgnWriter( writer );
+
+			for ( int idx = 0; idx < _iThreads; ++idx )
+				{
+				executor.execute( new Runnable()
+					{
+					@Override
+					public void run()
+						{
+						try (Engine test = createEngine( getOption( "test", "maxx" ) );
+							 Engine base = createEngine( getOption( "base", "maxx" ) ))
+							{
+							int iGame;
+
+							while ( !_bStop && (iGame = _iNextGame.getAndIncrement()) < _iGames )
+								{
+								final boolean bTestIsWhite = (iGame & 1) == 0;
+								final Board bdStart = _listOpenings.get( (iGame / 2) % _listOpenings.size() );
+								final Engine white = bTestIsWhite ? test : base;
+								final Engine black = bTestIsWhite ? base : test;
+								final Map<String, String> tags = new LinkedHashMap<>();
+
+								tags.put( "Event", "Maxx Match" );
+								tags.put( "Site", "?" );
+								tags.put( "Date", strDate );
+								tags.put( "Round", Integer.toString( iGame + 1 ) );
+								tags.put( "White", white.getName() );
+								tags.put( "Black", black.getName() );
+
+								recordGame( iGame, tags, playGame( white, black, bdStart, tags ), bTestIsWhite );
+								}
+							}
+						catch (Exception ex)
+							{
+							s_log.warn( "Worker failed.", ex );
+							}
+						}
+					} );
+				}
+
+			executor.shutdown();
+			executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+			}
+
+		swatch.stop();
+
+		switch (_sprt.getStatus())
+			{
+			case Sprt.ACCEPT_H1:
+				printLine( "# H1 accepted: the test engine is stronger." );
+				break;
+			case Sprt.ACCEPT_H0:
+				printLine( "# H0 accepted: the test engine is not stronger." );
+				break;
+			default:
+				printLine( "# No decision after %,d games.", _pgn.getGameCount() );
+				break;
+			}
+
+		printLine( "# Played %,d games in %s", _pgn.getGameCount(), swatch.toString() );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: Engine
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * A player in the match.  Each instance is only used by one thread.
+	 */
+	private interface Engine extends AutoCloseable
+		{
+		/** Gets the engine's name, for the PGN tags. */
+		String getName();
+
+		/** Forgets everything about the previous game. */
+		void newGame();
+
+		/**
+		 * Picks a move.
+		 *
+		 * @param line
+		 * 	Game so far.
+		 *
+		 * @return Move, or <code>null</code> if the engine has none.
+		 *
+		 * @throws IOException
+		 * 	if an external engine fails.
+		 */
+		Move think( Variation line ) throws IOException;
+
+		@Override
+		void close();
+		}
+
+	/**
+	 * The built-in engine, with its own transposition table.
+	 */
+	private class MaxxEngine implements Engine
+		{
+		private final Search _search = new Search( new TranspositionTable( _iHashMB ) );
+
+		@Override
+		public String getName()
+			{ return "Maxx"; }
+
+		@Override
+		public void newGame()
+			{ _search.getTranspositionTable().clear(); }
+
+		@Override
+		public Move think( Variation line )
+			{
+			TimeManager tm = new TimeManager();
+
+			if (_lMoveTime > 0L) tm.setMoveTime( _lMoveTime );
+			if (_lNodes > 0L) tm.setNodeLimit( _lNodes );
+			if (_iDepth > 0) tm.setDepthLimit( _iDepth );
+
+			PV pv = _search.think( new Board( line.getCurrentPosition() ), tm );
+
+			return pv.isEmpty() ? null : pv.get( 0 );
+			}
+
+		@Override
+		public void close()
+			{ /* nothing to release */ }
+		}
+
+	/**
+	 * An external engine, driven over UCI.
+	 */
+	private class UciProcessEngine implements Engine
+		{
+		private final Process        _process;
+		private final BufferedReader _reader;
+		private final Writer         _writer;
+		private       String         _strName;
+
+		UciProcessEngine( String strCommand ) throws IOException
+			{
+			_process = new ProcessBuilder( strCommand.split( "\\s+" ) ).start();
+			_reader = new BufferedReader( new InputStreamReader( _process.getInputStream(), StandardCharsets.UTF_8 ) );
+			_writer = new OutputStreamWriter( _process.getOutputStream(), StandardCharsets.UTF_8 );
+			_strName = strCommand;
+
+			send( "uci" );
+
+			readUntil( "uciok" );
+
+			send( "setoption name Hash value " + _iHashMB );
+			send( "isready" );
+			readUntil( "readyok" );
+			}
+
+		@Override
+		public String getName()
+			{ return _strName; }
+
+		@Override
+		public void newGame()
+			{
+			try
+				{
+				send( "ucinewgame" );
+				send( "isready" );
+				readUntil( "readyok" );
+				}
+			catch (IOException ex)
+				{
+				s_log.warn( "Engine failed: {}", ex.getMessage() );
+				}
+			}
+
+		@Override
+		public Move think( Variation line ) throws IOException
+			{
+			StringBuilder sb = new StringBuilder( "position fen " );
+
+			sb.append( BoardFactory.exportFEN( line.getStartingPosition() ) );
+
+			if (!line.isEmpty())
+				{
+				sb.append( " moves" );
+
+				for ( Move move : line )
+					sb.append( ' ' ).append( move );
+				}
+
+			send( sb.toString() );
+
+			sb.setLength( 0 );
+			sb.append( "go" );
+
+			if (_lMoveTime > 0L) sb.append( " movetime " ).append( _lMoveTime );
+			if (_lNodes > 0L) sb.append( " nodes " ).append( _lNodes );
+			if (_iDepth > 0) sb.append( " depth " ).append( _iDepth );
+
+			send( sb.toString() );
+
+			String[] tokens = readUntil( "bestmove" ).split( "\\s+" );
+
+			return (tokens.length > 1) ? MoveFactory.fromLAN( line.getCurrentPosition(), tokens[ 1 ] ) : null;
+			}
+
+		@Override
+		public void close()
+			{
+			try
+				{
+				send( "quit" );
+				_process.waitFor();
+				}
+			catch (IOException | InterruptedException ex)
+				{
+				_process.destroy();
+				}
+			}
+
+		/**
+		 * Reads lines until one starts with a given token.
+		 *
+		 * @param strToken
+		 * 	Token to wait for.
+		 *
+		 * @return Matching line.
+		 *
+		 * @throws IOException
+		 * 	if the engine quits or takes too long.
+		 */
+		private String readUntil( String strToken ) throws IOException
+			{
+			final long lDeadline = System.currentTimeMillis() + UCI_TIMEOUT + _lMoveTime;
+			String strLine;
+
+			while ( (strLine = _reader.readLine()) != null )
+				{
+				if (strLine.startsWith( "id name " ))
+					_strName = strLine.substring( 8 ).trim();
+				else if (strLine.startsWith( strToken ))
+					return strLine;
+
+				if (System.currentTimeMillis() > lDeadline)
+					throw new IOException( _strName + " timed out waiting for '" + strToken + "'" );
+				}
+
+			throw new IOException( _strName + " quit unexpectedly." );
+			}
+
+		private void send( String str ) throws IOException
+			{
+			_writer.write( str );
+			_writer.write( '\n' );
+			_writer.flush();
+			}
+		}
+	} /* end of class Match */
@@ -40,7 +40,6 @@ import net.humbleprogrammer.humble.DBC;
 import net.humbleprogrammer.humble.StrUtil;
 import net.humbleprogrammer.maxx.*;
 import net.humbleprogrammer.maxx.factories.*;
-import net.humbleprogrammer.maxx.pgn.*;
 
 import static net.humbleprogrammer.maxx.Constants.*;
 
@@ -68,8 +67,6 @@ public class Mater extends ToolboxApp
 	private boolean _bShowErrors;
 	/** Number of results found so far. */
 	private int     _iResultsFound;
-	/** Hash of the previous solution seen. */
-	private long _hashPrevious = HASH_INVALID;
 
 	//  -----------------------------------------------------------------------
 	//	CTOR
@@ -128,84 +125,66 @@ public class Mater extends ToolboxApp
 		{
 		try
 			{
-			MaterListener listener = new MaterListener( MATE_IN_X, EXACT_ONLY );
+			PgnPipeline<List<String>> pipeline = new PgnPipeline<>( new PgnPipeline.WorkerFactory<List<String>>()
+			{
+			@Override
+			public PgnPipeline.Worker<List<String>> createWorker( int iWorker )
+				{ return new MaterListener( MATE_IN_X, EXACT_ONLY ); }
+			}, Runtime.getRuntime().availableProcessors(), true );
+
+			pipeline.run( _listPGN, new PgnPipeline.Sink<List<String>>()
+			{
+			/** File currently being displayed. */
+			private Path _pathCurrent;
 
-			for ( Path path : _listPGN )
+			@Override
+			public boolean accept( PgnPipeline.Game game, List<String> results )
 				{
-				try (PgnReader pgn = new PgnReader( new FileReader( path.toFile() ) ))
+				if (!game.getPath().equals( _pathCurrent ))
 					{
-					String strPGN;
-
-					printLine( "# " + path.toString() );
-
-					while ( (strPGN = pgn.readGame()) != null )
-						if (PgnParser.parse( listener, strPGN ))
-							{
-							//noinspection ConstantConditions
-							if (STOP_AFTER > 0 && _iResultsFound >= STOP_AFTER)
-								{
-								printLine( "# Stopped after %,d results.", _iResultsFound );
-								return;
-								}
-							}
-						else if (_bShowErrors)
-							{
-							s_log.warn( String.format( "%s:\n%s", path.toFile(), strPGN ) );
-							}
+					_pathCurrent = game.getPath();
+					printLine( "# " + _pathCurrent.toString() );
 					}
-				}
-			}
-		catch (IOException ex)
-			{
-			s_log.error( ex.getMessage() );
-			}
-		}
 
-	private void saveSolutions( final Board bdStart, final List<PV> solutions )
-		{
-		assert bdStart != null;
-		assert solutions != null;
-
-		if (solutions.isEmpty() || bdStart.getZobristHash() == _hashPrevious) return;
-		//	-----------------------------------------------------------------
-		String strPrefix = BoardFactory.exportEPD( bdStart );
+				if (!game.isParsed() && _bShowErrors)
+					s_log.warn( String.format( "%s:\n%s", game.getPath().toFile(), game.getText() ) );
 
-		_hashPrevious = bdStart.getZobristHash();
-		_iResultsFound += solutions.size();
-
-		for ( PV pv : solutions )
-			{
-			boolean bFirst = true;
-			int iMoves = (pv.size() + 1) / 2;
-			Board bd = new Board( bdStart );
+				if (results == null) return true;
 
-			print( strPrefix );
-			print( "; dm %d; bm ", iMoves );
+				for ( String strResult : results )
+					printLine( strResult );
 
-			for ( Move mv : pv )
-				{
-				if (bFirst)
-					bFirst = false;
-				else
-					print( " " );
+				_iResultsFound += results.size();
+				//noinspection ConstantConditions
+				if (STOP_AFTER > 0 && _iResultsFound >= STOP_AFTER)
+					{
+					printLine( "# Stopped after %,d results.", _iResultsFound );
+					return false;
+					}
 
-				print( MoveFactory.toSAN( bd, mv, true ) );
-				bd.makeMove( mv );
+				return true;
 				}
-
-			printLine( "" );
+			} );
+			}
+		catch (IOException | InterruptedException ex)
+			{
+			s_log.error( ex.getMessage() );
 			}
 		}
 
 	//  -----------------------------------------------------------------------
-	//	INTERFACE: IPgnListener
+	//	NESTED CLASS: MaterListener
 	//	-----------------------------------------------------------------------
 
-	private class MaterListener extends PgnValidator
+	private static class MaterListener extends PgnPipeline.ReportingWorker
 		{
-		private final boolean _bExactDepth;
-		private final int     _iMaxMoves;
-		private       long    _deadline;
+		private final boolean     _bExactDepth;
+		private final int         _iMaxMoves;
+		/** Search statistics for this worker. */
+		private final SearchStats _stats = new SearchStats();
+		private       long        _deadline;
+		/** Hash of the previous solution seen. */
+		private       long        _hashPrevious = HASH_INVALID;
 
 		MaterListener( int iMaxMoves, boolean bExactDepth )
 			{
@@ -226,25 +205,62 @@ public class Mater extends ToolboxApp
 		 * @return .T. if parsing is to continue; .F. to abort parsing.
 		 */
 		@Override
-		public boolean onMove( final String strSAN, final String strSuffix )
+		public boolean onMove( final CharSequence strSAN, final CharSequence strSuffix )
 			{
 			if (!super.onMove( strSAN, strSuffix )) return false;
+			if (_pv == null) return true;
 			//	-----------------------------------------------------------------
 			final Board bd = _pv.getCurrentPosition();
 
-			saveSolutions( bd, Evaluator.findMateIn( bd, _iMaxMoves, _bExactDepth ) );
+			saveSolutions( bd, Evaluator.findMateIn( bd, _iMaxMoves, _bExactDepth, _stats ) );
 			//
 			//	See if it's time to report our progress...
 			//
 			if (System.currentTimeMillis() >= _deadline)
 				{
-				s_log.info( String.format( "Nodes: %,16d  NPS: %,12d",
-										   Evaluator.getNodeCount(),
-										   Evaluator.getNPS() ) );
+				s_log.info( String.format( "[%s] Nodes: %,16d  NPS: %,12d",
+										   Thread.currentThread().getName(),
+										   _stats.getNodeCount(),
+										   _stats.getNPS() ) );
 				_deadline = System.currentTimeMillis() + REPORT_INTERVAL;
 				}
 
 			return true;
 			}
+
+		private void saveSolutions( final Board bdStart, final List<PV> solutions )
+			{
+			assert bdStart != null;
+			assert solutions != null;
+
+			if (solutions.isEmpty() || bdStart.getZobristHash() == _hashPrevious) return;
+			//	-------------------------------------------------------------
+			String strPrefix = BoardFactory.exportEPD( bdStart );
+
+			_hashPrevious = bdStart.getZobristHash();
+
+			for ( PV pv : solutions )
+				{
+				boolean bFirst = true;
+				int iMoves = (pv.size() + 1) / 2;
+				Board bd = new Board( bdStart );
+				StringBuilder sb = new StringBuilder( strPrefix );
+
+				sb.append( String.format( "; dm %d; bm ", iMoves ) );
+
+				for ( Move mv : pv )
+					{
+					if (bFirst)
+						bFirst = false;
+					else
+						sb.append( ' ' );
+
+					sb.append( MoveFactory.toSAN( bd, mv, true ) );
+					bd.makeMove( mv );
+					}
+
+				report( sb.toString() );
+				}
+			}
 		}
 	} /* end of class App */
@@ -0,0 +1,1028 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.toolbox;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.interfaces.IPgnTokenListener;
+import net.humbleprogrammer.maxx.pgn.*;
+
+/**
+ * The {@link PgnPipeline} class validates PGN files on multiple threads.
+ *
+ * A single reader thread scans the memory-mapped input for games, and hands views of
+ * them to a bounded queue; it neither copies nor decodes the text.  Each worker thread
+ * takes games from that queue and parses them with its own {@link IPgnTokenListener},
+ * so listeners never need to be thread-safe.  Completed games are passed to a
+ * {@link Sink} on the calling thread, either in input order or in the order they
+ * finish.
+ *
+ * The number of games in flight (queued, being parsed, or waiting to be delivered in
+ * order) is capped, so a slow sink or worker stalls the reader instead of buffering the
+ * whole archive in memory.
+ *
+ * For very large files, {@link #runSharded} does away with the reader: each file is
+ * split into byte ranges, and every worker reads the games in its own ranges.
+ *
+ * @param <R>
+ * 	Type of per-game result produced by the workers.
+ */
+public class PgnPipeline<R>
+	{
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Default number of queued games per worker thread. */
+	public static final int DEFAULT_QUEUE_PER_WORKER = 64;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Marks the end of the input; one is queued for each worker. */
+	private final Game _endOfInput = new Game( null, -1, -1L, -1L, null );
+
+	/** Creates the per-thread workers. */
+	private final WorkerFactory<R> _factory;
+	/** .T. to deliver results in input order; .F. to deliver them as they finish. */
+	private final boolean          _bOrdered;
+	/** Number of worker threads. */
+	private final int              _iThreads;
+	/** Capacity of the input queue. */
+	private final int              _iCapacity;
+
+	/** Statistics for each worker thread in the most recent run. */
+	private final List<WorkerStats> _stats = new ArrayList<>();
+
+	/** Games waiting to be parsed. */
+	private BlockingQueue<Game>         _queueIn;
+	/** Games that have been parsed, or end-of-worker markers. */
+	private BlockingQueue<Completed<R>> _queueOut;
+	/** Limits the number of games in flight. */
+	private Semaphore                   _permits;
+	/** Exception that stopped the reader, or <code>null</code> if none. */
+	private volatile IOException        _exReader;
+	/** Unexpected failure that stopped a reader, or <code>null</code> if none. */
+	private volatile RuntimeException   _exFailure;
+	/** Next sequence number in a sharded run. */
+	private final AtomicLong            _lSequence = new AtomicLong();
+
+	/** Number of games delivered to the sink in the most recent run. */
+	private long _lGames;
+	/** Time the reader spent waiting for room in the pipeline. */
+	private long _lReaderWaitNanos;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Creates a pipeline with the default queue size.
+	 *
+	 * @param factory
+	 * 	Factory that creates one worker per thread.
+	 * @param iThreads
+	 * 	Number of worker threads.
+	 * @param bOrdered
+	 * 	.T. to deliver results in input order; .F. to deliver them as they finish.
+	 */
+	public PgnPipeline( WorkerFactory<R> factory, int iThreads, boolean bOrdered )
+		{
+		this( factory, iThreads, bOrdered, iThreads * DEFAULT_QUEUE_PER_WORKER );
+		}
+
+	/**
+	 * Creates a pipeline.
+	 *
+	 * @param factory
+	 * 	Factory that creates one worker per thread.
+	 * @param iThreads
+	 * 	Number of worker threads.
+	 * @param bOrdered
+	 * 	.T. to deliver results in input order; .F. to deliver them as they finish.
+	 * @param iCapacity
+	 * 	Maximum number of games waiting to be parsed.
+	 */
+	public PgnPipeline( WorkerFactory<R> factory, int iThreads, boolean bOrdered, int iCapacity )
+		{
+		DBC.requireNotNull( factory, "Worker Factory" );
+		DBC.requireGreaterThanZero( iThreads, "Threads" );
+		DBC.requireGreaterThanZero( iCapacity, "Queue Capacity" );
+		//	-----------------------------------------------------------------
+		_factory = factory;
+		_iThreads = iThreads;
+		_bOrdered = bOrdered;
+		_iCapacity = iCapacity;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Processes a list of PGN files.
+	 *
+	 * The sink is always called on the calling thread, once for every game read.
+	 *
+	 * @param listPGN
+	 * 	Files to process.
+	 * @param sink
+	 * 	Receives the results.
+	 *
+	 * @return .T. if all games were processed; .F. if the sink stopped the run early.
+	 *
+	 * @throws IOException
+	 * 	if a file could not be read.
+	 * @throws InterruptedException
+	 * 	if the calling thread was interrupted.
+	 */
+	public boolean run( List<Path> listPGN, Sink<R> sink ) throws IOException, InterruptedException
+		{
+		DBC.requireNotNull( listPGN, "PGN Files" );
+		DBC.requireNotNull( sink, "Sink" );
+		//	-----------------------------------------------------------------
+		final ExecutorService executor = Executors.newFixedThreadPool( _iThreads + 1 );
+
+		reset();
+		_queueIn = new ArrayBlockingQueue<>( _iCapacity );
+
+		try
+			{
+			executor.execute( new ReaderTask( listPGN ) );
+
+			for ( int iWorker = 0; iWorker < _iThreads; ++iWorker )
+				executor.execute( new WorkerTask( _factory.createWorker( iWorker ), addStats( iWorker ) ) );
+
+			if (!drain( sink, _bOrdered )) return false;
+			}
+		finally
+			{
+			executor.shutdownNow();
+			executor.awaitTermination( 1L, TimeUnit.MINUTES );
+			}
+
+		if (_exFailure != null) throw _exFailure;
+		if (_exReader != null) throw _exReader;
+
+		return true;
+		}
+
+	/**
+	 * Processes a list of PGN files, splitting each file into byte ranges.
+	 *
+	 * There is no reader thread: each worker reads the games in its own ranges, so a
+	 * single multi-gigabyte file is processed by all workers at once.  Every game is
+	 * processed exactly once, but results are always delivered as they finish; sort on
+	 * {@link Game#getOffset()} if input order matters.
+	 *
+	 * @param listPGN
+	 * 	Files to process.
+	 * @param sink
+	 * 	Receives the results.
+	 *
+	 * @return .T. if all games were processed; .F. if the sink stopped the run early.
+	 *
+	 * @throws IOException
+	 * 	if a file could not be read.
+	 * @throws InterruptedException
+	 * 	if the calling thread was interrupted.
+	 */
+	public boolean runSharded( List<Path> listPGN, Sink<R> sink ) throws IOException, InterruptedException
+		{
+		DBC.requireNotNull( listPGN, "PGN Files" );
+		DBC.requireNotNull( sink, "Sink" );
+		//	-----------------------------------------------------------------
+		final Queue<PgnShard> shards = new ConcurrentLinkedQueue<>();
+
+		for ( Path path : listPGN )
+			shards.addAll( PgnShard.split( path, _iThreads ) );
+
+		final ExecutorService executor = Executors.newFixedThreadPool( _iThreads );
+
+		reset();
+
+		try
+			{
+			for ( int iWorker = 0; iWorker < _iThreads; ++iWorker )
+				executor.execute( new ShardTask( _factory.createWorker( iWorker ), addStats( iWorker ), shards ) );
+
+			if (!drain( sink, false )) return false;
+			}
+		finally
+			{
+			executor.shutdownNow();
+			executor.awaitTermination( 1L, TimeUnit.MINUTES );
+			}
+
+		if (_exFailure != null) throw _exFailure;
+		if (_exReader != null) throw _exReader;
+
+		return true;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Gets the number of games delivered to the sink by the most recent run.
+	 *
+	 * @return Game count.
+	 */
+	public long getGameCount()
+		{ return _lGames; }
+
+	/**
+	 * Gets the time the reader spent blocked because the pipeline was full.
+	 *
+	 * A large value means the workers (or the sink) are the bottleneck; a value near
+	 * zero means the reader is.
+	 *
+	 * @return Elapsed time, in nanoseconds.
+	 */
+	public long getReaderWaitNanos()
+		{ return _lReaderWaitNanos; }
+
+	/**
+	 * Gets the per-worker statistics from the most recent run.
+	 *
+	 * @return List of statistics, one per worker thread.
+	 */
+	public List<WorkerStats> getStats()
+		{ return Collections.unmodifiableList( _stats ); }
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Creates the statistics for a worker.
+	 *
+	 * @param iWorker
+	 * 	Zero-based worker number.
+	 *
+	 * @return Statistics.
+	 */
+	private WorkerStats addStats( int iWorker )
+		{
+		WorkerStats stats = new WorkerStats( iWorker );
+
+		_stats.add( stats );
+		return stats;
+		}
+
+	/**
+	 * Passes completed games to the sink until all workers have finished.
+	 *
+	 * @param sink
+	 * 	Receives the results.
+	 * @param bOrdered
+	 * 	.T. to deliver results in input order; .F. to deliver them as they finish.
+	 *
+	 * @return .T. if all games were delivered; .F. if the sink asked to stop.
+	 *
+	 * @throws InterruptedException
+	 * 	if the calling thread was interrupted.
+	 */
+	private boolean drain( Sink<R> sink, boolean bOrdered ) throws InterruptedException
+		{
+		assert sink != null;
+		//	-----------------------------------------------------------------
+		final Map<Long, Completed<R>> mapPending = new HashMap<>();
+
+		long lNext = 0L;
+		int iRunning = _iThreads;
+
+		while ( iRunning > 0 )
+			{
+			Completed<R> done = _queueOut.take();
+
+			if (done.game == null)
+				--iRunning;
+			else if (!bOrdered)
+				{
+				if (!deliver( sink, done )) return false;
+				}
+			else
+				{
+				mapPending.put( done.game.getSequence(), done );
+
+				while ( (done = mapPending.remove( lNext )) != null )
+					{
+					++lNext;
+					if (!deliver( sink, done )) return false;
+					}
+				}
+			}
+
+		assert mapPending.isEmpty() || _exReader != null || _exFailure != null;
+		return true;
+		}
+
+	/**
+	 * Passes a single completed game to the sink.
+	 *
+	 * @param sink
+	 * 	Receives the results.
+	 * @param done
+	 * 	Completed game.
+	 *
+	 * @return .T. to continue; .F. to stop.
+	 */
+	private boolean deliver( Sink<R> sink, Completed<R> done )
+		{
+		assert sink != null;
+		assert done != null;
+		//	-----------------------------------------------------------------
+		_permits.release();
+
+		if (done.exception != null) throw done.exception;
+
+		++_lGames;
+		return sink.accept( done.game, done.result );
+		}
+
+	/**
+	 * Prepares for a new run.
+	 */
+	private void reset()
+		{
+		_queueIn = null;
+		_queueOut = new LinkedBlockingQueue<>();
+		_permits = new Semaphore( _iCapacity + _iThreads );
+		_exReader = null;
+		_exFailure = null;
+		_lSequence.set( 0L );
+		_lGames = 0L;
+		_lReaderWaitNanos = 0L;
+		_stats.clear();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: WorkerFactory
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Creates the per-thread workers.
+	 *
+	 * @param <R>
+	 * 	Type of per-game result.
+	 */
+	public interface WorkerFactory<R>
+		{
+		/**
+		 * Creates a worker.
+		 *
+		 * @param iWorker
+		 * 	Zero-based worker number.
+		 *
+		 * @return New worker; never shared between threads.
+		 */
+		Worker<R> createWorker( int iWorker );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: Worker
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Parses games on a single worker thread.
+	 *
+	 * @param <R>
+	 * 	Type of per-game result.
+	 */
+	public interface Worker<R>
+		{
+		/**
+		 * Gets the listener that receives the PGN tokens.
+		 *
+		 * @return PGN listener.
+		 */
+		IPgnTokenListener getListener();
+
+		/**
+		 * Called after a game has been parsed.
+		 *
+		 * @param game
+		 * 	Game that was parsed.
+		 *
+		 * @return Result to pass to the sink, or <code>null</code> if none.
+		 */
+		R onGame( Game game );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: Sink
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Receives completed games on the thread that called {@link #run}.
+	 *
+	 * @param <R>
+	 * 	Type of per-game result.
+	 */
+	public interface Sink<R>
+		{
+		/**
+		 * Called once for every game.
+		 *
+		 * @param game
+		 * 	Game that was parsed.
+		 * @param result
+		 * 	Result returned by the worker, or <code>null</code> if none.
+		 *
+		 * @return .T. to continue; .F. to stop the run.
+		 */
+		boolean accept( Game game, R result );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: ValidatorWorker
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Base class for workers that validate games as they are parsed.
+	 *
+	 * @param <R>
+	 * 	Type of per-game result.
+	 */
+	public abstract static class ValidatorWorker<R> extends PgnValidator implements Worker<R>
+		{
+		@Override
+		public IPgnTokenListener getListener()
+			{ return this; }
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: ReportingWorker
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Base class for workers that report zero or more lines of output per game.
+	 */
+	public abstract static class ReportingWorker extends ValidatorWorker<List<String>>
+		{
+		/** Lines reported for the current game. */
+		private final List<String> _lines = new ArrayList<>();
+
+		@Override
+		public List<String> onGame( Game game )
+			{
+			if (_lines.isEmpty()) return null;
+			//	-------------------------------------------------------------
+			List<String> lines = new ArrayList<>( _lines );
+
+			_lines.clear();
+			return lines;
+			}
+
+		/**
+		 * Reports a line of output.
+		 *
+		 * @param strText
+		 * 	Text to report.
+		 */
+		protected void report( String strText )
+			{
+			if (strText != null)
+				_lines.add( strText );
+			}
+
+		/**
+		 * Reports a formatted line of output.
+		 *
+		 * @param strFormat
+		 * 	Format string.
+		 * @param args
+		 * 	Format arguments.
+		 */
+		protected void report( String strFormat, Object... args )
+			{
+			if (strFormat != null)
+				_lines.add( String.format( strFormat, args ) );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: Game
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * A single game passing through the pipeline.
+	 */
+	public static final class Game
+		{
+		/** File the game was read from. */
+		private final Path   _path;
+		/** Zero-based game number within the file (or shard). */
+		private final int          _iIndex;
+		/** Zero-based game number within the run. */
+		private final long         _lSequence;
+		/** Offset of the game in the file. */
+		private final long         _lOffset;
+		/** PGN text. */
+		private final CharSequence _text;
+
+		/** .T. if the game parsed successfully. */
+		private boolean _bParsed;
+		/** Parser error, or <code>null</code> if none. */
+		private String  _strError;
+
+		Game( Path path, int iIndex, long lSequence, long lOffset, CharSequence text )
+			{
+			_path = path;
+			_iIndex = iIndex;
+			_lSequence = lSequence;
+			_lOffset = lOffset;
+			_text = text;
+			}
+
+		/**
+		 * Gets the parser error.
+		 *
+		 * @return Error message, or <code>null</code> if the game parsed successfully.
+		 */
+		public String getError()
+			{ return _strError; }
+
+		/**
+		 * Gets the game number within the file.  In a sharded run, this is the game
+		 * number within the shard.
+		 *
+		 * @return Zero-based game number.
+		 */
+		public int getIndex()
+			{ return _iIndex; }
+
+		/**
+		 * Gets the position of the game in the file.
+		 *
+		 * @return Offset of the game's Event tag, in bytes.
+		 */
+		public long getOffset()
+			{ return _lOffset; }
+
+		/**
+		 * Gets the file the game was read from.
+		 *
+		 * @return Path to PGN file.
+		 */
+		public Path getPath()
+			{ return _path; }
+
+		/**
+		 * Gets the game number within the run.
+		 *
+		 * @return Zero-based sequence number.
+		 */
+		public long getSequence()
+			{ return _lSequence; }
+
+		/**
+		 * Gets the PGN text.  The text is read as bytes, so it is decoded here: as UTF-8,
+		 * or as Latin-1 if it isn't valid UTF-8, the same way {@link PgnParser} decodes
+		 * tags and comments.
+		 *
+		 * @return PGN string.
+		 */
+		public String getText()
+			{
+			final byte[] bytes = new byte[ _text.length() ];
+
+			for ( int idx = 0; idx < bytes.length; ++idx )
+				bytes[ idx ] = (byte) _text.charAt( idx );
+
+			try
+				{
+				return StandardCharsets.UTF_8.newDecoder().decode( ByteBuffer.wrap( bytes ) ).toString();
+				}
+			catch (CharacterCodingException ex)
+				{
+				return new String( bytes, StandardCharsets.ISO_8859_1 );
+				}
+			}
+
+		/**
+		 * Tests if the game parsed successfully.
+		 *
+		 * @return .T. if parsed; .F. on error.
+		 */
+		public boolean isParsed()
+			{ return _bParsed; }
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: WorkerStats
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Statistics for a single worker thread.
+	 *
+	 * The counters are only updated by the worker thread, and should only be read after
+	 * {@link #run} returns.
+	 */
+	public static final class WorkerStats
+		{
+		/** Zero-based worker number. */
+		private final int _iWorker;
+
+		/** Number of games parsed. */
+		private long _lGames;
+		/** Number of games that failed to parse. */
+		private long _lErrors;
+		/** Number of games that produced a result. */
+		private long _lResults;
+		/** Time spent parsing, in nanoseconds. */
+		private long _lBusyNanos;
+		/** Time spent waiting for input, in nanoseconds. */
+		private long _lIdleNanos;
+
+		WorkerStats( int iWorker )
+			{ _iWorker = iWorker; }
+
+		public long getBusyNanos()
+			{ return _lBusyNanos; }
+
+		public long getErrorCount()
+			{ return _lErrors; }
+
+		public long getGameCount()
+			{ return _lGames; }
+
+		public long getIdleNanos()
+			{ return _lIdleNanos; }
+
+		public long getResultCount()
+			{ return _lResults; }
+
+		public int getWorker()
+			{ return _iWorker; }
+
+		@Override
+		public String toString()
+			{
+			return String.format( "Worker #%d: %,d games, %,d errors, %,d results, %,d ms busy, %,d ms idle",
+								  _iWorker,
+								  _lGames,
+								  _lErrors,
+								  _lResults,
+								  TimeUnit.NANOSECONDS.toMillis( _lBusyNanos ),
+								  TimeUnit.NANOSECONDS.toMillis( _lIdleNanos ) );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: Completed
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * A game that has been parsed, or an end-of-worker marker if <code>game</code> is
+	 * <code>null</code>.
+	 */
+	private static final class Completed<R>
+		{
+		final Game             game;
+		final R                result;
+		final RuntimeException exception;
+
+		Completed( Game game, R result, RuntimeException exception )
+			{
+			this.game = game;
+			this.result = result;
+			this.exception = exception;
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: ReaderTask
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Splits the input files into games.
+	 *
+	 * Each file is memory-mapped and scanned for Event tags as bytes, the same way as
+	 * {@link PgnIndex}; the games themselves are neither copied nor decoded on this
+	 * thread, but passed to the workers as views into the mapping.
+	 */
+	private class ReaderTask implements Runnable
+		{
+		/** Files to read. */
+		private final List<Path> _listPGN;
+
+		ReaderTask( List<Path> listPGN )
+			{ _listPGN = listPGN; }
+
+		@Override
+		public void run()
+			{
+			long lSequence = 0L;
+
+			try
+				{
+				for ( Path path : _listPGN )
+					{
+					try (PgnShard shard = PgnShard.split( path, 1 ).get( 0 ))
+						{
+						CharSequence text;
+
+						for ( int iGame = 0; (text = shard.nextGame()) != null; ++iGame )
+							{
+							long lStart = System.nanoTime();
+
+							_permits.acquire();
+							_queueIn.put( new Game( path, iGame, lSequence++, shard.getOffset(), text ) );
+
+							_lReaderWaitNanos += System.nanoTime() - lStart;
+							}
+						}
+					}
+				}
+			catch (IOException ex)
+				{
+				_exReader = ex;
+				}
+			catch (RuntimeException ex)
+				{
+				_exFailure = ex;
+				}
+			catch (InterruptedException ex)
+				{
+				//	The run was stopped; the workers are being interrupted as well.
+				}
+			finally
+				{
+				endOfInput();
+				}
+			}
+
+		/**
+		 * Queues an end marker for each worker.  This must happen however the reader
+		 * stops, or drain() would wait forever.
+		 */
+		private void endOfInput()
+			{
+			try
+				{
+				for ( int iWorker = 0; iWorker < _iThreads; ++iWorker )
+					_queueIn.put( _endOfInput );
+				}
+			catch (InterruptedException ex)
+				{
+				//	The run was stopped; the workers are being interrupted as well.
+				}
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: AbstractTask
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Base class for the tasks that run on the worker threads.
+	 */
+	private abstract class AbstractTask implements Runnable
+		{
+		/** Worker that owns the listener. */
+		protected final Worker<R>    _worker;
+		/** Listener that receives the PGN tokens. */
+		protected final IPgnTokenListener _listener;
+		/** Statistics for this thread. */
+		protected final WorkerStats  _stats;
+
+		AbstractTask( Worker<R> worker, WorkerStats stats )
+			{
+			DBC.requireNotNull( worker, "Worker" );
+			//	-------------------------------------------------------------
+			_worker = worker;
+			_listener = worker.getListener();
+			_stats = stats;
+			}
+
+		/**
+		 * Parses a game and queues the result for the sink.
+		 *
+		 * @param game
+		 * 	Game to parse.
+		 *
+		 * @throws InterruptedException
+		 * 	if the run was stopped.
+		 */
+		protected void process( Game game ) throws InterruptedException
+			{
+			final long lStart = System.nanoTime();
+
+			Completed<R> done;
+
+			try
+				{
+				final ParseResult parsed = parse( game );
+
+				game._bParsed = parsed.isSuccess();
+				if (!game._bParsed)
+					{
+					game._strError = (parsed.getError() != null) ? parsed.getError() : "Failed to parse game.";
+					++_stats._lErrors;
+					}
+
+				R result = _worker.onGame( game );
+
+				if (result != null)
+					++_stats._lResults;
+
+				done = new Completed<>( game, result, null );
+				}
+			catch (RuntimeException ex)
+				{
+				done = new Completed<>( game, null, ex );
+				}
+
+			++_stats._lGames;
+			_stats._lBusyNanos += System.nanoTime() - lStart;
+			_queueOut.put( done );
+			}
+
+		/**
+		 * Parses a game.
+		 *
+		 * @param game
+		 * 	Game to parse.
+		 *
+		 * @return Result of parsing.
+		 */
+		private ParseResult parse( Game game )
+			{ return PgnParser.parseGames( _listener, game._text ); }
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: WorkerTask
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Parses games from the input queue until the end of the input.
+	 */
+	private class WorkerTask extends AbstractTask
+		{
+		WorkerTask( Worker<R> worker, WorkerStats stats )
+			{ super( worker, stats ); }
+
+		@Override
+		public void run()
+			{
+			try
+				{
+				for ( ; ; )
+					{
+					long lStart = System.nanoTime();
+					Game game = _queueIn.take();
+
+					_stats._lIdleNanos += System.nanoTime() - lStart;
+					if (game == _endOfInput) break;
+
+					process( game );
+					}
+
+				_queueOut.put( new Completed<R>( null, null, null ) );
+				}
+			catch (InterruptedException ex)
+				{
+				//	The run was stopped.
+				}
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: ShardTask
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Reads and parses the games in one shard after another, until none are left.
+	 */
+	private class ShardTask extends AbstractTask
+		{
+		/** Shards waiting to be processed; shared by all workers. */
+		private final Queue<PgnShard> _shards;
+
+		ShardTask( Worker<R> worker, WorkerStats stats, Queue<PgnShard> shards )
+			{
+			super( worker, stats );
+			//	-------------------------------------------------------------
+			_shards = shards;
+			}
+
+		@Override
+		public void run()
+			{
+			try
+				{
+				PgnShard shard;
+
+				while ( (shard = _shards.poll()) != null )
+					{
+					try
+						{
+						CharSequence text;
+
+						for ( int iGame = 0; (text = shard.nextGame()) != null; ++iGame )
+							{
+							long lStart = System.nanoTime();
+
+							_permits.acquire();
+							_stats._lIdleNanos += System.nanoTime() - lStart;
+
+							process( new Game( shard.getPath(),
+											   iGame,
+											   _lSequence.getAndIncrement(),
+											   shard.getOffset(),
+											   text ) );
+							}
+						}
+					catch (IOException ex)
+						{
+						_exReader = ex;
+						}
+					finally
+						{
+						closeQuietly( shard );
+						}
+					}
+				}
+			catch (RuntimeException ex)
+				{
+				_exFailure = ex;
+				}
+			catch (InterruptedException ex)
+				{
+				//	The run was stopped.
+				return;
+				}
+			//
+			//	However the worker stopped, drain() has to hear about it.
+			//
+			try
+				{
+				_queueOut.put( new Completed<R>( null, null, null ) );
+				}
+			catch (InterruptedException ex)
+				{
+				//	The run was stopped.
+				}
+			}
+
+		/**
+		 * Closes a shard, ignoring errors.
+		 *
+		 * @param shard
+		 * 	Shard to close.
+		 */
+		private void closeQuietly( PgnShard shard )
+			{
+			try
+				{
+				shard.close();
+				}
+			catch (IOException ex)
+				{
+				//	Nothing more can be done with the shard.
+				}
+			}
+		}
+	} /* end of class PgnPipeline */
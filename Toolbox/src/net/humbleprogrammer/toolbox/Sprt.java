@@ -0,0 +1,249 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.toolbox;
+
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.Result;
+
+/**
+ * The {@link Sprt} class runs a sequential probability ratio test on match results.
+ *
+ * H0 is that the engine under test is elo0 stronger than its opponent, and H1 is that
+ * it is elo1 stronger.  After each game the log-likelihood ratio (LLR) is compared to
+ * bounds derived from the error rates; the test stops as soon as it crosses either
+ * one.  The LLR uses the usual normal approximation of the trinomial (win, draw,
+ * loss) model with logistic Elo.
+ */
+@SuppressWarnings( "WeakerAccess" )
+public class Sprt
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** No decision yet. */
+	public static final int CONTINUE  = 0;
+	/** H0 accepted: the change is not an improvement of at least elo1. */
+	public static final int ACCEPT_H0 = -1;
+	/** H1 accepted: the change is an improvement. */
+	public static final int ACCEPT_H1 = 1;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Expected score under H0. */
+	private final double _dScore0;
+	/** Expected score under H1. */
+	private final double _dScore1;
+	/** Lower LLR bound; crossing it accepts H0. */
+	private final double _dLower;
+	/** Upper LLR bound; crossing it accepts H1. */
+	private final double _dUpper;
+
+	private int _iWins;
+	private int _iDraws;
+	private int _iLosses;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param dElo0
+	 * 	Elo difference for H0.
+	 * @param dElo1
+	 * 	Elo difference for H1, which must be .GT. elo0.
+	 * @param dAlpha
+	 * 	False positive rate, in the range (0..1).
+	 * @param dBeta
+	 * 	False negative rate, in the range (0..1).
+	 */
+	public Sprt( double dElo0, double dElo1, double dAlpha, double dBeta )
+		{
+		DBC.require( dElo1 > dElo0, "elo1 must be greater than elo0." );
+		DBC.require( dAlpha > 0.0 && dAlpha < 1.0, "alpha must be between zero and one." );
+		DBC.require( dBeta > 0.0 && dBeta < 1.0, "beta must be between zero and one." );
+		//	-----------------------------------------------------------------
+		_dScore0 = toScore( dElo0 );
+		_dScore1 = toScore( dElo1 );
+		_dLower = Math.log( dBeta / (1.0 - dAlpha) );
+		_dUpper = Math.log( (1.0 - dBeta) / dAlpha );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Records the result of a game.
+	 *
+	 * @param result
+	 * 	Result, from the point of view of the engine under test; WON_BY_WHITE is a
+	 * 	win and WON_BY_BLACK a loss.
+	 */
+	public synchronized void addResult( Result result )
+		{
+		if (result == Result.WON_BY_WHITE)
+			++_iWins;
+		else if (result == Result.WON_BY_BLACK)
+			++_iLosses;
+		else if (result == Result.DRAW)
+			++_iDraws;
+		}
+
+	/**
+	 * Computes the log-likelihood ratio.
+	 *
+	 * @return LLR, which is zero until there are both decisive and non-decisive
+	 * results to estimate the variance from.
+	 */
+	public synchronized double getLLR()
+		{
+		final double dGames = _iWins + _iDraws + _iLosses;
+
+		if (dGames == 0.0) return 0.0;
+		//	-----------------------------------------------------------------
+		final double dWin = _iWins / dGames;
+		final double dDraw = _iDraws / dGames;
+		final double dScore = dWin + (dDraw / 2.0);
+		final double dVariance = (dWin + (dDraw / 4.0)) - (dScore * dScore);
+
+		if (dVariance <= 0.0) return 0.0;
+
+		return (_dScore1 - _dScore0) * ((2.0 * dScore) - _dScore0 - _dScore1) / (2.0 * dVariance / dGames);
+		}
+
+	/**
+	 * Gets the current decision.
+	 *
+	 * @return CONTINUE, ACCEPT_H0, or ACCEPT_H1.
+	 */
+	public int getStatus()
+		{
+		final double dLLR = getLLR();
+
+		if (dLLR >= _dUpper) return ACCEPT_H1;
+		if (dLLR <= _dLower) return ACCEPT_H0;
+
+		return CONTINUE;
+		}
+
+	/**
+	 * Estimates the Elo difference from the results so far.
+	 *
+	 * @return Elo difference, which is clamped to +/- 1000.
+	 */
+	public synchronized double getElo()
+		{
+		final double dGames = _iWins + _iDraws + _iLosses;
+
+		if (dGames == 0.0) return 0.0;
+		//	-----------------------------------------------------------------
+		return toElo( (_iWins + (_iDraws / 2.0)) / dGames );
+		}
+
+	/**
+	 * Estimates the 95% confidence margin of the Elo difference.
+	 *
+	 * @return Margin, in Elo.
+	 */
+	public synchronized double getEloMargin()
+		{
+		final double dGames = _iWins + _iDraws + _iLosses;
+
+		if (dGames < 2.0) return 0.0;
+		//	-----------------------------------------------------------------
+		final double dWin = _iWins / dGames;
+		final double dDraw = _iDraws / dGames;
+		final double dScore = dWin + (dDraw / 2.0);
+		final double dDeviation = Math.sqrt( Math.max( 0.0, (dWin + (dDraw / 4.0)) - (dScore * dScore) ) / dGames );
+
+		return (toElo( dScore + (1.96 * dDeviation) ) - toElo( dScore - (1.96 * dDeviation) )) / 2.0;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	GETTERS & SETTERS
+	//	-----------------------------------------------------------------------
+
+	public double getLowerBound()
+		{ return _dLower; }
+
+	public double getUpperBound()
+		{ return _dUpper; }
+
+	public synchronized int getWins()
+		{ return _iWins; }
+
+	public synchronized int getDraws()
+		{ return _iDraws; }
+
+	public synchronized int getLosses()
+		{ return _iLosses; }
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Converts a score to an Elo difference.
+	 *
+	 * @param dScore
+	 * 	Expected score, in the range [0..1].
+	 *
+	 * @return Elo difference, clamped to +/- 1000.
+	 */
+	private static double toElo( double dScore )
+		{
+		if (dScore <= 0.0) return -1000.0;
+		if (dScore >= 1.0) return 1000.0;
+
+		return Math.max( -1000.0, Math.min( 1000.0, -400.0 * Math.log10( (1.0 / dScore) - 1.0 ) ) );
+		}
+
+	/**
+	 * Converts an Elo difference to an expected score.
+	 *
+	 * @param dElo
+	 * 	Elo difference.
+	 *
+	 * @return Expected score, in the range (0..1).
+	 */
+	private static double toScore( double dElo )
+		{
+		return 1.0 / (1.0 + Math.pow( 10.0, -dElo / 400.0 ));
+		}
+	} /* end of class Sprt */
@@ -14,13 +14,14 @@ import org.slf4j.LoggerFactory;
 import net.humbleprogrammer.e4.documents.GameDocument;
 import net.humbleprogrammer.e4.gui.dialogs.DialogManager;
 import net.humbleprogrammer.e4.gui.helpers.Command;
+import net.humbleprogrammer.e4.gui.players.PlayerEngine;
 import net.humbleprogrammer.e4.gui.players.PlayerHuman;
 import net.humbleprogrammer.e4.interfaces.*;
-import net.humbleprogrammer.maxx.Parser;
+import net.humbleprogrammer.maxx.*;
 
 import static net.humbleprogrammer.maxx.Constants.*;
 
-public class Workspace
+public class Workspace implements IMoveListener
 	{
 
 	//  -----------------------------------------------------------------------
@@ -64,9 +65,43 @@ public class Workspace
 	public void dispose()
 		{
 		s_log.debug( "dispose()" );
-		/*
-		**	STUB METHOD
-		*/
+		//	-----------------------------------------------------------------
+		stopPlayers();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: IMoveListener
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * A player has chosen a move.
+	 *
+	 * @param player
+	 * 	Player making the move.
+	 * @param move
+	 * 	Move.
+	 */
+	@Override
+	public void onMove( IPlayer player, Move move )
+		{
+		if (player != _playerMoving) return;
+		//	-----------------------------------------------------------------
+		if (!_document.makeMove( move ))
+			{
+			s_log.warn( "Rejected illegal move {}", move );
+			return;
+			}
+
+		final Board bd = _document.getPosition();
+
+		_playerMoving = _players[ bd.getMovingPlayer() ];
+
+		if (Arbiter.isMated( bd ))
+			DialogManager.advise( Parser.playerToString( bd.getOpposingPlayer() ) + " wins by checkmate." );
+		else if (Arbiter.isStalemated( bd ))
+			DialogManager.advise( "Draw by stalemate." );
+		else
+			cmdRequestMove.run();
 		}
 
 	//  -----------------------------------------------------------------------
@@ -75,25 +110,45 @@ public class Workspace
 
 	/**
 	 * Starts a new game.
+	 *
+	 * @param playerHuman
+	 * 	Color played by the user [WHITE|BLACK]; the engine plays the other one.
 	 */
-	private void startNewGame()
+	private void startNewGame( int playerHuman )
 		{
 		IBoardPresenter presenter = App.getFrame().getBoardPresenter();
 
+		stopPlayers();
+
 		if (_document != null)
 			_document.deleteObserver( presenter );
 
 		_document = new GameDocument();
 		_document.addObserver( presenter );
+		App.getFrame().getAnalysisView().setDocument( _document );
+
+		final int playerEngine = playerHuman ^ 1;
 
-		_players[ WHITE ] = new PlayerHuman( WHITE, _document.getPosition() );
-		_players[ BLACK ] = new PlayerHuman( BLACK, _document.getPosition() );
+		_players[ playerHuman ] = new PlayerHuman( playerHuman, _document );
+		_players[ playerEngine ] = new PlayerEngine( playerEngine, _document, this );
 		//
 		//	Get the moving player and connect it to the board.
 		//
 		_playerMoving = _players[ _document.getPosition().getMovingPlayer() ];
 		}
 
+	/**
+	 * Tells both players to stop thinking.
+	 */
+	private void stopPlayers()
+		{
+		for ( IPlayer player : _players )
+			{
+			if (player != null)
+				player.stopThinking();
+			}
+		}
+
 	//  -----------------------------------------------------------------------
 	//	COMMAND: QuickGameWhite
 	//	-----------------------------------------------------------------------
@@ -109,7 +164,7 @@ public class Workspace
 		{
 		s_log.debug( "cmdQuickGameWhite" );
 		//	-----------------------------------------------------------------
-		startNewGame();
+		startNewGame( WHITE );
 		//
 		//	Set the board so that white is at the bottom.
 		//
@@ -133,7 +188,7 @@ public class Workspace
 		{
 		s_log.debug( "cmdQuickGameBlack" );
 		//	-----------------------------------------------------------------
-		startNewGame();
+		startNewGame( BLACK );
 		//
 		//	Set the board so that black is at the bottom.
 		//
@@ -199,6 +254,40 @@ public class Workspace
 		}
 	};
 
+	//  -----------------------------------------------------------------------
+	//	Command: TakeBack
+	//	-----------------------------------------------------------------------
+
+	@SuppressWarnings( "unused" )
+	private final Command cmdTakeBack = new Command( Command.ID.TAKE_BACK,
+													 "Take Back",
+													 "Takes back your last move.",
+													 null,
+													 KeyEvent.VK_B )
+	{
+	@Override
+	public void run()
+		{
+		s_log.debug( "cmdTakeBack" );
+		//	-----------------------------------------------------------------
+		if (_document == null) return;
+
+		stopPlayers();
+		//
+		//	Keep taking back moves until it's the user's turn again, which undoes
+		//	the engine's reply (or its search) along with the user's move.
+		//
+		do
+			{
+			if (!_document.takeBack()) break;
+			_playerMoving = _players[ _document.getPosition().getMovingPlayer() ];
+			}
+		while ( !(_playerMoving instanceof PlayerHuman) );
+
+		cmdRequestMove.run();
+		}
+	};
+
 	}   /* end of class Workspace */
 /*****************************************************************************
  **
@@ -38,7 +38,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.humbleprogrammer.maxx.Board;
+import net.humbleprogrammer.maxx.*;
 import net.humbleprogrammer.maxx.factories.BoardFactory;
 
 public class GameDocument extends Observable
@@ -58,9 +58,9 @@ public class GameDocument extends Observable
 	//	-----------------------------------------------------------------------
 
 	/** Sequence number. */
-	private final int   _id    = s_idNext.getAndIncrement();
-	/** Current position. */
-	private       Board _board = BoardFactory.createInitial();
+	private final int       _id   = s_idNext.getAndIncrement();
+	/** Moves played so far. */
+	private       Variation _line = new Variation();
 
 	//  -----------------------------------------------------------------------
 	//	CTOR
@@ -72,6 +72,43 @@ public class GameDocument extends Observable
 	public GameDocument()
 		{
 		s_log.debug( "ctor({})", _id );
+
+		_line.setStartingPosition( BoardFactory.createInitial() );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Plays a move, and notifies the observers.
+	 *
+	 * @param move
+	 * 	Move to play.
+	 *
+	 * @return .T. if the move was legal and played; .F. otherwise.
+	 */
+	public boolean makeMove( Move move )
+		{
+		if (move == null || !_line.appendMove( move )) return false;
+		//	-----------------------------------------------------------------
+		setChanged();
+		notifyObservers( move );
+		return true;
+		}
+
+	/**
+	 * Takes back the last move, and notifies the observers.
+	 *
+	 * @return .T. if a move was taken back; .F. if there are no moves to take back.
+	 */
+	public boolean takeBack()
+		{
+		if (_line.removeLastMove() == null) return false;
+		//	-----------------------------------------------------------------
+		setChanged();
+		notifyObservers( null );
+		return true;
 		}
 
 	//  -----------------------------------------------------------------------
@@ -79,12 +116,23 @@ public class GameDocument extends Observable
 	//	-----------------------------------------------------------------------
 
 	/**
-	 * Gets the current position.
+	 * Gets the number of moves played, in plies.
+	 *
+	 * @return Move count.
+	 */
+	public int getMoveCount()
+		{
+		return _line.size();
+		}
+
+	/**
+	 * Gets the current position.  The board is live; copy it before handing it to
+	 * another thread.
 	 *
 	 * @return Board object.
 	 */
 	public Board getPosition()
 		{
-		return _board;
+		return _line.getCurrentPosition();
 		}
 	}	/* end of class GameDocument */
@@ -42,6 +42,7 @@ import org.slf4j.LoggerFactory;
 import net.humbleprogrammer.e4.App;
 import net.humbleprogrammer.e4.gui.helpers.Command;
 import net.humbleprogrammer.e4.gui.helpers.ResourceManager;
+import net.humbleprogrammer.e4.gui.views.AnalysisView;
 import net.humbleprogrammer.e4.gui.views.BoardView;
 import net.humbleprogrammer.e4.gui.views.ConsoleView;
 import net.humbleprogrammer.e4.interfaces.IBoardPresenter;
@@ -72,10 +73,12 @@ public class MainFrame extends JFrame
 	//	DECLARATIONS
 	//	-----------------------------------------------------------------------
 
+	/** Analysis view. */
+	private final AnalysisView _viewAnalysis;
 	/** Board presenter */
-	private final BoardView   _viewBoard;
+	private final BoardView    _viewBoard;
 	/** Console view. */
-	private final ConsoleView _viewConsole;
+	private final ConsoleView  _viewConsole;
 
 	//  -----------------------------------------------------------------------
 	//	CTOR
@@ -92,6 +95,7 @@ public class MainFrame extends JFrame
         */
 		_viewBoard = new BoardView();
 		_viewConsole = new ConsoleView( this );
+		_viewAnalysis = new AnalysisView( this );
 
 		createUI( getContentPane() );
 
@@ -102,6 +106,16 @@ public class MainFrame extends JFrame
 	//	PUBLIC GETTERS & SETTERS
 	//	-----------------------------------------------------------------------
 
+	/**
+	 * Gets the analysis view.
+	 *
+	 * @return Analysis view.
+	 */
+	public AnalysisView getAnalysisView()
+		{
+		return _viewAnalysis;
+		}
+
 	/**
 	 * Gets the board presenter.
 	 *
@@ -112,6 +126,16 @@ public class MainFrame extends JFrame
 		return _viewBoard;
 		}
 
+	/**
+	 * Gets the console view.
+	 *
+	 * @return Console view.
+	 */
+	public ConsoleView getConsole()
+		{
+		return _viewConsole;
+		}
+
 	//  -----------------------------------------------------------------------
 	//	IMPLEMENTATION
 	//	-----------------------------------------------------------------------
@@ -150,6 +174,7 @@ public class MainFrame extends JFrame
 
 		menu.add( Command.createDummyMenuItem( "Undo", KeyEvent.VK_U ) );
 		menu.add( Command.createDummyMenuItem( "Redo", KeyEvent.VK_R ) );
+		menu.add( Command.get( Command.ID.TAKE_BACK ).createMenuItem() );
 		menu.addSeparator();
 		menu.add( Command.createDummyMenuItem( "Cut", KeyEvent.VK_T ) );
 		menu.add( Command.createDummyMenuItem( "Copy", KeyEvent.VK_C ) );
@@ -163,6 +188,7 @@ public class MainFrame extends JFrame
 		menu = new JMenu( "View" );
 		menu.setMnemonic( KeyEvent.VK_V );
 
+		menu.add( Command.get( Command.ID.TOGGLE_ANALYSIS ).createCheckedMenuItem() );
 		menu.add( Command.get( Command.ID.TOGGLE_CONSOLE ).createCheckedMenuItem() );
 		menu.add( Command.createDummyMenuItem( "Engine Log", KeyEvent.VK_E ) );
 
@@ -37,7 +37,9 @@ public abstract class Command extends javax.swing.AbstractAction implements Runn
 			QUICK_GAME_WHITE,
 
 			REQUEST_MOVE,
+			TAKE_BACK,
 
+			TOGGLE_ANALYSIS,
 			TOGGLE_CONSOLE,
 			TOGGLE_ENGINE_LOG
 		}
@@ -0,0 +1,231 @@
+/* ****************************************************************************
+ *
+ *	@author Lee Neuse (coder@humbleprogrammer.net)
+ *	@since 1.0
+ *
+ *	---------------------------- [License] ----------------------------------
+ *	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ *	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ *			http://creativecommons.org/licenses/by-nc-sa/3.0/
+ *	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ *	View, California, 94041, USA.
+ *	--------------------- [Disclaimer of Warranty] --------------------------
+ *	There is no warranty for the program, to the extent permitted by applicable
+ *	law.  Except when otherwise stated in writing the copyright holders and/or
+ *	other parties provide the program "as is" without warranty of any kind,
+ *	either expressed or implied, including, but not limited to, the implied
+ *	warranties of merchantability and fitness for a particular purpose.  The
+ *	entire risk as to the quality and performance of the program is with you.
+ *	Should the program prove defective, you assume the cost of all necessary
+ *	servicing, repair or correction.
+ *	-------------------- [Limitation of Liability] --------------------------
+ *	In no event unless required by applicable law or agreed to in writing will
+ *	any copyright holder, or any other party who modifies and/or conveys the
+ *	program as permitted above, be liable to you for damages, including any
+ *	general, special, incidental or consequential damages arising out of the
+ *	use or inability to use the program (including but not limited to loss of
+ *	data or data being rendered inaccurate or losses sustained by you or third
+ *	parties or a failure of the program to operate with any other programs),
+ *	even if such holder or other party has been advised of the possibility of
+ *	such damages.
+ *
+ ******************************************************************************/
+package net.humbleprogrammer.e4.gui.players;
+
+import java.util.concurrent.*;
+import javax.swing.SwingUtilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.humbleprogrammer.e4.App;
+import net.humbleprogrammer.e4.documents.GameDocument;
+import net.humbleprogrammer.e4.interfaces.*;
+import net.humbleprogrammer.humble.DBC;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
+import net.humbleprogrammer.maxx.interfaces.ISearchListener;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+public class PlayerEngine implements IPlayer, ISearchListener
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Time to spend on each move, in milliseconds. */
+	private static final long MOVE_TIME = 2000L;
+
+	//  -----------------------------------------------------------------------
+	//	STATIC DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Logger */
+	private static final Logger          s_log      = LoggerFactory.getLogger( PlayerEngine.class );
+	/** Background thread shared by all engine players; the GUI never searches. */
+	private static final ExecutorService s_executor = Executors.newSingleThreadExecutor( new ThreadFactory()
+	{
+	@Override
+	public Thread newThread( Runnable runnable )
+		{
+		Thread thread = new Thread( runnable, "Engine" );
+
+		thread.setDaemon( true );
+		return thread;
+		}
+	} );
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Color being played. */
+	private final int           _player;
+	/** Game being played. */
+	private final GameDocument  _document;
+	/** Receives the chosen move. */
+	private final IMoveListener _listener;
+	/** Search engine. */
+	private final Search        _search = new Search();
+
+	/** Incremented on every start or stop, so a stale move is recognized and dropped. */
+	private volatile int         _iGeneration;
+	/** Time manager for the current search, or <code>null</code> if not thinking. */
+	private          TimeManager _tm;
+	/** Position being searched; only used on the engine thread. */
+	private          Board       _bdRoot;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * CTOR
+	 *
+	 * @param player
+	 * 	[WHITE|BLACK]
+	 * @param document
+	 * 	Game being played.
+	 * @param listener
+	 * 	Receives the moves chosen.
+	 */
+	public PlayerEngine( int player, GameDocument document, IMoveListener listener )
+		{
+		DBC.require( (player == WHITE || player == BLACK), "Invalid Player" );
+		DBC.requireNotNull( document, "Document" );
+		DBC.requireNotNull( listener, "Listener" );
+
+		s_log.debug( "{} ctor()", Parser.playerToString( player ) );
+		//	-----------------------------------------------------------------
+		_player = player;
+		_document = document;
+		_listener = listener;
+		_search.addListener( this );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: IPlayer
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Tells the player to start thinking.  The search runs on a background thread,
+	 * and the move is handed to the listener on the event dispatch thread.
+	 */
+	@Override
+	public void startThinking()
+		{
+		s_log.debug( "{} start thinking.", Parser.playerToString( _player ) );
+
+		assert SwingUtilities.isEventDispatchThread();
+		//	-----------------------------------------------------------------
+		stopThinking();
+
+		final int iGeneration = _iGeneration;
+		final Board bd = new Board( _document.getPosition() );
+		final TimeManager tm = new TimeManager();
+
+		tm.setMoveTime( MOVE_TIME );
+		_tm = tm;
+
+		s_executor.execute( new Runnable()
+		{
+		@Override
+		public void run()
+			{
+			if (iGeneration != _iGeneration) return;
+
+			_bdRoot = bd;
+			PV pv = _search.think( new Board( bd ), tm );
+			final Move move = pv.isEmpty() ? null : pv.get( 0 );
+
+			SwingUtilities.invokeLater( new Runnable()
+			{
+			@Override
+			public void run()
+				{
+				if (iGeneration == _iGeneration && move != null)
+					{
+					_tm = null;
+					_listener.onMove( PlayerEngine.this, move );
+					}
+				}
+			} );
+			}
+		} );
+		}
+
+	/**
+	 * Tells the player to stop thinking.  Any move still on its way is dropped.
+	 */
+	@Override
+	public void stopThinking()
+		{
+		assert SwingUtilities.isEventDispatchThread();
+		//	-----------------------------------------------------------------
+		++_iGeneration;
+
+		if (_tm != null)
+			{
+			s_log.debug( "{} stop thinking.", Parser.playerToString( _player ) );
+
+			_tm.stop();
+			_tm = null;
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: ISearchListener
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * A line has been found.  Called on the engine thread.
+	 */
+	@Override
+	public void onLine( final int iDepth, final int iRank, final int iScore, final PV pv,
+						final long lNodes, final long lMillisecs )
+		{
+		final Board bd = new Board( _bdRoot );
+		final StringBuilder sb = new StringBuilder();
+
+		if (Evaluator.isMateScore( iScore ))
+			{
+			int iPlies = MAX_SCORE - Math.abs( iScore );
+
+			sb.append( String.format( "%2d %7s", iDepth, ((iScore > 0) ? "#" : "#-") + ((iPlies + 1) / 2) ) );
+			}
+		else
+			sb.append( String.format( "%2d %+7.2f", iDepth, iScore / 100.0 ) );
+
+		sb.append( String.format( " %,12d %6.2fs ", lNodes, lMillisecs / 1000.0 ) );
+
+		for ( Move move : pv )
+			{
+			sb.append( ' ' ).append( MoveFactory.toSAN( bd, move, true ) );
+			bd.makeMove( move );
+			}
+
+		App.getFrame().getConsole().appendLine( sb.toString() );
+		}
+	}	/* end of class PlayerEngine */
@@ -35,6 +35,7 @@ package net.humbleprogrammer.e4.gui.players;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.humbleprogrammer.e4.documents.GameDocument;
 import net.humbleprogrammer.e4.interfaces.*;
 import net.humbleprogrammer.humble.DBC;
 import net.humbleprogrammer.maxx.*;
@@ -56,9 +57,9 @@ public class PlayerHuman implements IBoardController, IPlayer
 	//	-----------------------------------------------------------------------
 
 	/** Color being played. */
-	private final int   _player;
-	/** Position */
-	private final Board _board;
+	private final int          _player;
+	/** Game being played. */
+	private final GameDocument _document;
 
 	/** Board presenter */
 	private IBoardPresenter _presenter;
@@ -74,17 +75,17 @@ public class PlayerHuman implements IBoardController, IPlayer
 	 *
 	 * @param player
 	 * 	[WHITE|BLACK]
-	 * @param bd
-	 * 	Board.
+	 * @param document
+	 * 	Game being played.
 	 */
-	public PlayerHuman( int player, Board bd )
+	public PlayerHuman( int player, GameDocument document )
 		{
 		DBC.require( (player == WHITE || player == BLACK), "Invalid Player" );
-		DBC.requireNotNull( bd, "Board" );
+		DBC.requireNotNull( document, "Document" );
 
 		s_log.debug( "{} ctor()", Parser.playerToString( player ) );
 		//	-----------------------------------------------------------------
-		_board = bd;
+		_document = document;
 		_player = player;
 		}
 
@@ -100,7 +101,7 @@ public class PlayerHuman implements IBoardController, IPlayer
 	@Override
 	public Board getPosition()
 		{
-		return _board;
+		return _document.getPosition();
 		}
 
 	/**
@@ -132,7 +133,18 @@ public class PlayerHuman implements IBoardController, IPlayer
 
 		assert _presenter != null;
 		//	-----------------------------------------------------------------
-		_movesLegal = new MoveList( _board );
+		_movesLegal = new MoveList( _document.getPosition() );
+		}
+
+	/**
+	 * Tells the player to stop thinking.
+	 */
+	@Override
+	public void stopThinking()
+		{
+		s_log.debug( "{} stop thinking.", Parser.playerToString( _player ) );
+		//	-----------------------------------------------------------------
+		_movesLegal = null;
 		}
 
 	}	/* end of class PlayerHuman */
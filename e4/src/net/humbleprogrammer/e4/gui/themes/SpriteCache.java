@@ -0,0 +1,240 @@
+/*****************************************************************************
+ **
+ ** @since 1.0
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.e4.gui.themes;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.humbleprogrammer.e4.interfaces.ITheme;
+import net.humbleprogrammer.humble.DBC;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link SpriteCache} class holds piece images that are already scaled to the
+ * square size, so painting a piece is a straight copy.
+ *
+ * Sprites are keyed by theme, piece, and square size.  The expensive multi-step
+ * scaling happens once per theme and size, and only the most recently used sets are
+ * kept, so a window being resized doesn't hold on to every size it passed through.
+ */
+@SuppressWarnings( "unused" )
+public final class SpriteCache
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	/** Number of piece sets (theme and size) to keep. */
+	private static final int MAX_SETS = 4;
+
+	//  -----------------------------------------------------------------------
+	//	STATIC DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Logger */
+	private static final Logger                  s_log  = LoggerFactory.getLogger( SpriteCache.class );
+	/** Piece sets, indexed by piece, in least-recently-used order. */
+	private static final Map<SetKey, Image[]>    s_sets = new LinkedHashMap<SetKey, Image[]>( 16, 0.75f, true )
+	{
+	@Override
+	protected boolean removeEldestEntry( Map.Entry<SetKey, Image[]> entry )
+		{
+		return size() > MAX_SETS;
+		}
+	};
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Private CTOR, since this class only has static methods.
+	 */
+	private SpriteCache()
+		{
+		/*
+		**	EMPTY CTOR
+		*/
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Discards all sprites.
+	 */
+	public static synchronized void clear()
+		{
+		s_sets.clear();
+		}
+
+	/**
+	 * Gets a piece sprite.
+	 *
+	 * @param theme
+	 * 	Theme.
+	 * @param piece
+	 * 	Piece [W_PAWN..B_KING].
+	 * @param iSqDim
+	 * 	Square size, in pixels.
+	 *
+	 * @return Sprite exactly <code>iSqDim</code> pixels square, or <code>null</code> if
+	 * the theme has no piece set.
+	 */
+	public static synchronized Image getSprite( ITheme theme, int piece, int iSqDim )
+		{
+		DBC.requireNotNull( theme, "Theme" );
+		DBC.require( piece >= MAP_W_PAWN && piece <= MAP_B_KING, "Invalid piece" );
+		DBC.requireGreaterThanZero( iSqDim, "Square size" );
+		//	-----------------------------------------------------------------
+		final SetKey key = new SetKey( theme, iSqDim );
+		Image[] sprites = s_sets.get( key );
+
+		if (sprites == null)
+			{
+			if ((sprites = createSprites( theme, iSqDim )) == null)
+				return null;
+
+			s_sets.put( key, sprites );
+			}
+
+		return sprites[ piece ];
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Cuts a scaled piece set into sprites.
+	 *
+	 * @param theme
+	 * 	Theme.
+	 * @param iSqDim
+	 * 	Square size, in pixels.
+	 *
+	 * @return Array of sprites, indexed by piece, or <code>null</code> on error.
+	 */
+	private static Image[] createSprites( ITheme theme, int iSqDim )
+		{
+		final Image imgPieces = theme.getPieceSet( iSqDim );
+
+		if (imgPieces == null) return null;
+		//	-----------------------------------------------------------------
+		final GraphicsConfiguration config = GraphicsEnvironment.isHeadless()
+											 ? null
+											 : GraphicsEnvironment.getLocalGraphicsEnvironment()
+																  .getDefaultScreenDevice()
+																  .getDefaultConfiguration();
+		final Image[] sprites = new Image[ MAP_B_KING + 1 ];
+
+		for ( int piece = MAP_W_PAWN; piece <= MAP_B_KING; ++piece )
+			{
+			//
+			//	The piece set has the White pieces on the top row and the Black pieces on
+			//	the bottom row, each ordered Pawn, Knight, Bishop, Rook, Queen, King.
+			//
+			final int iSrcX = iSqDim * ((piece - MAP_W_PAWN) >> 1);
+			final int iSrcY = iSqDim * (piece & 1);
+			final BufferedImage img = (config != null)
+									  ? config.createCompatibleImage( iSqDim, iSqDim, Transparency.TRANSLUCENT )
+									  : new BufferedImage( iSqDim, iSqDim, BufferedImage.TYPE_INT_ARGB );
+			final Graphics2D gfx = img.createGraphics();
+
+			try
+				{
+				gfx.setComposite( AlphaComposite.Src );
+				gfx.drawImage( imgPieces,
+							   0, 0, iSqDim, iSqDim,
+							   iSrcX, iSrcY, iSrcX + iSqDim, iSrcY + iSqDim,
+							   null );
+				}
+			finally
+				{
+				gfx.dispose();
+				}
+
+			sprites[ piece ] = img;
+			}
+
+		s_log.debug( "SpriteCache => created {} pixel sprites.", iSqDim );
+		return sprites;
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: SetKey
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Identifies a piece set by theme and square size.
+	 */
+	private static final class SetKey
+		{
+		private final ITheme _theme;
+		private final int    _iSqDim;
+
+		SetKey( ITheme theme, int iSqDim )
+			{
+			_theme = theme;
+			_iSqDim = iSqDim;
+			}
+
+		@Override
+		public boolean equals( Object obj )
+			{
+			if (!(obj instanceof SetKey)) return false;
+
+			SetKey key = (SetKey) obj;
+
+			return (key._theme == _theme && key._iSqDim == _iSqDim);
+			}
+
+		@Override
+		public int hashCode()
+			{
+			return (System.identityHashCode( _theme ) * 31) + _iSqDim;
+			}
+		}
+	}	/* end of class SpriteCache */
+/*****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
@@ -0,0 +1,462 @@
+/*****************************************************************************
+ **
+ ** @since 1.0
+ **
+ ******************************************************************************/
+package net.humbleprogrammer.e4.gui.views;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import javax.swing.*;
+import javax.swing.Timer;
+
+import net.humbleprogrammer.e4.App;
+import net.humbleprogrammer.e4.documents.GameDocument;
+import net.humbleprogrammer.e4.gui.SwingUtil;
+import net.humbleprogrammer.e4.gui.helpers.Command;
+import net.humbleprogrammer.humble.GfxUtil;
+import net.humbleprogrammer.maxx.*;
+import net.humbleprogrammer.maxx.factories.MoveFactory;
+import net.humbleprogrammer.maxx.interfaces.ISearchListener;
+
+import static net.humbleprogrammer.maxx.Constants.*;
+
+/**
+ * The {@link AnalysisView} window analyses the current position until the position
+ * changes or the window is closed.
+ *
+ * The engine never waits on the GUI: each line it finds just replaces a snapshot, and
+ * a Swing timer shows the newest snapshot every {@link #REFRESH_MILLISECS}.  However
+ * fast lines arrive, the GUI formats and paints at most ten times a second.
+ */
+@SuppressWarnings( "deprecation" )
+public class AnalysisView extends JDialog implements Observer, ISearchListener
+	{
+
+	//  -----------------------------------------------------------------------
+	//	CONSTANTS
+	//	-----------------------------------------------------------------------
+
+	private static final long serialVersionUID = 20161019L;
+
+	/** Number of lines shown. */
+	private static final int  LINES             = 3;
+	/** Minimum window height, in pixels. */
+	private static final int  MIN_HEIGHT        = 96;
+	/** Minimum window width, in pixels. */
+	private static final int  MIN_WIDTH         = 196;
+	/** Time between display updates, in milliseconds. */
+	private static final int  REFRESH_MILLISECS = 100;
+	/** Transposition table size, in megabytes. */
+	private static final int  TT_MEGABYTES      = 64;
+
+	//  -----------------------------------------------------------------------
+	//	DECLARATIONS
+	//	-----------------------------------------------------------------------
+
+	/** Background thread that runs the search. */
+	private final ExecutorService _executor = Executors.newSingleThreadExecutor( new ThreadFactory()
+	{
+	@Override
+	public Thread newThread( Runnable runnable )
+		{
+		Thread thread = new Thread( runnable, "Analysis" );
+
+		thread.setDaemon( true );
+		return thread;
+		}
+	} );
+	/** Search engine. */
+	private final Search    _search  = new Search( new TranspositionTable( TT_MEGABYTES ) );
+	/** Status line: depth, nodes, speed. */
+	private final JLabel    _status  = new JLabel( " " );
+	/** Analysis lines. */
+	private final JTextArea _text    = new JTextArea( LINES, 48 );
+	/** Refreshes the display from {@link #_snapshot}. */
+	private final Timer     _timer   = new Timer( REFRESH_MILLISECS, new ActionListener()
+	{
+	@Override
+	public void actionPerformed( ActionEvent event )
+		{
+		refresh();
+		}
+	} );
+
+	/** Newest lines from the search; written by the engine thread. */
+	private volatile Snapshot     _snapshot;
+	/** Snapshot currently on screen; only used on the event dispatch thread. */
+	private          Snapshot     _snapshotShown;
+	/** Document being analysed. */
+	private          GameDocument _document;
+	/** Time manager for the current search, or <code>null</code>; read by the engine thread. */
+	private volatile TimeManager  _tm;
+	/** .T. if window location needs to be set; .F. otherwise. */
+	private          boolean      _bNeedLocation = true;
+
+	/** Lines of the iteration in progress; only used on the engine thread. */
+	private final List<PV>    _lines  = new ArrayList<>( LINES );
+	/** Scores of the iteration in progress; only used on the engine thread. */
+	private final int[]       _scores = new int[ LINES ];
+	/** Position being searched; only used on the engine thread. */
+	private       Board       _bdRoot;
+	/** Time manager of the search that is running; only used on the engine thread. */
+	private       TimeManager _tmRoot;
+	/** Lines per iteration; only used on the engine thread. */
+	private       int         _iLines;
+
+	//  -----------------------------------------------------------------------
+	//	CTOR
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Default CTOR.
+	 *
+	 * @param owner
+	 * 	Frame that owns this view.
+	 */
+	public AnalysisView( Frame owner )
+		{
+		super( owner );
+		/*
+		**	CODE
+		*/
+		_search.setMultiPV( LINES );
+		_search.addListener( this );
+		_timer.setCoalesce( true );
+
+		createUI( getContentPane() );
+
+		pack();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Sets the document to analyse.
+	 *
+	 * @param document
+	 * 	Game document, or <code>null</code> to stop analysing.
+	 */
+	public void setDocument( GameDocument document )
+		{
+		if (_document != null)
+			_document.deleteObserver( this );
+
+		_document = document;
+
+		if (_document != null)
+			_document.addObserver( this );
+
+		restart();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: ISearchListener
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * A line has been found.  Called on the engine thread, so all this does is
+	 * publish a snapshot once the iteration's last line arrives.  A search that has
+	 * been stopped may still report a line or two; those lines are dropped.
+	 */
+	@Override
+	public void onLine( final int iDepth, final int iRank, final int iScore, final PV pv,
+						final long lNodes, final long lMillisecs )
+		{
+		if (_tmRoot != _tm) return;
+		//	-----------------------------------------------------------------
+		if (iRank == 1)
+			_lines.clear();
+
+		_lines.add( pv );
+		_scores[ iRank - 1 ] = iScore;
+
+		if (iRank == _iLines)
+			{
+			_snapshot = new Snapshot( _tmRoot, _bdRoot, iDepth, new ArrayList<>( _lines ),
+									  Arrays.copyOf( _scores, _lines.size() ), lNodes, lMillisecs );
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	INTERFACE: Observer
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Called when the document changes; the analysis starts over.
+	 *
+	 * @param obj
+	 * 	Document object.
+	 * @param arg
+	 * 	(not used)
+	 */
+	@Override
+	public void update( Observable obj, Object arg )
+		{
+		restart();
+		}
+
+	//  -----------------------------------------------------------------------
+	//	IMPLEMENTATION
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Creates all of the UI elements.
+	 *
+	 * @param content
+	 * 	Content pane that all the elements will be added to.
+	 */
+	private void createUI( Container content )
+		{
+		assert content != null;
+		/*
+		**	CODE
+		*/
+		setDefaultCloseOperation( JFrame.HIDE_ON_CLOSE );
+		setMinimumSize( new Dimension( MIN_WIDTH, MIN_HEIGHT ) );
+		setRootPaneCheckingEnabled( true );
+		setTitle( App.getName() + " Analysis" );
+
+		_text.setEditable( false );
+		_text.setFont( new Font( Font.MONOSPACED, Font.PLAIN, 12 ) );
+
+		content.add( _status, BorderLayout.NORTH );
+		content.add( new JScrollPane( _text ), BorderLayout.CENTER );
+		//
+		//	Only search while the window is showing.
+		//
+		addComponentListener( new ComponentAdapter()
+		{
+		@Override
+		public void componentShown( ComponentEvent event )
+			{
+			restart();
+			}
+
+		@Override
+		public void componentHidden( ComponentEvent event )
+			{
+			restart();
+			}
+		} );
+
+		pack();
+		}
+
+	/**
+	 * Shows the newest snapshot, if it hasn't been shown already.
+	 */
+	private void refresh()
+		{
+		final Snapshot snapshot = _snapshot;
+
+		if (snapshot == null || snapshot == _snapshotShown || snapshot.tm != _tm) return;
+		//	-----------------------------------------------------------------
+		final StringBuilder sb = new StringBuilder();
+
+		for ( int idx = 0; idx < snapshot.lines.size(); ++idx )
+			{
+			final Board bd = new Board( snapshot.board );
+
+			if (idx > 0)
+				sb.append( '\n' );
+
+			sb.append( formatScore( snapshot.scores[ idx ], bd.getMovingPlayer() ) );
+
+			for ( Move move : snapshot.lines.get( idx ) )
+				{
+				sb.append( ' ' ).append( MoveFactory.toSAN( bd, move, true ) );
+				bd.makeMove( move );
+				}
+			}
+
+		_status.setText( String.format( "Depth %d   Nodes %,d   %,d kN/s",
+										snapshot.iDepth,
+										snapshot.lNodes,
+										snapshot.lNodes / Math.max( 1L, snapshot.lMillisecs ) ) );
+		_text.setText( sb.toString() );
+		_text.setCaretPosition( 0 );
+		_snapshotShown = snapshot;
+		}
+
+	/**
+	 * Stops the current search, and starts a new one if the window is showing.
+	 */
+	private void restart()
+		{
+		if (_tm != null)
+			{
+			_tm.stop();
+			_tm = null;
+			}
+
+		_snapshot = null;
+		_snapshotShown = null;
+
+		if (!isVisible() || _document == null)
+			{
+			_timer.stop();
+			return;
+			}
+
+		final Board bd = new Board( _document.getPosition() );
+		final TimeManager tm = new TimeManager();
+
+		_tm = tm;
+		_status.setText( "Analysing..." );
+		_text.setText( "" );
+		_timer.restart();
+
+		if (Arbiter.isMated( bd ) || Arbiter.isStalemated( bd ))
+			{
+			_status.setText( "Game over." );
+			return;
+			}
+
+		_executor.execute( new Runnable()
+		{
+		@Override
+		public void run()
+			{
+			if (tm.isStopped()) return;
+
+			_tmRoot = tm;
+			_bdRoot = bd;
+			_iLines = Math.min( LINES, new MoveList( bd ).size() );
+			_search.think( new Board( bd ), tm );
+			}
+		} );
+		}
+
+	/**
+	 * Formats a score from White's point of view.
+	 *
+	 * @param iScore
+	 * 	Score, from the moving player's point of view.
+	 * @param player
+	 * 	Moving player [WHITE|BLACK].
+	 *
+	 * @return Score string, e.g., "+0.35" or "#-3".
+	 */
+	private static String formatScore( int iScore, int player )
+		{
+		if (player == BLACK)
+			iScore = -iScore;
+
+		if (!Evaluator.isMateScore( iScore ))
+			return String.format( "%+6.2f", iScore / 100.0 );
+
+		int iPlies = MAX_SCORE - Math.abs( iScore );
+
+		return String.format( "%6s", ((iScore > 0) ? "#" : "#-") + ((iPlies + 1) / 2) );
+		}
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: Snapshot
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * The lines of one completed iteration.  Immutable once published.
+	 */
+	private static final class Snapshot
+		{
+		final TimeManager tm;
+		final Board       board;
+		final int         iDepth;
+		final List<PV>    lines;
+		final int[]       scores;
+		final long        lNodes;
+		final long        lMillisecs;
+
+		Snapshot( TimeManager tm, Board board, int iDepth, List<PV> lines, int[] scores, long lNodes,
+				  long lMillisecs )
+			{
+			this.tm = tm;
+			this.board = board;
+			this.iDepth = iDepth;
+			this.lines = lines;
+			this.scores = scores;
+			this.lNodes = lNodes;
+			this.lMillisecs = lMillisecs;
+			}
+		}
+
+	//  -----------------------------------------------------------------------
+	//	COMMAND: ToggleAnalysis
+	//	-----------------------------------------------------------------------
+
+	@SuppressWarnings( "unused" )
+	private final Command cmdToggleAnalysis = new Command( Command.ID.TOGGLE_ANALYSIS,
+														   "Analysis Window",
+														   "Shows or hides the Analysis window.",
+														   null, KeyEvent.VK_A )
+	{
+	@Override
+	public void run()
+		{
+		s_log.debug( "cmdToggleAnalysis" );
+		/*
+		**	CODE
+		*/
+		boolean bShow = !isVisible();
+
+		if (bShow && _bNeedLocation)
+			{
+			Rectangle rFrame = App.getFrame().getBounds();
+
+			setBounds( (int) (rFrame.getMaxX() + GfxUtil.MARGIN_THICK),
+					   (int) (rFrame.getMinY() + (rFrame.height / 2) + GfxUtil.MARGIN_THICK),
+					   rFrame.width, (rFrame.height / 4) );
+
+			if (!SwingUtil.getDesktopBounds().contains( rFrame ))
+				setLocationByPlatform( true );
+
+			_bNeedLocation = false;
+			}
+
+		setVisible( bShow );
+		}
+
+	@Override
+	public void update()
+		{
+		setChecked( isVisible() );
+		}
+	};
+	}	/* end of class AnalysisView */
+/*****************************************************************************
+ **
+ ** @author Lee Neuse (coder@humbleprogrammer.net)
+ **
+ **	---------------------------- [License] ----------------------------------
+ **	This work is licensed under the Creative Commons Attribution-NonCommercial-
+ **	ShareAlike 3.0 Unported License. To view a copy of this license, visit
+ **				http://creativecommons.org/licenses/by-nc-sa/3.0/
+ **	or send a letter to Creative Commons, 444 Castro Street Suite 900, Mountain
+ **	View, California, 94041, USA.
+ **	--------------------- [Disclaimer of Warranty] --------------------------
+ **	There is no warranty for the program, to the extent permitted by applicable
+ **	law.  Except when otherwise stated in writing the copyright holders and/or
+ **	other parties provide the program "as is" without warranty of any kind,
+ **	either expressed or implied, including, but not limited to, the implied
+ **	warranties of merchantability and fitness for a particular purpose.  The
+ **	entire risk as to the quality and performance of the program is with you.
+ **	Should the program prove defective, you assume the cost of all necessary
+ **	servicing, repair or correction.
+ **	-------------------- [Limitation of Liability] --------------------------
+ **	In no event unless required by applicable law or agreed to in writing will
+ **	any copyright holder, or any other party who modifies and/or conveys the
+ **	program as permitted above, be liable to you for damages, including any
+ **	general, special, incidental or consequential damages arising out of the
+ **	use or inability to use the program (including but not limited to loss of
+ **	data or data being rendered inaccurate or losses sustained by you or third
+ **	parties or a failure of the program to operate with any other programs),
+ **	even if such holder or other party has been advised of the possibility of
+ **	such damages.
+ **
+ ******************************************************************************/
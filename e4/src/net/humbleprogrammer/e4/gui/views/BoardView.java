@@ -7,6 +7,7 @@ package net.humbleprogrammer.e4.gui.views;
 
 import java.awt.*;
 import java.awt.geom.GeneralPath;
+import java.awt.image.VolatileImage;
 import java.util.Observable;
 import java.util.Observer;
 import javax.swing.*;
@@ -15,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.humbleprogrammer.e4.gui.helpers.Command;
+import net.humbleprogrammer.e4.gui.themes.SpriteCache;
 import net.humbleprogrammer.e4.gui.themes.ThemeManager;
 import net.humbleprogrammer.e4.interfaces.*;
 import net.humbleprogrammer.humble.DBC;
@@ -57,6 +59,8 @@ public class BoardView
 	private final Rectangle   _rOuter = new Rectangle();
 	/** Array of square rectangles. */
 	private final Rectangle[] _rSq    = new Rectangle[ 64 ];
+	/** Pieces as last shown, used to find the squares that a move changed. */
+	private final int[]       _pieces = new int[ 64 ];
 
 	/** .T. of Black player is on top; .F. if White. */
 	private boolean _bBlackOnTop     = true;
@@ -72,8 +76,12 @@ public class BoardView
 	private long             _bbSelected;
 	/** Board controller. */
 	private IBoardController _controller;
-	/** Current piece set. */
-	private Image            _imgPieces;
+	/** Cached background: squares, border, and labels. */
+	private VolatileImage    _imgBoard;
+	/** .T. if the cached background has to be redrawn; .F. otherwise. */
+	private boolean          _bBoardDirty     = true;
+	/** Theme the cached background was drawn with. */
+	private ITheme           _themeBoard;
 
 	//  -----------------------------------------------------------------------
 	//	CTOR
@@ -111,8 +119,13 @@ public class BoardView
 
 		adjustLayout();
 
-		drawBoard( gfx, theme, rClip );
-		drawLabels( gfx, theme, rClip );
+		if (theme != _themeBoard)
+			{
+			_themeBoard = theme;
+			_bBoardDirty = true;
+			}
+
+		drawBackground( gfx, theme, rClip );
 
 		if (_controller != null)
 			{
@@ -205,11 +218,33 @@ public class BoardView
 	@Override
 	public void update( Observable obj, Object arg )
 		{
-		assert obj == _controller;
+		assert obj != null;
 		/*
 		**	CODE
 		*/
-		repaint();
+		if (_controller == null || _iSqDim < 0)
+			{
+			repaint();
+			return;
+			}
+		//
+		//	Only repaint the squares that changed, plus both move indicators.
+		//
+		final Board bd = _controller.getPosition();
+
+		for ( int iSq = 0; iSq < 64; ++iSq )
+			{
+			final int piece = bd.get( iSq );
+
+			if (piece != _pieces[ iSq ])
+				{
+				_pieces[ iSq ] = piece;
+				repaint( _rSq[ iSq ] );
+				}
+			}
+
+		repaint( getIndicatorBounds( true ) );
+		repaint( getIndicatorBounds( false ) );
 		}
 
 	//  -----------------------------------------------------------------------
@@ -236,11 +271,12 @@ public class BoardView
 		else
 			{
 			_iSqDim = iSqDim;
-			_imgPieces = null;
 
 			s_log.debug( "BoardView => square size is {} pixels.", iSqDim );
 			}
 
+		_bBoardDirty = true;
+
 		_rOuter.setSize( (iSqDim * 9), (iSqDim * 9) );
 		GfxUtil.centerRectangle( _rOuter, getBounds() );
 
@@ -283,6 +319,88 @@ public class BoardView
 		setComponentPopupMenu( popMenu );
 		}
 
+	/**
+	 * Draws the background from the cached image, redrawing the cache first if the
+	 * layout or theme changed, or if the image contents were lost.
+	 *
+	 * @param gfx
+	 * 	Graphics context to draw into.
+	 * @param theme
+	 * 	Theme.
+	 * @param rClip
+	 * 	Clip rectangle.
+	 */
+	private void drawBackground( Graphics2D gfx, final ITheme theme, final Rectangle rClip )
+		{
+		assert gfx != null;
+		assert theme != null;
+		assert rClip != null;
+
+		final int iHeight = getHeight();
+		final int iWidth = getWidth();
+
+		if (rClip.isEmpty() || iHeight <= 0 || iWidth <= 0)
+			return;
+		/*
+		**	CODE
+		*/
+		do
+			{
+			final int iStatus = (_imgBoard != null)
+								? _imgBoard.validate( getGraphicsConfiguration() )
+								: VolatileImage.IMAGE_INCOMPATIBLE;
+
+			if (iStatus == VolatileImage.IMAGE_INCOMPATIBLE ||
+				_imgBoard.getWidth() != iWidth || _imgBoard.getHeight() != iHeight)
+				{
+				if (_imgBoard != null)
+					_imgBoard.flush();
+
+				if ((_imgBoard = createVolatileImage( iWidth, iHeight )) == null)
+					{
+					//	Not displayable yet, so draw straight to the screen.
+					drawBoard( gfx, theme, rClip );
+					drawLabels( gfx, theme, rClip );
+					return;
+					}
+
+				_bBoardDirty = true;
+				}
+			else if (iStatus == VolatileImage.IMAGE_RESTORED)
+				{
+				_bBoardDirty = true;
+				}
+
+			if (_bBoardDirty)
+				{
+				final Graphics2D gfxBoard = _imgBoard.createGraphics();
+				final Rectangle rAll = new Rectangle( 0, 0, iWidth, iHeight );
+
+				try
+					{
+					gfxBoard.setRenderingHints( GfxUtil.getQualityRenderingHints() );
+					gfxBoard.setColor( getBackground() );
+					gfxBoard.fill( rAll );
+
+					drawBoard( gfxBoard, theme, rAll );
+					drawLabels( gfxBoard, theme, rAll );
+					}
+				finally
+					{
+					gfxBoard.dispose();
+					}
+
+				_bBoardDirty = false;
+				}
+
+			gfx.drawImage( _imgBoard,
+						   rClip.x, rClip.y, rClip.x + rClip.width, rClip.y + rClip.height,
+						   rClip.x, rClip.y, rClip.x + rClip.width, rClip.y + rClip.height,
+						   null );
+			}
+		while ( _imgBoard.contentsLost() );
+		}
+
 	/**
 	 * Draws the board.
 	 *
@@ -414,13 +532,10 @@ public class BoardView
 		**	CODE
 		*/
 		final boolean bAtTop = bWhiteToMove ^ _bBlackOnTop;
-		final Rectangle rCorner = new Rectangle( (_iSqDim / 2), (_iSqDim / 2) );
+		final Rectangle rCorner = getIndicatorBounds( bAtTop );
 		final Rectangle rMarker = new Rectangle( (int) (0.75 * rCorner.width),
 												 (int) (0.90 * rCorner.height) );
 
-		rCorner.x = (int) _rInner.getMaxX();
-		rCorner.y = (int) (bAtTop ? _rOuter.getMinY() : _rInner.getMaxY());
-
 		GfxUtil.centerRectangle( rMarker, rCorner );
 
 		if (rMarker.isEmpty() || !rClip.intersects( rMarker ))
@@ -470,7 +585,7 @@ public class BoardView
 		}
 
 	/**
-	 * Draws the move indicator.
+	 * Draws the pieces, straight from the sprite cache.
 	 *
 	 * @param gfx
 	 * 	Graphics context to draw into.
@@ -491,36 +606,41 @@ public class BoardView
 		/*
 		**	CODE
 		*/
-		if (_imgPieces == null)
-			_imgPieces = theme.getPieceSet( _iSqDim );
-
-		if (_imgPieces == null || rClip.isEmpty())
-			return;
-
 		for ( int iSq = 0; iSq < 64; ++iSq )
 			{
 			final int piece = bd.get( iSq );
-			final Rectangle rSq = new Rectangle( _rSq[ iSq ] );
+			final Rectangle rSq = _rSq[ iSq ];
+
+			_pieces[ iSq ] = piece;
 
 			if (piece != EMPTY && rClip.intersects( rSq ))
 				{
-				//
-				//	Compute the offset into the piece bitmap, which expects the White pieces on the top
-				//	row, and the Black pieces on the bottom row.  Each row then has the pieces ordered
-				//	Pawn, Knight, Bishop, Rook, Queen, King.
-				//
-				Point ptSrc = new Point( _iSqDim * ((piece - MAP_W_PAWN) >> 1),
-										 _iSqDim * (piece & 1) );
-
-				gfx.drawImage( _imgPieces,
-							   rSq.x, rSq.y, rSq.x + _iSqDim, rSq.y + _iSqDim,
-							   ptSrc.x, ptSrc.y, ptSrc.x + _iSqDim, ptSrc.y + _iSqDim,
-							   null );
+				final Image imgSprite = SpriteCache.getSprite( theme, piece, _iSqDim );
 
+				if (imgSprite != null)
+					gfx.drawImage( imgSprite, rSq.x, rSq.y, null );
 				}
 			}
 		}
 
+	/**
+	 * Gets the bounds of a move indicator, in the corner to the right of the board.
+	 *
+	 * @param bAtTop
+	 * 	.T. for the top indicator; .F. for the bottom one.
+	 *
+	 * @return Bounding rectangle.
+	 */
+	private Rectangle getIndicatorBounds( boolean bAtTop )
+		{
+		final Rectangle rCorner = new Rectangle( (_iSqDim / 2), (_iSqDim / 2) );
+
+		rCorner.x = (int) _rInner.getMaxX();
+		rCorner.y = (int) (bAtTop ? _rOuter.getMinY() : _rInner.getMaxY());
+
+		return rCorner;
+		}
+
 	/**
 	 * Converts a file to it's display file, which respects the "Black on Top" flag.
 	 *
@@ -632,6 +752,7 @@ public class BoardView
 		**	CODE
 		*/
 		_bShowLabels = !_bShowLabels;
+		_bBoardDirty = true;
 
 		repaint();
 		update();
@@ -7,6 +7,10 @@ package net.humbleprogrammer.e4.gui.views;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.*;
 
 import net.humbleprogrammer.e4.App;
@@ -21,6 +25,8 @@ public class ConsoleView extends JDialog
 	//	CONSTANTS
 	//	-----------------------------------------------------------------------
 
+	/** Number of lines kept; older lines are discarded. */
+	private static final int MAX_LINES  = 5000;
 	/** Minimum window height, in pixels. */
 	private static final int MIN_HEIGHT = 128;
 	/** Minimum window width, in pixels. */
@@ -30,6 +36,24 @@ public class ConsoleView extends JDialog
 	//	DECLARATIONS
 	//	-----------------------------------------------------------------------
 
+	/** Lines waiting to be added on the event dispatch thread. */
+	private final Queue<String>    _pending    = new ConcurrentLinkedQueue<>();
+	/** .T. if a flush is already queued on the event dispatch thread. */
+	private final AtomicBoolean    _bScheduled = new AtomicBoolean();
+	/** Console lines. */
+	private final LogModel         _model      = new LogModel( MAX_LINES );
+	/** Console list; only the visible rows are ever rendered. */
+	private final JList<String>    _list       = new JList<>( _model );
+	/** Flushes {@link #_pending} into the model. */
+	private final Runnable         _flush      = new Runnable()
+	{
+	@Override
+	public void run()
+		{
+		flush();
+		}
+	};
+
 	/** .T. if window location needs to be set; .F. otherwise. */
 	private boolean _bNeedLocation = true;
 
@@ -54,10 +78,74 @@ public class ConsoleView extends JDialog
 		pack();
 		}
 
+	//  -----------------------------------------------------------------------
+	//	PUBLIC METHODS
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * Appends a line of text.  Safe to call from any thread.
+	 *
+	 * The line is queued, and all the lines queued by the time the event dispatch
+	 * thread gets to them are added in a single batch, so a busy engine costs one
+	 * model update per event cycle rather than one per line.
+	 *
+	 * @param strLine
+	 * 	Text to append.
+	 */
+	public void appendLine( final String strLine )
+		{
+		if (strLine == null) return;
+		/*
+		**	CODE
+		*/
+		_pending.add( strLine );
+
+		if (_bScheduled.compareAndSet( false, true ))
+			SwingUtilities.invokeLater( _flush );
+		}
+
 	//  -----------------------------------------------------------------------
 	//	IMPLEMENTATION
 	//	-----------------------------------------------------------------------
 
+	/**
+	 * Moves all the pending lines into the model.  Runs on the event dispatch thread.
+	 */
+	private void flush()
+		{
+		assert SwingUtilities.isEventDispatchThread();
+		/*
+		**	CODE
+		*/
+		_bScheduled.set( false );
+		//
+		//	Only the newest MAX_LINES lines could survive, so don't bother adding the
+		//	rest to the model.
+		//
+		final ArrayDeque<String> lines = new ArrayDeque<>();
+		String strLine;
+
+		while ( (strLine = _pending.poll()) != null )
+			{
+			if (lines.size() == MAX_LINES)
+				lines.removeFirst();
+
+			lines.addLast( strLine );
+			}
+
+		if (lines.isEmpty()) return;
+		//
+		//	Follow the output only if the user hasn't scrolled away from the end.
+		//
+		final int iLast = _model.getSize() - 1;
+		final boolean bFollow = (iLast < 0 || _list.getLastVisibleIndex() >= iLast);
+
+		_model.append( lines );
+
+		if (bFollow && isVisible())
+			_list.ensureIndexIsVisible( _model.getSize() - 1 );
+		}
+
 	/**
 	 * Creates all of the UI elements.
 	 *
@@ -75,6 +163,16 @@ public class ConsoleView extends JDialog
 		setRootPaneCheckingEnabled( true );
 		setTitle( App.getName() + " Console" );
 
+		final Font font = new Font( Font.MONOSPACED, Font.PLAIN, 12 );
+		//
+		//	Fixed-height cells let the list find the visible rows without measuring
+		//	every line.
+		//
+		_list.setFont( font );
+		_list.setFixedCellHeight( _list.getFontMetrics( font ).getHeight() );
+		_list.setSelectionMode( ListSelectionModel.SINGLE_INTERVAL_SELECTION );
+		content.add( new JScrollPane( _list ), BorderLayout.CENTER );
+
 		pack();
 		}
 
@@ -120,6 +218,78 @@ public class ConsoleView extends JDialog
 		setChecked( isVisible() );
 		}
 	};
+
+	//  -----------------------------------------------------------------------
+	//	NESTED CLASS: LogModel
+	//	-----------------------------------------------------------------------
+
+	/**
+	 * A list model that keeps the newest lines in a fixed-size ring buffer.
+	 * Only used on the event dispatch thread.
+	 */
+	private static final class LogModel extends AbstractListModel<String>
+		{
+		private static final long serialVersionUID = 20161019L;
+
+		/** Ring buffer. */
+		private final String[] _lines;
+
+		/** Index of the oldest line. */
+		private int _iHead;
+		/** Number of lines held. */
+		private int _iCount;
+
+		LogModel( int iCapacity )
+			{
+			_lines = new String[ iCapacity ];
+			}
+
+		/**
+		 * Appends a batch of lines, discarding the oldest ones to make room.
+		 *
+		 * @param lines
+		 * 	Lines to append; never more than the capacity.
+		 */
+		void append( Iterable<String> lines )
+			{
+			final int iCapacity = _lines.length;
+			int iAdded = 0;
+			int iRemoved = 0;
+
+			for ( String strLine : lines )
+				{
+				_lines[ (_iHead + _iCount) % iCapacity ] = strLine;
+
+				if (_iCount < iCapacity)
+					++_iCount;
+				else
+					{
+					_iHead = (_iHead + 1) % iCapacity;
+					++iRemoved;
+					}
+
+				++iAdded;
+				}
+
+			if (iRemoved > 0)
+				fireIntervalRemoved( this, 0, iRemoved - 1 );
+
+			if (iAdded > 0)
+				fireIntervalAdded( this, _iCount - iAdded, _iCount - 1 );
+			}
+
+		@Override
+		public String getElementAt( int index )
+			{
+			return _lines[ (_iHead + index) % _lines.length ];
+			}
+
+		@Override
+		public int getSize()
+			{
+			return _iCount;
+			}
+		}
 	}	/* end of class ConsoleView */
 /*****************************************************************************
  **
@@ -9,9 +9,17 @@ public interface IPlayer
 	{
 
 	/**
-	 * Tells the player to start thinking.
+	 * Tells the player to start thinking.  The call returns at once; the chosen
+	 * move is delivered later, on the event dispatch thread, through the player's
+	 * {@link IMoveListener}.
 	 */
 	void startThinking();
+
+	/**
+	 * Tells the player to stop thinking and forget the move it was working on.
+	 * Called on a new game or a take back; no move is delivered afterward.
+	 */
+	void stopThinking();
 	}	/* end of interface IPlayer */
 /*****************************************************************************
  **